@@ -0,0 +1,73 @@
+package com.tracker.benchmarks.action;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.service.DynamicWorkflowActionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.state.ObjectState;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the actions built by {@link DynamicWorkflowActionFactory#createAction}, per action type,
+ * and the cost of building one. Repositories are in-memory stubs (see {@link InMemoryWorkflow}), so
+ * the numbers cover assignment resolution, entity construction and logging but not SQL.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar DynamicActionBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicActionBenchmark {
+
+    @Param({"CREATE_TASK_GROUP", "CREATE_SINGLE_TASK", "COMPLETE_PROCESS", "SEND_NOTIFICATION"})
+    public String actionType;
+
+    private DynamicWorkflowActionFactory actionFactory;
+    private Map<String, Object> actionConfig;
+    private Action<String, String> action;
+    private StateContext<String, String> stateContext;
+
+    @Setup
+    public void setUp() {
+        actionFactory = new InMemoryWorkflow().getActionFactory();
+        actionConfig = Map.of("type", actionType, "recipient", "user1", "message", "Task assigned");
+        action = actionFactory.createAction(actionConfig);
+
+        DefaultExtendedState extendedState = new DefaultExtendedState();
+        extendedState.getVariables().put("processInstanceId", "benchmark-process");
+        extendedState.getVariables().put("processData", InMemoryWorkflow.processData());
+        stateContext = new DefaultStateContext<>(StateContext.Stage.TRANSITION,
+            MessageBuilder.withPayload("PLANNING_BUSINESS_SUBMIT").build(), null, extendedState, null, null,
+            new ObjectState<>("PENDING_PLANNING_BUSINESS_REVIEW"), new ObjectState<>("PENDING_PLANNING_FINANCE_APPROVAL"),
+            null);
+    }
+
+    @Benchmark
+    public Action<String, String> createAction() {
+        return actionFactory.createAction(actionConfig);
+    }
+
+    @Benchmark
+    public void execute() {
+        action.execute(stateContext);
+    }
+}
@@ -0,0 +1,69 @@
+package com.tracker.benchmarks.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures both {@code MapToJsonConverter} copies, {@code com.tracker.shared.util} and
+ * {@code com.tracker.workflow.util}, in both directions on a typical process-data payload.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar MapToJsonConverterBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapToJsonConverterBenchmark {
+
+    @Param({"shared", "workflow"})
+    public String converterModule;
+
+    private AttributeConverter<Map<String, Object>, String> converter;
+    private Map<String, Object> attribute;
+    private String column;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        converter = converterModule.equals("shared")
+            ? new com.tracker.shared.util.MapToJsonConverter(objectMapper)
+            : new com.tracker.workflow.util.MapToJsonConverter(objectMapper);
+
+        attribute = new LinkedHashMap<>();
+        attribute.put("amount", 1500.0);
+        attribute.put("department", "engineering");
+        attribute.put("priority", "HIGH");
+        attribute.put("requestor", "user1");
+        attribute.put("approvers", List.of("user2", "user3"));
+        attribute.put("budget", Map.of("capex", Map.of("amount", 2500, "currency", "USD")));
+        column = converter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public String toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public Map<String, Object> toEntityAttribute() {
+        return converter.convertToEntityAttribute(column);
+    }
+}
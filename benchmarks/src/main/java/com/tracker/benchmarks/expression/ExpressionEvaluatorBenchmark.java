@@ -0,0 +1,71 @@
+package com.tracker.benchmarks.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.service.WorkflowExpressionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WorkflowExpressionEvaluator#evaluate} as guards and rules call it: by expression
+ * source, through the compiled-expression cache, with the configured backends.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ExpressionEvaluatorBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionEvaluatorBenchmark {
+
+    @Param({
+        "{\"amount\": {\"$gte\": 1000}}",
+        "{\"$and\": [{\"amount\": {\"$gte\": 500, \"$lt\": 50000}}, {\"department\": {\"$in\": [\"sales\", \"marketing\", \"engineering\"]}}, {\"$not\": {\"priority\": \"LOW\"}}]}",
+        "{\"$or\": [{\"budget.capex.amount\": {\"$between\": [1000, 5000]}}, {\"requestor\": {\"$regex\": \"^user\\\\d+$\"}}]}"
+    })
+    public String expression;
+
+    private WorkflowExpressionEvaluator evaluator;
+    private Map<String, Object> processData;
+    private Map<String, Object> context;
+
+    @Setup
+    public void setUp() {
+        evaluator = new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
+
+        processData = new HashMap<>();
+        processData.put("amount", 1500.0);
+        processData.put("department", "engineering");
+        processData.put("priority", "HIGH");
+        processData.put("requestor", "user42");
+        processData.put("budget", Map.of("capex", Map.of("amount", 2500)));
+
+        context = new HashMap<>();
+        context.put("currentState", "PENDING_PLANNING_FINANCE_APPROVAL");
+        context.put("event", "PLANNING_FINANCE_APPROVE");
+
+        if (!evaluator.evaluate(expression, processData, context)) {
+            throw new IllegalStateException("Expression should pass for the benchmark data: " + expression);
+        }
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return evaluator.evaluate(expression, processData, context);
+    }
+}
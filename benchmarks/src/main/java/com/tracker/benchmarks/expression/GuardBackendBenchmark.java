@@ -0,0 +1,77 @@
+package com.tracker.benchmarks.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.expression.ExpressionCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tree interpreter with the generated method-handle predicate for the same guard.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar GuardBackendBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuardBackendBenchmark {
+
+    @Param({
+        "{\"amount\": {\"$gte\": 1000}}",
+        "{\"$and\": [{\"amount\": {\"$gte\": 500, \"$lt\": 50000}}, {\"department\": {\"$in\": [\"sales\", \"marketing\", \"engineering\"]}}, {\"$not\": {\"priority\": \"LOW\"}}]}"
+    })
+    public String expression;
+
+    private CompiledExpression interpreted;
+    private CompiledExpression generated;
+    private Map<String, Object> processData;
+    private Map<String, Object> context;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        interpreted = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        generated = ExpressionCompiler.compile(expression, objectMapper.readTree(expression), 1);
+
+        processData = new HashMap<>();
+        processData.put("amount", 1500.0);
+        processData.put("department", "engineering");
+        processData.put("priority", "HIGH");
+
+        context = new HashMap<>();
+        context.put("currentState", "PENDING_PLANNING_FINANCE_APPROVAL");
+        context.put("event", "PLANNING_FINANCE_APPROVE");
+
+        // The first evaluation crosses the threshold and swaps in the generated predicate
+        generated.evaluate(processData, context);
+        if (!generated.isPromoted()) {
+            throw new IllegalStateException("Expression was not promoted: " + expression);
+        }
+    }
+
+    @Benchmark
+    public boolean interpreter() {
+        return interpreted.evaluate(processData, context);
+    }
+
+    @Benchmark
+    public boolean methodHandle() {
+        return generated.evaluate(processData, context);
+    }
+}
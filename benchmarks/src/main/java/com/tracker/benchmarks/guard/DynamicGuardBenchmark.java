@@ -0,0 +1,82 @@
+package com.tracker.benchmarks.guard;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.service.DynamicWorkflowGuardFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.state.ObjectState;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the guards built by {@link DynamicWorkflowGuardFactory} for a transition without a guard,
+ * a process-data guard and a guard on the transition itself, with and without process data.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar DynamicGuardBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicGuardBenchmark {
+
+    @Param({"none", "processData", "transition"})
+    public String guardKind;
+
+    private Guard<String, String> guard;
+    private StateContext<String, String> withProcessData;
+    private StateContext<String, String> withoutProcessData;
+
+    @Setup
+    public void setUp() {
+        DynamicWorkflowGuardFactory guardFactory = new InMemoryWorkflow().getGuardFactory();
+        guard = guardFactory.createGuard(switch (guardKind) {
+            case "none" -> "";
+            case "processData" -> InMemoryWorkflow.FINANCE_GUARD;
+            default -> "{\"$and\": [{\"amount\": {\"$gte\": 500}}, {\"event\": \"PLANNING_FINANCE_APPROVE\"}, "
+                + "{\"targetState\": {\"$ne\": \"COMPLETED\"}}]}";
+        });
+
+        DefaultExtendedState extendedState = new DefaultExtendedState();
+        extendedState.getVariables().put("processData", InMemoryWorkflow.processData());
+        withProcessData = context(extendedState);
+        withoutProcessData = context(new DefaultExtendedState());
+
+        if (!guard.evaluate(withProcessData)) {
+            throw new IllegalStateException("Guard should pass for the benchmark context: " + guardKind);
+        }
+    }
+
+    private static StateContext<String, String> context(DefaultExtendedState extendedState) {
+        return new DefaultStateContext<>(StateContext.Stage.TRANSITION,
+            MessageBuilder.withPayload("PLANNING_FINANCE_APPROVE").build(), null, extendedState, null, null,
+            new ObjectState<>("PENDING_PLANNING_FINANCE_APPROVAL"), new ObjectState<>("PENDING_PLANNING_OWNER_REVIEW"),
+            null);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return guard.evaluate(withProcessData);
+    }
+
+    @Benchmark
+    public boolean evaluateWithoutProcessData() {
+        return guard.evaluate(withoutProcessData);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tracker.benchmarks.guard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.service.DynamicWorkflowGuardFactory;
+import com.tracker.workflow.service.WorkflowExpressionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.state.ObjectState;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time and allocation per guard evaluation. {@code copyingContext} reproduces the guard
+ * body that copied the transition into a new {@code HashMap} on every call; {@code contextView}
+ * runs the guard produced by {@link DynamicWorkflowGuardFactory}.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar GuardContextBenchmark -prof gc}
+ * and compare {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuardContextBenchmark {
+
+    private static final String EXPRESSION =
+        "{\"$and\": [{\"amount\": {\"$gte\": 500}}, {\"currentState\": \"PENDING_PLANNING_FINANCE_APPROVAL\"}]}";
+
+    private WorkflowExpressionEvaluator evaluator;
+    private Guard<String, String> guard;
+    private StateContext<String, String> stateContext;
+
+    @Setup
+    public void setUp() {
+        evaluator = new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
+        guard = new DynamicWorkflowGuardFactory(evaluator).createGuard(EXPRESSION);
+
+        Map<String, Object> processData = new HashMap<>();
+        processData.put("amount", 1500.0);
+        processData.put("department", "engineering");
+        DefaultExtendedState extendedState = new DefaultExtendedState();
+        extendedState.getVariables().put("processData", processData);
+
+        stateContext = new DefaultStateContext<>(StateContext.Stage.TRANSITION,
+            MessageBuilder.withPayload("PLANNING_FINANCE_APPROVE").build(), null, extendedState, null, null,
+            new ObjectState<>("PENDING_PLANNING_FINANCE_APPROVAL"), new ObjectState<>("PENDING_CEO_APPROVAL"),
+            null);
+
+        if (!guard.evaluate(stateContext) || !copyingContext()) {
+            throw new IllegalStateException("Guard should pass for the benchmark context");
+        }
+    }
+
+    @Benchmark
+    public boolean copyingContext() {
+        Object variable = stateContext.getExtendedState().getVariables().get("processData");
+        Map<String, Object> processData = variable instanceof Map ? (Map<String, Object>) variable : new HashMap<>();
+        if (processData.isEmpty()) {
+            return false;
+        }
+
+        Map<String, Object> contextData = new HashMap<>();
+        contextData.put("currentState", stateContext.getSource() != null ? stateContext.getSource().getId() : null);
+        contextData.put("targetState", stateContext.getTarget() != null ? stateContext.getTarget().getId() : null);
+        contextData.put("event", stateContext.getEvent());
+        return evaluator.evaluate(EXPRESSION, processData, contextData);
+    }
+
+    @Benchmark
+    public boolean contextView() {
+        return guard.evaluate(stateContext);
+    }
+}
@@ -0,0 +1,136 @@
+package com.tracker.benchmarks.replay;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.ProcessSnapshot;
+import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessSnapshotRepository;
+import com.tracker.workflow.runtime.ProcessReplay;
+import com.tracker.workflow.service.ProcessReplayService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ProcessReplayService#rebuild} of one process with a long history: read the latest
+ * snapshot, then replay the history rows recorded after it. The process cycles through the planning
+ * workflow; one row in four is a task completion and one in sixteen a delegation, which replay skips.
+ * <p>
+ * {@code snapshotInterval = 0} only has the start snapshot, so the whole history is replayed. The
+ * {@code events} counter reports history rows replayed per second.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ProcessReplayBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessReplayBenchmark {
+
+    private static final String PROCESS = "benchmark-process";
+
+    @Param({"1000", "100000"})
+    private int historySize;
+
+    @Param({"0", "50"})
+    private int snapshotInterval;
+
+    private ProcessReplayService replayService;
+    private long replayedRows;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long events;
+    }
+
+    @Setup
+    public void setUp() {
+        List<ProcessHistory> history = history(historySize);
+        // The latest snapshot leaves up to a full interval to replay, the worst case
+        long lastHistoryId = snapshotInterval == 0 ? 0 : (historySize - 1) / snapshotInterval * snapshotInterval;
+        ProcessSnapshot snapshot = snapshot(lastHistoryId, lastHistoryId == 0
+            ? InMemoryWorkflow.STATES[0]
+            : history.get((int) lastHistoryId - 1).getToState());
+        List<ProcessHistory> afterSnapshot = history.subList((int) lastHistoryId, history.size());
+        replayedRows = afterSnapshot.size();
+
+        replayService = new ProcessReplayService(
+            InMemoryWorkflow.repository(ProcessHistoryRepository.class,
+                Map.of("findByProcessInstanceIdAndIdGreaterThanOrderById", args -> afterSnapshot)),
+            InMemoryWorkflow.repository(ProcessSnapshotRepository.class,
+                Map.of("findById", args -> Optional.of(snapshot))),
+            new WorkflowEngineProperties());
+
+        String expected = history.get(history.size() - 1).getToState();
+        if (!expected.equals(rebuild(new Counters()).getState())) {
+            throw new IllegalStateException("Replay should end in " + expected);
+        }
+    }
+
+    @Benchmark
+    public ProcessReplay rebuild(Counters counters) {
+        ProcessReplay replay = replayService.rebuild(PROCESS).orElseThrow();
+        counters.events += replayedRows;
+        return replay;
+    }
+
+    private static List<ProcessHistory> history(int size) {
+        List<ProcessHistory> history = new ArrayList<>(size);
+        String state = InMemoryWorkflow.STATES[0];
+        int step = 0;
+        for (long id = 1; id <= size; id++) {
+            ProcessHistory row = new ProcessHistory();
+            row.setId(id);
+            row.setProcessInstanceId(PROCESS);
+            if (id % 16 == 0) {
+                row.setFromState(state);
+                row.setToState(state);
+                row.setEvent(WorkflowEvents.TASK_DELEGATED.name());
+                row.setContextData(Map.of("previousAssignee", "user1", "newAssignee", "user2", "reason", "leave"));
+            } else if (id % 4 == 0) {
+                row.setToState(state);
+                row.setEvent(InMemoryWorkflow.EVENTS[step]);
+                row.setContextData(Map.of("decision", "approved", "comment", "row " + id));
+            } else {
+                String next = InMemoryWorkflow.STATES[(step + 1) % (InMemoryWorkflow.STATES.length - 1)];
+                row.setFromState(state);
+                row.setToState(next);
+                row.setEvent(InMemoryWorkflow.EVENTS[step]);
+                row.setContextData(Map.of("decision", "approved", "step", step));
+                state = next;
+                step = (step + 1) % (InMemoryWorkflow.STATES.length - 1);
+            }
+            history.add(row);
+        }
+        return history;
+    }
+
+    private static ProcessSnapshot snapshot(long lastHistoryId, String state) {
+        ProcessSnapshot snapshot = new ProcessSnapshot();
+        snapshot.setProcessInstanceId(PROCESS);
+        snapshot.setCurrentState(state);
+        snapshot.setExtendedState(Map.of("processData", InMemoryWorkflow.processData(), "initiatorUserId", "user1"));
+        snapshot.setLastHistoryId(lastHistoryId);
+        return snapshot;
+    }
+}
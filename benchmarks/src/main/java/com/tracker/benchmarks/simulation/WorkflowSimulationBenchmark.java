@@ -0,0 +1,173 @@
+package com.tracker.benchmarks.simulation;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.WorkflowSimulationRequest;
+import com.tracker.workflow.dto.WorkflowSimulationSummary;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.ProcessInstance;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import com.tracker.workflow.repository.WorkflowDefinitionRepository;
+import com.tracker.workflow.service.WorkflowDefinitionService;
+import com.tracker.workflow.service.WorkflowSimulationService;
+import com.tracker.workflow.service.WorkflowSnapshotRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WorkflowSimulationService#simulate} of the planning workflow over historical processes
+ * that each ran through all four transitions and completed a task in every review state. One process in
+ * ten has process data that fails the finance guard, so the simulation rejects its finance approval.
+ * <p>
+ * Pages are served from memory, so the numbers cover paging, replay and tallying but not the database.
+ * The {@code events} counter reports history rows simulated per second.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar WorkflowSimulationBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkflowSimulationBenchmark {
+
+    @Param({"10000"})
+    private int processes;
+
+    private WorkflowSimulationService simulationService;
+    private WorkflowSimulationRequest request;
+    private long historyRows;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long events;
+    }
+
+    @Setup
+    public void setUp() {
+        InMemoryWorkflow workflow = new InMemoryWorkflow();
+        List<ProcessInstance> instances = new ArrayList<>(processes);
+        Map<String, List<ProcessHistory>> history = new HashMap<>();
+        for (int i = 0; i < processes; i++) {
+            String processInstanceId = String.format("process-%08d", i);
+            instances.add(instance(processInstanceId, i % 10 == 0));
+            history.put(processInstanceId, history(processInstanceId));
+            historyRows += history.get(processInstanceId).size();
+        }
+
+        WorkflowDefinitionService definitionService = new WorkflowDefinitionService(InMemoryWorkflow.repository(
+            WorkflowDefinitionRepository.class, Map.of(
+                "findByWorkflowNameAndIsActiveTrue", args -> Optional.of(workflow.getDefinition()),
+                "findByWorkflowNameAndVersion", args -> Optional.of(workflow.getDefinition()))), event -> { });
+        PlatformTransactionManager transactionManager = InMemoryWorkflow.repository(PlatformTransactionManager.class, Map.of());
+        simulationService = new WorkflowSimulationService(definitionService, workflow.getGuardFactory(),
+            new WorkflowSnapshotRegistry(definitionService, transactionManager),
+            InMemoryWorkflow.repository(ProcessInstanceRepository.class,
+                Map.of("findStartedPage", args -> page(instances, (String) args[1], (Pageable) args[4]))),
+            InMemoryWorkflow.repository(ProcessHistoryRepository.class,
+                Map.of("findByProcessInstanceIdInOrderByProcessInstanceIdAscIdAsc", args -> rows(history, args[0]))),
+            transactionManager, new WorkflowEngineProperties());
+
+        request = new WorkflowSimulationRequest();
+        request.setWorkflowName(InMemoryWorkflow.WORKFLOW_NAME);
+        request.setVersion("1.0");
+
+        WorkflowSimulationSummary summary = simulate(new Counters());
+        if (summary.getProcesses() != processes || summary.getDivergent() != processes / 10) {
+            throw new IllegalStateException("Unexpected simulation result " + summary);
+        }
+    }
+
+    @Benchmark
+    public WorkflowSimulationSummary simulate(Counters counters) {
+        WorkflowSimulationSummary summary = simulationService.simulate(request, divergence -> { });
+        counters.events += historyRows;
+        return summary;
+    }
+
+    private static ProcessInstance instance(String processInstanceId, boolean failsFinanceGuard) {
+        Map<String, Object> processData = InMemoryWorkflow.processData();
+        if (failsFinanceGuard) {
+            processData.put("amount", 100.0);
+        }
+        ProcessInstance instance = new ProcessInstance();
+        instance.setProcessInstanceId(processInstanceId);
+        instance.setWorkflowName(InMemoryWorkflow.WORKFLOW_NAME);
+        instance.setCurrentState(InMemoryWorkflow.STATES[InMemoryWorkflow.STATES.length - 1]);
+        instance.setInitiatorUserId("user1");
+        instance.setProcessData(processData);
+        return instance;
+    }
+
+    /**
+     * Every transition of the planning workflow, each preceded by the completion of the state's task.
+     */
+    private static List<ProcessHistory> history(String processInstanceId) {
+        List<ProcessHistory> history = new ArrayList<>();
+        for (int i = 0; i < InMemoryWorkflow.EVENTS.length; i++) {
+            history.add(row(processInstanceId, null, InMemoryWorkflow.STATES[i], InMemoryWorkflow.EVENTS[i]));
+            history.add(row(processInstanceId, InMemoryWorkflow.STATES[i], InMemoryWorkflow.STATES[i + 1],
+                InMemoryWorkflow.EVENTS[i]));
+        }
+        return history;
+    }
+
+    private static ProcessHistory row(String processInstanceId, String fromState, String toState, String event) {
+        ProcessHistory row = new ProcessHistory();
+        row.setProcessInstanceId(processInstanceId);
+        row.setFromState(fromState);
+        row.setToState(toState);
+        row.setEvent(event);
+        row.setContextData(Map.of("decision", "approved"));
+        return row;
+    }
+
+    private static List<ProcessInstance> page(List<ProcessInstance> instances, String after, Pageable page) {
+        int from = 0;
+        if (!after.isEmpty()) {
+            int low = 0;
+            int high = instances.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (instances.get(mid).getProcessInstanceId().compareTo(after) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        return instances.subList(from, Math.min(from + page.getPageSize(), instances.size()));
+    }
+
+    private static List<ProcessHistory> rows(Map<String, List<ProcessHistory>> history, Object processInstanceIds) {
+        List<ProcessHistory> rows = new ArrayList<>();
+        for (Object processInstanceId : (Collection<?>) processInstanceIds) {
+            rows.addAll(history.get(processInstanceId));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,117 @@
+package com.tracker.benchmarks.statemachine;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.DynamicWorkflowStateMachineConfig;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.WorkflowInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the cost of a live process on the Spring state machine factory configured by
+ * {@link DynamicWorkflowStateMachineConfig} with a {@link WorkflowInstance} of the same definition
+ * compiled into a {@link CompiledWorkflow}.
+ * <p>
+ * The JMH benchmarks report allocation per created instance with
+ * {@code java -jar benchmarks/target/benchmarks.jar InstanceFootprintBenchmark -prof gc}. Retained heap
+ * per live instance is measured by {@link #main}:
+ * {@code java -cp benchmarks/target/benchmarks.jar com.tracker.benchmarks.statemachine.InstanceFootprintBenchmark [instances]}.
+ * Both variants share one process data map, so the numbers cover the engine's own overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstanceFootprintBenchmark {
+
+    private final AtomicLong processes = new AtomicLong();
+
+    private StateMachineFactory<String, String> factory;
+    private CompiledWorkflow compiled;
+    private Map<String, Object> processData;
+
+    @Setup
+    public void setUp() throws Exception {
+        InMemoryWorkflow workflow = new InMemoryWorkflow();
+        DynamicWorkflowStateMachineConfig config = new DynamicWorkflowStateMachineConfig(
+            workflow.getDefinitionService(), workflow.getActionFactory(), workflow.getGuardFactory());
+
+        StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
+        builder.configureConfiguration().withConfiguration().autoStartup(false);
+        config.configure(builder.configureStates());
+        config.configure(builder.configureTransitions());
+        factory = builder.createFactory();
+
+        compiled = CompiledWorkflow.compile(workflow.getDefinition(),
+            workflow.getGuardFactory()::createGuard, workflow.getActionFactory()::createAction);
+        processData = InMemoryWorkflow.processData();
+    }
+
+    @Benchmark
+    public StateMachine<String, String> stateMachineInstance() {
+        String processInstanceId = "benchmark-" + processes.incrementAndGet();
+        StateMachine<String, String> stateMachine = factory.getStateMachine(processInstanceId);
+        stateMachine.getExtendedState().getVariables().put("processInstanceId", processInstanceId);
+        stateMachine.getExtendedState().getVariables().put("processData", processData);
+        stateMachine.startReactively().block();
+        return stateMachine;
+    }
+
+    @Benchmark
+    public WorkflowInstance compiledInstance() {
+        String processInstanceId = "benchmark-" + processes.incrementAndGet();
+        return compiled.newInstance(processInstanceId,
+            Map.of("processInstanceId", processInstanceId, "processData", processData));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        InstanceFootprintBenchmark benchmark = new InstanceFootprintBenchmark();
+        benchmark.setUp();
+
+        System.out.printf("Spring StateMachine: %,d bytes per live instance%n",
+            retainedBytesPerInstance(instances, i -> benchmark.stateMachineInstance()));
+        System.out.printf("CompiledWorkflow:    %,d bytes per live instance%n",
+            retainedBytesPerInstance(instances, i -> benchmark.compiledInstance()));
+    }
+
+    private static long retainedBytesPerInstance(int instances, IntFunction<Object> create) {
+        Object[] live = new Object[instances];
+        long before = usedHeap();
+        for (int i = 0; i < instances; i++) {
+            live[i] = create.apply(i);
+        }
+        long after = usedHeap();
+        if (live[instances - 1] == null) {
+            throw new IllegalStateException("Instance was not created");
+        }
+        // The instance ids are created per instance too; they are part of what a live process costs
+        return (after - before) / instances;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,105 @@
+package com.tracker.benchmarks.statemachine;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.DynamicWorkflowStateMachineConfig;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.WorkflowInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a whole process on the state machine factory configured by
+ * {@link DynamicWorkflowStateMachineConfig}: create and start a machine, then send every event of the
+ * planning workflow through its guards and actions until it completes. {@code compiledLifecycle} runs
+ * the same process on the definition compiled into a {@link CompiledWorkflow}.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar SendEventBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SendEventBenchmark {
+
+    private final AtomicLong processes = new AtomicLong();
+
+    private StateMachineFactory<String, String> factory;
+    private Message<String>[] events;
+    private CompiledWorkflow compiled;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        InMemoryWorkflow workflow = new InMemoryWorkflow();
+        DynamicWorkflowStateMachineConfig config = new DynamicWorkflowStateMachineConfig(
+            workflow.getDefinitionService(), workflow.getActionFactory(), workflow.getGuardFactory());
+
+        StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
+        builder.configureConfiguration().withConfiguration().autoStartup(false);
+        config.configure(builder.configureStates());
+        config.configure(builder.configureTransitions());
+        factory = builder.createFactory();
+
+        events = new Message[InMemoryWorkflow.EVENTS.length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = MessageBuilder.withPayload(InMemoryWorkflow.EVENTS[i]).build();
+        }
+
+        compiled = CompiledWorkflow.compile(workflow.getDefinition(),
+            workflow.getGuardFactory()::createGuard, workflow.getActionFactory()::createAction);
+
+        for (String finalState : new String[] {processLifecycle(), compiledLifecycle()}) {
+            if (!InMemoryWorkflow.STATES[InMemoryWorkflow.STATES.length - 1].equals(finalState)) {
+                throw new IllegalStateException("Process should complete, but stopped in " + finalState);
+            }
+        }
+    }
+
+    @Benchmark
+    public String processLifecycle() {
+        StateMachine<String, String> stateMachine = factory.getStateMachine("benchmark-" + processes.incrementAndGet());
+        stateMachine.getExtendedState().getVariables().put("processInstanceId", stateMachine.getId());
+        stateMachine.getExtendedState().getVariables().put("processData", InMemoryWorkflow.processData());
+        stateMachine.startReactively().block();
+
+        for (Message<String> event : events) {
+            stateMachine.sendEvent(Mono.just(event)).blockLast();
+        }
+
+        String finalState = stateMachine.getState().getId();
+        stateMachine.stopReactively().block();
+        return finalState;
+    }
+
+    @Benchmark
+    public String compiledLifecycle() {
+        String processInstanceId = "benchmark-" + processes.incrementAndGet();
+        WorkflowInstance instance = compiled.newInstance(processInstanceId,
+            Map.of("processInstanceId", processInstanceId, "processData", InMemoryWorkflow.processData()));
+
+        for (String event : InMemoryWorkflow.EVENTS) {
+            compiled.fire(instance, event);
+        }
+        return instance.getState();
+    }
+}
@@ -0,0 +1,228 @@
+package com.tracker.benchmarks.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.CompletionStrategy;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import com.tracker.workflow.repository.ProcessSnapshotRepository;
+import com.tracker.workflow.repository.TaskGroupRepository;
+import com.tracker.workflow.repository.UserRoleRepository;
+import com.tracker.workflow.repository.WorkflowDefinitionRepository;
+import com.tracker.workflow.repository.WorkflowTaskRepository;
+import com.tracker.workflow.service.DynamicWorkflowActionFactory;
+import com.tracker.workflow.service.DynamicWorkflowGuardFactory;
+import com.tracker.workflow.service.NotificationService;
+import com.tracker.workflow.service.ProcessInstanceService;
+import com.tracker.workflow.service.ProcessReplayService;
+import com.tracker.workflow.service.UserService;
+import com.tracker.workflow.service.WorkflowDefinitionService;
+import com.tracker.workflow.service.WorkflowExpressionEvaluator;
+import com.tracker.workflow.service.WorkflowSnapshotRegistry;
+import com.tracker.workflow.service.WorkflowTaskAssignmentService;
+import com.tracker.workflow.service.WorkflowTaskService;
+
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The planning workflow as an in-memory {@link WorkflowDefinition}, wired to the real workflow services
+ * over repository stubs, so benchmarks measure engine code rather than a database.
+ * <p>
+ * Repository stubs answer {@code save} with its argument, finders with an empty result and the
+ * methods named in the answers map with the given function.
+ */
+public final class InMemoryWorkflow {
+
+    public static final String WORKFLOW_NAME = "Tracker-core-workflow";
+
+    public static final String[] STATES = {
+        "PENDING_PLANNING_BUSINESS_REVIEW",
+        "PENDING_PLANNING_FINANCE_APPROVAL",
+        "PENDING_PLANNING_OWNER_REVIEW",
+        "PENDING_PLANNING_MANAGER_REVIEW",
+        "COMPLETED"
+    };
+
+    /**
+     * The event leaving each state of {@link #STATES}, in order.
+     */
+    public static final String[] EVENTS = {
+        "PLANNING_BUSINESS_SUBMIT",
+        "PLANNING_FINANCE_APPROVE",
+        "PLANNING_OWNER_SUBMIT",
+        "PLANNING_MANAGER_SUBMIT"
+    };
+
+    public static final String FINANCE_GUARD = "{\"$and\": [{\"amount\": {\"$gte\": 500}}, "
+        + "{\"department\": {\"$in\": [\"sales\", \"marketing\", \"engineering\"]}}]}";
+
+    private final WorkflowDefinition definition;
+    private final WorkflowExpressionEvaluator expressionEvaluator;
+    private final WorkflowDefinitionService definitionService;
+    private final DynamicWorkflowGuardFactory guardFactory;
+    private final DynamicWorkflowActionFactory actionFactory;
+
+    public InMemoryWorkflow() {
+        definition = definition();
+        expressionEvaluator = new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
+        definitionService = new WorkflowDefinitionService(repository(WorkflowDefinitionRepository.class,
+            Map.of("findByWorkflowNameAndIsActiveTrue", args -> Optional.of(definition))), event -> { });
+        guardFactory = new DynamicWorkflowGuardFactory(expressionEvaluator);
+
+        // No-op transactions: the snapshot is built from the in-memory definition
+        WorkflowSnapshotRegistry snapshotRegistry = new WorkflowSnapshotRegistry(definitionService,
+            repository(PlatformTransactionManager.class, Map.of()));
+        WorkflowTaskAssignmentService assignmentService = new WorkflowTaskAssignmentService(
+            repository(UserRoleRepository.class, Map.of()),
+            snapshotRegistry);
+        WorkflowTaskService taskService = new WorkflowTaskService(
+            repository(WorkflowTaskRepository.class, Map.of()),
+            repository(TaskGroupRepository.class, Map.of()),
+            repository(ProcessHistoryRepository.class, Map.of()),
+            new UserService(),
+            new NotificationService(repository(NotificationOutboxRepository.class, Map.of()), new WorkflowEngineProperties()),
+            new ProcessInstanceService(repository(ProcessInstanceRepository.class, Map.of()),
+                new ProcessReplayService(repository(ProcessHistoryRepository.class, Map.of()),
+                    repository(ProcessSnapshotRepository.class, Map.of()), new WorkflowEngineProperties())));
+        actionFactory = new DynamicWorkflowActionFactory(taskService, assignmentService);
+    }
+
+    public WorkflowDefinition getDefinition() {
+        return definition;
+    }
+
+    public WorkflowExpressionEvaluator getExpressionEvaluator() {
+        return expressionEvaluator;
+    }
+
+    public WorkflowDefinitionService getDefinitionService() {
+        return definitionService;
+    }
+
+    public DynamicWorkflowGuardFactory getGuardFactory() {
+        return guardFactory;
+    }
+
+    public DynamicWorkflowActionFactory getActionFactory() {
+        return actionFactory;
+    }
+
+    /**
+     * Process data that passes {@link #FINANCE_GUARD}.
+     */
+    public static Map<String, Object> processData() {
+        Map<String, Object> processData = new HashMap<>();
+        processData.put("amount", 1500.0);
+        processData.put("department", "engineering");
+        processData.put("priority", "HIGH");
+        processData.put("requestor", "user1");
+        return processData;
+    }
+
+    private static WorkflowDefinition definition() {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(1L);
+        definition.setWorkflowName(WORKFLOW_NAME);
+        definition.setVersion("1.0");
+        definition.setIsActive(true);
+
+        List<WorkflowStateDefinition> states = new ArrayList<>();
+        for (int i = 0; i < STATES.length; i++) {
+            WorkflowStateDefinition state = new WorkflowStateDefinition();
+            state.setId((long) i + 1);
+            state.setWorkflowDefinition(definition);
+            state.setStateName(STATES[i]);
+            state.setStateOrder(i);
+            state.setStateType(i == 0 ? WorkflowStateDefinition.StateType.INITIAL
+                : i == STATES.length - 1 ? WorkflowStateDefinition.StateType.END
+                : WorkflowStateDefinition.StateType.NORMAL);
+            states.add(state);
+        }
+
+        List<WorkflowTransitionDefinition> transitions = new ArrayList<>();
+        for (int i = 0; i < EVENTS.length; i++) {
+            WorkflowTransitionDefinition transition = new WorkflowTransitionDefinition();
+            transition.setId((long) i + 1);
+            transition.setWorkflowDefinition(definition);
+            transition.setFromState(states.get(i));
+            transition.setToState(states.get(i + 1));
+            transition.setEventName(EVENTS[i]);
+            transition.setTransitionOrder(i);
+            if (EVENTS[i].equals("PLANNING_FINANCE_APPROVE")) {
+                transition.setGuardExpression(FINANCE_GUARD);
+            }
+            transition.setActionConfig(Map.of("type",
+                i == EVENTS.length - 1 ? "COMPLETE_PROCESS" : i % 2 == 0 ? "CREATE_TASK_GROUP" : "CREATE_SINGLE_TASK"));
+            transitions.add(transition);
+        }
+
+        definition.setStates(states);
+        definition.setTransitions(transitions);
+        definition.setTaskAssignments(states.stream().map(InMemoryWorkflow::assignment).toList());
+        return definition;
+    }
+
+    private static WorkflowTaskAssignment assignment(WorkflowStateDefinition state) {
+        WorkflowTaskAssignment assignment = new WorkflowTaskAssignment();
+        assignment.setId(state.getId());
+        assignment.setState(state);
+        assignment.setAssignmentType(WorkflowTaskAssignment.AssignmentType.USER);
+        assignment.setAssignmentConfig(Map.of("users", List.of("user1", "user2", "user3")));
+        assignment.setCompletionStrategy(CompletionStrategy.ALL_REQUIRED);
+        assignment.setTaskTemplate(Map.of("name", state.getStateName() + " task",
+            "description", "Review " + state.getStateName()));
+        return assignment;
+    }
+
+    /**
+     * A repository, or any other interface, answering the methods named in {@code answers} with the given
+     * function, {@code save} with its argument and other methods with an empty result.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> answers) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getName().startsWith("save") && args != null && args.length == 1) {
+                return args[0];
+            }
+            return emptyResult(method);
+        });
+    }
+
+    private static Object emptyResult(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        if (Iterable.class.isAssignableFrom(returnType)) {
+            return List.of();
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
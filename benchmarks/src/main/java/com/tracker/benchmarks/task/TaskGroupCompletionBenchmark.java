@@ -0,0 +1,123 @@
+package com.tracker.benchmarks.task;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.TaskStatus;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.model.WorkflowTask;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import com.tracker.workflow.repository.ProcessSnapshotRepository;
+import com.tracker.workflow.repository.TaskGroupRepository;
+import com.tracker.workflow.repository.WorkflowTaskRepository;
+import com.tracker.workflow.service.NotificationService;
+import com.tracker.workflow.service.ProcessInstanceService;
+import com.tracker.workflow.service.ProcessReplayService;
+import com.tracker.workflow.service.UserService;
+import com.tracker.workflow.service.WorkflowTaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures completing the last required task of a group and completing a process, against group size.
+ * <p>
+ * The repository stubs charge {@code rttMicros} per statement the call would send to PostgreSQL.
+ * Completing the group's task costs five statements whatever the group size: load the task, count
+ * the completion on the group, write the task, skip the other pending tasks and record history.
+ * Completing the process costs two, one for its tasks and one for its groups. Skipping or completing
+ * each row on its own cost one statement per row on top of that.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar TaskGroupCompletionBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskGroupCompletionBenchmark {
+
+    private static final long TASK_GROUP_ID = 51L;
+
+    @Param({"1", "10", "40", "200"})
+    private int groupSize;
+
+    @Param({"0", "200"})
+    private long rttMicros;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    private WorkflowTaskService taskService;
+
+    @Setup
+    public void setUp() {
+        taskService = new WorkflowTaskService(
+            InMemoryWorkflow.repository(WorkflowTaskRepository.class, Map.of(
+                "findById", args -> roundTrip(Optional.of(pendingTask((Long) args[0]))),
+                "saveAndFlush", args -> roundTrip(args[0]),
+                "skipPendingTasksInGroup", args -> roundTrip(groupSize - 1),
+                "completePendingTasksOfProcess", args -> roundTrip(groupSize))),
+            InMemoryWorkflow.repository(TaskGroupRepository.class, Map.of(
+                "incrementCompletedTasks", args -> roundTrip(Optional.of(TaskStatus.COMPLETED.name())),
+                "completePendingGroupsOfProcess", args -> roundTrip(1))),
+            InMemoryWorkflow.repository(ProcessHistoryRepository.class, Map.of("save", args -> roundTrip(args[0]))),
+            new UserService(),
+            new NotificationService(InMemoryWorkflow.repository(NotificationOutboxRepository.class, Map.of()),
+                new WorkflowEngineProperties()),
+            new ProcessInstanceService(InMemoryWorkflow.repository(ProcessInstanceRepository.class, Map.of()),
+                new ProcessReplayService(InMemoryWorkflow.repository(ProcessHistoryRepository.class, Map.of()),
+                    InMemoryWorkflow.repository(ProcessSnapshotRepository.class, Map.of()),
+                    new WorkflowEngineProperties())));
+
+        completeGroupTask();
+        completeProcess();
+        if (roundTrips.get() != 5 + 2) {
+            throw new IllegalStateException("Completion took " + roundTrips.get() + " round trips");
+        }
+    }
+
+    @Benchmark
+    public boolean completeGroupTask() {
+        return taskService.completeTask(1L, "user0", Map.of("approved", true));
+    }
+
+    @Benchmark
+    public void completeProcess() {
+        taskService.completeProcess("benchmark-process");
+    }
+
+    private static WorkflowTask pendingTask(Long taskId) {
+        WorkflowTask task = new WorkflowTask();
+        task.setId(taskId);
+        task.setProcessInstanceId("benchmark-process");
+        task.setAssignedUserId("user0");
+        task.setTaskGroupId(TASK_GROUP_ID);
+        task.setCurrentState(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name());
+        task.setStatus(TaskStatus.PENDING);
+        return task;
+    }
+
+    private <T> T roundTrip(T result) {
+        roundTrips.incrementAndGet();
+        if (rttMicros > 0) {
+            LockSupport.parkNanos(rttMicros * 1000);
+        }
+        return result;
+    }
+}
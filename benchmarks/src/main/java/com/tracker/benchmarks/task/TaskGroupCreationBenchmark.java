@@ -0,0 +1,114 @@
+package com.tracker.benchmarks.task;
+
+import com.tracker.benchmarks.support.InMemoryWorkflow;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.CompletionStrategy;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import com.tracker.workflow.repository.ProcessSnapshotRepository;
+import com.tracker.workflow.repository.TaskGroupRepository;
+import com.tracker.workflow.repository.WorkflowTaskRepository;
+import com.tracker.workflow.service.NotificationService;
+import com.tracker.workflow.service.ProcessInstanceService;
+import com.tracker.workflow.service.ProcessReplayService;
+import com.tracker.workflow.service.UserService;
+import com.tracker.workflow.service.WorkflowTaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Measures {@link WorkflowTaskService#createTaskGroup} latency against group size.
+ * <p>
+ * The repository stubs charge {@code rttMicros} per database round trip the call would cost on
+ * PostgreSQL: one for the group and one per started batch of 50 tasks, which is what a pooled id
+ * sequence and {@code hibernate.jdbc.batch_size=50} send at flush, so a 40-person group costs 2 round
+ * trips where saving every task on its own cost 41. The assignees' outbox notifications are batched the
+ * same way and add one round trip per started batch of 50. With {@code rttMicros = 0} the numbers cover
+ * only engine code.
+ * <p>
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar TaskGroupCreationBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskGroupCreationBenchmark {
+
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Param({"1", "10", "40", "200"})
+    private int groupSize;
+
+    @Param({"0", "200"})
+    private long rttMicros;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong queuedNotifications = new AtomicLong();
+
+    private WorkflowTaskService taskService;
+    private List<String> assignees;
+
+    @Setup
+    public void setUp() {
+        assignees = IntStream.range(0, groupSize).mapToObj(i -> "user" + i).toList();
+        taskService = new WorkflowTaskService(
+            InMemoryWorkflow.repository(WorkflowTaskRepository.class, Map.of(
+                "save", args -> roundTrip(1, args[0]),
+                "saveAll", args -> roundTrip(batches(((Collection<?>) args[0]).size()), args[0]))),
+            InMemoryWorkflow.repository(TaskGroupRepository.class, Map.of("save", args -> roundTrip(1, args[0]))),
+            InMemoryWorkflow.repository(ProcessHistoryRepository.class, Map.of()),
+            new UserService(),
+            new NotificationService(InMemoryWorkflow.repository(NotificationOutboxRepository.class, Map.of(
+                "save", args -> roundTrip(queuedNotifications.getAndIncrement() % JDBC_BATCH_SIZE == 0 ? 1 : 0,
+                    args[0]))), new WorkflowEngineProperties()),
+            new ProcessInstanceService(InMemoryWorkflow.repository(ProcessInstanceRepository.class, Map.of()),
+                new ProcessReplayService(InMemoryWorkflow.repository(ProcessHistoryRepository.class, Map.of()),
+                    InMemoryWorkflow.repository(ProcessSnapshotRepository.class, Map.of()),
+                    new WorkflowEngineProperties())));
+
+        createTaskGroup();
+        if (roundTrips.get() != 1 + 2L * batches(groupSize)) {
+            throw new IllegalStateException("Group creation took " + roundTrips.get() + " round trips");
+        }
+    }
+
+    @Benchmark
+    public void createTaskGroup() {
+        queuedNotifications.set(0);
+        taskService.createTaskGroup("benchmark-process", "Finance review", assignees, CompletionStrategy.ALL_REQUIRED,
+            WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(), "Review the budget");
+    }
+
+    private static int batches(int rows) {
+        return (rows + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE;
+    }
+
+    private Object roundTrip(int count, Object saved) {
+        roundTrips.addAndGet(count);
+        if (rttMicros > 0) {
+            LockSupport.parkNanos(count * rttMicros * 1000);
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,23 @@
+-- Notifications are written here in the same transaction as the change that raised them, and delivered
+-- afterwards by the outbox dispatcher, so mail delivery never holds a business transaction open and a
+-- rolled-back change never sends one.
+CREATE SEQUENCE notification_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE notification_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('notification_outbox_id_seq'),
+    idempotency_key VARCHAR(255) NOT NULL UNIQUE,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP
+);
+
+ALTER SEQUENCE notification_outbox_id_seq OWNED BY notification_outbox.id;
+
+-- The dispatcher polls for due pending rows
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,4 @@
+-- The dispatcher coalesces a recipient's pending notifications into one message and checks how many
+-- messages the recipient was sent recently
+CREATE INDEX idx_notification_outbox_pending_recipient ON notification_outbox(recipient) WHERE status = 'PENDING';
+CREATE INDEX idx_notification_outbox_sent_recipient ON notification_outbox(recipient, sent_at) WHERE status = 'SENT';
@@ -0,0 +1,7 @@
+-- State and event names come from workflow definitions, whose workflow_states.state_name and
+-- workflow_transitions.event_name allow 100 characters
+ALTER TABLE state_machine_contexts ALTER COLUMN current_state TYPE VARCHAR(100);
+
+ALTER TABLE process_history ALTER COLUMN from_state TYPE VARCHAR(100);
+ALTER TABLE process_history ALTER COLUMN to_state TYPE VARCHAR(100);
+ALTER TABLE process_history ALTER COLUMN event TYPE VARCHAR(100);
@@ -0,0 +1,3 @@
+-- jsonb_path_ops GIN indexes back the @> and @@ predicates generated from guard expressions
+CREATE INDEX idx_workflow_tasks_task_data ON workflow_tasks USING GIN (task_data jsonb_path_ops);
+CREATE INDEX idx_process_history_context_data ON process_history USING GIN (context_data jsonb_path_ops);
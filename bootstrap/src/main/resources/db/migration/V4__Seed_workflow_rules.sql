@@ -0,0 +1,5 @@
+-- Approval thresholds previously hardcoded in WorkflowRuleService.
+-- Finance approval uses $not/$lt so that a missing or non-numeric amount still requires approval.
+INSERT INTO workflow_rules (rule_name, condition, action, active) VALUES
+    ('FINANCE_APPROVAL_REQUIRED', '{"$not": {"amount": {"$lt": 500}}}', NULL, TRUE),
+    ('CEO_APPROVAL_REQUIRED', '{"amount": {"$gte": 10000}}', NULL, TRUE);
@@ -0,0 +1,7 @@
+-- Persisted state machine of each process, rehydrated on demand by WorkflowStateMachineCache.
+CREATE TABLE state_machine_contexts (
+    process_instance_id VARCHAR(255) PRIMARY KEY,
+    current_state VARCHAR(50) NOT NULL,
+    extended_state JSONB,
+    updated_at TIMESTAMP NOT NULL
+);
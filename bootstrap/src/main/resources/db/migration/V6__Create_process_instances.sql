@@ -0,0 +1,41 @@
+-- Current state of each process, written in the same transaction as its transitions so status and
+-- dashboard reads are primary-key or index reads instead of process_history scans.
+CREATE TABLE process_instances (
+    process_instance_id VARCHAR(255) PRIMARY KEY,
+    workflow_name VARCHAR(255) NOT NULL,
+    workflow_version VARCHAR(50),
+    current_state VARCHAR(100) NOT NULL,
+    active BOOLEAN NOT NULL,
+    initiator_user_id VARCHAR(255),
+    rework_count INTEGER NOT NULL DEFAULT 0,
+    process_data JSONB,
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_process_instances_initiator ON process_instances(initiator_user_id);
+CREATE INDEX idx_process_instances_active_state ON process_instances(workflow_name, current_state) WHERE active;
+
+-- Backfill processes that already have a persisted context
+INSERT INTO process_instances (process_instance_id, workflow_name, workflow_version, current_state, active,
+                               initiator_user_id, rework_count, process_data, started_at, updated_at)
+SELECT c.process_instance_id,
+       COALESCE(c.extended_state ->> 'workflowName', 'Tracker-core-workflow'),
+       c.extended_state ->> 'workflowVersion',
+       c.current_state,
+       c.current_state <> 'COMPLETED' AND NOT EXISTS (
+           SELECT 1
+           FROM workflow_states s
+           JOIN workflow_definitions d ON d.id = s.workflow_definition_id
+           WHERE d.workflow_name = c.extended_state ->> 'workflowName'
+             AND d.version = c.extended_state ->> 'workflowVersion'
+             AND s.state_name = c.current_state
+             AND s.state_type = 'END'),
+       c.extended_state ->> 'initiatorUserId',
+       COALESCE((SELECT MAX(t.rework_count) FROM workflow_tasks t
+                 WHERE t.process_instance_id = c.process_instance_id), 0),
+       c.extended_state -> 'processData',
+       COALESCE((SELECT MIN(h.timestamp) FROM process_history h
+                 WHERE h.process_instance_id = c.process_instance_id), c.updated_at),
+       c.updated_at
+FROM state_machine_contexts c;
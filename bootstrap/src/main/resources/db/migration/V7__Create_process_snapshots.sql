@@ -0,0 +1,26 @@
+-- Periodic snapshots of each process's state and variables; a process is rebuilt from its snapshot plus
+-- the process_history rows recorded after it.
+CREATE TABLE process_snapshots (
+    process_instance_id VARCHAR(255) PRIMARY KEY,
+    current_state VARCHAR(100) NOT NULL,
+    extended_state JSONB,
+    last_history_id BIGINT NOT NULL,
+    event_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE process_instances ADD COLUMN event_count INTEGER NOT NULL DEFAULT 0;
+
+-- Replay reads the history of one process after a given row
+CREATE INDEX idx_process_history_process_instance_id_id ON process_history(process_instance_id, id);
+
+-- Snapshot processes that already have a persisted context
+INSERT INTO process_snapshots (process_instance_id, current_state, extended_state, last_history_id, event_count,
+                               created_at)
+SELECT c.process_instance_id,
+       c.current_state,
+       c.extended_state,
+       COALESCE((SELECT MAX(h.id) FROM process_history h WHERE h.process_instance_id = c.process_instance_id), 0),
+       0,
+       c.updated_at
+FROM state_machine_contexts c;
@@ -0,0 +1,8 @@
+-- Task and task group ids are allocated by Hibernate in blocks of 50 with the pooled optimizer: each
+-- sequence value is the top of a block. Restart the sequences a full block above the highest id so new
+-- blocks never overlap existing rows.
+ALTER SEQUENCE task_groups_id_seq INCREMENT BY 50;
+SELECT setval('task_groups_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM task_groups));
+
+ALTER SEQUENCE workflow_tasks_id_seq INCREMENT BY 50;
+SELECT setval('workflow_tasks_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM workflow_tasks));
@@ -0,0 +1,3 @@
+-- Optimistic locking: concurrent writers of a task or task group fail instead of overwriting each other
+ALTER TABLE task_groups ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE workflow_tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -215,7 +215,7 @@ public class AdvancedWorkflowStateMachineConfig extends StateMachineConfigurerAd
             // Create task for multiple managers if needed
             List<String> managers = List.of("U1002","U1009");
             taskService.createTaskGroup(processInstanceId, "Business Owner Approval", managers,
-                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_OWNER_REVIEW,
+                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_OWNER_REVIEW.name(),
                     "Please review and approve this request");
         };
     }
@@ -228,7 +228,7 @@ public class AdvancedWorkflowStateMachineConfig extends StateMachineConfigurerAd
             // Create task for multiple managers if needed
             List<String> managers = List.of("U1003","U1007");
             taskService.createTaskGroup(processInstanceId, "Manager Approval", managers,
-                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_MANAGER_REVIEW,
+                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_MANAGER_REVIEW.name(),
                     "Please review and approve this request");
         };
     }
@@ -261,7 +261,7 @@ public class AdvancedWorkflowStateMachineConfig extends StateMachineConfigurerAd
             String processInstanceId = getProcessInstanceId(context);
             List<String> financeTeam = Arrays.asList("U1004", "U1010");
             taskService.createTaskGroup(processInstanceId, "Planning Finance Approval", financeTeam,
-                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL,
+                    CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(),
                     "Please review financial impact");
         };
     }
@@ -281,7 +281,7 @@ public class AdvancedWorkflowStateMachineConfig extends StateMachineConfigurerAd
             String initiatorUserId = context.getExtendedState().get("initiatorUserId", String.class);
 
             taskService.createReworkTask(processInstanceId, "Rework Required", initiatorUserId,
-                    context.getSource().getId(), context.getTarget().getId());
+                    context.getSource().getId().name(), context.getTarget().getId().name());
         };
     }
 
@@ -0,0 +1,14 @@
+package com.tracker.workflow.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Binds the workflow engine tuning properties and enables its periodic refresh jobs.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(WorkflowEngineProperties.class)
+class WorkflowEngineConfig {
+}
@@ -0,0 +1,271 @@
+package com.tracker.workflow.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Tuning properties of the workflow engine.
+ */
+@ConfigurationProperties(prefix = "app.tracker.workflow")
+@Validated
+@Data
+public class WorkflowEngineProperties {
+
+    @Valid
+    private final Expression expression = new Expression();
+
+    @Valid
+    private final Rules rules = new Rules();
+
+    @Valid
+    private final GuardDiff guardDiff = new GuardDiff();
+
+    @Valid
+    private final StateMachines stateMachines = new StateMachines();
+
+    @Valid
+    private final Mailbox mailbox = new Mailbox();
+
+    @Valid
+    private final Replay replay = new Replay();
+
+    @Valid
+    private final Simulation simulation = new Simulation();
+
+    @Valid
+    private final Outbox outbox = new Outbox();
+
+    /**
+     * Guard expression compilation settings.
+     */
+    @Data
+    public static class Expression {
+
+        /**
+         * Maximum number of compiled expressions kept in memory.
+         */
+        @Min(1)
+        private int cacheSize = 1024;
+
+        /**
+         * Whether hot expressions are promoted to generated method-handle predicates.
+         */
+        private boolean methodHandleBackendEnabled = true;
+
+        /**
+         * Number of evaluations after which an expression is promoted.
+         */
+        @Min(1)
+        private int methodHandleThreshold = 10_000;
+
+        /**
+         * One in this many evaluations records clause statistics used to reorder $and/$or clauses; 0 disables.
+         */
+        @Min(0)
+        private int profileSampleInterval = 64;
+    }
+
+    /**
+     * Named business rule settings.
+     */
+    @Data
+    public static class Rules {
+
+        /**
+         * Delay between reloads of the active rules from the database.
+         */
+        @Min(1000)
+        private long refreshIntervalMillis = 60_000;
+    }
+
+    /**
+     * Bulk re-evaluation of edited guard expressions over in-flight processes.
+     */
+    @Data
+    public static class GuardDiff {
+
+        /**
+         * Number of in-flight processes loaded per page.
+         */
+        @Min(1)
+        private int pageSize = 500;
+
+        /**
+         * Worker threads evaluating a page.
+         */
+        @Min(1)
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Running process state machines.
+     */
+    @Data
+    public static class StateMachines {
+
+        /**
+         * Maximum number of state machines kept in memory; others are rehydrated from the database on use.
+         */
+        @Min(1)
+        private int cacheSize = 1000;
+    }
+
+    /**
+     * Per-process event mailbox.
+     */
+    @Data
+    public static class Mailbox {
+
+        /**
+         * Number of single-threaded stripes; events of one process always run on the same stripe.
+         */
+        @Min(1)
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Events that may wait on one stripe; further submissions are handled according to {@link #overflow}.
+         */
+        @Min(1)
+        private int queueCapacity = 1000;
+
+        /**
+         * What a submission does when its stripe's queue is full.
+         */
+        private Overflow overflow = Overflow.BLOCK;
+
+        /**
+         * How long a {@link Overflow#BLOCK} submission waits for room before it is rejected.
+         */
+        @Min(0)
+        private long offerTimeoutMillis = 1000;
+
+        /**
+         * How long the outcome of an asynchronous submission stays available for polling once it finished.
+         */
+        @Min(1000)
+        private long resultRetentionMillis = 600_000;
+
+        public enum Overflow {
+            /**
+             * Reject the submission immediately.
+             */
+            REJECT,
+            /**
+             * Wait up to {@code offerTimeoutMillis} for room, then reject.
+             */
+            BLOCK
+        }
+    }
+
+    /**
+     * Rebuilding processes from their history.
+     */
+    @Data
+    public static class Replay {
+
+        /**
+         * A process is snapshotted when it starts and then every this many events, which bounds the history
+         * replayed to rebuild it.
+         */
+        @Min(1)
+        private int snapshotInterval = 50;
+    }
+
+    /**
+     * Replaying historical processes against a candidate definition version.
+     */
+    @Data
+    public static class Simulation {
+
+        /**
+         * Number of historical processes loaded, with their history, per page.
+         */
+        @Min(1)
+        private int pageSize = 500;
+
+        /**
+         * Worker threads simulating a page.
+         */
+        @Min(1)
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * How far back a simulation without an explicit start looks.
+         */
+        @Min(1)
+        private int defaultDays = 30;
+    }
+
+    /**
+     * Delivery of notifications written to the outbox.
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * Delay between polls for due notifications.
+         */
+        @Min(100)
+        private long pollIntervalMillis = 1000;
+
+        /**
+         * Recipients whose notifications are locked and delivered per transaction; a poll keeps draining
+         * batches until none are due.
+         */
+        @Min(1)
+        private int batchSize = 50;
+
+        /**
+         * How long a new notification waits for others to the same recipient, which are then sent with it
+         * as one digest; 0 sends each notification on its own as soon as possible.
+         */
+        @Min(0)
+        private long coalesceWindowMillis = 30_000;
+
+        /**
+         * Messages a recipient may be sent per {@link #userRateWindowMillis}; further notifications wait
+         * and are coalesced into the next message.
+         */
+        @Min(1)
+        private int userRateLimit = 10;
+
+        /**
+         * Period over which {@link #userRateLimit} applies.
+         */
+        @Min(1000)
+        private long userRateWindowMillis = 3_600_000;
+
+        /**
+         * Delivery attempts after which a notification is marked failed.
+         */
+        @Min(1)
+        private int maxAttempts = 10;
+
+        /**
+         * Delay before the first retry; each further retry waits twice as long, up to {@link #maxBackoffMillis}.
+         */
+        @Min(0)
+        private long initialBackoffMillis = 1000;
+
+        /**
+         * Longest delay between two attempts.
+         */
+        @Min(0)
+        private long maxBackoffMillis = 600_000;
+
+        /**
+         * How long delivered notifications are kept before they are deleted.
+         */
+        @Min(1)
+        private long sentRetentionHours = 72;
+
+        /**
+         * Delay between deletions of expired delivered notifications.
+         */
+        @Min(1000)
+        private long purgeIntervalMillis = 3_600_000;
+    }
+}
@@ -1,22 +1,29 @@
 package com.tracker.workflow.controller;
 
+import com.tracker.workflow.dto.EventSubmissionDTO;
 import com.tracker.workflow.dto.ReworkRequest;
 import com.tracker.workflow.dto.TaskCompletionRequest;
 import com.tracker.workflow.dto.TaskDTO;
+import com.tracker.workflow.dto.WorkflowStatusDTO;
 import com.tracker.workflow.model.TaskStatus;
 import com.tracker.workflow.model.WorkflowEvents;
 import com.tracker.workflow.model.WorkflowStates;
 import com.tracker.workflow.model.WorkflowTask;
+import com.tracker.workflow.service.EventSubmissionTracker;
+import com.tracker.workflow.service.ProcessEventMailbox;
 import com.tracker.workflow.service.WorkflowService;
 import com.tracker.workflow.service.WorkflowTaskService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +33,9 @@ class TaskController {
 
     private final WorkflowTaskService taskService;
     private final WorkflowService workflowService;
+    private final ProcessEventMailbox mailbox;
+    private final EventSubmissionTracker submissionTracker;
+    private final TransactionTemplate transactionTemplate;
 
     @GetMapping("/my-tasks")
     public ResponseEntity<List<TaskDTO>> getMyTasks(
@@ -44,30 +54,43 @@ class TaskController {
         return ResponseEntity.ok(taskDTOs);
     }
 
+    /**
+     * Completes a task and, if that completes its group, fires the next workflow event. With
+     * {@code async=true} the work is queued on the process's mailbox and the response is
+     * {@code 202 Accepted} with the location to poll for the outcome.
+     */
     @PostMapping("/{taskId}/complete")
-    public ResponseEntity<String> completeTask(
+    public ResponseEntity<?> completeTask(
             @PathVariable Long taskId,
             @RequestBody TaskCompletionRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
             Authentication auth) {
 
         String userId = auth.getName();
-        boolean groupCompleted = taskService.completeTask(taskId, userId, request.getTaskData());
-
-        if (groupCompleted) {
-            // Get task to determine next workflow event
-            WorkflowTask task = taskService.getTaskById(taskId);
-
-            // Trigger workflow event
-            workflowService.triggerWorkflowEvent(
-                    task.getProcessInstanceId(),
-                    determineEventFromState(task.getCurrentState()),
-                    request.getTaskData()
-            );
+        String processInstanceId = taskService.getTaskById(taskId).getProcessInstanceId();
+
+        // Completing the task, counting the group and firing the event form one step of the process,
+        // so concurrent completions in the same group are applied one after the other
+        if (async) {
+            CompletableFuture<WorkflowStatusDTO> result =
+                    mailbox.submit(processInstanceId, () -> applyCompletion(taskId, userId, request));
+            String submissionId = submissionTracker.track(processInstanceId, result);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/tasks/completions/" + submissionId))
+                    .body(submissionTracker.find(submissionId).orElseThrow());
         }
 
+        mailbox.execute(processInstanceId, () -> applyCompletion(taskId, userId, request));
         return ResponseEntity.ok("Task completed successfully");
     }
 
+    @GetMapping("/completions/{submissionId}")
+    public ResponseEntity<EventSubmissionDTO> getCompletion(@PathVariable String submissionId) {
+        return submissionTracker.find(submissionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/{taskId}/rework")
     public ResponseEntity<String> requestRework(
             @PathVariable Long taskId,
@@ -92,6 +115,31 @@ class TaskController {
         return ResponseEntity.ok("Rework requested successfully");
     }
 
+    /**
+     * Completes the task and fires the group's event in one transaction, which the task service and the
+     * event join, so a group is never left completed without the transition its completion triggers.
+     */
+    private WorkflowStatusDTO applyCompletion(Long taskId, String userId, TaskCompletionRequest request) {
+        return transactionTemplate.execute(status -> completeAndAdvance(taskId, userId, request));
+    }
+
+    private WorkflowStatusDTO completeAndAdvance(Long taskId, String userId, TaskCompletionRequest request) {
+        boolean groupCompleted = taskService.completeTask(taskId, userId, request.getTaskData());
+
+        // Get task to determine next workflow event
+        WorkflowTask task = taskService.getTaskById(taskId);
+
+        if (groupCompleted) {
+            // Trigger workflow event on whichever model the process runs on
+            return workflowService.triggerWorkflowEvent(
+                    task.getProcessInstanceId(),
+                    workflowService.getTaskCompletionEvent(task.getProcessInstanceId(), task.getCurrentState()),
+                    request.getTaskData()
+            );
+        }
+        return workflowService.getWorkflowStatus(task.getProcessInstanceId());
+    }
+
     private TaskDTO convertToDTO(WorkflowTask task) {
         return TaskDTO.builder()
                 .id(task.getId())
@@ -101,7 +149,7 @@ class TaskController {
                 .createdDate(task.getCreatedDate())
                 .dueDate(task.getDueDate())
                 .completedDate(task.getCompletedDate())
-                .currentState(task.getCurrentState().name())
+                .currentState(task.getCurrentState())
                 .status(task.getStatus().name())
                 .reworkCount(task.getReworkCount())
                 .taskGroupId(task.getTaskGroupId())
@@ -124,22 +172,7 @@ class TaskController {
         }
     }*/
 
-    private WorkflowEvents determineEventFromState(WorkflowStates state) {
-        switch (state) {
-            case PENDING_PLANNING_BUSINESS_REVIEW:
-                return WorkflowEvents.PLANNING_BUSINESS_SUBMIT;
-            case PENDING_PLANNING_FINANCE_APPROVAL:
-                return WorkflowEvents.PLANNING_FINANCE_APPROVE;
-            case PENDING_PLANNING_OWNER_REVIEW:
-                return WorkflowEvents.PLANNING_OWNER_SUBMIT;
-            case PENDING_PLANNING_MANAGER_REVIEW:
-                return WorkflowEvents.PLANNING_MANAGER_SUBMIT;
-            default:
-                throw new IllegalStateException("Unknown state: " + state);
-        }
-    }
-
-    private WorkflowEvents determineReworkEvent(WorkflowStates currentState, WorkflowStates targetState) {
+    private WorkflowEvents determineReworkEvent(String currentState, WorkflowStates targetState) {
         return null;
         /*if (targetState == null) {
             // Default rework to previous state
@@ -17,6 +17,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -62,11 +63,21 @@ class TaskDashboardController {
             Authentication auth) {
 
         String userId = auth.getName();
-        String processInstanceId = workflowService.startWorkflow(userId, request.getProcessData());
+        String processInstanceId = workflowService.startWorkflow(request.getWorkflowName(), userId, request.getProcessData());
 
         return ResponseEntity.ok(processInstanceId);
     }
 
+    @PostMapping("/workflow/{processId}/events/{event}")
+    public ResponseEntity<WorkflowStatusDTO> triggerWorkflowEvent(
+            @PathVariable String processId,
+            @PathVariable String event,
+            @RequestBody(required = false) Map<String, Object> eventData) {
+
+        WorkflowStatusDTO status = workflowService.triggerWorkflowEvent(processId, event, eventData);
+        return ResponseEntity.ok(status);
+    }
+
     @PostMapping("/{taskId}/delegate")
     public ResponseEntity<String> delegateTask(
             @PathVariable Long taskId,
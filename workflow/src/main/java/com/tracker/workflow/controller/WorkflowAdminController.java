@@ -2,14 +2,31 @@ package com.tracker.workflow.controller;
 
 import com.tracker.workflow.dto.CreateVersionRequest;
 import com.tracker.workflow.dto.CreateWorkflowRequest;
+import com.tracker.workflow.dto.GuardDiffRequest;
+import com.tracker.workflow.dto.GuardDiffSummary;
+import com.tracker.workflow.dto.ProcessQueryRequest;
 import com.tracker.workflow.dto.WorkflowDefinitionDto;
+import com.tracker.workflow.dto.WorkflowSimulationRequest;
+import com.tracker.workflow.dto.WorkflowSimulationSummary;
+import com.tracker.workflow.expression.ExpressionStatistics;
 import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.service.GuardDiffService;
+import com.tracker.workflow.service.ProcessDataQueryService;
 import com.tracker.workflow.service.WorkflowDefinitionService;
+import com.tracker.workflow.service.WorkflowExpressionEvaluator;
+import com.tracker.workflow.service.WorkflowRuleService;
+import com.tracker.workflow.service.WorkflowSimulationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +37,12 @@ import java.util.stream.Collectors;
 class WorkflowAdminController {
     
     private final WorkflowDefinitionService workflowDefinitionService;
+    private final ProcessDataQueryService processDataQueryService;
+    private final WorkflowRuleService workflowRuleService;
+    private final WorkflowExpressionEvaluator expressionEvaluator;
+    private final GuardDiffService guardDiffService;
+    private final WorkflowSimulationService simulationService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping("/definitions")
     ResponseEntity<WorkflowDefinitionDto> createWorkflowDefinition(@RequestBody CreateWorkflowRequest request) {
@@ -92,6 +115,67 @@ class WorkflowAdminController {
         return ResponseEntity.ok(dtos);
     }
     
+    @PostMapping("/process-queries")
+    ResponseEntity<List<String>> findMatchingProcesses(@RequestBody ProcessQueryRequest request) {
+        List<String> processInstanceIds = processDataQueryService.findInFlightProcessInstanceIds(
+            request.getExpression(),
+            request.getSource(),
+            request.getMaxResults()
+        );
+        
+        return ResponseEntity.ok(processInstanceIds);
+    }
+    
+    @GetMapping("/expression-stats")
+    ResponseEntity<List<ExpressionStatistics>> getExpressionStatistics() {
+        return ResponseEntity.ok(expressionEvaluator.getExpressionStatistics());
+    }
+    
+    @PostMapping("/rules/refresh")
+    ResponseEntity<List<String>> refreshRules() {
+        workflowRuleService.refresh();
+        return ResponseEntity.ok(workflowRuleService.getRuleNames());
+    }
+    
+    /**
+     * Streams one JSON line per in-flight process whose guard outcome differs between the old and new
+     * expression, followed by a {@link GuardDiffSummary} line.
+     */
+    @PostMapping(value = "/guard-diffs", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> diffGuards(@RequestBody GuardDiffRequest request) {
+        StreamingResponseBody body = out -> {
+            GuardDiffSummary summary = guardDiffService.diff(request, entry -> writeLine(out, entry));
+            writeLine(out, summary);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
+    /**
+     * Replays historical processes against a candidate version and streams one JSON line per process it
+     * would have taken elsewhere, followed by a {@link WorkflowSimulationSummary} line.
+     */
+    @PostMapping(value = "/simulations", produces = "application/x-ndjson")
+    ResponseEntity<StreamingResponseBody> simulate(@RequestBody WorkflowSimulationRequest request) {
+        StreamingResponseBody body = out -> {
+            WorkflowSimulationSummary summary = simulationService.simulate(request, divergence -> writeLine(out, divergence));
+            writeLine(out, summary);
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     private WorkflowDefinitionDto toDto(WorkflowDefinition definition) {
         WorkflowDefinitionDto dto = new WorkflowDefinitionDto();
         dto.setId(definition.getId());
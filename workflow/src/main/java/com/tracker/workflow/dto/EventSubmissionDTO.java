@@ -0,0 +1,18 @@
+package com.tracker.workflow.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class EventSubmissionDTO {
+    private String submissionId;
+    private String processInstanceId;
+    private String status;
+    private String currentState;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
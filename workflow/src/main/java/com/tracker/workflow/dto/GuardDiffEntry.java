@@ -0,0 +1,13 @@
+package com.tracker.workflow.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class GuardDiffEntry {
+    private String processInstanceId;
+    private String currentState;
+    private boolean oldResult;
+    private boolean newResult;
+}
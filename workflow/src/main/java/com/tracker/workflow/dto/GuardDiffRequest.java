@@ -0,0 +1,14 @@
+package com.tracker.workflow.dto;
+
+import lombok.Data;
+
+@Data
+public class GuardDiffRequest {
+    private String oldExpression;
+    private String newExpression;
+    /**
+     * Only consider processes currently in this state, typically the source state of the edited transition.
+     */
+    private String sourceState;
+    private String event;
+}
@@ -0,0 +1,15 @@
+package com.tracker.workflow.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class GuardDiffSummary {
+    private long evaluated;
+    private long changed;
+    private long nowPassing;
+    private long nowFailing;
+    private long skipped;
+    private long elapsedMillis;
+}
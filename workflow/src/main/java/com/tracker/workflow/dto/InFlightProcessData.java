@@ -0,0 +1,15 @@
+package com.tracker.workflow.dto;
+
+/**
+ * Projection of an in-flight process: its current state and process data.
+ */
+public interface InFlightProcessData {
+    String getProcessInstanceId();
+
+    String getCurrentState();
+
+    /**
+     * JSON text of {@code process_instances.process_data}, or null.
+     */
+    String getProcessData();
+}
@@ -0,0 +1,11 @@
+package com.tracker.workflow.dto;
+
+import com.tracker.workflow.service.ProcessDataQueryService;
+import lombok.Data;
+
+@Data
+public class ProcessQueryRequest {
+    private String expression;
+    private ProcessDataQueryService.Source source = ProcessDataQueryService.Source.TASK_DATA;
+    private Integer maxResults = 1000;
+}
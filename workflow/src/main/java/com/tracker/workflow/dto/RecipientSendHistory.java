@@ -0,0 +1,15 @@
+package com.tracker.workflow.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the notification messages sent to one recipient since a given time. All notifications
+ * coalesced into one message share its send time, so distinct send times count messages.
+ */
+public interface RecipientSendHistory {
+    String getRecipient();
+
+    long getSends();
+
+    LocalDateTime getFirstSentAt();
+}
@@ -1,7 +1,6 @@
 package com.tracker.workflow.dto;
 
 import com.tracker.workflow.model.TaskStatus;
-import com.tracker.workflow.model.WorkflowStates;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -10,7 +9,7 @@ import java.time.LocalDateTime;
 public class TaskFilterDTO {
     private TaskStatus status;
     private String priority;
-    private WorkflowStates state;
+    private String state;
     private LocalDateTime dueDateFrom;
     private LocalDateTime dueDateTo;
 }
\ No newline at end of file
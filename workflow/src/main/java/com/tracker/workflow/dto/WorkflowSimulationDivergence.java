@@ -0,0 +1,21 @@
+package com.tracker.workflow.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The first historical transition of a process that the candidate version takes differently.
+ */
+@Data
+@Builder
+public class WorkflowSimulationDivergence {
+    private String processInstanceId;
+    // Position of the transition in the process's history, 0 for the first
+    private int eventIndex;
+    private String event;
+    private String fromState;
+    private String historicalState;
+    private String simulatedState;
+    // False when no transition of the candidate accepted the event, so it stayed in simulatedState
+    private boolean accepted;
+}
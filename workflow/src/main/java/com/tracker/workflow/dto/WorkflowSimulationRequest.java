@@ -0,0 +1,20 @@
+package com.tracker.workflow.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class WorkflowSimulationRequest {
+    private String workflowName;
+    /**
+     * Candidate version to simulate, typically one that is about to be activated.
+     */
+    private String version;
+    /**
+     * Only replay processes started in {@code [from, to)}; by default the last
+     * {@code app.tracker.workflow.simulation.default-days} days.
+     */
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
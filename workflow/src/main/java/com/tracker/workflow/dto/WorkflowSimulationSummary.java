@@ -0,0 +1,31 @@
+package com.tracker.workflow.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class WorkflowSimulationSummary {
+    private String workflowName;
+    private String version;
+    private long processes;
+    private long events;
+    private long divergent;
+    private long rejected;
+    /**
+     * Task groups each state would have created under the candidate version.
+     */
+    private Map<String, Long> tasksByState;
+    /**
+     * Task groups each state created historically, per the assignments of the active version.
+     */
+    private Map<String, Long> historicalTasksByState;
+    /**
+     * Task groups the candidate version would have assigned to each role; user and dynamic assignments are
+     * counted under their assignment type.
+     */
+    private Map<String, Long> tasksByRole;
+    private long elapsedMillis;
+}
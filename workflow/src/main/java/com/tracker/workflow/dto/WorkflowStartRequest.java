@@ -6,5 +6,9 @@ import java.util.Map;
 
 @Data
 public class WorkflowStartRequest {
+    /**
+     * Workflow to start; the default workflow when not set.
+     */
+    private String workflowName;
     private Map<String, Object> processData;
 }
\ No newline at end of file
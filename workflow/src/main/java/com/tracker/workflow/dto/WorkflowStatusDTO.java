@@ -10,8 +10,10 @@ import java.util.Map;
 @Builder
 public class WorkflowStatusDTO {
     private String processInstanceId;
+    private String workflowName;
     private String currentState;
     private boolean isActive;
+    private Integer reworkCount;
     private Map<String, Object> processData;
     private List<String> availableActions;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.tracker.workflow.event;
+
+import lombok.Value;
+
+/**
+ * Published by {@link com.tracker.workflow.service.WorkflowDefinitionService} when the active version of a
+ * workflow changes. {@code activeVersion} is null when the workflow was deactivated.
+ */
+@Value
+public class WorkflowActivationChangedEvent {
+    String workflowName;
+    String activeVersion;
+}
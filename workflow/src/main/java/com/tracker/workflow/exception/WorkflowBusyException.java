@@ -0,0 +1,14 @@
+package com.tracker.workflow.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an event cannot be queued because the process's mailbox is full.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WorkflowBusyException extends WorkflowException {
+    public WorkflowBusyException(String message) {
+        super(message);
+    }
+}
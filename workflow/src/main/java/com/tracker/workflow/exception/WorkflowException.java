@@ -4,4 +4,8 @@ public class WorkflowException extends RuntimeException {
     public WorkflowException(String message) {
         super(message);
     }
-}
\ No newline at end of file
+
+    public WorkflowException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
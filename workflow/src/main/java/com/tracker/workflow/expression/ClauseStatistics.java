@@ -0,0 +1,26 @@
+package com.tracker.workflow.expression;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Sampled runtime statistics of one clause of an {@code $and}/{@code $or} node.
+ */
+@Data
+@Builder
+public class ClauseStatistics {
+    /**
+     * Path of the junction within the expression, e.g. {@code $.$and[1].$or}.
+     */
+    private String junction;
+    private String clause;
+    private int authoredPosition;
+    private int currentPosition;
+    private long samples;
+    private long passes;
+    private double averageNanos;
+
+    public double getPassRate() {
+        return samples == 0 ? 0.0 : (double) passes / samples;
+    }
+}
@@ -0,0 +1,118 @@
+package com.tracker.workflow.expression;
+
+import java.util.regex.Pattern;
+
+/**
+ * Single operator applied to a field value, e.g. {@code {"$gte": 1000}}.
+ */
+final class Comparison {
+
+    enum Operator {
+        EQ("$eq"), NE("$ne"), GT("$gt"), GTE("$gte"), LT("$lt"), LTE("$lte"), IN("$in"), NIN("$nin"),
+        EXISTS("$exists"), BETWEEN("$between"), REGEX("$regex");
+
+        final String token;
+
+        Operator(String token) {
+            this.token = token;
+        }
+
+        static Operator fromToken(String token) {
+            for (Operator operator : values()) {
+                if (operator.token.equals(token)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+    }
+
+    final Operator operator;
+    final Literal value;
+    final Literal[] values;
+    final Pattern pattern;
+
+    Comparison(Operator operator, Literal value) {
+        this(operator, value, null, null);
+    }
+
+    Comparison(Operator operator, Literal[] values) {
+        this(operator, null, values, null);
+    }
+
+    Comparison(Operator operator, Pattern pattern) {
+        this(operator, null, null, pattern);
+    }
+
+    private Comparison(Operator operator, Literal value, Literal[] values, Pattern pattern) {
+        this.operator = operator;
+        this.value = value;
+        this.values = values;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @param resolved the field value, or {@link FieldPath#MISSING} when the field is absent
+     */
+    boolean test(Object resolved) {
+        if (operator == Operator.EXISTS) {
+            return value.kind == Literal.Kind.BOOLEAN && (resolved != FieldPath.MISSING) == value.bool;
+        }
+        Object fieldValue = FieldPath.orNull(resolved);
+        switch (operator) {
+            case EQ:
+                return value.matches(fieldValue);
+            case NE:
+                return !value.matches(fieldValue);
+            case GT:
+                return fieldValue instanceof Number && value.isNumber()
+                        && ((Number) fieldValue).doubleValue() > value.number;
+            case GTE:
+                return fieldValue instanceof Number && value.isNumber()
+                        && ((Number) fieldValue).doubleValue() >= value.number;
+            case LT:
+                return fieldValue instanceof Number && value.isNumber()
+                        && ((Number) fieldValue).doubleValue() < value.number;
+            case LTE:
+                return fieldValue instanceof Number && value.isNumber()
+                        && ((Number) fieldValue).doubleValue() <= value.number;
+            case IN:
+                return matchesAny(fieldValue);
+            case NIN:
+                return !matchesAny(fieldValue);
+            case BETWEEN:
+                return isBetween(fieldValue);
+            case REGEX:
+                return fieldValue instanceof String && pattern.matcher((String) fieldValue).find();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether the operand of {@code $between} is an array of two numbers.
+     */
+    boolean hasNumericRange() {
+        return values != null && values.length == 2 && values[0].isNumber() && values[1].isNumber();
+    }
+
+    private boolean isBetween(Object fieldValue) {
+        if (!(fieldValue instanceof Number) || !hasNumericRange()) {
+            return false;
+        }
+        double number = ((Number) fieldValue).doubleValue();
+        return number >= values[0].number && number <= values[1].number;
+    }
+
+    private boolean matchesAny(Object fieldValue) {
+        if (values == null) {
+            return false;
+        }
+        for (Literal candidate : values) {
+            if (candidate.matches(fieldValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
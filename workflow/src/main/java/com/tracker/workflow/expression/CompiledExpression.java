@@ -0,0 +1,195 @@
+package com.tracker.workflow.expression;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A guard expression compiled once into an immutable predicate tree. Evaluation does no JSON
+ * parsing and allocates nothing beyond what the supplied maps do on lookup.
+ * <p>
+ * When a promotion threshold is set, the tree is interpreted until it has been evaluated that many
+ * times and is then replaced by a generated method-handle predicate (see {@link MethodHandleCodegen}).
+ * <p>
+ * When a profile sample interval is set, one in that many evaluations records per-clause cost and
+ * pass rates in the {@code $and}/{@code $or} nodes, which use them to move the clause most likely to
+ * decide the outcome to the front. A promoted predicate is regenerated after such a reorder.
+ */
+@Log4j2
+public final class CompiledExpression {
+
+    /**
+     * Promotion threshold that keeps the expression on the tree interpreter.
+     */
+    public static final int NEVER_PROMOTE = 0;
+
+    /**
+     * Profile sample interval that keeps clauses in authored order.
+     */
+    public static final int NEVER_PROFILE = 0;
+
+    private final String source;
+    private final ExpressionNode root;
+    private final int promotionThreshold;
+    private final int profileSampleInterval;
+    private final Set<String> referencedFields;
+
+    // Racy on purpose: approximate counts are enough to decide when to promote and when to sample
+    private int invocations;
+    private int unsampledInvocations;
+    private volatile MethodHandle generated;
+    private volatile boolean promotionFailed;
+
+    CompiledExpression(String source, ExpressionNode root, int promotionThreshold) {
+        this(source, root, promotionThreshold, NEVER_PROFILE);
+    }
+
+    CompiledExpression(String source, ExpressionNode root, int promotionThreshold, int profileSampleInterval) {
+        this.source = source;
+        this.root = root;
+        this.promotionThreshold = promotionThreshold;
+        this.profileSampleInterval = ExpressionNodes.containsJunction(root) ? profileSampleInterval : NEVER_PROFILE;
+        this.referencedFields = ExpressionNodes.referencedFields(root);
+    }
+
+    /**
+     * Expression that never matches; used for sources that failed to compile.
+     */
+    public static CompiledExpression alwaysFalse(String source) {
+        return new CompiledExpression(source, ExpressionNodes.FALSE, NEVER_PROMOTE);
+    }
+
+    /**
+     * Expression that always matches; used for rules without a condition.
+     */
+    public static CompiledExpression alwaysTrue(String source) {
+        return new CompiledExpression(source, ExpressionNodes.TRUE, NEVER_PROMOTE);
+    }
+
+    public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+        if (profileSampleInterval > 0 && ++unsampledInvocations >= profileSampleInterval) {
+            unsampledInvocations = 0;
+            return evaluateProfiled(processData, context);
+        }
+        MethodHandle handle = generated;
+        if (handle != null) {
+            return invoke(handle, processData, context);
+        }
+        if (promotionThreshold > 0 && !promotionFailed && ++invocations >= promotionThreshold) {
+            promote();
+        }
+        return root.evaluate(processData, context);
+    }
+
+    /**
+     * Whether evaluation currently runs through the generated method-handle predicate.
+     */
+    public boolean isPromoted() {
+        return generated != null;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Names of the fields the expression reads, looked up in process data first and then in the context.
+     * Dotted paths contribute both their full name and their first segment.
+     */
+    public Set<String> getReferencedFields() {
+        return referencedFields;
+    }
+
+    /**
+     * Clause statistics of every {@code $and}/{@code $or} node, in current evaluation order.
+     */
+    public ExpressionStatistics getStatistics() {
+        List<ClauseStatistics> clauses = new ArrayList<>();
+        collectStatistics(root, "$", clauses);
+        return ExpressionStatistics.builder()
+                .source(source)
+                .promoted(isPromoted())
+                .clauses(clauses)
+                .build();
+    }
+
+    ExpressionNode getRoot() {
+        return root;
+    }
+
+    synchronized void promote() {
+        if (generated != null || promotionFailed) {
+            return;
+        }
+        try {
+            generated = MethodHandleCodegen.generate(root);
+            log.debug("Promoted expression to method-handle predicate: {}", source);
+        } catch (RuntimeException e) {
+            promotionFailed = true;
+            log.warn("Could not generate method-handle predicate, staying on interpreter: {}", source, e);
+        }
+    }
+
+    private boolean evaluateProfiled(Map<String, Object> processData, Map<String, Object> context) {
+        ExpressionNodes.ProfileRun run = new ExpressionNodes.ProfileRun();
+        boolean result = ExpressionNodes.evaluateProfiled(root, processData, context, run);
+        if (run.reordered) {
+            log.debug("Reordered clauses of expression: {}", source);
+            regenerate();
+        }
+        return result;
+    }
+
+    private synchronized void regenerate() {
+        if (generated == null) {
+            return;
+        }
+        try {
+            generated = MethodHandleCodegen.generate(root);
+        } catch (RuntimeException e) {
+            log.warn("Could not regenerate method-handle predicate, keeping previous clause order: {}", source, e);
+        }
+    }
+
+    private static void collectStatistics(ExpressionNode node, String path, List<ClauseStatistics> statistics) {
+        if (node instanceof ExpressionNodes.NotNode) {
+            collectStatistics(((ExpressionNodes.NotNode) node).child, path + ".$not", statistics);
+        }
+        if (!(node instanceof ExpressionNodes.JunctionNode)) {
+            return;
+        }
+
+        ExpressionNodes.JunctionNode junction = (ExpressionNodes.JunctionNode) node;
+        String junctionPath = path + (junction instanceof ExpressionNodes.AndNode ? ".$and" : ".$or");
+        ExpressionNodes.ClauseProfile[] profiles = junction.getProfiles();
+        for (int position = 0; position < profiles.length; position++) {
+            ExpressionNodes.ClauseProfile profile = profiles[position];
+            statistics.add(ClauseStatistics.builder()
+                    .junction(junctionPath)
+                    .clause(profile.clause)
+                    .authoredPosition(profile.authoredPosition)
+                    .currentPosition(position)
+                    .samples(profile.samples.sum())
+                    .passes(profile.passes.sum())
+                    .averageNanos(profile.averageNanos())
+                    .build());
+        }
+        for (ExpressionNodes.ClauseProfile profile : profiles) {
+            collectStatistics(profile.node, junctionPath + "[" + profile.authoredPosition + "]", statistics);
+        }
+    }
+
+    private static boolean invoke(MethodHandle handle, Map<String, Object> processData, Map<String, Object> context) {
+        try {
+            return (boolean) handle.invokeExact((Map) processData, (Map) context);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
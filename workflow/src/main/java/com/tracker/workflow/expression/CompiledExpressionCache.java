@@ -0,0 +1,90 @@
+package com.tracker.workflow.expression;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of compiled expressions keyed by expression text. Reads are lock-free; when the
+ * cache grows past its maximum size the oldest entries are evicted first.
+ */
+public class CompiledExpressionCache {
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<String, CompiledExpression> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CompiledExpressionCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached expression, compiling and caching it on a miss.
+     *
+     * @param expression the expression text
+     * @param compiler compiles the text on a miss; called outside of any lock
+     * @return the compiled expression
+     */
+    public CompiledExpression get(String expression, Function<String, CompiledExpression> compiler) {
+        CompiledExpression compiled = entries.get(expression);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+
+        misses.increment();
+        compiled = compiler.apply(expression);
+
+        CompiledExpression existing = entries.putIfAbsent(expression, compiled);
+        if (existing != null) {
+            return existing;
+        }
+        insertionOrder.add(expression);
+        evictIfNecessary();
+        return compiled;
+    }
+
+    /**
+     * Snapshot of the currently cached expressions.
+     */
+    public List<CompiledExpression> values() {
+        return List.copyOf(entries.values());
+    }
+
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+    }
+
+    public ExpressionCacheStats getStats() {
+        return ExpressionCacheStats.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .size(entries.size())
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    private void evictIfNecessary() {
+        while (entries.size() > maximumSize) {
+            String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+}
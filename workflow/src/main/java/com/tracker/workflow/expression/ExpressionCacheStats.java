@@ -0,0 +1,22 @@
+package com.tracker.workflow.expression;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Point-in-time metrics of the compiled expression cache.
+ */
+@Data
+@Builder
+public class ExpressionCacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private int maximumSize;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,190 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.tracker.workflow.expression.ExpressionNodes.AndNode;
+import com.tracker.workflow.expression.ExpressionNodes.FieldNode;
+import com.tracker.workflow.expression.ExpressionNodes.NotNode;
+import com.tracker.workflow.expression.ExpressionNodes.OrNode;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a parsed JSON guard expression ({@code $and}, {@code $or}, {@code $not} and field
+ * operators) into an immutable {@link ExpressionNode} tree. Field names may be dotted paths into
+ * nested maps (see {@link FieldPath}); regular expressions are compiled here, once.
+ */
+@Log4j2
+public final class ExpressionCompiler {
+
+    static final String REGEX_OPTIONS = "$options";
+
+    /**
+     * {@code $options} letters and the {@link Pattern} flags they map to, by position.
+     */
+    static final String REGEX_FLAGS = "imsx";
+    static final int[] PATTERN_FLAGS = {Pattern.CASE_INSENSITIVE, Pattern.MULTILINE, Pattern.DOTALL, Pattern.COMMENTS};
+
+    private ExpressionCompiler() {
+    }
+
+    public static CompiledExpression compile(String source, JsonNode expression) {
+        return compile(source, expression, CompiledExpression.NEVER_PROMOTE);
+    }
+
+    /**
+     * Compiles an expression that is promoted to a generated method-handle predicate after
+     * {@code promotionThreshold} evaluations, or never when the threshold is {@link CompiledExpression#NEVER_PROMOTE}.
+     */
+    public static CompiledExpression compile(String source, JsonNode expression, int promotionThreshold) {
+        return compile(source, expression, promotionThreshold, CompiledExpression.NEVER_PROFILE);
+    }
+
+    /**
+     * Compiles an expression that additionally profiles one in every {@code profileSampleInterval}
+     * evaluations and reorders its {@code $and}/{@code $or} clauses from the collected statistics.
+     */
+    public static CompiledExpression compile(String source, JsonNode expression, int promotionThreshold,
+                                             int profileSampleInterval) {
+        return new CompiledExpression(source, compileNode(expression), promotionThreshold, profileSampleInterval);
+    }
+
+    static ExpressionNode compileNode(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            return ExpressionNodes.FALSE;
+        }
+        if (node.has("$and")) {
+            JsonNode children = node.get("$and");
+            if (!children.isArray()) {
+                return ExpressionNodes.FALSE;
+            }
+            return new AndNode(compileChildren(children), clauses(children));
+        }
+        if (node.has("$or")) {
+            JsonNode children = node.get("$or");
+            if (!children.isArray()) {
+                return ExpressionNodes.FALSE;
+            }
+            return new OrNode(compileChildren(children), clauses(children));
+        }
+        if (node.has("$not")) {
+            return new NotNode(compileNode(node.get("$not")));
+        }
+
+        List<ExpressionNode> fieldNodes = new ArrayList<>();
+        List<String> fieldClauses = new ArrayList<>();
+        var fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            fieldNodes.add(compileField(field.getKey(), field.getValue()));
+            fieldClauses.add(JsonNodeFactory.instance.objectNode().set(field.getKey(), field.getValue()).toString());
+        }
+
+        if (fieldNodes.isEmpty()) {
+            return ExpressionNodes.TRUE;
+        }
+        if (fieldNodes.size() == 1) {
+            return fieldNodes.get(0);
+        }
+        return new AndNode(fieldNodes.toArray(new ExpressionNode[0]), fieldClauses.toArray(new String[0]));
+    }
+
+    private static ExpressionNode[] compileChildren(JsonNode array) {
+        ExpressionNode[] children = new ExpressionNode[array.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compileNode(array.get(i));
+        }
+        return children;
+    }
+
+    private static String[] clauses(JsonNode array) {
+        String[] clauses = new String[array.size()];
+        for (int i = 0; i < clauses.length; i++) {
+            clauses[i] = array.get(i).toString();
+        }
+        return clauses;
+    }
+
+    private static ExpressionNode compileField(String fieldName, JsonNode condition) {
+        if (!condition.isObject()) {
+            return new FieldNode(fieldName, new Comparison[] {
+                new Comparison(Comparison.Operator.EQ, Literal.of(condition))
+            });
+        }
+
+        List<Comparison> comparisons = new ArrayList<>();
+        var operators = condition.fields();
+        while (operators.hasNext()) {
+            Map.Entry<String, JsonNode> entry = operators.next();
+            if (REGEX_OPTIONS.equals(entry.getKey())) {
+                // Modifier of $regex, not an operator of its own
+                continue;
+            }
+            Comparison.Operator operator = Comparison.Operator.fromToken(entry.getKey());
+            if (operator == null) {
+                // An unknown operator makes the whole condition false, whatever the data
+                log.warn("Unknown operator: {}", entry.getKey());
+                return ExpressionNodes.FALSE;
+            }
+            if (operator == Comparison.Operator.REGEX) {
+                Pattern pattern = compilePattern(entry.getValue(), condition.get(REGEX_OPTIONS));
+                if (pattern == null) {
+                    return ExpressionNodes.FALSE;
+                }
+                comparisons.add(new Comparison(operator, pattern));
+                continue;
+            }
+            comparisons.add(compileComparison(operator, entry.getValue()));
+        }
+        return new FieldNode(fieldName, comparisons.toArray(new Comparison[0]));
+    }
+
+    /**
+     * Compiles a {@code $regex} operand once; {@code $options} accepts the flags {@code i}, {@code m},
+     * {@code s} and {@code x}. Returns null, which makes the condition false, for invalid input.
+     */
+    private static Pattern compilePattern(JsonNode regex, JsonNode options) {
+        if (!regex.isTextual() || (options != null && !options.isTextual())) {
+            log.warn("$regex and $options must be strings: {}, {}", regex, options);
+            return null;
+        }
+
+        int flags = 0;
+        String optionText = options != null ? options.asText() : "";
+        for (char option : optionText.toCharArray()) {
+            int flag = REGEX_FLAGS.indexOf(option);
+            if (flag < 0) {
+                log.warn("Unknown $regex option: {}", option);
+                return null;
+            }
+            flags |= PATTERN_FLAGS[flag];
+        }
+
+        try {
+            return Pattern.compile(regex.asText(), flags);
+        } catch (PatternSyntaxException e) {
+            log.warn("Invalid $regex: {}", regex.asText(), e);
+            return null;
+        }
+    }
+
+    private static Comparison compileComparison(Comparison.Operator operator, JsonNode value) {
+        if (operator == Comparison.Operator.IN || operator == Comparison.Operator.NIN
+                || operator == Comparison.Operator.BETWEEN) {
+            if (!value.isArray()) {
+                return new Comparison(operator, (Literal[]) null);
+            }
+            Literal[] literals = new Literal[value.size()];
+            for (int i = 0; i < literals.length; i++) {
+                literals[i] = Literal.of(value.get(i));
+            }
+            return new Comparison(operator, literals);
+        }
+        return new Comparison(operator, Literal.of(value));
+    }
+}
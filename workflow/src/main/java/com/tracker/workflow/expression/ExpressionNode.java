@@ -0,0 +1,18 @@
+package com.tracker.workflow.expression;
+
+import java.util.Map;
+
+/**
+ * Node of a compiled guard expression tree.
+ */
+public interface ExpressionNode {
+
+    /**
+     * Evaluates this node against the given process data and context.
+     *
+     * @param processData the process data of the workflow instance
+     * @param context the transition context (current state, target state, event)
+     * @return true if the condition holds
+     */
+    boolean evaluate(Map<String, Object> processData, Map<String, Object> context);
+}
@@ -0,0 +1,324 @@
+package com.tracker.workflow.expression;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node implementations produced by {@link ExpressionCompiler}.
+ * <p>
+ * Constant, field and {@code $not} nodes are immutable. {@code $and} and {@code $or} nodes are adaptive:
+ * they keep per-clause sampling counters and may reorder their children. The child array is volatile and
+ * replaced as a whole, never changed in place, so concurrent evaluations always see a complete order;
+ * counters are {@link LongAdder}s updated without locking, and reordering is serialized on the node. Any
+ * order evaluates to the same result, so readers that still hold the previous array stay correct.
+ */
+final class ExpressionNodes {
+
+    static final ExpressionNode TRUE = new ConstantNode(true);
+    static final ExpressionNode FALSE = new ConstantNode(false);
+
+    private ExpressionNodes() {
+    }
+
+    static final class ConstantNode implements ExpressionNode {
+        final boolean value;
+
+        ConstantNode(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+            return value;
+        }
+    }
+
+    static final class AndNode extends JunctionNode {
+
+        AndNode(ExpressionNode[] children) {
+            super(children, null);
+        }
+
+        AndNode(ExpressionNode[] children, String[] clauses) {
+            super(children, clauses);
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+            for (ExpressionNode child : children) {
+                if (!child.evaluate(processData, context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean decidingOutcome() {
+            return false;
+        }
+    }
+
+    static final class OrNode extends JunctionNode {
+
+        OrNode(ExpressionNode[] children) {
+            super(children, null);
+        }
+
+        OrNode(ExpressionNode[] children, String[] clauses) {
+            super(children, clauses);
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+            for (ExpressionNode child : children) {
+                if (child.evaluate(processData, context)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean decidingOutcome() {
+            return true;
+        }
+    }
+
+    static final class NotNode implements ExpressionNode {
+        final ExpressionNode child;
+
+        NotNode(ExpressionNode child) {
+            this.child = child;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+            return !child.evaluate(processData, context);
+        }
+    }
+
+    /**
+     * Conditions on one field; all comparisons must hold.
+     */
+    static final class FieldNode implements ExpressionNode {
+        final String fieldName;
+        final FieldPath path;
+        final Comparison[] comparisons;
+
+        FieldNode(String fieldName, Comparison[] comparisons) {
+            this.fieldName = fieldName;
+            this.path = FieldPath.of(fieldName);
+            this.comparisons = comparisons;
+        }
+
+        @Override
+        public boolean evaluate(Map<String, Object> processData, Map<String, Object> context) {
+            Object fieldValue = path.resolve(processData, context);
+            for (Comparison comparison : comparisons) {
+                if (!comparison.test(fieldValue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Top-level process data or context keys the expression reads: the full name of every field and,
+     * for dotted paths, also the first segment.
+     */
+    static Set<String> referencedFields(ExpressionNode root) {
+        Set<String> fields = new LinkedHashSet<>();
+        collectFields(root, fields);
+        return Set.copyOf(fields);
+    }
+
+    private static void collectFields(ExpressionNode node, Set<String> fields) {
+        if (node instanceof FieldNode) {
+            FieldPath path = ((FieldNode) node).path;
+            fields.add(path.name);
+            fields.add(path.rootKey());
+        } else if (node instanceof JunctionNode) {
+            for (ExpressionNode child : ((JunctionNode) node).children) {
+                collectFields(child, fields);
+            }
+        } else if (node instanceof NotNode) {
+            collectFields(((NotNode) node).child, fields);
+        }
+    }
+
+    /**
+     * Evaluates the tree while recording clause statistics in every {@code $and}/{@code $or} node.
+     */
+    static boolean evaluateProfiled(ExpressionNode node, Map<String, Object> processData,
+                                    Map<String, Object> context, ProfileRun run) {
+        if (node instanceof JunctionNode) {
+            return ((JunctionNode) node).evaluateProfiled(processData, context, run);
+        }
+        if (node instanceof NotNode) {
+            return !evaluateProfiled(((NotNode) node).child, processData, context, run);
+        }
+        return node.evaluate(processData, context);
+    }
+
+    static boolean containsJunction(ExpressionNode node) {
+        if (node instanceof JunctionNode) {
+            return true;
+        }
+        return node instanceof NotNode && containsJunction(((NotNode) node).child);
+    }
+
+    /**
+     * Outcome of one profiled evaluation.
+     */
+    static final class ProfileRun {
+        boolean reordered;
+    }
+
+    /**
+     * Runtime statistics of one child of a junction. Statistics travel with the clause when the
+     * junction is reordered.
+     */
+    static final class ClauseProfile {
+        final ExpressionNode node;
+        final String clause;
+        final int authoredPosition;
+        final LongAdder samples = new LongAdder();
+        final LongAdder passes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        ClauseProfile(ExpressionNode node, String clause, int authoredPosition) {
+            this.node = node;
+            this.clause = clause;
+            this.authoredPosition = authoredPosition;
+        }
+
+        void record(boolean passed, long elapsedNanos) {
+            samples.increment();
+            if (passed) {
+                passes.increment();
+            }
+            nanos.add(elapsedNanos);
+        }
+
+        /**
+         * Pass probability with add-one smoothing, so unsampled clauses start at one half.
+         */
+        double passRate() {
+            return (passes.sum() + 1.0) / (samples.sum() + 2.0);
+        }
+
+        double averageNanos() {
+            long count = samples.sum();
+            return count == 0 ? 0.0 : (double) nanos.sum() / count;
+        }
+    }
+
+    /**
+     * Base of {@code $and} and {@code $or}. The hot path iterates {@link #children}; sampled
+     * evaluations go through {@link #evaluateProfiled}, which evaluates every child without
+     * short-circuiting so that each clause gets unconditional statistics, and periodically
+     * reorders the children so that the clause most likely to decide the outcome cheaply runs first.
+     */
+    abstract static class JunctionNode implements ExpressionNode {
+
+        /**
+         * Number of profiled evaluations between two ordering decisions.
+         */
+        static final int REORDER_SAMPLES = 64;
+
+        /**
+         * A new order is only adopted when its expected cost is below this fraction of the current one,
+         * so that measurement noise does not flip clauses back and forth.
+         */
+        static final double REORDER_GAIN = 0.9;
+
+        volatile ExpressionNode[] children;
+        private volatile ClauseProfile[] profiles;
+        private final AtomicInteger samplesSinceReorder = new AtomicInteger();
+
+        JunctionNode(ExpressionNode[] children, String[] clauses) {
+            ClauseProfile[] authored = new ClauseProfile[children.length];
+            for (int i = 0; i < children.length; i++) {
+                authored[i] = new ClauseProfile(children[i], clauses != null ? clauses[i] : null, i);
+            }
+            this.children = children;
+            this.profiles = authored;
+        }
+
+        /**
+         * The child outcome that decides the junction: false for {@code $and}, true for {@code $or}.
+         */
+        abstract boolean decidingOutcome();
+
+        boolean evaluateProfiled(Map<String, Object> processData, Map<String, Object> context, ProfileRun run) {
+            boolean decided = false;
+            for (ClauseProfile profile : profiles) {
+                long start = System.nanoTime();
+                boolean passed = ExpressionNodes.evaluateProfiled(profile.node, processData, context, run);
+                profile.record(passed, System.nanoTime() - start);
+                decided |= passed == decidingOutcome();
+            }
+            if (samplesSinceReorder.incrementAndGet() >= REORDER_SAMPLES) {
+                samplesSinceReorder.set(0);
+                run.reordered |= reorder();
+            }
+            return decided == decidingOutcome();
+        }
+
+        ClauseProfile[] getProfiles() {
+            return profiles;
+        }
+
+        synchronized boolean reorder() {
+            ClauseProfile[] current = profiles;
+            ClauseProfile[] candidate = current.clone();
+            Arrays.sort(candidate, Comparator.comparingDouble(this::rank)
+                    .thenComparingInt(profile -> profile.authoredPosition));
+            if (Arrays.equals(candidate, current) || expectedCost(candidate) >= expectedCost(current) * REORDER_GAIN) {
+                return false;
+            }
+
+            ExpressionNode[] reordered = new ExpressionNode[candidate.length];
+            for (int i = 0; i < candidate.length; i++) {
+                reordered[i] = candidate[i].node;
+            }
+            profiles = candidate;
+            children = reordered;
+            return true;
+        }
+
+        /**
+         * Cost per unit of probability that the clause decides the junction; ascending rank
+         * minimizes the expected cost for independent clauses.
+         */
+        private double rank(ClauseProfile profile) {
+            return cost(profile) / decidingProbability(profile);
+        }
+
+        private double expectedCost(ClauseProfile[] order) {
+            double reached = 1.0;
+            double total = 0.0;
+            for (ClauseProfile profile : order) {
+                total += reached * cost(profile);
+                reached *= 1.0 - decidingProbability(profile);
+            }
+            return total;
+        }
+
+        private double decidingProbability(ClauseProfile profile) {
+            return decidingOutcome() ? profile.passRate() : 1.0 - profile.passRate();
+        }
+
+        private static double cost(ClauseProfile profile) {
+            // Keeps clauses that are too cheap to measure comparable
+            return profile.averageNanos() + 1.0;
+        }
+    }
+}
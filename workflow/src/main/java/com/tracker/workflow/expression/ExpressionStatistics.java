@@ -0,0 +1,17 @@
+package com.tracker.workflow.expression;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Point-in-time clause statistics of a compiled expression.
+ */
+@Data
+@Builder
+public class ExpressionStatistics {
+    private String source;
+    private boolean promoted;
+    private List<ClauseStatistics> clauses;
+}
@@ -0,0 +1,116 @@
+package com.tracker.workflow.expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Field reference of an expression, split into segments once at compile time. A dotted name such as
+ * {@code budget.capex.amount} walks nested maps (and lists, for numeric segments) below the first segment.
+ * <p>
+ * Resolution order: the whole name as a key of the process data, then the dotted path in the process
+ * data, then the same two in the context. A key that is present with a null value still shadows
+ * everything after it.
+ */
+final class FieldPath {
+
+    /**
+     * Returned by {@link #resolve} when the field is absent, so that {@code $exists} can tell a missing
+     * field from one that holds null. All other operators see it as null.
+     */
+    static final Object MISSING = new Object() {
+        @Override
+        public String toString() {
+            return "MISSING";
+        }
+    };
+
+    private static final Pattern SEPARATOR = Pattern.compile("\\.");
+
+    final String name;
+    // Null for plain names, which resolve with a single map lookup
+    final String[] segments;
+
+    private FieldPath(String name, String[] segments) {
+        this.name = name;
+        this.segments = segments;
+    }
+
+    static FieldPath of(String name) {
+        if (name.indexOf('.') < 0 || name.startsWith(".") || name.endsWith(".") || name.contains("..")) {
+            return new FieldPath(name, null);
+        }
+        return new FieldPath(name, SEPARATOR.split(name));
+    }
+
+    boolean isNested() {
+        return segments != null;
+    }
+
+    /**
+     * Top-level key whose value a nested path reads; the name itself for plain names.
+     */
+    String rootKey() {
+        return segments != null ? segments[0] : name;
+    }
+
+    Object resolve(Map<String, Object> processData, Map<String, Object> context) {
+        Object value = resolveIn(processData);
+        return value != MISSING ? value : resolveIn(context);
+    }
+
+    static Object orNull(Object value) {
+        return value == MISSING ? null : value;
+    }
+
+    private Object resolveIn(Map<String, Object> source) {
+        Object value = source.get(name);
+        if (value != null || source.containsKey(name)) {
+            return value;
+        }
+        if (segments == null) {
+            return MISSING;
+        }
+
+        Object current = source.get(segments[0]);
+        if (current == null && !source.containsKey(segments[0])) {
+            return MISSING;
+        }
+        for (int i = 1; i < segments.length; i++) {
+            current = child(current, segments[i]);
+            if (current == MISSING) {
+                return MISSING;
+            }
+        }
+        return current;
+    }
+
+    private static Object child(Object parent, String segment) {
+        if (parent instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) parent;
+            Object value = map.get(segment);
+            return value != null || map.containsKey(segment) ? value : MISSING;
+        }
+        if (parent instanceof List) {
+            List<?> list = (List<?>) parent;
+            int index = index(segment);
+            return index >= 0 && index < list.size() ? list.get(index) : MISSING;
+        }
+        return MISSING;
+    }
+
+    private static int index(String segment) {
+        if (segment.isEmpty() || segment.length() > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+}
@@ -0,0 +1,25 @@
+package com.tracker.workflow.expression;
+
+import java.util.List;
+
+/**
+ * SQL boolean predicate over a jsonb column with its positional ({@code ?1, ?2, ...}) parameters.
+ */
+public final class JsonbPredicate {
+
+    private final String sql;
+    private final List<Object> parameters;
+
+    JsonbPredicate(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = List.copyOf(parameters);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,312 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tracker.workflow.expression.ExpressionNodes.AndNode;
+import com.tracker.workflow.expression.ExpressionNodes.ConstantNode;
+import com.tracker.workflow.expression.ExpressionNodes.FieldNode;
+import com.tracker.workflow.expression.ExpressionNodes.NotNode;
+import com.tracker.workflow.expression.ExpressionNodes.OrNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a compiled expression into a parameterized PostgreSQL predicate over a jsonb column.
+ * <p>
+ * Equality uses containment ({@code @>}) and numeric ranges use jsonpath predicate checks
+ * ({@code @@}), both of which a {@code jsonb_path_ops} GIN index can serve. Leaves in positive
+ * position are emitted as bare operators so that the planner can use the index; a {@code NULL}
+ * there already rejects the row. Only leaves under an odd number of negations ({@code $not},
+ * {@code $ne}, {@code $nin}, {@code $exists: false}) are wrapped so that they yield
+ * {@code FALSE} rather than {@code NULL}, which keeps the negation consistent with the Java evaluator
+ * when a field is missing.
+ * <p>
+ * Differences from {@link CompiledExpression#evaluate}: only the jsonb column is consulted (no
+ * transition context), text literals only match JSON strings rather than any value whose
+ * {@code toString()} is equal, dotted field names are only read as nested paths (never as a literal
+ * key containing dots), and {@code $regex} runs as jsonpath {@code like_regex}, whose syntax is
+ * close to but not identical with {@link java.util.regex.Pattern}.
+ */
+public final class JsonbPredicateTranslator {
+
+    private JsonbPredicateTranslator() {
+    }
+
+    /**
+     * @param expression the compiled expression
+     * @param column the jsonb column reference, e.g. {@code t.task_data}; must be trusted SQL
+     * @param firstParameterIndex ordinal of the first generated parameter
+     */
+    public static JsonbPredicate translate(CompiledExpression expression, String column, int firstParameterIndex) {
+        Translation translation = new Translation(column, firstParameterIndex);
+        translation.append(expression.getRoot());
+        return new JsonbPredicate(translation.sql.toString(), translation.parameters);
+    }
+
+    private static final class Translation {
+        private final String column;
+        private final int firstParameterIndex;
+        private final StringBuilder sql = new StringBuilder();
+        private final List<Object> parameters = new ArrayList<>();
+        // Whether the node being appended sits under an odd number of negations
+        private boolean negated;
+
+        Translation(String column, int firstParameterIndex) {
+            this.column = column;
+            this.firstParameterIndex = firstParameterIndex;
+        }
+
+        void append(ExpressionNode node) {
+            if (node instanceof ConstantNode) {
+                sql.append(((ConstantNode) node).value ? "TRUE" : "FALSE");
+            } else if (node instanceof AndNode) {
+                appendJunction(((AndNode) node).children, " AND ", "TRUE");
+            } else if (node instanceof OrNode) {
+                appendJunction(((OrNode) node).children, " OR ", "FALSE");
+            } else if (node instanceof NotNode) {
+                sql.append("NOT (");
+                negated = !negated;
+                append(((NotNode) node).child);
+                negated = !negated;
+                sql.append(')');
+            } else if (node instanceof FieldNode) {
+                appendField((FieldNode) node);
+            } else {
+                throw new IllegalArgumentException("Unsupported expression node: " + node.getClass().getName());
+            }
+        }
+
+        private void appendJunction(ExpressionNode[] children, String operator, String identity) {
+            if (children.length == 0) {
+                sql.append(identity);
+                return;
+            }
+            sql.append('(');
+            for (int i = 0; i < children.length; i++) {
+                if (i > 0) {
+                    sql.append(operator);
+                }
+                append(children[i]);
+            }
+            sql.append(')');
+        }
+
+        private void appendField(FieldNode node) {
+            if (node.comparisons.length == 0) {
+                sql.append("TRUE");
+                return;
+            }
+            sql.append('(');
+            for (int i = 0; i < node.comparisons.length; i++) {
+                if (i > 0) {
+                    sql.append(" AND ");
+                }
+                appendComparison(node.path, node.comparisons[i]);
+            }
+            sql.append(')');
+        }
+
+        private void appendComparison(FieldPath field, Comparison comparison) {
+            switch (comparison.operator) {
+                case EQ:
+                    appendEquals(field, comparison.value);
+                    break;
+                case NE:
+                    sql.append("NOT ");
+                    negated = !negated;
+                    appendEquals(field, comparison.value);
+                    negated = !negated;
+                    break;
+                case GT:
+                    appendRange(field, ">", comparison.value);
+                    break;
+                case GTE:
+                    appendRange(field, ">=", comparison.value);
+                    break;
+                case LT:
+                    appendRange(field, "<", comparison.value);
+                    break;
+                case LTE:
+                    appendRange(field, "<=", comparison.value);
+                    break;
+                case IN:
+                    appendAnyOf(field, comparison.values);
+                    break;
+                case NIN:
+                    sql.append("NOT ");
+                    negated = !negated;
+                    appendAnyOf(field, comparison.values);
+                    negated = !negated;
+                    break;
+                case EXISTS:
+                    appendExists(field, comparison.value);
+                    break;
+                case BETWEEN:
+                    appendBetween(field, comparison);
+                    break;
+                case REGEX:
+                    appendJsonPath(jsonPath(field) + " like_regex " + jsonPathString(comparison.pattern.pattern())
+                            + regexFlags(comparison.pattern));
+                    break;
+                default:
+                    sql.append("FALSE");
+            }
+        }
+
+        private void appendAnyOf(FieldPath field, Literal[] values) {
+            if (values == null || values.length == 0) {
+                sql.append("FALSE");
+                return;
+            }
+            sql.append('(');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sql.append(" OR ");
+                }
+                appendEquals(field, values[i]);
+            }
+            sql.append(')');
+        }
+
+        private void appendEquals(FieldPath field, Literal literal) {
+            if (literal.kind == Literal.Kind.NULL) {
+                // Missing keys and JSON null both count as null, as in the Java evaluator
+                if (field.isNested()) {
+                    sql.append("(COALESCE(").append(column).append(" #> CAST(").append(parameter(textArray(field)))
+                            .append(" AS text[]), CAST('null' AS jsonb)) = CAST('null' AS jsonb))");
+                } else {
+                    sql.append("(COALESCE(").append(column).append(" -> CAST(").append(parameter(field.name))
+                            .append(" AS text), CAST('null' AS jsonb)) = CAST('null' AS jsonb))");
+                }
+                return;
+            }
+
+            ObjectNode document = JsonNodeFactory.instance.objectNode();
+            ObjectNode parent = document;
+            String key = field.name;
+            if (field.isNested()) {
+                for (int i = 0; i < field.segments.length - 1; i++) {
+                    parent = parent.putObject(field.segments[i]);
+                }
+                key = field.segments[field.segments.length - 1];
+            }
+            switch (literal.kind) {
+                case TEXT:
+                    parent.put(key, literal.text);
+                    break;
+                case NUMBER:
+                    parent.put(key, literal.number);
+                    break;
+                case BOOLEAN:
+                    parent.put(key, literal.bool);
+                    break;
+                default:
+                    sql.append("FALSE");
+                    return;
+            }
+            appendOperator(" @> CAST(" + parameter(document.toString()) + " AS jsonb)");
+        }
+
+        private void appendRange(FieldPath field, String operator, Literal bound) {
+            if (!bound.isNumber()) {
+                sql.append("FALSE");
+                return;
+            }
+            appendJsonPath(jsonPath(field) + " " + operator + " " + number(bound));
+        }
+
+        private void appendBetween(FieldPath field, Comparison comparison) {
+            if (!comparison.hasNumericRange()) {
+                sql.append("FALSE");
+                return;
+            }
+            String path = jsonPath(field);
+            appendJsonPath(path + " >= " + number(comparison.values[0]) + " && " + path + " <= "
+                    + number(comparison.values[1]));
+        }
+
+        private void appendExists(FieldPath field, Literal expected) {
+            if (expected.kind != Literal.Kind.BOOLEAN) {
+                sql.append("FALSE");
+                return;
+            }
+            if (expected.bool) {
+                appendJsonPath("exists(" + jsonPath(field) + ")");
+                return;
+            }
+            sql.append("NOT ");
+            negated = !negated;
+            appendJsonPath("exists(" + jsonPath(field) + ")");
+            negated = !negated;
+        }
+
+        private void appendJsonPath(String predicate) {
+            appendOperator(" @@ CAST(" + parameter(predicate) + " AS jsonpath)");
+        }
+
+        /**
+         * Appends an indexable operator on the column, made null-safe only where a negation would
+         * otherwise turn a missing field into {@code NULL} instead of {@code TRUE}.
+         */
+        private void appendOperator(String operator) {
+            if (negated) {
+                sql.append("COALESCE(").append(column).append(operator).append(", FALSE)");
+            } else {
+                sql.append(column).append(operator);
+            }
+        }
+
+        private String parameter(Object value) {
+            parameters.add(value);
+            return "?" + (firstParameterIndex + parameters.size() - 1);
+        }
+    }
+
+    static String jsonPathKey(String field) {
+        return "$." + jsonPathString(field);
+    }
+
+    static String jsonPath(FieldPath field) {
+        if (!field.isNested()) {
+            return jsonPathKey(field.name);
+        }
+        StringBuilder path = new StringBuilder("$");
+        for (String segment : field.segments) {
+            path.append('.').append(jsonPathString(segment));
+        }
+        return path.toString();
+    }
+
+    private static String jsonPathString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String number(Literal literal) {
+        return BigDecimal.valueOf(literal.number).stripTrailingZeros().toPlainString();
+    }
+
+    private static String textArray(FieldPath field) {
+        StringBuilder array = new StringBuilder("{");
+        for (int i = 0; i < field.segments.length; i++) {
+            if (i > 0) {
+                array.append(',');
+            }
+            // Array literal elements use the same quoting as jsonpath strings
+            array.append(jsonPathString(field.segments[i]));
+        }
+        return array.append('}').toString();
+    }
+
+    private static String regexFlags(Pattern pattern) {
+        StringBuilder flags = new StringBuilder();
+        for (int i = 0; i < ExpressionCompiler.PATTERN_FLAGS.length; i++) {
+            if ((pattern.flags() & ExpressionCompiler.PATTERN_FLAGS[i]) != 0) {
+                flags.append(ExpressionCompiler.REGEX_FLAGS.charAt(i));
+            }
+        }
+        return flags.length() == 0 ? "" : " flag \"" + flags + "\"";
+    }
+}
@@ -0,0 +1,65 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Literal operand of a comparison, converted from JSON once at compile time.
+ */
+final class Literal {
+
+    enum Kind {
+        NULL, TEXT, NUMBER, BOOLEAN, UNSUPPORTED
+    }
+
+    final Kind kind;
+    final String text;
+    final double number;
+    final boolean bool;
+
+    private Literal(Kind kind, String text, double number, boolean bool) {
+        this.kind = kind;
+        this.text = text;
+        this.number = number;
+        this.bool = bool;
+    }
+
+    static Literal of(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return new Literal(Kind.NULL, null, 0, false);
+        }
+        if (node.isTextual()) {
+            return new Literal(Kind.TEXT, node.asText(), 0, false);
+        }
+        if (node.isNumber()) {
+            return new Literal(Kind.NUMBER, null, node.asDouble(), false);
+        }
+        if (node.isBoolean()) {
+            return new Literal(Kind.BOOLEAN, null, 0, node.asBoolean());
+        }
+        return new Literal(Kind.UNSUPPORTED, null, 0, false);
+    }
+
+    boolean isNumber() {
+        return kind == Kind.NUMBER;
+    }
+
+    /**
+     * Equality with the same coercion rules as the interpreted evaluator: text compares against
+     * {@code toString()}, numbers compare as doubles and booleans only match {@link Boolean} values.
+     */
+    boolean matches(Object fieldValue) {
+        if (fieldValue == null) {
+            return kind == Kind.NULL;
+        }
+        switch (kind) {
+            case TEXT:
+                return text.equals(fieldValue.toString());
+            case NUMBER:
+                return fieldValue instanceof Number && ((Number) fieldValue).doubleValue() == number;
+            case BOOLEAN:
+                return fieldValue instanceof Boolean && (Boolean) fieldValue == bool;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.tracker.workflow.expression;
+
+import com.tracker.workflow.expression.ExpressionNodes.AndNode;
+import com.tracker.workflow.expression.ExpressionNodes.ConstantNode;
+import com.tracker.workflow.expression.ExpressionNodes.FieldNode;
+import com.tracker.workflow.expression.ExpressionNodes.NotNode;
+import com.tracker.workflow.expression.ExpressionNodes.OrNode;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a compiled expression tree into a single {@link MethodHandle} of type
+ * {@code (Map, Map)boolean}. Literals and field names are bound into the handle chain, so once
+ * HotSpot customizes the lambda forms of a hot handle the comparisons run against constants and
+ * there is no virtual dispatch over node types left.
+ */
+final class MethodHandleCodegen {
+
+    static final MethodType PREDICATE_TYPE = MethodType.methodType(boolean.class, Map.class, Map.class);
+
+    private static final MethodHandle RESOLVE;
+    private static final MethodHandle OR_NULL;
+    private static final MethodHandle EXISTS;
+    private static final MethodHandle BETWEEN;
+    private static final MethodHandle REGEX_FIND;
+    private static final MethodHandle NOT;
+    private static final MethodHandle IS_NULL;
+    private static final MethodHandle TEXT_EQ;
+    private static final MethodHandle NUMBER_EQ;
+    private static final MethodHandle BOOLEAN_EQ;
+    private static final MethodHandle NUMBER_GT;
+    private static final MethodHandle NUMBER_GTE;
+    private static final MethodHandle NUMBER_LT;
+    private static final MethodHandle NUMBER_LTE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            RESOLVE = lookup.findVirtual(FieldPath.class, "resolve",
+                    MethodType.methodType(Object.class, Map.class, Map.class));
+            OR_NULL = lookup.findStatic(FieldPath.class, "orNull",
+                    MethodType.methodType(Object.class, Object.class));
+            EXISTS = lookup.findStatic(MethodHandleCodegen.class, "exists",
+                    MethodType.methodType(boolean.class, boolean.class, Object.class));
+            BETWEEN = lookup.findStatic(MethodHandleCodegen.class, "between",
+                    MethodType.methodType(boolean.class, double.class, double.class, Object.class));
+            REGEX_FIND = lookup.findStatic(MethodHandleCodegen.class, "regexFind",
+                    MethodType.methodType(boolean.class, Pattern.class, Object.class));
+            NOT = lookup.findStatic(MethodHandleCodegen.class, "not",
+                    MethodType.methodType(boolean.class, boolean.class));
+            IS_NULL = lookup.findStatic(MethodHandleCodegen.class, "isNull",
+                    MethodType.methodType(boolean.class, Object.class));
+            TEXT_EQ = lookup.findStatic(MethodHandleCodegen.class, "textEq",
+                    MethodType.methodType(boolean.class, String.class, Object.class));
+            BOOLEAN_EQ = lookup.findStatic(MethodHandleCodegen.class, "booleanEq",
+                    MethodType.methodType(boolean.class, boolean.class, Object.class));
+            MethodType numeric = MethodType.methodType(boolean.class, double.class, Object.class);
+            NUMBER_EQ = lookup.findStatic(MethodHandleCodegen.class, "numberEq", numeric);
+            NUMBER_GT = lookup.findStatic(MethodHandleCodegen.class, "numberGt", numeric);
+            NUMBER_GTE = lookup.findStatic(MethodHandleCodegen.class, "numberGte", numeric);
+            NUMBER_LT = lookup.findStatic(MethodHandleCodegen.class, "numberLt", numeric);
+            NUMBER_LTE = lookup.findStatic(MethodHandleCodegen.class, "numberLte", numeric);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MethodHandleCodegen() {
+    }
+
+    static MethodHandle generate(ExpressionNode node) {
+        if (node instanceof ConstantNode) {
+            return constant(((ConstantNode) node).value, Map.class, Map.class);
+        }
+        if (node instanceof AndNode) {
+            return generateAnd(((AndNode) node).children);
+        }
+        if (node instanceof OrNode) {
+            return generateOr(((OrNode) node).children);
+        }
+        if (node instanceof NotNode) {
+            return MethodHandles.filterReturnValue(generate(((NotNode) node).child), NOT);
+        }
+        if (node instanceof FieldNode) {
+            return generateField((FieldNode) node);
+        }
+        throw new IllegalArgumentException("Unsupported expression node: " + node.getClass().getName());
+    }
+
+    private static MethodHandle generateAnd(ExpressionNode[] children) {
+        if (children.length == 0) {
+            return constant(true, Map.class, Map.class);
+        }
+        MethodHandle result = generate(children[children.length - 1]);
+        MethodHandle alwaysFalse = constant(false, Map.class, Map.class);
+        for (int i = children.length - 2; i >= 0; i--) {
+            result = MethodHandles.guardWithTest(generate(children[i]), result, alwaysFalse);
+        }
+        return result;
+    }
+
+    private static MethodHandle generateOr(ExpressionNode[] children) {
+        if (children.length == 0) {
+            return constant(false, Map.class, Map.class);
+        }
+        MethodHandle result = generate(children[children.length - 1]);
+        MethodHandle alwaysTrue = constant(true, Map.class, Map.class);
+        for (int i = children.length - 2; i >= 0; i--) {
+            result = MethodHandles.guardWithTest(generate(children[i]), alwaysTrue, result);
+        }
+        return result;
+    }
+
+    private static MethodHandle generateField(FieldNode node) {
+        MethodHandle valueOf = RESOLVE.bindTo(node.path);
+
+        Comparison[] comparisons = node.comparisons;
+        boolean presenceTested = Arrays.stream(comparisons)
+                .anyMatch(comparison -> comparison.operator == Comparison.Operator.EXISTS);
+        if (!presenceTested) {
+            // Map a missing field to null once instead of in every comparison
+            valueOf = MethodHandles.filterReturnValue(valueOf, OR_NULL);
+        }
+        if (comparisons.length == 0) {
+            return MethodHandles.filterReturnValue(valueOf, constant(true, Object.class));
+        }
+        MethodHandle test = generateComparison(comparisons[comparisons.length - 1], presenceTested);
+        MethodHandle alwaysFalse = constant(false, Object.class);
+        for (int i = comparisons.length - 2; i >= 0; i--) {
+            MethodHandle comparison = generateComparison(comparisons[i], presenceTested);
+            test = MethodHandles.guardWithTest(comparison, test, alwaysFalse);
+        }
+        return MethodHandles.filterReturnValue(valueOf, test);
+    }
+
+    /**
+     * @param resolved whether the handle receives the resolved value including {@link FieldPath#MISSING}
+     */
+    private static MethodHandle generateComparison(Comparison comparison, boolean resolved) {
+        if (comparison.operator == Comparison.Operator.EXISTS) {
+            if (comparison.value.kind != Literal.Kind.BOOLEAN) {
+                return constant(false, Object.class);
+            }
+            return MethodHandles.insertArguments(EXISTS, 0, comparison.value.bool);
+        }
+        MethodHandle test = generateValueComparison(comparison);
+        return resolved ? MethodHandles.filterArguments(test, 0, OR_NULL) : test;
+    }
+
+    private static MethodHandle generateValueComparison(Comparison comparison) {
+        switch (comparison.operator) {
+            case EQ:
+                return matcher(comparison.value);
+            case NE:
+                return MethodHandles.filterReturnValue(matcher(comparison.value), NOT);
+            case GT:
+                return numeric(NUMBER_GT, comparison.value);
+            case GTE:
+                return numeric(NUMBER_GTE, comparison.value);
+            case LT:
+                return numeric(NUMBER_LT, comparison.value);
+            case LTE:
+                return numeric(NUMBER_LTE, comparison.value);
+            case IN:
+                return anyOf(comparison.values);
+            case NIN:
+                return MethodHandles.filterReturnValue(anyOf(comparison.values), NOT);
+            case BETWEEN:
+                if (!comparison.hasNumericRange()) {
+                    return constant(false, Object.class);
+                }
+                return MethodHandles.insertArguments(BETWEEN, 0,
+                        comparison.values[0].number, comparison.values[1].number);
+            case REGEX:
+                return MethodHandles.insertArguments(REGEX_FIND, 0, comparison.pattern);
+            default:
+                return constant(false, Object.class);
+        }
+    }
+
+    private static MethodHandle numeric(MethodHandle operator, Literal bound) {
+        if (!bound.isNumber()) {
+            return constant(false, Object.class);
+        }
+        return MethodHandles.insertArguments(operator, 0, bound.number);
+    }
+
+    private static MethodHandle anyOf(Literal[] literals) {
+        if (literals == null || literals.length == 0) {
+            return constant(false, Object.class);
+        }
+        MethodHandle result = matcher(literals[literals.length - 1]);
+        MethodHandle alwaysTrue = constant(true, Object.class);
+        for (int i = literals.length - 2; i >= 0; i--) {
+            result = MethodHandles.guardWithTest(matcher(literals[i]), alwaysTrue, result);
+        }
+        return result;
+    }
+
+    private static MethodHandle matcher(Literal literal) {
+        switch (literal.kind) {
+            case NULL:
+                return IS_NULL;
+            case TEXT:
+                return MethodHandles.insertArguments(TEXT_EQ, 0, literal.text);
+            case NUMBER:
+                return MethodHandles.insertArguments(NUMBER_EQ, 0, literal.number);
+            case BOOLEAN:
+                return MethodHandles.insertArguments(BOOLEAN_EQ, 0, literal.bool);
+            default:
+                return constant(false, Object.class);
+        }
+    }
+
+    private static MethodHandle constant(boolean value, Class<?>... parameterTypes) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, parameterTypes);
+    }
+
+    private static boolean not(boolean value) {
+        return !value;
+    }
+
+    private static boolean isNull(Object value) {
+        return value == null;
+    }
+
+    private static boolean textEq(String expected, Object value) {
+        return value != null && expected.equals(value.toString());
+    }
+
+    private static boolean booleanEq(boolean expected, Object value) {
+        return value instanceof Boolean && (Boolean) value == expected;
+    }
+
+    private static boolean numberEq(double expected, Object value) {
+        return value instanceof Number && ((Number) value).doubleValue() == expected;
+    }
+
+    private static boolean numberGt(double bound, Object value) {
+        return value instanceof Number && ((Number) value).doubleValue() > bound;
+    }
+
+    private static boolean numberGte(double bound, Object value) {
+        return value instanceof Number && ((Number) value).doubleValue() >= bound;
+    }
+
+    private static boolean numberLt(double bound, Object value) {
+        return value instanceof Number && ((Number) value).doubleValue() < bound;
+    }
+
+    private static boolean numberLte(double bound, Object value) {
+        return value instanceof Number && ((Number) value).doubleValue() <= bound;
+    }
+
+    private static boolean exists(boolean expected, Object resolved) {
+        return (resolved != FieldPath.MISSING) == expected;
+    }
+
+    private static boolean between(double lower, double upper, Object value) {
+        if (!(value instanceof Number)) {
+            return false;
+        }
+        double number = ((Number) value).doubleValue();
+        return number >= lower && number <= upper;
+    }
+
+    private static boolean regexFind(Pattern pattern, Object value) {
+        return value instanceof String && pattern.matcher((String) value).find();
+    }
+}
@@ -0,0 +1,180 @@
+package com.tracker.workflow.expression;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable discrimination network over a set of rules with compiled conditions.
+ * <p>
+ * Rules are indexed by the fields their conditions reference. A full {@link #evaluate} runs every
+ * rule once; after that {@link #update} re-evaluates only the rules that read one of the changed
+ * fields and carries the previous outcome forward for all others. Rules are held, evaluated and
+ * reported in the order they were given, which callers use for priority.
+ *
+ * @param <R> the rule type
+ */
+public final class RuleNetwork<R> {
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<R> rules;
+    private final CompiledExpression[] conditions;
+    private final Map<String, int[]> rulesByField;
+
+    private RuleNetwork(List<R> rules, CompiledExpression[] conditions, Map<String, int[]> rulesByField) {
+        this.rules = rules;
+        this.conditions = conditions;
+        this.rulesByField = rulesByField;
+    }
+
+    /**
+     * @param rulesInPriorityOrder rules, highest priority first
+     * @param conditionOf returns the compiled condition of a rule
+     */
+    public static <R> RuleNetwork<R> build(List<R> rulesInPriorityOrder, Function<R, CompiledExpression> conditionOf) {
+        List<R> rules = List.copyOf(rulesInPriorityOrder);
+        CompiledExpression[] conditions = new CompiledExpression[rules.size()];
+        Map<String, List<Integer>> index = new HashMap<>();
+
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = conditionOf.apply(rules.get(i));
+            for (String field : conditions[i].getReferencedFields()) {
+                index.computeIfAbsent(field, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> rulesByField = new HashMap<>();
+        index.forEach((field, positions) ->
+                rulesByField.put(field, positions.stream().mapToInt(Integer::intValue).toArray()));
+        return new RuleNetwork<>(rules, conditions, Map.copyOf(rulesByField));
+    }
+
+    /**
+     * Evaluates every rule.
+     */
+    public Matches<R> evaluate(Map<String, Object> processData, Map<String, Object> context) {
+        BitSet matched = new BitSet(conditions.length);
+        for (int i = 0; i < conditions.length; i++) {
+            if (conditions[i].evaluate(processData, context)) {
+                matched.set(i);
+            }
+        }
+        return new Matches<>(this, matched, conditions.length);
+    }
+
+    /**
+     * Re-evaluates only the rules whose conditions reference one of the changed fields.
+     *
+     * @param previous the result of an earlier evaluation on this network
+     * @param changedFields names of process data or context fields that changed since then
+     */
+    public Matches<R> update(Matches<R> previous, Collection<String> changedFields,
+                             Map<String, Object> processData, Map<String, Object> context) {
+        if (previous.network != this) {
+            throw new IllegalArgumentException("Matches belong to a different rule network");
+        }
+
+        BitSet affected = new BitSet(conditions.length);
+        for (String field : changedFields) {
+            for (int position : rulesByField.getOrDefault(field, NO_RULES)) {
+                affected.set(position);
+            }
+        }
+
+        BitSet matched = (BitSet) previous.matched.clone();
+        for (int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i + 1)) {
+            matched.set(i, conditions[i].evaluate(processData, context));
+        }
+        return new Matches<>(this, matched, affected.cardinality());
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Rules whose conditions reference the field, in priority order.
+     */
+    public List<R> rulesReferencing(String field) {
+        int[] positions = rulesByField.getOrDefault(field, NO_RULES);
+        List<R> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(rules.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Outcome of evaluating a rule network for one set of process data.
+     */
+    public static final class Matches<R> {
+        private final RuleNetwork<R> network;
+        private final BitSet matched;
+        private final int evaluatedRules;
+
+        private Matches(RuleNetwork<R> network, BitSet matched, int evaluatedRules) {
+            this.network = network;
+            this.matched = matched;
+            this.evaluatedRules = evaluatedRules;
+        }
+
+        /**
+         * Matching rules in priority order.
+         */
+        public List<R> getMatchedRules() {
+            if (matched.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<R> result = new ArrayList<>(matched.cardinality());
+            for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                result.add(network.rules.get(i));
+            }
+            return result;
+        }
+
+        /**
+         * Rules that did not match, in priority order.
+         */
+        public List<R> getUnmatchedRules() {
+            int size = network.rules.size();
+            List<R> result = new ArrayList<>(size - matched.cardinality());
+            for (int i = matched.nextClearBit(0); i < size; i = matched.nextClearBit(i + 1)) {
+                result.add(network.rules.get(i));
+            }
+            return result;
+        }
+
+        /**
+         * Whether the given rule instance matched; rules are compared by identity.
+         */
+        public boolean isMatched(R rule) {
+            for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                if (network.rules.get(i) == rule) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Whether this result was produced by the given network, and can therefore be passed to its
+         * {@link RuleNetwork#update}.
+         */
+        public boolean isFrom(RuleNetwork<R> network) {
+            return this.network == network;
+        }
+
+        /**
+         * Number of rule conditions evaluated to produce this result.
+         */
+        public int getEvaluatedRules() {
+            return evaluatedRules;
+        }
+    }
+}
@@ -4,13 +4,21 @@ import com.tracker.workflow.model.ProcessHistory;
 import com.tracker.workflow.model.WorkflowEvents;
 import com.tracker.workflow.model.WorkflowStates;
 import com.tracker.workflow.repository.ProcessHistoryRepository;
+import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.transition.Transition;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class WorkflowStateListener extends StateMachineListenerAdapter<WorkflowStates, WorkflowEvents> {
 
+    /**
+     * Message header with the variables an event sets; they are recorded as the context data of its
+     * transition so the process can be replayed from its history.
+     */
+    public static final String EVENT_DATA_HEADER = "eventData";
+
     private final String processInstanceId;
     private final ProcessHistoryRepository historyRepository;
 
@@ -20,14 +28,21 @@ public class WorkflowStateListener extends StateMachineListenerAdapter<WorkflowS
     }
 
     @Override
-    public void transition(Transition<WorkflowStates, WorkflowEvents> transition) {
+    @SuppressWarnings("unchecked")
+    public void stateContext(StateContext<WorkflowStates, WorkflowEvents> stateContext) {
+        Transition<WorkflowStates, WorkflowEvents> transition = stateContext.getTransition();
+        if (stateContext.getStage() != StateContext.Stage.TRANSITION || transition == null) {
+            return;
+        }
         if (transition.getSource() != null && transition.getTarget() != null) {
             ProcessHistory history = new ProcessHistory();
             history.setProcessInstanceId(processInstanceId);
-            history.setFromState(transition.getSource().getId());
-            history.setToState(transition.getTarget().getId());
-            history.setEvent(transition.getTrigger().getEvent());
+            history.setFromState(transition.getSource().getId().name());
+            history.setToState(transition.getTarget().getId().name());
+            history.setEvent(transition.getTrigger() != null && transition.getTrigger().getEvent() != null
+                    ? transition.getTrigger().getEvent().name() : null);
             history.setTimestamp(LocalDateTime.now());
+            history.setContextData((Map<String, Object>) stateContext.getMessageHeader(EVENT_DATA_HEADER));
 
             historyRepository.save(history);
         }
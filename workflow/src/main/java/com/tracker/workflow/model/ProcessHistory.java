@@ -17,20 +17,19 @@ import java.util.Map;
 @Data
 @NoArgsConstructor
 public class ProcessHistory {
+    // Not pooled: replay orders a process's rows by id, which blocks allocated by several nodes would break
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String processInstanceId;
 
-    @Enumerated(EnumType.STRING)
-    private WorkflowStates fromState;
+    // State and event names of the process's workflow definition
+    private String fromState;
 
-    @Enumerated(EnumType.STRING)
-    private WorkflowStates toState;
+    private String toState;
 
-    @Enumerated(EnumType.STRING)
-    private WorkflowEvents event;
+    private String event;
 
     private String userId;
 
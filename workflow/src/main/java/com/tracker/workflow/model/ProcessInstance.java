@@ -0,0 +1,56 @@
+package com.tracker.workflow.model;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Current state of a process, one row per process instance, kept up to date in the same transaction as
+ * each of its transitions. {@code process_history} stays the audit trail; this is what status reads use.
+ */
+@Entity
+@Table(name = "process_instances")
+@Data
+@NoArgsConstructor
+public class ProcessInstance {
+    @Id
+    @Column(name = "process_instance_id")
+    private String processInstanceId;
+
+    @Column(name = "workflow_name", nullable = false)
+    private String workflowName;
+
+    @Column(name = "workflow_version")
+    private String workflowVersion;
+
+    @Column(name = "current_state", nullable = false)
+    private String currentState;
+
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "initiator_user_id")
+    private String initiatorUserId;
+
+    @Column(name = "rework_count", nullable = false)
+    private int reworkCount;
+
+    // Events applied since the process started
+    @Column(name = "event_count", nullable = false)
+    private int eventCount;
+
+    @Type(JsonType.class)
+    @Column(name = "process_data", columnDefinition = "jsonb")
+    private Map<String, Object> processData;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
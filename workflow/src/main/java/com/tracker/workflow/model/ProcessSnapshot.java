@@ -0,0 +1,39 @@
+package com.tracker.workflow.model;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Latest snapshot of a process's state and variables, taken after the history row {@code lastHistoryId}.
+ */
+@Entity
+@Table(name = "process_snapshots")
+@Data
+@NoArgsConstructor
+public class ProcessSnapshot {
+    @Id
+    @Column(name = "process_instance_id")
+    private String processInstanceId;
+
+    @Column(name = "current_state", nullable = false)
+    private String currentState;
+
+    @Type(JsonType.class)
+    @Column(name = "extended_state", columnDefinition = "jsonb")
+    private Map<String, Object> extendedState;
+
+    @Column(name = "last_history_id", nullable = false)
+    private long lastHistoryId;
+
+    @Column(name = "event_count", nullable = false)
+    private int eventCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class TaskGroup {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_groups_id_seq")
+    @SequenceGenerator(name = "task_groups_id_seq", sequenceName = "task_groups_id_seq", allocationSize = 50)
     private Long id;
 
     private String processInstanceId;
@@ -33,4 +34,7 @@ public class TaskGroup {
 
     private LocalDateTime createdDate;
     private LocalDateTime completedDate;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,33 @@
+package com.tracker.workflow.model;
+
+import io.hypersistence.utils.hibernate.type.json.JsonType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Persisted state and extended state of the state machine running a process, one row per process instance.
+ */
+@Entity
+@Table(name = "state_machine_contexts")
+@Data
+@NoArgsConstructor
+public class WorkflowStateMachineContext {
+    @Id
+    @Column(name = "process_instance_id")
+    private String processInstanceId;
+
+    @Column(name = "current_state", nullable = false)
+    private String currentState;
+
+    @Type(JsonType.class)
+    @Column(name = "extended_state", columnDefinition = "jsonb")
+    private Map<String, Object> extendedState;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -17,8 +17,11 @@ import java.util.Map;
 @Data
 @NoArgsConstructor
 public class WorkflowTask {
+    // Ids are allocated 50 at a time from the sequence, so inserts need no round trip for their id and
+    // can be sent in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workflow_tasks_id_seq")
+    @SequenceGenerator(name = "workflow_tasks_id_seq", sequenceName = "workflow_tasks_id_seq", allocationSize = 50)
     private Long id;
 
     private String processInstanceId;
@@ -27,8 +30,8 @@ public class WorkflowTask {
     private String assignedRole;
     private Long taskGroupId; // For multi-user tasks
 
-    @Enumerated(EnumType.STRING)
-    private WorkflowStates currentState;
+    // State name of the process's workflow definition
+    private String currentState;
 
     @Enumerated(EnumType.STRING)
     private TaskStatus status; // PENDING, COMPLETED, SKIPPED
@@ -44,4 +47,7 @@ public class WorkflowTask {
     @Type(JsonType.class)
     @Column(name = "task_data", columnDefinition = "jsonb")
     private Map<String, Object> taskData;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,56 @@
+package com.tracker.workflow.repository;
+
+import com.tracker.workflow.dto.RecipientSendHistory;
+import com.tracker.workflow.model.NotificationOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+    /**
+     * Locks every pending notification of up to {@code limit} recipients that have a notification due,
+     * longest due first, ordered by recipient. Rows locked by another dispatcher are skipped, so
+     * dispatchers on several nodes never deliver the same notification at once.
+     */
+    @Query(value = "SELECT * FROM notification_outbox"
+            + " WHERE status = 'PENDING' AND recipient IN ("
+            + "   SELECT recipient FROM notification_outbox"
+            + "   WHERE status = 'PENDING' AND next_attempt_at <= :now"
+            + "   GROUP BY recipient"
+            + "   ORDER BY MIN(next_attempt_at)"
+            + "   LIMIT :limit)"
+            + " ORDER BY recipient, id"
+            + " FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutboxEntry> lockDueRecipients(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Messages sent to each of the given recipients after {@code since}; recipients sent none are omitted.
+     */
+    @Query("SELECT n.recipient AS recipient, COUNT(DISTINCT n.sentAt) AS sends, MIN(n.sentAt) AS firstSentAt"
+            + " FROM NotificationOutboxEntry n"
+            + " WHERE n.recipient IN :recipients"
+            + " AND n.status = com.tracker.workflow.model.NotificationOutboxEntry.Status.SENT"
+            + " AND n.sentAt > :since"
+            + " GROUP BY n.recipient")
+    List<RecipientSendHistory> findSendHistory(@Param("recipients") Collection<String> recipients,
+                                               @Param("since") LocalDateTime since);
+
+    /**
+     * Deletes delivered notifications sent before {@code cutoff}.
+     *
+     * @return the number of notifications deleted
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationOutboxEntry n"
+            + " WHERE n.status = com.tracker.workflow.model.NotificationOutboxEntry.Status.SENT"
+            + " AND n.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
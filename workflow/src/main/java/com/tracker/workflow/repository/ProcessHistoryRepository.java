@@ -2,11 +2,22 @@ package com.tracker.workflow.repository;
 
 import com.tracker.workflow.model.ProcessHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProcessHistoryRepository extends JpaRepository<ProcessHistory, Long> {
     List<ProcessHistory> findByProcessInstanceIdOrderByTimestamp(String processInstanceId);
-}
\ No newline at end of file
+
+    List<ProcessHistory> findByProcessInstanceIdAndIdGreaterThanOrderById(String processInstanceId, Long afterId);
+
+    List<ProcessHistory> findByProcessInstanceIdInOrderByProcessInstanceIdAscIdAsc(Collection<String> processInstanceIds);
+
+    @Query("SELECT MAX(h.id) FROM ProcessHistory h WHERE h.processInstanceId = :processInstanceId")
+    Optional<Long> findMaxIdByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+}
@@ -0,0 +1,43 @@
+package com.tracker.workflow.repository;
+
+import com.tracker.workflow.dto.InFlightProcessData;
+import com.tracker.workflow.model.ProcessInstance;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProcessInstanceRepository extends JpaRepository<ProcessInstance, String> {
+
+    /**
+     * Keyset page of the processes of a workflow started in {@code [from, to)}, ordered by id.
+     */
+    @Query("SELECT p FROM ProcessInstance p WHERE p.workflowName = :workflowName"
+            + " AND p.processInstanceId > :after AND p.startedAt >= :from AND p.startedAt < :to"
+            + " ORDER BY p.processInstanceId")
+    List<ProcessInstance> findStartedPage(@Param("workflowName") String workflowName,
+                                          @Param("after") String afterProcessInstanceId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          Pageable page);
+
+    /**
+     * Keyset page of the active processes, optionally only those in the given state, ordered by id, with
+     * the process data they currently hold.
+     */
+    @Query(value = "SELECT p.process_instance_id AS processInstanceId, p.current_state AS currentState,"
+            + " CAST(p.process_data AS text) AS processData"
+            + " FROM process_instances p"
+            + " WHERE p.active AND p.process_instance_id > :after"
+            + " AND (CAST(:state AS text) IS NULL OR p.current_state = :state)"
+            + " ORDER BY p.process_instance_id"
+            + " LIMIT :limit", nativeQuery = true)
+    List<InFlightProcessData> findInFlightProcessDataPage(@Param("after") String afterProcessInstanceId,
+                                                          @Param("state") String currentState,
+                                                          @Param("limit") int limit);
+}
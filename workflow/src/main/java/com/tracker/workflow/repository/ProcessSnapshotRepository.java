@@ -0,0 +1,9 @@
+package com.tracker.workflow.repository;
+
+import com.tracker.workflow.model.ProcessSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessSnapshotRepository extends JpaRepository<ProcessSnapshot, String> {
+}
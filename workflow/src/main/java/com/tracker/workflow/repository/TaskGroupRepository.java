@@ -2,11 +2,46 @@ package com.tracker.workflow.repository;
 
 import com.tracker.workflow.model.TaskGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskGroupRepository extends JpaRepository<TaskGroup, Long> {
     List<TaskGroup> findByProcessInstanceId(String processInstanceId);
-}
\ No newline at end of file
+
+    /**
+     * Counts one more completed task of a pending group in a single statement, completing the group when
+     * it reaches its required completions. The row lock makes concurrent completions take turns, and a
+     * group that is no longer pending is not updated, so exactly one completion sees it complete.
+     *
+     * @return the group's status after the update, or empty if the group was not pending
+     */
+    @Query(value = "UPDATE task_groups SET completed_tasks = completed_tasks + 1,"
+            + " status = CASE WHEN completed_tasks + 1 >= required_completions THEN 'COMPLETED' ELSE status END,"
+            + " completed_date = CASE WHEN completed_tasks + 1 >= required_completions"
+            + " THEN LOCALTIMESTAMP ELSE completed_date END,"
+            + " version = version + 1"
+            + " WHERE id = :id AND status = 'PENDING'"
+            + " RETURNING status", nativeQuery = true)
+    Optional<String> incrementCompletedTasks(@Param("id") Long taskGroupId);
+
+    /**
+     * Completes every pending task group of a process in one statement. Pending changes are flushed first
+     * and the persistence context is cleared afterwards, so no managed group keeps its stale status or version.
+     *
+     * @return the number of groups completed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TaskGroup g SET g.status = com.tracker.workflow.model.TaskStatus.COMPLETED,"
+            + " g.completedDate = :completedDate, g.version = g.version + 1"
+            + " WHERE g.processInstanceId = :processInstanceId"
+            + " AND g.status = com.tracker.workflow.model.TaskStatus.PENDING")
+    int completePendingGroupsOfProcess(@Param("processInstanceId") String processInstanceId,
+                                       @Param("completedDate") LocalDateTime completedDate);
+}
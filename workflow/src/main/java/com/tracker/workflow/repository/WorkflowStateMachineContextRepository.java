@@ -0,0 +1,9 @@
+package com.tracker.workflow.repository;
+
+import com.tracker.workflow.model.WorkflowStateMachineContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WorkflowStateMachineContextRepository extends JpaRepository<WorkflowStateMachineContext, String> {
+}
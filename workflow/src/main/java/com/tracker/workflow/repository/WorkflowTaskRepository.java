@@ -3,7 +3,11 @@ package com.tracker.workflow.repository;
 import com.tracker.workflow.model.TaskStatus;
 import com.tracker.workflow.model.WorkflowTask;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +25,30 @@ public interface WorkflowTaskRepository extends JpaRepository<WorkflowTask, Long
     Optional<Integer> findMaxReworkCountByProcessInstanceId(String processInstanceId);
 
     List<WorkflowTask> findByProcessInstanceIdOrderByCreatedDate(String processInstanceId);
+
+    /**
+     * Skips every pending task of a group in one statement. Pending changes are flushed first and the
+     * persistence context is cleared afterwards, so no managed task keeps its stale status or version.
+     *
+     * @return the number of tasks skipped
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkflowTask t SET t.status = com.tracker.workflow.model.TaskStatus.SKIPPED,"
+            + " t.version = t.version + 1"
+            + " WHERE t.taskGroupId = :taskGroupId AND t.status = com.tracker.workflow.model.TaskStatus.PENDING")
+    int skipPendingTasksInGroup(@Param("taskGroupId") Long taskGroupId);
+
+    /**
+     * Completes every pending task of a process in one statement, flushing and clearing the persistence
+     * context like {@link #skipPendingTasksInGroup}.
+     *
+     * @return the number of tasks completed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkflowTask t SET t.status = com.tracker.workflow.model.TaskStatus.COMPLETED,"
+            + " t.completedDate = :completedDate, t.version = t.version + 1"
+            + " WHERE t.processInstanceId = :processInstanceId"
+            + " AND t.status = com.tracker.workflow.model.TaskStatus.PENDING")
+    int completePendingTasksOfProcess(@Param("processInstanceId") String processInstanceId,
+                                      @Param("completedDate") LocalDateTime completedDate);
 }
\ No newline at end of file
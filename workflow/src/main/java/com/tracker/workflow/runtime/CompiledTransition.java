@@ -0,0 +1,38 @@
+package com.tracker.workflow.runtime;
+
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.guard.Guard;
+
+/**
+ * One transition of a {@link CompiledWorkflow}, with its guard and action bound at compile time.
+ * States and events are ordinals into the owning workflow's tables.
+ */
+public final class CompiledTransition {
+
+    final int source;
+    final int event;
+    final int target;
+    // Null when the transition is unguarded or has no action
+    final Guard<String, String> guard;
+    final Action<String, String> action;
+
+    CompiledTransition(int source, int event, int target, Guard<String, String> guard, Action<String, String> action) {
+        this.source = source;
+        this.event = event;
+        this.target = target;
+        this.guard = guard;
+        this.action = action;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getEvent() {
+        return event;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,242 @@
+package com.tracker.workflow.runtime;
+
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.state.ObjectState;
+import org.springframework.statemachine.state.State;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A workflow definition version compiled once into int-indexed transition tables, shared by every
+ * process running on that version.
+ * <p>
+ * States and events are numbered in definition order and {@code transitions[state][event]} lists the
+ * candidate transitions in {@code transitionOrder}; the first whose guard passes fires. Guards and
+ * actions are created once per transition at compile time. A {@link WorkflowInstance} holds only its
+ * current state ordinal and variables, so a process costs a few dozen bytes plus its data instead of a
+ * full state machine object graph.
+ */
+@Log4j2
+public final class CompiledWorkflow {
+
+    private static final CompiledTransition[] NONE = new CompiledTransition[0];
+
+    private final Long definitionId;
+    private final String workflowName;
+    private final String version;
+
+    private final String[] stateNames;
+    private final State<String, String>[] states;
+    private final boolean[] endStates;
+    private final int initialState;
+    private final Map<String, Integer> stateOrdinals;
+
+    private final String[] eventNames;
+    private final Map<String, Integer> eventOrdinals;
+
+    private final CompiledTransition[][][] transitions;
+
+    @SuppressWarnings("unchecked")
+    private CompiledWorkflow(WorkflowDefinition definition, Function<String, Guard<String, String>> guards,
+                             Function<Map<String, Object>, Action<String, String>> actions) {
+        this.definitionId = definition.getId();
+        this.workflowName = definition.getWorkflowName();
+        this.version = definition.getVersion();
+
+        List<WorkflowStateDefinition> stateDefinitions = definition.getStates() != null
+                ? definition.getStates() : List.of();
+        stateNames = new String[stateDefinitions.size()];
+        states = new State[stateDefinitions.size()];
+        endStates = new boolean[stateDefinitions.size()];
+        stateOrdinals = new HashMap<>();
+        int initial = -1;
+        for (int i = 0; i < stateNames.length; i++) {
+            WorkflowStateDefinition state = stateDefinitions.get(i);
+            stateNames[i] = state.getStateName();
+            states[i] = new ObjectState<>(state.getStateName());
+            stateOrdinals.put(state.getStateName(), i);
+            if (state.getStateType() == WorkflowStateDefinition.StateType.INITIAL) {
+                initial = i;
+            }
+            endStates[i] = state.getStateType() == WorkflowStateDefinition.StateType.END;
+        }
+        if (initial < 0) {
+            throw new WorkflowException("Workflow " + workflowName + " " + version + " has no initial state");
+        }
+        initialState = initial;
+
+        List<WorkflowTransitionDefinition> transitionDefinitions = new ArrayList<>(
+                definition.getTransitions() != null ? definition.getTransitions() : List.of());
+        transitionDefinitions.sort(Comparator.comparing(WorkflowTransitionDefinition::getTransitionOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        eventOrdinals = new HashMap<>();
+        List<String> events = new ArrayList<>();
+        for (WorkflowTransitionDefinition transition : transitionDefinitions) {
+            if (!eventOrdinals.containsKey(transition.getEventName())) {
+                eventOrdinals.put(transition.getEventName(), events.size());
+                events.add(transition.getEventName());
+            }
+        }
+        eventNames = events.toArray(new String[0]);
+
+        List<CompiledTransition>[][] table = new List[stateNames.length][eventNames.length];
+        for (WorkflowTransitionDefinition transition : transitionDefinitions) {
+            if (transition.getFromState() == null || transition.getToState() == null) {
+                log.warn("Skipping transition {} of workflow {} {} without source or target state",
+                        transition.getEventName(), workflowName, version);
+                continue;
+            }
+            int source = stateOrdinal(transition.getFromState().getStateName());
+            int target = stateOrdinal(transition.getToState().getStateName());
+            int event = eventOrdinals.get(transition.getEventName());
+
+            String guardExpression = transition.getGuardExpression();
+            Guard<String, String> guard = guardExpression != null && !guardExpression.trim().isEmpty()
+                    ? guards.apply(guardExpression) : null;
+            Map<String, Object> actionConfig = transition.getActionConfig();
+            Action<String, String> action = actionConfig != null && !actionConfig.isEmpty()
+                    ? actions.apply(actionConfig) : null;
+
+            if (table[source][event] == null) {
+                table[source][event] = new ArrayList<>(1);
+            }
+            table[source][event].add(new CompiledTransition(source, event, target, guard, action));
+        }
+
+        transitions = new CompiledTransition[stateNames.length][eventNames.length][];
+        for (int state = 0; state < stateNames.length; state++) {
+            for (int event = 0; event < eventNames.length; event++) {
+                transitions[state][event] = table[state][event] != null
+                        ? table[state][event].toArray(NONE) : NONE;
+            }
+        }
+    }
+
+    /**
+     * Compiles a definition version, creating the guard of each guarded transition and the action of each
+     * transition with an action configuration exactly once.
+     */
+    public static CompiledWorkflow compile(WorkflowDefinition definition,
+                                           Function<String, Guard<String, String>> guards,
+                                           Function<Map<String, Object>, Action<String, String>> actions) {
+        return new CompiledWorkflow(definition, guards, actions);
+    }
+
+    /**
+     * Creates an instance in the initial state. Unlike starting a state machine this runs no transition.
+     */
+    public WorkflowInstance newInstance(String processInstanceId, Map<String, Object> variables) {
+        return new WorkflowInstance(processInstanceId, this, initialState, new HashMap<>(variables));
+    }
+
+    /**
+     * Recreates an instance in a known state, e.g. from a persisted state machine context.
+     */
+    public WorkflowInstance restore(String processInstanceId, String stateName, Map<String, Object> variables) {
+        return new WorkflowInstance(processInstanceId, this, stateOrdinal(stateName), new HashMap<>(variables));
+    }
+
+    /**
+     * Fires {@code event} on an instance of this workflow: the first candidate transition whose guard
+     * passes moves the instance to its target state, then its action runs.
+     *
+     * @return the transition taken, or null if the event is unknown or no transition accepted it
+     */
+    public CompiledTransition fire(WorkflowInstance instance, String event) {
+        if (instance.getWorkflow() != this) {
+            throw new WorkflowException("Process " + instance.getProcessInstanceId() + " runs on "
+                    + instance.getWorkflow() + ", not " + this);
+        }
+        Integer eventOrdinal = eventOrdinals.get(event);
+        if (eventOrdinal == null) {
+            return null;
+        }
+
+        synchronized (instance) {
+            int source = instance.getStateOrdinal();
+            for (CompiledTransition transition : transitions[source][eventOrdinal]) {
+                TransitionContext context = new TransitionContext(event, states[source], states[transition.target], instance);
+                if (transition.guard != null && !transition.guard.evaluate(context)) {
+                    continue;
+                }
+                instance.setState(transition.target);
+                if (transition.action != null) {
+                    transition.action.execute(context);
+                }
+                return transition;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Names of the events that have a transition out of the given state, in definition order.
+     */
+    public List<String> eventsFrom(String stateName) {
+        CompiledTransition[][] byEvent = transitions[stateOrdinal(stateName)];
+        List<String> events = new ArrayList<>();
+        for (int event = 0; event < byEvent.length; event++) {
+            if (byEvent[event].length > 0) {
+                events.add(eventNames[event]);
+            }
+        }
+        return events;
+    }
+
+    public Long getDefinitionId() {
+        return definitionId;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getStateCount() {
+        return stateNames.length;
+    }
+
+    public int getEventCount() {
+        return eventNames.length;
+    }
+
+    public String stateName(int ordinal) {
+        return stateNames[ordinal];
+    }
+
+    public String eventName(int ordinal) {
+        return eventNames[ordinal];
+    }
+
+    public boolean isEndState(int ordinal) {
+        return endStates[ordinal];
+    }
+
+    public int stateOrdinal(String stateName) {
+        Integer ordinal = stateOrdinals.get(stateName);
+        if (ordinal == null) {
+            throw new WorkflowException("Unknown state " + stateName + " in workflow " + workflowName + " " + version);
+        }
+        return ordinal;
+    }
+
+    @Override
+    public String toString() {
+        return workflowName + " " + version;
+    }
+}
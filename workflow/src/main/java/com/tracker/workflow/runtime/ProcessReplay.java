@@ -0,0 +1,102 @@
+package com.tracker.workflow.runtime;
+
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.WorkflowEvents;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State and variables of a process rebuilt from its {@code process_history}, starting from a snapshot.
+ * <p>
+ * The engine only changes process variables when a process starts, which the start snapshot captures, and
+ * with the data of each event, which the event's transition row carries as its context data. Replaying a
+ * transition row therefore sets the state to its target and merges its context data. Rows that record
+ * no transition, task completions (no source state) and delegations or escalations, are skipped.
+ */
+public final class ProcessReplay {
+
+    private static final Set<String> AUDIT_EVENTS =
+            Set.of(WorkflowEvents.TASK_DELEGATED.name(), WorkflowEvents.TASK_ESCALATED.name());
+
+    private final String processInstanceId;
+    private final Map<String, Object> variables;
+    private String state;
+    private long lastHistoryId;
+    private int eventCount;
+
+    private ProcessReplay(String processInstanceId, String state, Map<String, Object> variables,
+                          long lastHistoryId, int eventCount) {
+        this.processInstanceId = processInstanceId;
+        this.state = state;
+        this.variables = variables;
+        this.lastHistoryId = lastHistoryId;
+        this.eventCount = eventCount;
+    }
+
+    /**
+     * Starts a replay from a snapshot taken after history row {@code lastHistoryId} and {@code eventCount}
+     * events.
+     */
+    public static ProcessReplay from(String processInstanceId, String state, Map<String, Object> variables,
+                                     long lastHistoryId, int eventCount) {
+        return new ProcessReplay(processInstanceId, state,
+                variables != null ? new HashMap<>(variables) : new HashMap<>(), lastHistoryId, eventCount);
+    }
+
+    /**
+     * Applies the history rows recorded after the snapshot, in id order.
+     */
+    public ProcessReplay applyAll(Iterable<ProcessHistory> history) {
+        for (ProcessHistory row : history) {
+            apply(row);
+        }
+        return this;
+    }
+
+    /**
+     * Applies one history row and returns whether it was a transition.
+     */
+    public boolean apply(ProcessHistory row) {
+        if (row.getId() != null) {
+            lastHistoryId = Math.max(lastHistoryId, row.getId());
+        }
+        if (!isTransition(row)) {
+            return false;
+        }
+        state = row.getToState();
+        if (row.getContextData() != null) {
+            variables.putAll(row.getContextData());
+        }
+        eventCount++;
+        return true;
+    }
+
+    /**
+     * Whether a history row records a transition, as opposed to a task completion, delegation or escalation.
+     */
+    public static boolean isTransition(ProcessHistory row) {
+        return row.getFromState() != null && row.getToState() != null && !AUDIT_EVENTS.contains(row.getEvent());
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    public long getLastHistoryId() {
+        return lastHistoryId;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+}
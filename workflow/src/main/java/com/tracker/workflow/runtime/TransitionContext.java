@@ -0,0 +1,100 @@
+package com.tracker.workflow.runtime;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.ExtendedState;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.state.State;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.transition.Transition;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@link StateContext} handed to guards and actions bound into a {@link CompiledWorkflow}. Exposes
+ * the event, source and target state and the instance variables as extended state; there is no
+ * {@link StateMachine} or {@link Transition} object behind a compiled workflow, so those are null.
+ */
+final class TransitionContext implements StateContext<String, String> {
+
+    private final String event;
+    private final State<String, String> source;
+    private final State<String, String> target;
+    private final ExtendedState extendedState;
+
+    TransitionContext(String event, State<String, String> source, State<String, String> target, WorkflowInstance instance) {
+        this.event = event;
+        this.source = source;
+        this.target = target;
+        // Wraps the instance's map without copying it
+        this.extendedState = new DefaultExtendedState(instance.getVariables());
+    }
+
+    @Override
+    public Stage getStage() {
+        return Stage.TRANSITION;
+    }
+
+    @Override
+    public Message<String> getMessage() {
+        return MessageBuilder.withPayload(event).build();
+    }
+
+    @Override
+    public String getEvent() {
+        return event;
+    }
+
+    @Override
+    public MessageHeaders getMessageHeaders() {
+        return getMessage().getHeaders();
+    }
+
+    @Override
+    public Object getMessageHeader(Object header) {
+        return null;
+    }
+
+    @Override
+    public ExtendedState getExtendedState() {
+        return extendedState;
+    }
+
+    @Override
+    public Transition<String, String> getTransition() {
+        return null;
+    }
+
+    @Override
+    public StateMachine<String, String> getStateMachine() {
+        return null;
+    }
+
+    @Override
+    public State<String, String> getSource() {
+        return source;
+    }
+
+    @Override
+    public Collection<State<String, String>> getSources() {
+        return List.of(source);
+    }
+
+    @Override
+    public State<String, String> getTarget() {
+        return target;
+    }
+
+    @Override
+    public Collection<State<String, String>> getTargets() {
+        return List.of(target);
+    }
+
+    @Override
+    public Exception getException() {
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tracker.workflow.runtime;
+
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup tables of one workflow definition version, built in a single pass while its states,
+ * transitions and task assignments are loaded. State, assignment and outgoing transition lookups by
+ * state name are then plain map reads with no database access.
+ * <p>
+ * The entities held here are detached; only their own columns may be read, not their lazy associations.
+ */
+public final class WorkflowDefinitionSnapshot {
+
+    @Getter
+    private final Long definitionId;
+    @Getter
+    private final String workflowName;
+    @Getter
+    private final String version;
+
+    private final Map<String, WorkflowStateDefinition> states;
+    private final Map<String, WorkflowTaskAssignment> assignments;
+    private final Map<String, List<WorkflowTransitionDefinition>> outgoingTransitions;
+
+    private WorkflowDefinitionSnapshot(WorkflowDefinition definition,
+                                       Map<String, WorkflowStateDefinition> states,
+                                       Map<String, WorkflowTaskAssignment> assignments,
+                                       Map<String, List<WorkflowTransitionDefinition>> outgoingTransitions) {
+        this.definitionId = definition.getId();
+        this.workflowName = definition.getWorkflowName();
+        this.version = definition.getVersion();
+        this.states = states;
+        this.assignments = assignments;
+        this.outgoingTransitions = outgoingTransitions;
+    }
+
+    /**
+     * Builds the snapshot; must run while the definition's collections can still be loaded.
+     */
+    public static WorkflowDefinitionSnapshot of(WorkflowDefinition definition) {
+        Map<String, WorkflowStateDefinition> states = new HashMap<>();
+        Map<Long, String> stateNamesById = new HashMap<>();
+        for (WorkflowStateDefinition state : nullToEmpty(definition.getStates())) {
+            states.put(state.getStateName(), state);
+            if (state.getId() != null) {
+                stateNamesById.put(state.getId(), state.getStateName());
+            }
+        }
+
+        Map<String, WorkflowTaskAssignment> assignments = new HashMap<>();
+        for (WorkflowTaskAssignment assignment : nullToEmpty(definition.getTaskAssignments())) {
+            // Reading the id of the lazy state reference does not load it
+            String stateName = assignment.getState() != null ? stateNamesById.get(assignment.getState().getId()) : null;
+            if (stateName != null) {
+                assignments.putIfAbsent(stateName, assignment);
+            }
+        }
+
+        Map<String, List<WorkflowTransitionDefinition>> outgoing = new HashMap<>();
+        nullToEmpty(definition.getTransitions()).stream()
+            .filter(transition -> transition.getFromState() != null)
+            .sorted(Comparator.comparing(WorkflowTransitionDefinition::getTransitionOrder,
+                Comparator.nullsLast(Comparator.naturalOrder())))
+            .forEach(transition -> outgoing
+                .computeIfAbsent(transition.getFromState().getStateName(), name -> new ArrayList<>())
+                .add(transition));
+        outgoing.replaceAll((name, transitions) -> List.copyOf(transitions));
+
+        return new WorkflowDefinitionSnapshot(definition, Map.copyOf(states), Map.copyOf(assignments), Map.copyOf(outgoing));
+    }
+
+    public WorkflowStateDefinition getState(String stateName) {
+        return stateName != null ? states.get(stateName) : null;
+    }
+
+    public WorkflowTaskAssignment getAssignment(String stateName) {
+        return stateName != null ? assignments.get(stateName) : null;
+    }
+
+    public List<WorkflowTransitionDefinition> getOutgoingTransitions(String stateName) {
+        return stateName != null ? outgoingTransitions.getOrDefault(stateName, List.of()) : List.of();
+    }
+
+    public int getStateCount() {
+        return states.size();
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    @Override
+    public String toString() {
+        return workflowName + " v" + version;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracker.workflow.runtime;
+
+import java.util.Map;
+
+/**
+ * A running process on a {@link CompiledWorkflow}: its id, the ordinal of its current state and its
+ * variables. Everything else, states, transitions, guards and actions, is shared by all instances of the
+ * definition version.
+ */
+public final class WorkflowInstance {
+
+    private final String processInstanceId;
+    private final CompiledWorkflow workflow;
+    private final Map<Object, Object> variables;
+    private volatile int state;
+
+    WorkflowInstance(String processInstanceId, CompiledWorkflow workflow, int state, Map<Object, Object> variables) {
+        this.processInstanceId = processInstanceId;
+        this.workflow = workflow;
+        this.state = state;
+        this.variables = variables;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public CompiledWorkflow getWorkflow() {
+        return workflow;
+    }
+
+    public int getStateOrdinal() {
+        return state;
+    }
+
+    public String getState() {
+        return workflow.stateName(state);
+    }
+
+    public boolean isComplete() {
+        return workflow.isEndState(state);
+    }
+
+    /**
+     * Live, mutable variables of the process, exposed to guards and actions as the extended state.
+     */
+    public Map<Object, Object> getVariables() {
+        return variables;
+    }
+
+    void setState(int state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,237 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.expression.RuleNetwork;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.WorkflowRuleV2;
+import com.tracker.workflow.model.WorkflowStateMachineContext;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.WorkflowStateMachineContextRepository;
+import com.tracker.workflow.runtime.CompiledTransition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.ProcessReplay;
+import com.tracker.workflow.runtime.WorkflowInstance;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs processes of workflows other than {@link WorkflowRegistry#DEFAULT_WORKFLOW} on their
+ * {@link CompiledWorkflow} model.
+ * <p>
+ * Like the state machines of the default workflow, each process is persisted to
+ * {@code state_machine_contexts} and {@code process_instances} after it starts and after each event, and
+ * every transition is recorded in {@code process_history}. A process starts on the active version of its
+ * workflow and stays pinned to it in {@link WorkflowRegistry} until it completes. Running instances
+ * are kept in a bounded LRU map and restored from their persisted context, or rebuilt from their history if
+ * it is missing, on the version they are pinned to when they are not in memory. An instance changed by a
+ * transaction that does not commit is dropped from the map, so it is restored from what was persisted.
+ * <p>
+ * An event is only applied while the process satisfies every active
+ * {@link WorkflowRuleV2.RuleType#VALIDATION} rule of its workflow definition, evaluated by
+ * {@link WorkflowRuleEngine} against its {@code processData} and variables.
+ */
+@Service
+@Transactional
+@Log4j2
+public class CompiledProcessService {
+
+    private final WorkflowRegistry workflowRegistry;
+    private final WorkflowStateMachineContextRepository contextRepository;
+    private final ProcessHistoryRepository historyRepository;
+    private final ProcessInstanceService processInstances;
+    private final ProcessReplayService replayService;
+    private final WorkflowRuleEngine ruleEngine;
+    private final Map<String, WorkflowInstance> instances;
+
+    public CompiledProcessService(WorkflowRegistry workflowRegistry,
+                                  WorkflowStateMachineContextRepository contextRepository,
+                                  ProcessHistoryRepository historyRepository,
+                                  ProcessInstanceService processInstances,
+                                  ProcessReplayService replayService,
+                                  WorkflowRuleEngine ruleEngine,
+                                  WorkflowEngineProperties properties) {
+        this.workflowRegistry = workflowRegistry;
+        this.contextRepository = contextRepository;
+        this.historyRepository = historyRepository;
+        this.processInstances = processInstances;
+        this.replayService = replayService;
+        this.ruleEngine = ruleEngine;
+
+        int maximumSize = properties.getStateMachines().getCacheSize();
+        this.instances = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WorkflowInstance> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Starts a process on the active version of a workflow and pins it to that version, which is recorded
+     * in its variables under {@link WorkflowRegistry#WORKFLOW_VERSION}.
+     */
+    public WorkflowInstance start(String workflowName, String processInstanceId, Map<String, Object> variables) {
+        CompiledWorkflow workflow = workflowRegistry.pinActive(workflowName, processInstanceId).getWorkflow();
+        // A process that fails to start never completes, so its pin is released here
+        TransactionCallbacks.onRollback(() -> workflowRegistry.release(processInstanceId));
+
+        Map<String, Object> pinned = new HashMap<>(variables);
+        pinned.put(WorkflowRegistry.WORKFLOW_VERSION, workflow.getVersion());
+        WorkflowInstance instance = workflow.newInstance(processInstanceId, pinned);
+        persist(instance);
+        synchronized (instances) {
+            instances.put(processInstanceId, instance);
+        }
+        evictUnlessCommitted(processInstanceId);
+        return instance;
+    }
+
+    /**
+     * Returns the running instance of a process, restoring it if needed, or null if the process does not
+     * run on a compiled workflow.
+     */
+    @Transactional(readOnly = true)
+    public WorkflowInstance get(String processInstanceId) {
+        synchronized (instances) {
+            WorkflowInstance cached = instances.get(processInstanceId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // A process whose context is missing is rebuilt from its history
+        WorkflowStateMachineContext context = contextRepository.findById(processInstanceId)
+                .or(() -> replayService.rebuild(processInstanceId).map(CompiledProcessService::replayedContext))
+                .orElse(null);
+        if (!isCompiled(context)) {
+            return null;
+        }
+        WorkflowInstance restored = restore(context);
+        synchronized (instances) {
+            // Another thread may have restored the same process meanwhile; keep the first one
+            WorkflowInstance existing = instances.putIfAbsent(processInstanceId, restored);
+            return existing != null ? existing : restored;
+        }
+    }
+
+    /**
+     * Applies an event to a process and returns its new state.
+     *
+     * @throws WorkflowException if the process violates a validation rule, or no transition accepts the
+     *                           event in the current state
+     */
+    public String sendEvent(WorkflowInstance instance, String event, Map<String, Object> eventData) {
+        evictUnlessCommitted(instance.getProcessInstanceId());
+        if (eventData != null) {
+            instance.getVariables().putAll(eventData);
+        }
+        validate(instance, event);
+
+        String fromState = instance.getState();
+        CompiledTransition transition = instance.getWorkflow().fire(instance, event);
+        if (transition == null) {
+            throw new WorkflowException("Event " + event + " not accepted in current state: " + fromState);
+        }
+
+        recordHistory(instance, fromState, event, eventData);
+        persist(instance);
+        if (instance.isComplete()) {
+            synchronized (instances) {
+                instances.remove(instance.getProcessInstanceId());
+            }
+            TransactionCallbacks.afterCommit(() -> workflowRegistry.release(instance.getProcessInstanceId()));
+        }
+        return instance.getState();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void validate(WorkflowInstance instance, String event) {
+        Long definitionId = instance.getWorkflow().getDefinitionId();
+        if (definitionId == null) {
+            return;
+        }
+        RuleNetwork<WorkflowRuleV2> rules = ruleEngine.getNetwork(definitionId, WorkflowRuleV2.RuleType.VALIDATION);
+        if (rules.size() == 0) {
+            return;
+        }
+
+        Map<String, Object> variables = (Map<String, Object>) (Map<?, ?>) instance.getVariables();
+        Object processData = variables.get("processData");
+        RuleNetwork.Matches<WorkflowRuleV2> matches = rules.evaluate(
+                processData instanceof Map ? (Map<String, Object>) processData : Map.of(), variables);
+        List<WorkflowRuleV2> violated = matches.getUnmatchedRules();
+        if (!violated.isEmpty()) {
+            // Rules are in priority order, so the most important violation is reported
+            throw new WorkflowException("Event " + event + " rejected for process " + instance.getProcessInstanceId()
+                    + ": validation rule " + violated.get(0).getRuleName() + " not satisfied");
+        }
+    }
+
+    private void evictUnlessCommitted(String processInstanceId) {
+        TransactionCallbacks.onRollback(() -> {
+            synchronized (instances) {
+                instances.remove(processInstanceId);
+            }
+        });
+    }
+
+    private static boolean isCompiled(WorkflowStateMachineContext context) {
+        return context != null && context.getExtendedState() != null
+                && !WorkflowRegistry.DEFAULT_WORKFLOW.equals(WorkflowRegistry.workflowNameOf(context.getExtendedState()));
+    }
+
+    private static WorkflowStateMachineContext replayedContext(ProcessReplay replay) {
+        WorkflowStateMachineContext context = new WorkflowStateMachineContext();
+        context.setProcessInstanceId(replay.getProcessInstanceId());
+        context.setCurrentState(replay.getState());
+        context.setExtendedState(replay.getVariables());
+        return context;
+    }
+
+    private WorkflowInstance restore(WorkflowStateMachineContext context) {
+        Map<String, Object> variables = context.getExtendedState();
+        CompiledWorkflow workflow = workflowRegistry.pin(context.getProcessInstanceId(),
+                WorkflowRegistry.workflowNameOf(variables),
+                String.valueOf(variables.get(WorkflowRegistry.WORKFLOW_VERSION))).getWorkflow();
+        log.debug("Restored process {} of {} in state {}", context.getProcessInstanceId(), workflow, context.getCurrentState());
+        WorkflowInstance instance = workflow.restore(context.getProcessInstanceId(), context.getCurrentState(), variables);
+        if (instance.isComplete()) {
+            // Completed processes are only read, they no longer hold on to their version
+            workflowRegistry.release(context.getProcessInstanceId());
+        }
+        return instance;
+    }
+
+    private void persist(WorkflowInstance instance) {
+        WorkflowStateMachineContext context = contextRepository.findById(instance.getProcessInstanceId())
+                .orElseGet(WorkflowStateMachineContext::new);
+        context.setProcessInstanceId(instance.getProcessInstanceId());
+        context.setCurrentState(instance.getState());
+        Map<String, Object> variables = new HashMap<>();
+        instance.getVariables().forEach((key, value) -> variables.put(String.valueOf(key), value));
+        context.setExtendedState(variables);
+        context.setUpdatedAt(LocalDateTime.now());
+        contextRepository.save(context);
+
+        processInstances.record(instance.getProcessInstanceId(), instance.getState(), !instance.isComplete(), variables);
+    }
+
+    private void recordHistory(WorkflowInstance instance, String fromState, String event, Map<String, Object> eventData) {
+        ProcessHistory history = new ProcessHistory();
+        history.setProcessInstanceId(instance.getProcessInstanceId());
+        history.setFromState(fromState);
+        history.setToState(instance.getState());
+        history.setEvent(event);
+        history.setContextData(eventData);
+        history.setTimestamp(LocalDateTime.now());
+        historyRepository.save(history);
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles each workflow definition version into a {@link CompiledWorkflow} on first use and keeps it,
+ * keyed by definition id, until {@link WorkflowRegistry} evicts the version. Which version is active or
+ * in use is only tracked there. Guards and actions come from the same factories the Spring state machine
+ * configuration uses.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Log4j2
+public class CompiledWorkflowRegistry {
+
+    private final DynamicWorkflowGuardFactory guardFactory;
+    private final DynamicWorkflowActionFactory actionFactory;
+
+    private final Map<Long, CompiledWorkflow> workflows = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the compiled form of a definition version. Compiling happens outside the map; when two
+     * threads compile the same version, the first one stored wins.
+     */
+    public CompiledWorkflow get(WorkflowDefinition definition) {
+        CompiledWorkflow compiled = workflows.get(definition.getId());
+        if (compiled != null) {
+            return compiled;
+        }
+        CompiledWorkflow built = compile(definition);
+        CompiledWorkflow existing = workflows.putIfAbsent(definition.getId(), built);
+        return existing != null ? existing : built;
+    }
+
+    public void evict(Long definitionId) {
+        workflows.remove(definitionId);
+    }
+
+    private CompiledWorkflow compile(WorkflowDefinition definition) {
+        CompiledWorkflow workflow = CompiledWorkflow.compile(definition, guardFactory::createGuard, actionFactory::createAction);
+        log.info("Compiled workflow {} with {} states and {} events",
+                workflow, workflow.getStateCount(), workflow.getEventCount());
+        return workflow;
+    }
+}
@@ -1,7 +1,6 @@
 package com.tracker.workflow.service;
 
 import com.tracker.workflow.model.CompletionStrategy;
-import com.tracker.workflow.model.WorkflowStates;
 import com.tracker.workflow.dto.TaskAssignmentConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -52,7 +51,8 @@ public class DynamicWorkflowActionFactory {
                 String processInstanceId = getProcessInstanceId(context);
                 String currentState = context.getTarget().getId();
                 
-                TaskAssignmentConfig assignment = assignmentService.getAssignmentForState(processInstanceId, currentState);
+                TaskAssignmentConfig assignment = assignmentService.getAssignmentForState(
+                    getWorkflowName(context), processInstanceId, currentState);
                 
                 if (assignment != null) {
                     CompletionStrategy strategy = CompletionStrategy.valueOf(assignment.getCompletionStrategy());
@@ -61,7 +61,7 @@ public class DynamicWorkflowActionFactory {
                         assignment.getTaskName(),
                         assignment.getAssignees(),
                         strategy,
-                        WorkflowStates.valueOf(currentState),
+                        currentState,
                         assignment.getDescription()
                     );
                     
@@ -81,7 +81,8 @@ public class DynamicWorkflowActionFactory {
                 String processInstanceId = getProcessInstanceId(context);
                 String currentState = context.getTarget().getId();
                 
-                TaskAssignmentConfig assignment = assignmentService.getAssignmentForState(processInstanceId, currentState);
+                TaskAssignmentConfig assignment = assignmentService.getAssignmentForState(
+                    getWorkflowName(context), processInstanceId, currentState);
                 
                 if (assignment != null && !assignment.getAssignees().isEmpty()) {
                     String assignee = assignment.getAssignees().get(0);
@@ -90,7 +91,7 @@ public class DynamicWorkflowActionFactory {
                         processInstanceId,
                         assignment.getTaskName(),
                         assignee,
-                        WorkflowStates.valueOf(currentState),
+                        currentState,
                         assignment.getDescription()
                     );
                     
@@ -136,4 +137,8 @@ public class DynamicWorkflowActionFactory {
         return processId != null ? processId.toString() : "unknown";
     }
     
+    private String getWorkflowName(StateContext<String, String> context) {
+        return WorkflowRegistry.workflowNameOf(context.getExtendedState().getVariables());
+    }
+    
 }
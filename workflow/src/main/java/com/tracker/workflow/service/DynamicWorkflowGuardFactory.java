@@ -6,7 +6,7 @@ import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.guard.Guard;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
 @Service
@@ -28,9 +28,7 @@ public class DynamicWorkflowGuardFactory {
                     return false;
                 }
                 
-                Map<String, Object> contextData = getContextData(context);
-                
-                return expressionEvaluator.evaluate(guardExpression, processData, contextData);
+                return expressionEvaluator.evaluate(guardExpression, processData, new StateContextView(context));
             } catch (Exception e) {
                 log.error("Error evaluating guard expression: {}", guardExpression, e);
                 return false;
@@ -43,14 +41,6 @@ public class DynamicWorkflowGuardFactory {
         if (processData instanceof Map) {
             return (Map<String, Object>) processData;
         }
-        return new HashMap<>();
-    }
-    
-    private Map<String, Object> getContextData(StateContext<String, String> context) {
-        Map<String, Object> contextData = new HashMap<>();
-        contextData.put("currentState", context.getSource() != null ? context.getSource().getId() : null);
-        contextData.put("targetState", context.getTarget() != null ? context.getTarget().getId() : null);
-        contextData.put("event", context.getEvent());
-        return contextData;
+        return Collections.emptyMap();
     }
 }
@@ -0,0 +1,102 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.EventSubmissionDTO;
+import com.tracker.workflow.dto.WorkflowStatusDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the outcome of asynchronously submitted events so that clients answered with
+ * {@code 202 Accepted} can poll for it. Finished submissions are dropped after
+ * {@code app.tracker.workflow.mailbox.result-retention-millis}.
+ */
+@Service
+@Log4j2
+public class EventSubmissionTracker {
+
+    static final String PENDING = "PENDING";
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+
+    private final Duration retention;
+    private final Map<String, Submission> submissions = new ConcurrentHashMap<>();
+
+    public EventSubmissionTracker(WorkflowEngineProperties properties) {
+        this.retention = Duration.ofMillis(properties.getMailbox().getResultRetentionMillis());
+    }
+
+    /**
+     * Registers a submitted event and returns the id to poll it by.
+     */
+    public String track(String processInstanceId, CompletableFuture<WorkflowStatusDTO> result) {
+        String submissionId = UUID.randomUUID().toString();
+        Submission submission = new Submission(processInstanceId, result, LocalDateTime.now());
+        submissions.put(submissionId, submission);
+        result.whenComplete((status, error) -> submission.completedAt = LocalDateTime.now());
+        return submissionId;
+    }
+
+    public Optional<EventSubmissionDTO> find(String submissionId) {
+        Submission submission = submissions.get(submissionId);
+        return Optional.ofNullable(submission).map(s -> s.toDTO(submissionId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracker.workflow.mailbox.result-retention-millis:600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int before = submissions.size();
+        submissions.values().removeIf(s -> s.completedAt != null && s.completedAt.isBefore(cutoff));
+        log.debug("Purged {} expired event submissions", before - submissions.size());
+    }
+
+    int size() {
+        return submissions.size();
+    }
+
+    private static final class Submission {
+
+        private final String processInstanceId;
+        private final CompletableFuture<WorkflowStatusDTO> result;
+        private final LocalDateTime submittedAt;
+        private volatile LocalDateTime completedAt;
+
+        private Submission(String processInstanceId, CompletableFuture<WorkflowStatusDTO> result,
+                           LocalDateTime submittedAt) {
+            this.processInstanceId = processInstanceId;
+            this.result = result;
+            this.submittedAt = submittedAt;
+        }
+
+        private EventSubmissionDTO toDTO(String submissionId) {
+            EventSubmissionDTO.EventSubmissionDTOBuilder dto = EventSubmissionDTO.builder()
+                    .submissionId(submissionId)
+                    .processInstanceId(processInstanceId)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt);
+
+            if (!result.isDone()) {
+                return dto.status(PENDING).build();
+            }
+            try {
+                WorkflowStatusDTO status = result.join();
+                return dto.status(COMPLETED)
+                        .currentState(status != null ? status.getCurrentState() : null)
+                        .build();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return dto.status(FAILED).error(cause.getMessage()).build();
+            }
+        }
+    }
+}
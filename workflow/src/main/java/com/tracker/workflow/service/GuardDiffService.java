@@ -0,0 +1,216 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.GuardDiffEntry;
+import com.tracker.workflow.dto.GuardDiffRequest;
+import com.tracker.workflow.dto.GuardDiffSummary;
+import com.tracker.workflow.dto.InFlightProcessData;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Re-evaluates an edited guard expression against every in-flight process and reports the processes
+ * for which the old and new expression disagree.
+ * <p>
+ * Processes are read in keyset pages. Each page is evaluated on a dedicated {@link ForkJoinPool}
+ * while the next page is loaded, and divergent processes are handed to the caller as soon as their
+ * page is done, so a report can be streamed without holding all instances in memory.
+ */
+@Service
+@Transactional(readOnly = true)
+@Log4j2
+public class GuardDiffService {
+
+    private static final TypeReference<Map<String, Object>> PROCESS_DATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ProcessInstanceRepository processInstanceRepository;
+    private final WorkflowExpressionEvaluator expressionEvaluator;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final ForkJoinPool pool;
+
+    public GuardDiffService(ProcessInstanceRepository processInstanceRepository,
+                            WorkflowExpressionEvaluator expressionEvaluator, ObjectMapper objectMapper,
+                            WorkflowEngineProperties properties) {
+        this.processInstanceRepository = processInstanceRepository;
+        this.expressionEvaluator = expressionEvaluator;
+        this.objectMapper = objectMapper;
+        this.pageSize = properties.getGuardDiff().getPageSize();
+        this.pool = new ForkJoinPool(properties.getGuardDiff().getParallelism());
+    }
+
+    /**
+     * @param request the old and new guard expression and optional state filter
+     * @param divergent receives every process whose guard outcome changes, page by page, on the calling thread
+     * @return counts over all evaluated processes
+     */
+    public GuardDiffSummary diff(GuardDiffRequest request, Consumer<GuardDiffEntry> divergent) {
+        long started = System.nanoTime();
+        CompiledExpression oldGuard = compile(request.getOldExpression());
+        CompiledExpression newGuard = compile(request.getNewExpression());
+        Tally tally = new Tally();
+
+        List<InFlightProcessData> page = loadPage("", request.getSourceState());
+        while (!page.isEmpty()) {
+            List<InFlightProcessData> current = page;
+            ForkJoinTask<List<Outcome>> evaluation = pool.submit(() -> current.parallelStream()
+                    .map(process -> evaluate(process, request.getEvent(), oldGuard, newGuard))
+                    .toList());
+
+            String last = current.get(current.size() - 1).getProcessInstanceId();
+            page = current.size() < pageSize ? List.of() : loadPage(last, request.getSourceState());
+
+            for (Outcome outcome : join(evaluation)) {
+                tally.add(outcome, divergent);
+            }
+        }
+
+        GuardDiffSummary summary = tally.summary((System.nanoTime() - started) / 1_000_000);
+        log.info("Guard diff evaluated {} processes, {} changed, in {} ms",
+                summary.getEvaluated(), summary.getChanged(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private List<InFlightProcessData> loadPage(String after, String sourceState) {
+        return processInstanceRepository.findInFlightProcessDataPage(after, sourceState, pageSize);
+    }
+
+    /**
+     * Returns null for a blank expression, which like a transition without a guard always passes.
+     */
+    private CompiledExpression compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            return null;
+        }
+        return expressionEvaluator.compile(expression);
+    }
+
+    /**
+     * Evaluates both guards the way {@link DynamicWorkflowGuardFactory} does: without process data a
+     * non-blank guard fails.
+     */
+    private Outcome evaluate(InFlightProcessData process, String event,
+                             CompiledExpression oldGuard, CompiledExpression newGuard) {
+        Map<String, Object> processData;
+        try {
+            processData = process.getProcessData() != null
+                    ? objectMapper.readValue(process.getProcessData(), PROCESS_DATA_TYPE)
+                    : Map.of();
+        } catch (Exception e) {
+            log.warn("Skipping process {} with unreadable process data", process.getProcessInstanceId(), e);
+            return Outcome.skipped(process);
+        }
+
+        Map<String, Object> context = new HashMap<>();
+        context.put("currentState", process.getCurrentState());
+        context.put("event", event);
+        return new Outcome(process, test(oldGuard, processData, context), test(newGuard, processData, context));
+    }
+
+    private static boolean test(CompiledExpression guard, Map<String, Object> processData, Map<String, Object> context) {
+        if (guard == null) {
+            return true;
+        }
+        if (processData.isEmpty()) {
+            return false;
+        }
+        try {
+            return guard.evaluate(processData, context);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static List<Outcome> join(ForkJoinTask<List<Outcome>> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Guard diff interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Guard diff evaluation failed", e.getCause());
+        }
+    }
+
+    private static final class Outcome {
+        final InFlightProcessData process;
+        final boolean oldResult;
+        final boolean newResult;
+        final boolean skipped;
+
+        Outcome(InFlightProcessData process, boolean oldResult, boolean newResult) {
+            this(process, oldResult, newResult, false);
+        }
+
+        private Outcome(InFlightProcessData process, boolean oldResult, boolean newResult, boolean skipped) {
+            this.process = process;
+            this.oldResult = oldResult;
+            this.newResult = newResult;
+            this.skipped = skipped;
+        }
+
+        static Outcome skipped(InFlightProcessData process) {
+            return new Outcome(process, false, false, true);
+        }
+    }
+
+    private static final class Tally {
+        long evaluated;
+        long nowPassing;
+        long nowFailing;
+        long skipped;
+
+        void add(Outcome outcome, Consumer<GuardDiffEntry> divergent) {
+            if (outcome.skipped) {
+                skipped++;
+                return;
+            }
+            evaluated++;
+            if (outcome.oldResult == outcome.newResult) {
+                return;
+            }
+            if (outcome.newResult) {
+                nowPassing++;
+            } else {
+                nowFailing++;
+            }
+            divergent.accept(GuardDiffEntry.builder()
+                    .processInstanceId(outcome.process.getProcessInstanceId())
+                    .currentState(outcome.process.getCurrentState())
+                    .oldResult(outcome.oldResult)
+                    .newResult(outcome.newResult)
+                    .build());
+        }
+
+        GuardDiffSummary summary(long elapsedMillis) {
+            return GuardDiffSummary.builder()
+                    .evaluated(evaluated)
+                    .changed(nowPassing + nowFailing)
+                    .nowPassing(nowPassing)
+                    .nowFailing(nowFailing)
+                    .skipped(skipped)
+                    .elapsedMillis(elapsedMillis)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.model.WorkflowStateMachineContext;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.repository.WorkflowStateMachineContextRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.statemachine.StateMachineContext;
+import org.springframework.statemachine.StateMachinePersist;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the current state and extended state variables of a process's state machine in
+ * {@code state_machine_contexts}, keyed by process instance id, and updates the process's
+ * {@code process_instances} row in the same transaction. A process without a context row is rebuilt
+ * from its history.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class JpaWorkflowStateMachinePersist implements StateMachinePersist<WorkflowStates, WorkflowEvents, String> {
+
+    private final WorkflowStateMachineContextRepository contextRepository;
+    private final ProcessInstanceService processInstances;
+    private final ProcessReplayService replayService;
+
+    @Override
+    public void write(StateMachineContext<WorkflowStates, WorkflowEvents> context, String processInstanceId) {
+        WorkflowStateMachineContext entity = contextRepository.findById(processInstanceId)
+                .orElseGet(WorkflowStateMachineContext::new);
+        entity.setProcessInstanceId(processInstanceId);
+        entity.setCurrentState(context.getState().name());
+        entity.setExtendedState(variables(context));
+        entity.setUpdatedAt(LocalDateTime.now());
+        contextRepository.save(entity);
+
+        processInstances.record(processInstanceId, entity.getCurrentState(),
+                context.getState() != WorkflowStates.COMPLETED, entity.getExtendedState());
+    }
+
+    /**
+     * Reads the persisted context of a process, or rebuilds it from the process's history if the context
+     * row is missing.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public StateMachineContext<WorkflowStates, WorkflowEvents> read(String processInstanceId) {
+        return contextRepository.findById(processInstanceId)
+                .map(entity -> context(processInstanceId, entity.getCurrentState(), entity.getExtendedState()))
+                .or(() -> replayService.rebuild(processInstanceId)
+                        .map(replay -> context(processInstanceId, replay.getState(), replay.getVariables())))
+                .orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean exists(String processInstanceId) {
+        return contextRepository.existsById(processInstanceId) || replayService.canRebuild(processInstanceId);
+    }
+
+    private static StateMachineContext<WorkflowStates, WorkflowEvents> context(String processInstanceId, String state,
+                                                                               Map<String, Object> variables) {
+        return new DefaultStateMachineContext<>(WorkflowStates.valueOf(state), null, null,
+                new DefaultExtendedState(variables != null ? new HashMap<>(variables) : new HashMap<>()),
+                null, processInstanceId);
+    }
+
+    private static Map<String, Object> variables(StateMachineContext<WorkflowStates, WorkflowEvents> context) {
+        Map<String, Object> variables = new HashMap<>();
+        if (context.getExtendedState() != null) {
+            context.getExtendedState().getVariables().forEach((key, value) -> variables.put(String.valueOf(key), value));
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,168 @@
+package com.tracker.workflow.service;
+
+import com.tracker.email.service.EmailService;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.RecipientSendHistory;
+import com.tracker.workflow.model.NotificationOutboxEntry;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the notifications written to the outbox by {@link NotificationService}.
+ * <p>
+ * Once a recipient has a notification due, all of the recipient's pending notifications are sent through
+ * {@link EmailService} as one message, a digest when there are several. A recipient already sent
+ * {@code app.tracker.workflow.outbox.user-rate-limit} messages within the rate window waits until the
+ * oldest of them leaves it, collecting further notifications into the same digest meanwhile.
+ * <p>
+ * Each batch of recipients is locked, sent and marked in its own transaction, which only holds locks on
+ * outbox rows, so slow delivery never delays the transactions that raise notifications. A failed delivery
+ * is retried with exponential backoff until {@code app.tracker.workflow.outbox.max-attempts}. A node that
+ * stops between sending and committing a batch leaves it pending, so delivery is at least once.
+ */
+@Service
+@Log4j2
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkflowEngineProperties.Outbox properties;
+    private final Duration userRateWindow;
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository, EmailService emailService,
+                                        PlatformTransactionManager transactionManager,
+                                        WorkflowEngineProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties.getOutbox();
+        this.userRateWindow = Duration.ofMillis(this.properties.getUserRateWindowMillis());
+    }
+
+    /**
+     * Delivers due notifications batch by batch until fewer than a full batch of recipients were due.
+     */
+    @Scheduled(fixedDelayString = "${app.tracker.workflow.outbox.poll-interval-millis:1000}")
+    public void dispatch() {
+        int handled;
+        do {
+            handled = dispatchBatch();
+        } while (handled == properties.getBatchSize());
+    }
+
+    /**
+     * Locks the pending notifications of a batch of recipients with a notification due, and delivers or
+     * defers each recipient's notifications in one transaction.
+     *
+     * @return the number of recipients handled
+     */
+    int dispatchBatch() {
+        Integer handled = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, List<NotificationOutboxEntry>> byRecipient = outboxRepository
+                    .lockDueRecipients(now, properties.getBatchSize()).stream()
+                    .collect(Collectors.groupingBy(NotificationOutboxEntry::getRecipient, LinkedHashMap::new,
+                            Collectors.toList()));
+            if (byRecipient.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, RecipientSendHistory> sendHistory = outboxRepository
+                    .findSendHistory(byRecipient.keySet(), now.minus(userRateWindow)).stream()
+                    .collect(Collectors.toMap(RecipientSendHistory::getRecipient, Function.identity()));
+            byRecipient.forEach((recipient, entries) -> {
+                RecipientSendHistory history = sendHistory.get(recipient);
+                if (history != null && history.getSends() >= properties.getUserRateLimit()) {
+                    defer(recipient, entries, history.getFirstSentAt().plus(userRateWindow));
+                } else {
+                    deliver(recipient, entries, now);
+                }
+            });
+            return byRecipient.size();
+        });
+        return handled != null ? handled : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracker.workflow.outbox.purge-interval-millis:3600000}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(properties.getSentRetentionHours());
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(cutoff));
+        log.debug("Purged {} delivered notifications", deleted);
+    }
+
+    private void deliver(String recipient, List<NotificationOutboxEntry> entries, LocalDateTime now) {
+        entries.forEach(entry -> entry.setAttempts(entry.getAttempts() + 1));
+        try {
+            if (entries.size() == 1) {
+                emailService.sendEmail(recipient, entries.get(0).getSubject(), entries.get(0).getBody());
+            } else {
+                emailService.sendEmail(recipient, digestSubject(entries), digestBody(entries));
+            }
+        } catch (RuntimeException e) {
+            entries.forEach(entry -> failed(entry, now, e));
+            return;
+        }
+        // Notifications sent together share their send time, which is how the rate limit counts messages
+        LocalDateTime sentAt = LocalDateTime.now();
+        for (NotificationOutboxEntry entry : entries) {
+            entry.setStatus(NotificationOutboxEntry.Status.SENT);
+            entry.setSentAt(sentAt);
+            entry.setLastError(null);
+        }
+        log.debug("Sent {} notifications to {}", entries.size(), recipient);
+    }
+
+    private void defer(String recipient, List<NotificationOutboxEntry> entries, LocalDateTime until) {
+        entries.forEach(entry -> entry.setNextAttemptAt(until));
+        log.debug("Rate limit reached for {}, holding {} notifications until {}", recipient, entries.size(), until);
+    }
+
+    private void failed(NotificationOutboxEntry entry, LocalDateTime now, RuntimeException e) {
+        entry.setLastError(e.toString());
+        if (entry.getAttempts() >= properties.getMaxAttempts()) {
+            entry.setStatus(NotificationOutboxEntry.Status.FAILED);
+            log.error("Giving up on notification {} after {} attempts", entry.getIdempotencyKey(),
+                    entry.getAttempts(), e);
+        } else {
+            Duration backoff = backoff(entry.getAttempts());
+            entry.setNextAttemptAt(now.plus(backoff));
+            log.warn("Delivery of notification {} failed, retrying in {}: {}", entry.getIdempotencyKey(),
+                    backoff, e.toString());
+        }
+    }
+
+    private static String digestSubject(List<NotificationOutboxEntry> entries) {
+        return entries.size() + " new notifications";
+    }
+
+    private static String digestBody(List<NotificationOutboxEntry> entries) {
+        return entries.stream()
+                .map(entry -> "- " + entry.getBody())
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * The delay after the given number of failed attempts: the initial backoff, doubled for each further
+     * attempt and capped at the maximum.
+     */
+    Duration backoff(int attempts) {
+        long millis = properties.getInitialBackoffMillis();
+        for (int i = 1; i < attempts && millis < properties.getMaxBackoffMillis(); i++) {
+            millis *= 2;
+        }
+        return Duration.ofMillis(Math.min(millis, properties.getMaxBackoffMillis()));
+    }
+}
@@ -1,26 +1,55 @@
 package com.tracker.workflow.service;
 
-import lombok.RequiredArgsConstructor;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.NotificationOutboxEntry;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 /**
  * Service for sending notifications to users.
+ * <p>
+ * Notifications are written to the outbox in the caller's transaction and delivered by
+ * {@link NotificationOutboxDispatcher} after it commits, so a notification is sent only for a committed
+ * change and delivery never holds the caller's transaction open. A notification is held for
+ * {@code app.tracker.workflow.outbox.coalesce-window-millis} so that others raised for the same user in
+ * the meantime go out with it as one digest.
  */
 @Service
 @Transactional
-@RequiredArgsConstructor
 @Log4j2
 public class NotificationService {
-    
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final Duration coalesceWindow;
+
+    public NotificationService(NotificationOutboxRepository outboxRepository, WorkflowEngineProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.coalesceWindow = Duration.ofMillis(properties.getOutbox().getCoalesceWindowMillis());
+    }
+
     /**
      * Notifies a user with a message.
      *
      * @param userId the ID of the user to notify
      * @param message the notification message
+     * @param idempotencyKey identifies the notification; raising the same key twice fails the transaction
      */
-    void notifyUser(String userId, String message){
-        log.info("notify user method called");
+    void notifyUser(String userId, String message, String idempotencyKey) {
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setIdempotencyKey(idempotencyKey);
+        entry.setRecipient(userId);
+        entry.setSubject(message);
+        entry.setBody(message);
+        entry.setStatus(NotificationOutboxEntry.Status.PENDING);
+        entry.setNextAttemptAt(now.plus(coalesceWindow));
+        entry.setCreatedAt(now);
+        outboxRepository.save(entry);
+        log.debug("Queued notification {} for user {}", idempotencyKey, userId);
     }
-}
\ No newline at end of file
+}
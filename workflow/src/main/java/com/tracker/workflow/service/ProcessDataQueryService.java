@@ -0,0 +1,88 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.expression.ExpressionCompiler;
+import com.tracker.workflow.expression.JsonbPredicate;
+import com.tracker.workflow.expression.JsonbPredicateTranslator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Finds in-flight processes whose stored data satisfies a guard expression, evaluated by
+ * PostgreSQL against the GIN-indexed jsonb columns instead of loading rows into the JVM.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Log4j2
+public class ProcessDataQueryService {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Returns the IDs of processes that still have a pending task and at least one row of the
+     * given source whose jsonb data matches the expression.
+     *
+     * @param expression the guard expression, e.g. {@code {"amount": {"$gte": 10000}}}
+     * @param source which jsonb column to search
+     * @param maxResults upper bound on the number of IDs returned
+     * @return matching process instance IDs in ascending order
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> findInFlightProcessInstanceIds(String expression, Source source, int maxResults) {
+        JsonbPredicate predicate = JsonbPredicateTranslator.translate(compile(expression), source.column, 1);
+
+        String sql = "SELECT DISTINCT d.process_instance_id FROM " + source.table + " d"
+                + " WHERE " + predicate.getSql()
+                + " AND EXISTS (SELECT 1 FROM workflow_tasks p"
+                + " WHERE p.process_instance_id = d.process_instance_id AND p.status = 'PENDING')"
+                + " ORDER BY d.process_instance_id";
+
+        Query query = entityManager.createNativeQuery(sql);
+        List<Object> parameters = predicate.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        query.setMaxResults(maxResults);
+
+        log.debug("Process data query on {}: {}", source, predicate.getSql());
+        return (List<String>) query.getResultList();
+    }
+
+    private CompiledExpression compile(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("Expression must not be empty");
+        }
+        try {
+            JsonNode node = objectMapper.readTree(expression);
+            return ExpressionCompiler.compile(expression, node);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid expression: " + expression, e);
+        }
+    }
+
+    /**
+     * jsonb columns that can be searched.
+     */
+    public enum Source {
+        TASK_DATA("workflow_tasks", "d.task_data"),
+        CONTEXT_DATA("process_history", "d.context_data");
+
+        private final String table;
+        private final String column;
+
+        Source(String table, String column) {
+            this.table = table;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.config.WorkflowEngineProperties.Mailbox.Overflow;
+import com.tracker.workflow.exception.WorkflowBusyException;
+import com.tracker.workflow.exception.WorkflowException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer mailbox for process events. Work for a process runs on one of a fixed number of
+ * single-threaded stripes chosen by the hash of its process instance id, so the events of one process
+ * are applied one at a time in submission order, while processes on different stripes run in parallel
+ * without a shared lock.
+ * <p>
+ * Work submitted from a stripe's own thread, e.g. an action that triggers another event of the same
+ * process, runs inline instead of queueing behind itself.
+ * <p>
+ * Each stripe queues at most {@code app.tracker.workflow.mailbox.queue-capacity} events. When a queue is
+ * full, a submission is rejected at once or after waiting for room, depending on the configured
+ * {@link Overflow}, with a {@link WorkflowBusyException}. Running the work on the caller's thread is
+ * deliberately not an option, as it would apply two events of one process at the same time.
+ */
+@Service
+public class ProcessEventMailbox {
+
+    private static final ThreadLocal<Integer> CURRENT_STRIPE = new ThreadLocal<>();
+
+    private final ExecutorService[] stripes;
+
+    public ProcessEventMailbox(WorkflowEngineProperties properties) {
+        WorkflowEngineProperties.Mailbox config = properties.getMailbox();
+        RejectedExecutionHandler overflow = config.getOverflow() == Overflow.BLOCK
+                ? blockFor(config.getOfferTimeoutMillis())
+                : new ThreadPoolExecutor.AbortPolicy();
+        stripes = new ExecutorService[config.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            int stripe = i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(() -> {
+                            CURRENT_STRIPE.set(stripe);
+                            runnable.run();
+                        }, "workflow-mailbox-" + stripe);
+                        thread.setDaemon(true);
+                        return thread;
+                    }, overflow);
+        }
+    }
+
+    /**
+     * Queues work for a process and returns its result asynchronously.
+     *
+     * @throws WorkflowBusyException if the process's stripe has no room for the work
+     */
+    public <T> CompletableFuture<T> submit(String processInstanceId, Supplier<T> work) {
+        int stripe = stripeOf(processInstanceId);
+        if (Integer.valueOf(stripe).equals(CURRENT_STRIPE.get())) {
+            return inline(work);
+        }
+        try {
+            return CompletableFuture.supplyAsync(work, stripes[stripe]);
+        } catch (RejectedExecutionException e) {
+            throw new WorkflowBusyException("Event queue is full for process " + processInstanceId);
+        }
+    }
+
+    /**
+     * Runs work for a process on its stripe and waits for the result. Runtime exceptions thrown by the
+     * work are rethrown unchanged.
+     */
+    public <T> T execute(String processInstanceId, Supplier<T> work) {
+        try {
+            return submit(processInstanceId, work).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WorkflowException("Interrupted waiting for process " + processInstanceId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new WorkflowException("Event processing failed for process " + processInstanceId, e.getCause());
+        }
+    }
+
+    public void execute(String processInstanceId, Runnable work) {
+        execute(processInstanceId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    int stripeOf(String processInstanceId) {
+        int hash = processInstanceId.hashCode();
+        // Spread the high bits, as HashMap does, before taking the stripe
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private static RejectedExecutionHandler blockFor(long timeoutMillis) {
+        return (runnable, executor) -> {
+            try {
+                if (!executor.isShutdown() && executor.getQueue().offer(runnable, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RejectedExecutionException("Stripe queue is full");
+        };
+    }
+
+    private static <T> CompletableFuture<T> inline(Supplier<T> work) {
+        try {
+            return CompletableFuture.completedFuture(work.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
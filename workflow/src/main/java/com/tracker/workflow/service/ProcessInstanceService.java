@@ -0,0 +1,109 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.dto.WorkflowStatusDTO;
+import com.tracker.workflow.model.ProcessInstance;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@code process_instances} read model. Writes join the transaction of the transition that
+ * causes them, so the row never disagrees with the persisted context and history; reads are primary-key
+ * lookups.
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+@Log4j2
+public class ProcessInstanceService {
+
+    private final ProcessInstanceRepository processInstanceRepository;
+    private final ProcessReplayService replayService;
+
+    /**
+     * Records the state a process is in after it started or took a transition, from its process variables,
+     * and snapshots it when a snapshot is due.
+     */
+    @SuppressWarnings("unchecked")
+    public void record(String processInstanceId, String currentState, boolean active, Map<?, ?> variables) {
+        LocalDateTime now = LocalDateTime.now();
+        ProcessInstance instance = processInstanceRepository.findById(processInstanceId)
+                .map(existing -> {
+                    existing.setEventCount(existing.getEventCount() + 1);
+                    return existing;
+                })
+                .orElseGet(() -> {
+                    ProcessInstance started = new ProcessInstance();
+                    started.setProcessInstanceId(processInstanceId);
+                    started.setWorkflowName(WorkflowRegistry.workflowNameOf(variables));
+                    started.setStartedAt(now);
+                    return started;
+                });
+
+        Object version = variables.get(WorkflowRegistry.WORKFLOW_VERSION);
+        Object initiator = variables.get("initiatorUserId");
+        instance.setWorkflowVersion(version != null ? version.toString() : null);
+        instance.setInitiatorUserId(initiator != null ? initiator.toString() : instance.getInitiatorUserId());
+        instance.setCurrentState(currentState);
+        instance.setActive(active);
+        instance.setProcessData((Map<String, Object>) variables.get("processData"));
+        instance.setUpdatedAt(now);
+        processInstanceRepository.save(instance);
+
+        replayService.snapshotIfDue(processInstanceId, instance.getEventCount(), currentState, variables);
+    }
+
+    /**
+     * Increments the rework count of a process and returns the new count, or an empty result for a process
+     * without a row.
+     */
+    public OptionalInt incrementReworkCount(String processInstanceId) {
+        Optional<ProcessInstance> instance = processInstanceRepository.findById(processInstanceId);
+        if (instance.isEmpty()) {
+            log.warn("No process instance row for {}", processInstanceId);
+            return OptionalInt.empty();
+        }
+        ProcessInstance reworked = instance.get();
+        reworked.setReworkCount(reworked.getReworkCount() + 1);
+        reworked.setUpdatedAt(LocalDateTime.now());
+        processInstanceRepository.save(reworked);
+        return OptionalInt.of(reworked.getReworkCount());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<WorkflowStatusDTO> getStatus(String processInstanceId) {
+        return processInstanceRepository.findById(processInstanceId).map(ProcessInstanceService::toStatus);
+    }
+
+    /**
+     * Statuses of several processes in one query, keyed by process instance id; processes without a row
+     * are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, WorkflowStatusDTO> getStatuses(Collection<String> processInstanceIds) {
+        return processInstanceRepository.findAllById(processInstanceIds).stream()
+                .map(ProcessInstanceService::toStatus)
+                .collect(Collectors.toMap(WorkflowStatusDTO::getProcessInstanceId, Function.identity()));
+    }
+
+    private static WorkflowStatusDTO toStatus(ProcessInstance instance) {
+        return WorkflowStatusDTO.builder()
+                .processInstanceId(instance.getProcessInstanceId())
+                .workflowName(instance.getWorkflowName())
+                .currentState(instance.getCurrentState())
+                .isActive(instance.isActive())
+                .reworkCount(instance.getReworkCount())
+                .processData(instance.getProcessData())
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.tracker.workflow.service;
+
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.state.State;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only map view of the transition fields a guard expression may reference: {@code currentState},
+ * {@code targetState} and {@code event}. Values are read from the {@link StateContext} on lookup, so
+ * creating and querying the view copies nothing.
+ * <p>
+ * Implements {@link Map} directly rather than extending {@code AbstractMap}, whose cached key set and
+ * values fields would double the size of the one object allocated per guard evaluation.
+ */
+final class StateContextView implements Map<String, Object> {
+
+    static final String CURRENT_STATE = "currentState";
+    static final String TARGET_STATE = "targetState";
+    static final String EVENT = "event";
+
+    private static final String[] KEYS = {CURRENT_STATE, TARGET_STATE, EVENT};
+
+    private final StateContext<String, String> context;
+
+    StateContextView(StateContext<String, String> context) {
+        this.context = context;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (CURRENT_STATE.equals(key)) {
+            return stateId(context.getSource());
+        }
+        if (TARGET_STATE.equals(key)) {
+            return stateId(context.getTarget());
+        }
+        if (EVENT.equals(key)) {
+            return context.getEvent();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return CURRENT_STATE.equals(key) || TARGET_STATE.equals(key) || EVENT.equals(key);
+    }
+
+    @Override
+    public int size() {
+        return KEYS.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return asMap().containsValue(value);
+    }
+
+    /**
+     * Key set, values and entries are materialized on request; expression evaluation never calls them.
+     */
+    @Override
+    public Set<String> keySet() {
+        return asMap().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return asMap().values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return asMap().entrySet();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        throw new UnsupportedOperationException("State context view is read-only");
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("State context view is read-only");
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        throw new UnsupportedOperationException("State context view is read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("State context view is read-only");
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Map && asMap().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    private Map<String, Object> asMap() {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        Arrays.stream(KEYS).forEach(key -> copy.put(key, get(key)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static String stateId(State<String, String> state) {
+        return state != null ? state.getId() : null;
+    }
+}
@@ -43,17 +43,10 @@ public class TaskDashboardService {
         List<TaskGroup> taskGroups = taskGroupRepository.findAllById(taskGroupIds);
 
         // Get workflow status for each process
-        Map<String, WorkflowStatusDTO> workflowStatuses = new HashMap<>();
         Set<String> processIds = pendingTasks.stream()
                 .map(WorkflowTask::getProcessInstanceId)
                 .collect(Collectors.toSet());
-
-        for (String processId : processIds) {
-            WorkflowStatusDTO status = workflowService.getWorkflowStatus(processId);
-            if (status != null) {
-                workflowStatuses.put(processId, status);
-            }
-        }
+        Map<String, WorkflowStatusDTO> workflowStatuses = workflowService.getWorkflowStatuses(processIds);
 
         return TaskDashboardDTO.builder()
                 .pendingTasks(convertToTaskDTOs(pendingTasks))
@@ -116,7 +109,7 @@ public class TaskDashboardService {
                 .createdDate(task.getCreatedDate())
                 .dueDate(task.getDueDate())
                 .completedDate(task.getCompletedDate())
-                .currentState(task.getCurrentState().name())
+                .currentState(task.getCurrentState())
                 .status(task.getStatus().name())
                 .reworkCount(task.getReworkCount())
                 .taskGroupId(task.getTaskGroupId())
@@ -13,15 +13,17 @@ public class WorkflowBootstrapService implements ApplicationRunner {
     
     private final WorkflowDefinitionService workflowDefinitionService;
     private final WorkflowMigrationService migrationService;
+    private final WorkflowRegistry workflowRegistry;
     
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        if (workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow").isEmpty()) {
+        if (workflowDefinitionService.getActiveWorkflow(WorkflowRegistry.DEFAULT_WORKFLOW).isEmpty()) {
             log.info("No active workflow found, performing initial migration");
             migrationService.migrateHardcodedWorkflowToDatabase();
             log.info("Initial workflow migration completed");
         } else {
             log.info("Active workflow found, skipping migration");
         }
+        workflowRegistry.refresh();
     }
 }
@@ -1,9 +1,11 @@
 package com.tracker.workflow.service;
 
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
 import com.tracker.workflow.model.WorkflowDefinition;
 import com.tracker.workflow.repository.WorkflowDefinitionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,7 @@ import java.util.Optional;
 public class WorkflowDefinitionService {
     
     private final WorkflowDefinitionRepository workflowDefinitionRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public Optional<WorkflowDefinition> getActiveWorkflow(String workflowName) {
         return workflowDefinitionRepository.findByWorkflowNameAndIsActiveTrue(workflowName);
@@ -73,6 +76,8 @@ public class WorkflowDefinitionService {
         workflow.setActivatedDate(LocalDateTime.now());
         workflowDefinitionRepository.save(workflow);
         
+        eventPublisher.publishEvent(new WorkflowActivationChangedEvent(workflowName, version));
+        
         log.info("Activated workflow version: {} v{} by {}", workflowName, version, activatedBy);
     }
     
@@ -82,6 +87,7 @@ public class WorkflowDefinitionService {
             WorkflowDefinition workflow = activeWorkflow.get();
             workflow.setIsActive(false);
             workflowDefinitionRepository.save(workflow);
+            eventPublisher.publishEvent(new WorkflowActivationChangedEvent(workflowName, null));
             log.info("Deactivated workflow: {}", workflowName);
         } else {
             throw new IllegalStateException("No active workflow found to deactivate: " + workflowName);
@@ -45,7 +45,7 @@ public class WorkflowMigrationService {
     
     private WorkflowDefinition createWorkflowDefinition() {
         WorkflowDefinition definition = new WorkflowDefinition();
-        definition.setWorkflowName("Tracker-core-workflow");
+        definition.setWorkflowName(WorkflowRegistry.DEFAULT_WORKFLOW);
         definition.setVersion("1.0.0");
         definition.setDescription("Initial migration from hardcoded workflow configuration");
         definition.setCreatedBy("system");
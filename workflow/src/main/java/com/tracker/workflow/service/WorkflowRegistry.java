@@ -0,0 +1,322 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The workflow types that can be started and the definition versions their processes run on, keyed by
+ * workflow name and version. This is the one place that knows which version of a workflow is active and
+ * which version each running process is pinned to, for {@link #DEFAULT_WORKFLOW} as for every other
+ * workflow; {@link WorkflowStateMachineCache} and {@link CompiledProcessService} pin and release their
+ * processes here.
+ * <p>
+ * New processes start on the active version of their workflow. When another version is activated, it is
+ * compiled in the background and then swapped in with a single map write, so starts never wait for a
+ * build and never see a half-built model. Versions are built outside the registry maps and published with
+ * {@code putIfAbsent}, so a slow build never blocks other workflows. A process stays pinned to the version
+ * it started on until it is released; a version that is no longer active is evicted, also from
+ * {@link CompiledWorkflowRegistry}, when its last process is released. The version of a process is kept in
+ * its extended state under {@link #WORKFLOW_NAME} and {@link #WORKFLOW_VERSION}, so pins can be restored
+ * after a restart.
+ */
+@Service
+@Log4j2
+public class WorkflowRegistry {
+
+    /**
+     * Workflow used by processes and requests that do not name one.
+     */
+    public static final String DEFAULT_WORKFLOW = "Tracker-core-workflow";
+
+    public static final String WORKFLOW_NAME = "workflowName";
+    public static final String WORKFLOW_VERSION = "workflowVersion";
+
+    private final WorkflowDefinitionService workflowDefinitionService;
+    private final CompiledWorkflowRegistry compiledWorkflows;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<WorkflowVersionKey, VersionedWorkflow> workflows = new ConcurrentHashMap<>();
+    private final Map<String, WorkflowVersionKey> activeVersions = new ConcurrentHashMap<>();
+    private final Map<String, WorkflowVersionKey> pins = new ConcurrentHashMap<>();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "workflow-version-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WorkflowRegistry(WorkflowDefinitionService workflowDefinitionService,
+                            CompiledWorkflowRegistry compiledWorkflows,
+                            PlatformTransactionManager transactionManager) {
+        this.workflowDefinitionService = workflowDefinitionService;
+        this.compiledWorkflows = compiledWorkflows;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the workflow name recorded in a process's variables, or {@link #DEFAULT_WORKFLOW} for
+     * processes started before workflows were named.
+     */
+    public static String workflowNameOf(Map<?, ?> variables) {
+        Object workflowName = variables != null ? variables.get(WORKFLOW_NAME) : null;
+        return workflowName != null ? workflowName.toString() : DEFAULT_WORKFLOW;
+    }
+
+    /**
+     * Loads the active versions of all active workflow definitions, replacing the current ones.
+     */
+    public void refresh() {
+        List<CompiledWorkflow> active = readOnlyTransaction.execute(status -> workflowDefinitionService
+                .getAllActiveWorkflows()
+                .stream()
+                .map(compiledWorkflows::get)
+                .toList());
+
+        Set<String> names = new HashSet<>();
+        for (CompiledWorkflow model : active) {
+            if (!names.add(model.getWorkflowName())) {
+                log.warn("Ignoring duplicate active version {} of workflow {}", model.getVersion(), model.getWorkflowName());
+                continue;
+            }
+            WorkflowVersionKey key = new WorkflowVersionKey(model.getWorkflowName(), model.getVersion());
+            workflows.putIfAbsent(key, new VersionedWorkflow(model));
+            swapActive(model.getWorkflowName(), key);
+        }
+        for (String workflowName : Set.copyOf(activeVersions.keySet())) {
+            if (!names.contains(workflowName)) {
+                swapActive(workflowName, null);
+            }
+        }
+        log.info("Loaded {} active workflows: {}", names.size(), getWorkflowNames());
+    }
+
+    /**
+     * Returns the model of the active version of a workflow. A workflow that is not loaded yet, e.g. one
+     * activated by another instance, is looked up once and added.
+     */
+    public Optional<CompiledWorkflow> findModel(String workflowName) {
+        return Optional.ofNullable(activeKey(workflowName))
+                .map(workflows::get)
+                .map(VersionedWorkflow::getWorkflow);
+    }
+
+    public List<String> getWorkflowNames() {
+        return List.copyOf(new TreeSet<>(activeVersions.keySet()));
+    }
+
+    /**
+     * Pins a new process to the active version of a workflow and returns that version. The active version
+     * is built on the caller's thread only the first time the workflow is used.
+     *
+     * @throws WorkflowException if the workflow has no active version
+     */
+    public VersionedWorkflow pinActive(String workflowName, String processInstanceId) {
+        return pinActiveIfDefined(workflowName, processInstanceId)
+                .orElseThrow(() -> new WorkflowException("No active workflow definition: " + workflowName));
+    }
+
+    /**
+     * Pins a new process to the active version of a workflow, if the workflow has one. The default workflow
+     * runs without a definition, so its processes are only pinned once one has been activated.
+     */
+    public Optional<VersionedWorkflow> pinActiveIfDefined(String workflowName, String processInstanceId) {
+        WorkflowVersionKey key = activeKey(workflowName);
+        return key != null ? Optional.of(pin(processInstanceId, key)) : Optional.empty();
+    }
+
+    /**
+     * Pins a process to the version it started on, e.g. when it is rehydrated after a restart, building
+     * that version again if it has been evicted.
+     */
+    public VersionedWorkflow pin(String processInstanceId, String workflowName, String version) {
+        return pin(processInstanceId, new WorkflowVersionKey(workflowName, version));
+    }
+
+    /**
+     * Releases the pin of a completed process and evicts its version if it is no longer active and no
+     * other process uses it.
+     */
+    public void release(String processInstanceId) {
+        WorkflowVersionKey key = pins.remove(processInstanceId);
+        if (key != null) {
+            unpin(key);
+        }
+    }
+
+    /**
+     * Builds a newly activated version in the background and swaps it in once built; on deactivation new
+     * processes can no longer start. Runs after the activation committed, so the build reads it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivationChanged(WorkflowActivationChangedEvent event) {
+        String workflowName = event.getWorkflowName();
+        if (event.getActiveVersion() == null) {
+            swapActive(workflowName, null);
+            log.info("Workflow {} can no longer be started", workflowName);
+            return;
+        }
+
+        WorkflowVersionKey key = new WorkflowVersionKey(workflowName, event.getActiveVersion());
+        builder.execute(() -> {
+            try {
+                load(key);
+                swapActive(workflowName, key);
+                log.info("Workflow {} now starts on version {}", workflowName, key.getVersion());
+            } catch (RuntimeException e) {
+                log.error("Cannot build workflow {} v{}, new processes keep the previous version",
+                        workflowName, key.getVersion(), e);
+            }
+        });
+    }
+
+    public boolean isLoaded(String workflowName, String version) {
+        return workflows.containsKey(new WorkflowVersionKey(workflowName, version));
+    }
+
+    public String getActiveVersion(String workflowName) {
+        WorkflowVersionKey key = activeVersions.get(workflowName);
+        return key != null ? key.getVersion() : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdown();
+    }
+
+    /**
+     * Returns the active version of a workflow, loading it from its active definition the first time.
+     */
+    private WorkflowVersionKey activeKey(String workflowName) {
+        if (workflowName == null) {
+            return null;
+        }
+        WorkflowVersionKey active = activeVersions.get(workflowName);
+        if (active != null) {
+            return active;
+        }
+
+        CompiledWorkflow model = readOnlyTransaction.execute(status -> workflowDefinitionService
+                .getActiveWorkflow(workflowName)
+                .map(compiledWorkflows::get)
+                .orElse(null));
+        if (model == null) {
+            return null;
+        }
+        WorkflowVersionKey key = new WorkflowVersionKey(workflowName, model.getVersion());
+        workflows.putIfAbsent(key, new VersionedWorkflow(model));
+        // A background swap may have won the race, in which case it holds the newer version
+        active = activeVersions.putIfAbsent(workflowName, key);
+        if (active != null && !active.equals(key)) {
+            workflows.computeIfPresent(key, this::retain);
+            return active;
+        }
+        return key;
+    }
+
+    private VersionedWorkflow pin(String processInstanceId, WorkflowVersionKey key) {
+        VersionedWorkflow pinned;
+        do {
+            load(key);
+            // The version may be evicted between loading and counting the pin, in which case it is loaded again
+            pinned = workflows.computeIfPresent(key, (k, workflow) -> {
+                workflow.instances++;
+                return workflow;
+            });
+        } while (pinned == null);
+
+        WorkflowVersionKey previous = pins.put(processInstanceId, key);
+        if (previous != null) {
+            unpin(previous);
+        }
+        log.debug("Process {} pinned to workflow {} v{}", processInstanceId, key.getWorkflowName(), key.getVersion());
+        return pinned;
+    }
+
+    private void unpin(WorkflowVersionKey key) {
+        workflows.computeIfPresent(key, (k, workflow) -> {
+            workflow.instances--;
+            return retain(k, workflow);
+        });
+    }
+
+    /**
+     * Makes sure a version is loaded, compiling it outside the map if it is not; when two threads load the
+     * same version, the first one stored wins.
+     */
+    private VersionedWorkflow load(WorkflowVersionKey key) {
+        VersionedWorkflow loaded = workflows.get(key);
+        if (loaded != null) {
+            return loaded;
+        }
+        VersionedWorkflow built = build(key);
+        VersionedWorkflow existing = workflows.putIfAbsent(key, built);
+        return existing != null ? existing : built;
+    }
+
+    private VersionedWorkflow build(WorkflowVersionKey key) {
+        CompiledWorkflow model = readOnlyTransaction.execute(status -> workflowDefinitionService
+                .getWorkflowVersion(key.getWorkflowName(), key.getVersion())
+                .map(compiledWorkflows::get)
+                .orElseThrow(() -> new WorkflowException(
+                        "Workflow version not found: " + key.getWorkflowName() + " v" + key.getVersion())));
+        log.info("Loaded workflow {} v{}", key.getWorkflowName(), key.getVersion());
+        return new VersionedWorkflow(model);
+    }
+
+    private void swapActive(String workflowName, WorkflowVersionKey key) {
+        WorkflowVersionKey previous = key != null ? activeVersions.put(workflowName, key) : activeVersions.remove(workflowName);
+        if (previous != null && !previous.equals(key)) {
+            workflows.computeIfPresent(previous, this::retain);
+        }
+    }
+
+    /**
+     * Keeps a version while it is active or pinned; returning null from a compute call evicts it.
+     */
+    private VersionedWorkflow retain(WorkflowVersionKey key, VersionedWorkflow workflow) {
+        if (workflow.instances > 0 || key.equals(activeVersions.get(key.getWorkflowName()))) {
+            return workflow;
+        }
+        compiledWorkflows.evict(workflow.getWorkflow().getDefinitionId());
+        log.info("Evicted workflow {} v{} after its last process", key.getWorkflowName(), key.getVersion());
+        return null;
+    }
+
+    /**
+     * Compiled model of one workflow version. The instance count is only changed inside compute calls of
+     * the registry map, which serialize per version.
+     */
+    @Getter
+    public static final class VersionedWorkflow {
+
+        private final String workflowName;
+        private final String version;
+        private final CompiledWorkflow workflow;
+        private volatile int instances;
+
+        private VersionedWorkflow(CompiledWorkflow workflow) {
+            this.workflowName = workflow.getWorkflowName();
+            this.version = workflow.getVersion();
+            this.workflow = workflow;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.expression.RuleNetwork;
+import com.tracker.workflow.model.WorkflowRuleV2;
+import com.tracker.workflow.repository.WorkflowRuleV2Repository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the active {@link WorkflowRuleV2} rules of a workflow definition through a
+ * {@link RuleNetwork}, so that a change to a few process data fields only re-evaluates the rules
+ * that read them. {@link CompiledProcessService} checks the {@link WorkflowRuleV2.RuleType#VALIDATION} rules
+ * before every event it applies. Networks are built on first use and dropped, to be rebuilt from the database on next
+ * use, when a workflow's active version changes and every
+ * {@code app.tracker.workflow.rules.refresh-interval-millis}, since rules are edited in the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class WorkflowRuleEngine {
+
+    private static final Comparator<WorkflowRuleV2> PRIORITY_ORDER = Comparator
+            .comparing((WorkflowRuleV2 rule) -> rule.getPriority() == null ? 0 : rule.getPriority())
+            .reversed()
+            .thenComparing(WorkflowRuleV2::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final WorkflowRuleV2Repository ruleRepository;
+    private final WorkflowExpressionEvaluator expressionEvaluator;
+
+    private final Map<Long, Map<WorkflowRuleV2.RuleType, RuleNetwork<WorkflowRuleV2>>> networks = new ConcurrentHashMap<>();
+
+    /**
+     * Evaluates every active rule of the given type.
+     */
+    public RuleNetwork.Matches<WorkflowRuleV2> evaluate(Long workflowDefinitionId, WorkflowRuleV2.RuleType ruleType,
+                                                        Map<String, Object> processData, Map<String, Object> context) {
+        return getNetwork(workflowDefinitionId, ruleType).evaluate(nullToEmpty(processData), nullToEmpty(context));
+    }
+
+    /**
+     * Re-evaluates only the rules whose conditions reference one of the changed fields, carrying the
+     * previous outcome forward for the rest. If the network was rebuilt since {@code previous} was
+     * produced, every rule is evaluated.
+     */
+    public RuleNetwork.Matches<WorkflowRuleV2> update(Long workflowDefinitionId, WorkflowRuleV2.RuleType ruleType,
+                                                      RuleNetwork.Matches<WorkflowRuleV2> previous,
+                                                      Collection<String> changedFields,
+                                                      Map<String, Object> processData, Map<String, Object> context) {
+        RuleNetwork<WorkflowRuleV2> network = getNetwork(workflowDefinitionId, ruleType);
+        if (!previous.isFrom(network)) {
+            return network.evaluate(nullToEmpty(processData), nullToEmpty(context));
+        }
+        return network.update(previous, changedFields, nullToEmpty(processData), nullToEmpty(context));
+    }
+
+    /**
+     * Returns the network of a definition's active rules of one type, building it on first use. Rules are
+     * read outside the map, so a slow query never blocks lookups of other definitions; when two threads
+     * build the same network, the first one stored wins.
+     */
+    public RuleNetwork<WorkflowRuleV2> getNetwork(Long workflowDefinitionId, WorkflowRuleV2.RuleType ruleType) {
+        Map<WorkflowRuleV2.RuleType, RuleNetwork<WorkflowRuleV2>> byType =
+                networks.computeIfAbsent(workflowDefinitionId, id -> new ConcurrentHashMap<>());
+        RuleNetwork<WorkflowRuleV2> network = byType.get(ruleType);
+        if (network != null) {
+            return network;
+        }
+        RuleNetwork<WorkflowRuleV2> built = buildNetwork(workflowDefinitionId, ruleType);
+        RuleNetwork<WorkflowRuleV2> existing = byType.putIfAbsent(ruleType, built);
+        return existing != null ? existing : built;
+    }
+
+    /**
+     * Drops the networks of a definition so that they are rebuilt from the database on next use.
+     */
+    public void invalidate(Long workflowDefinitionId) {
+        networks.remove(workflowDefinitionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracker.workflow.rules.refresh-interval-millis:60000}",
+            initialDelayString = "${app.tracker.workflow.rules.refresh-interval-millis:60000}")
+    public void invalidateAll() {
+        networks.clear();
+        log.debug("Dropped all rule networks");
+    }
+
+    /**
+     * Runs after the activation committed. Networks are kept per definition id, and activation changes
+     * are rare, so every network is dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivationChanged(WorkflowActivationChangedEvent event) {
+        invalidateAll();
+    }
+
+    private RuleNetwork<WorkflowRuleV2> buildNetwork(Long workflowDefinitionId, WorkflowRuleV2.RuleType ruleType) {
+        List<WorkflowRuleV2> rules = ruleRepository
+                .findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(workflowDefinitionId, ruleType)
+                .stream()
+                .sorted(PRIORITY_ORDER)
+                .toList();
+
+        RuleNetwork<WorkflowRuleV2> network = RuleNetwork.build(rules, this::compileCondition);
+        log.debug("Built {} rule network for workflow definition {} with {} rules",
+                ruleType, workflowDefinitionId, network.size());
+        return network;
+    }
+
+    private CompiledExpression compileCondition(WorkflowRuleV2 rule) {
+        String condition = rule.getConditionExpression();
+        if (condition == null || condition.trim().isEmpty()) {
+            return CompiledExpression.alwaysTrue(condition);
+        }
+        return expressionEvaluator.compile(condition);
+    }
+
+    private static Map<String, Object> nullToEmpty(Map<String, Object> map) {
+        return map == null ? Map.of() : map;
+    }
+}
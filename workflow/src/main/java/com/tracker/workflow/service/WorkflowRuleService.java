@@ -1,43 +1,107 @@
 package com.tracker.workflow.service;
 
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.model.WorkflowRule;
 import com.tracker.workflow.repository.WorkflowRuleRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Evaluates the named business rules stored in {@code workflow_rules}.
+ * <p>
+ * Active rules are compiled into an immutable name-to-predicate map that is replaced as a whole on
+ * {@link #refresh()}, so evaluation is a lock-free map lookup and never touches the database. Rules are
+ * loaded once at startup, which fails if they cannot be read, so routing never runs without its rules.
+ */
 @Service
 @RequiredArgsConstructor
+@Log4j2
 public class WorkflowRuleService {
 
     private final WorkflowRuleRepository ruleRepository;
+    private final WorkflowExpressionEvaluator expressionEvaluator;
 
+    private volatile Map<String, CompiledExpression> rules = Map.of();
+
+    /**
+     * Unknown rules evaluate to false.
+     */
     public boolean evaluateRule(String ruleName, Map<String, Object> processData) {
-        switch (ruleName) {
-            case "FINANCE_APPROVAL_REQUIRED":
-                return evaluateFinanceApprovalRequired(processData);
-            case "CEO_APPROVAL_REQUIRED":
-                return evaluateCeoApprovalRequired(processData);
-            default:
-                return false;
+        CompiledExpression rule = ruleName != null ? rules.get(ruleName) : null;
+        if (rule == null) {
+            log.warn("No active workflow rule named {}", ruleName);
+            return false;
+        }
+
+        try {
+            return rule.evaluate(processData != null ? processData : Map.of(), Map.of());
+        } catch (Exception e) {
+            log.error("Error evaluating workflow rule {}: {}", ruleName, rule.getSource(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the active rules before the service is used.
+     *
+     * @throws WorkflowException if the rules cannot be loaded
+     */
+    @PostConstruct
+    void load() {
+        try {
+            rules = compileRules(ruleRepository.findByActiveTrue());
+        } catch (Exception e) {
+            throw new WorkflowException("Cannot load workflow rules", e);
         }
+        log.info("Loaded {} active workflow rules", rules.size());
     }
 
-    private boolean evaluateFinanceApprovalRequired(Map<String, Object> processData) {
-        Object amountObj = processData.get("amount");
-        if (amountObj instanceof Number) {
-            double amount = ((Number) amountObj).doubleValue();
-            return amount >= 500.0;
+    /**
+     * Reloads the active rules and swaps them in atomically. On failure the previous rules stay in effect.
+     */
+    @Scheduled(fixedDelayString = "${app.tracker.workflow.rules.refresh-interval-millis:60000}",
+            initialDelayString = "${app.tracker.workflow.rules.refresh-interval-millis:60000}")
+    public void refresh() {
+        try {
+            rules = compileRules(ruleRepository.findByActiveTrue());
+            log.debug("Loaded {} active workflow rules", rules.size());
+        } catch (Exception e) {
+            log.error("Error loading workflow rules, keeping {} previously loaded rules", rules.size(), e);
         }
-        return true; // Default to requiring approval if amount not specified
     }
 
-    private boolean evaluateCeoApprovalRequired(Map<String, Object> processData) {
-        Object amountObj = processData.get("amount");
-        if (amountObj instanceof Number) {
-            double amount = ((Number) amountObj).doubleValue();
-            return amount >= 10000.0;
+    public List<String> getRuleNames() {
+        return rules.keySet().stream().sorted().toList();
+    }
+
+    private Map<String, CompiledExpression> compileRules(List<WorkflowRule> activeRules) {
+        Map<String, CompiledExpression> compiled = new HashMap<>();
+        activeRules.stream()
+                .sorted(Comparator.comparing(WorkflowRule::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(rule -> {
+                    if (compiled.containsKey(rule.getRuleName())) {
+                        log.warn("Ignoring duplicate active workflow rule {} with id {}", rule.getRuleName(), rule.getId());
+                        return;
+                    }
+                    compiled.put(rule.getRuleName(), compileCondition(rule));
+                });
+        return Map.copyOf(compiled);
+    }
+
+    private CompiledExpression compileCondition(WorkflowRule rule) {
+        String condition = rule.getCondition();
+        if (condition == null || condition.trim().isEmpty()) {
+            return CompiledExpression.alwaysTrue(condition);
         }
-        return false;
+        return expressionEvaluator.compile(condition);
     }
 }
@@ -7,49 +7,59 @@ import com.tracker.workflow.model.ProcessHistory;
 import com.tracker.workflow.model.WorkflowEvents;
 import com.tracker.workflow.model.WorkflowStates;
 import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.runtime.WorkflowInstance;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class WorkflowService {
 
-    @Qualifier("dynamicWorkflowStateMachineFactory")
-    private final StateMachineFactory<WorkflowStates, WorkflowEvents> stateMachineFactory;
     private final WorkflowTaskService taskService;
     private final WorkflowRuleService ruleService;
     private final ProcessHistoryRepository historyRepository;
-
-    private final Map<String, StateMachine<WorkflowStates, WorkflowEvents>> stateMachines = new ConcurrentHashMap<>();
+    private final WorkflowStateMachineCache stateMachines;
+    private final ProcessEventMailbox mailbox;
+    private final CompiledProcessService compiledProcesses;
+    private final ProcessInstanceService processInstances;
+    private final TransactionTemplate transactionTemplate;
 
     public String startWorkflow(String initiatorUserId, Map<String, Object> processData) {
-        String processInstanceId = UUID.randomUUID().toString();
+        return startWorkflow(WorkflowRegistry.DEFAULT_WORKFLOW, initiatorUserId, processData);
+    }
 
-        // Create new state machine instance
-        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachineFactory.getStateMachine(processInstanceId);
+    /**
+     * Starts a process of the active version of a workflow and pins it to that version. The default
+     * workflow runs on its state machine, every other workflow on its compiled model.
+     */
+    public String startWorkflow(String workflowName, String initiatorUserId, Map<String, Object> processData) {
+        String name = workflowName != null ? workflowName : WorkflowRegistry.DEFAULT_WORKFLOW;
+        String processInstanceId = UUID.randomUUID().toString();
 
         // Set process context
-        stateMachine.getExtendedState().getVariables().put("processInstanceId", processInstanceId);
-        stateMachine.getExtendedState().getVariables().put("initiatorUserId", initiatorUserId);
-        stateMachine.getExtendedState().getVariables().put("processData", processData);
-        stateMachine.getExtendedState().getVariables().put("isRework", false);
-
-        // Store state machine instance
-        stateMachines.put(processInstanceId, stateMachine);
-
-        // Add state machine listener for history tracking
-        stateMachine.addStateListener(new WorkflowStateListener(processInstanceId, historyRepository));
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("processInstanceId", processInstanceId);
+        variables.put("initiatorUserId", initiatorUserId);
+        variables.put("processData", processData);
+        variables.put("isRework", false);
+        variables.put(WorkflowRegistry.WORKFLOW_NAME, name);
 
-        // Start the state machine
-        stateMachine.start();
+        if (!WorkflowRegistry.DEFAULT_WORKFLOW.equals(name)) {
+            compiledProcesses.start(name, processInstanceId, variables);
+            return processInstanceId;
+        }
+        // Create, start and persist the state machine; history is tracked by its listener
+        transactionTemplate.executeWithoutResult(status -> stateMachines.start(processInstanceId, variables));
 
         // Send first event to move from DRAFT to first approval state
         //stateMachine.sendEvent(WorkflowEvents.SUBMIT);
@@ -57,55 +67,167 @@ public class WorkflowService {
         return processInstanceId;
     }
 
+    /**
+     * Applies an event on the process's mailbox stripe, so concurrent events of one process never
+     * interleave, and waits for it.
+     */
     public void triggerWorkflowEvent(String processInstanceId, WorkflowEvents event, Map<String, Object> eventData) {
+        mailbox.execute(processInstanceId, () -> applyWorkflowEvent(processInstanceId, event, eventData));
+    }
+
+    /**
+     * Applies an event by name to a process of any workflow, on the model the process runs on, and returns
+     * the status after the transition.
+     */
+    public WorkflowStatusDTO triggerWorkflowEvent(String processInstanceId, String event, Map<String, Object> eventData) {
+        return mailbox.execute(processInstanceId, () -> {
+            WorkflowInstance instance = compiledInstance(processInstanceId);
+            if (instance != null) {
+                compiledProcesses.sendEvent(instance, event, eventData);
+            } else {
+                applyWorkflowEvent(processInstanceId, defaultWorkflowEvent(event), eventData);
+            }
+            return getWorkflowStatus(processInstanceId);
+        });
+    }
+
+    /**
+     * Returns the event that completing a task in the given state fires on its process: the planning
+     * event of the state on the default workflow, or the only event leaving the state on any other.
+     *
+     * @throws WorkflowException if the state has no single completion event
+     */
+    public String getTaskCompletionEvent(String processInstanceId, String state) {
+        WorkflowInstance instance = compiledInstance(processInstanceId);
+        if (instance == null) {
+            return defaultCompletionEvent(state).name();
+        }
+        List<String> events = instance.getWorkflow().eventsFrom(state);
+        if (events.size() != 1) {
+            throw new WorkflowException("State " + state + " of " + instance.getWorkflow()
+                    + " has no single completion event: " + events);
+        }
+        return events.get(0);
+    }
+
+    private WorkflowInstance compiledInstance(String processInstanceId) {
+        return stateMachines.getIfCached(processInstanceId) == null ? compiledProcesses.get(processInstanceId) : null;
+    }
+
+    private static WorkflowEvents defaultCompletionEvent(String state) {
+        switch (state) {
+            case "PENDING_PLANNING_BUSINESS_REVIEW":
+                return WorkflowEvents.PLANNING_BUSINESS_SUBMIT;
+            case "PENDING_PLANNING_FINANCE_APPROVAL":
+                return WorkflowEvents.PLANNING_FINANCE_APPROVE;
+            case "PENDING_PLANNING_OWNER_REVIEW":
+                return WorkflowEvents.PLANNING_OWNER_SUBMIT;
+            case "PENDING_PLANNING_MANAGER_REVIEW":
+                return WorkflowEvents.PLANNING_MANAGER_SUBMIT;
+            default:
+                throw new WorkflowException("No completion event for state " + state + " of "
+                        + WorkflowRegistry.DEFAULT_WORKFLOW);
+        }
+    }
+
+    private static WorkflowEvents defaultWorkflowEvent(String event) {
+        try {
+            return WorkflowEvents.valueOf(event);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new WorkflowException("Unknown event " + event + " for workflow " + WorkflowRegistry.DEFAULT_WORKFLOW);
+        }
+    }
+
+    /**
+     * Applies an event in one transaction, so the history rows, the persisted context and the
+     * {@code process_instances} row of the transition commit or roll back together.
+     */
+    private void applyWorkflowEvent(String processInstanceId, WorkflowEvents event, Map<String, Object> eventData) {
+        transactionTemplate.executeWithoutResult(status -> sendWorkflowEvent(processInstanceId, event, eventData));
+    }
+
+    private void sendWorkflowEvent(String processInstanceId, WorkflowEvents event, Map<String, Object> eventData) {
         StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachines.get(processInstanceId);
 
         if (stateMachine == null) {
             throw new WorkflowException("No active workflow found for process: " + processInstanceId);
         }
+        // The cached machine changes before the transaction commits; drop it if the transaction fails
+        stateMachines.evictUnlessCommitted(processInstanceId);
 
         // Add event data to context
         if (eventData != null) {
             stateMachine.getExtendedState().getVariables().putAll(eventData);
         }
 
-        // Send event
-        boolean eventAccepted = stateMachine.sendEvent(event);
+        // Send event; its data is recorded with the transition for replay
+        boolean eventAccepted = stateMachine.sendEvent(eventMessage(event, eventData));
 
         if (!eventAccepted) {
             throw new WorkflowException("Event " + event + " not accepted in current state: " + stateMachine.getState().getId());
         }
+
+        stateMachines.persist(processInstanceId, stateMachine);
     }
 
     public void triggerReworkEvent(String processInstanceId, WorkflowEvents reworkEvent, Map<String, Object> reworkContext) {
+        mailbox.execute(processInstanceId, () -> applyReworkEvent(processInstanceId, reworkEvent, reworkContext));
+    }
+
+    private void applyReworkEvent(String processInstanceId, WorkflowEvents reworkEvent, Map<String, Object> reworkContext) {
+        transactionTemplate.executeWithoutResult(status -> sendReworkEvent(processInstanceId, reworkEvent, reworkContext));
+    }
+
+    private void sendReworkEvent(String processInstanceId, WorkflowEvents reworkEvent, Map<String, Object> reworkContext) {
         StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachines.get(processInstanceId);
 
         if (stateMachine == null) {
             throw new WorkflowException("No active workflow found for process: " + processInstanceId);
         }
+        stateMachines.evictUnlessCommitted(processInstanceId);
 
         // Set rework context
-        stateMachine.getExtendedState().getVariables().put("isRework", true);
-        stateMachine.getExtendedState().getVariables().put("reworkSkipAllowed", reworkContext.get("skipAllowed"));
-        stateMachine.getExtendedState().getVariables().put("reworkReason", reworkContext.get("reworkReason"));
+        Map<String, Object> reworkData = new HashMap<>();
+        reworkData.put("isRework", true);
+        reworkData.put("reworkSkipAllowed", reworkContext.get("skipAllowed"));
+        reworkData.put("reworkReason", reworkContext.get("reworkReason"));
+        stateMachine.getExtendedState().getVariables().putAll(reworkData);
 
         // Send rework event
-        stateMachine.sendEvent(reworkEvent);
+        stateMachine.sendEvent(eventMessage(reworkEvent, reworkData));
+
+        stateMachines.persist(processInstanceId, stateMachine);
     }
 
+    private static Message<WorkflowEvents> eventMessage(WorkflowEvents event, Map<String, Object> eventData) {
+        return MessageBuilder.withPayload(event)
+                .setHeader(WorkflowStateListener.EVENT_DATA_HEADER, eventData)
+                .build();
+    }
+
+    /**
+     * Status of a process from its {@code process_instances} row; only processes that ended before the
+     * read model existed are looked up in their history.
+     */
     public WorkflowStatusDTO getWorkflowStatus(String processInstanceId) {
-        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachines.get(processInstanceId);
+        return processInstances.getStatus(processInstanceId)
+                .orElseGet(() -> getWorkflowStatusFromHistory(processInstanceId));
+    }
 
-        if (stateMachine == null) {
-            return getWorkflowStatusFromHistory(processInstanceId);
+    /**
+     * Statuses of several processes, keyed by process instance id, read in one query.
+     */
+    public Map<String, WorkflowStatusDTO> getWorkflowStatuses(Collection<String> processInstanceIds) {
+        Map<String, WorkflowStatusDTO> statuses = new HashMap<>(processInstances.getStatuses(processInstanceIds));
+        for (String processInstanceId : processInstanceIds) {
+            if (!statuses.containsKey(processInstanceId)) {
+                WorkflowStatusDTO status = getWorkflowStatusFromHistory(processInstanceId);
+                if (status != null) {
+                    statuses.put(processInstanceId, status);
+                }
+            }
         }
-
-        return WorkflowStatusDTO.builder()
-                .processInstanceId(processInstanceId)
-                .currentState(stateMachine.getState().getId().name())
-                .isActive(stateMachine.getState().isComposite())
-                .processData((Map<String, Object>) stateMachine.getExtendedState().getVariables().get("processData"))
-                .build();
+        return statuses;
     }
 
     private WorkflowStatusDTO getWorkflowStatusFromHistory(String processInstanceId) {
@@ -119,7 +241,7 @@ public class WorkflowService {
 
         return WorkflowStatusDTO.builder()
                 .processInstanceId(processInstanceId)
-                .currentState(lastEntry.getToState().name())
+                .currentState(lastEntry.getToState())
                 .isActive(false)
                 .processData(lastEntry.getContextData())
                 .build();
@@ -131,9 +253,6 @@ public class WorkflowService {
 
     public void cleanupCompletedWorkflows() {
         // Remove completed state machines from memory
-        stateMachines.entrySet().removeIf(entry -> {
-            StateMachine<WorkflowStates, WorkflowEvents> sm = entry.getValue();
-            return sm.getState().getId() == WorkflowStates.COMPLETED;
-        });
+        stateMachines.evictCompleted();
     }
 }
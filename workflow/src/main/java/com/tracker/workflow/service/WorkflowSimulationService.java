@@ -0,0 +1,347 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.WorkflowSimulationDivergence;
+import com.tracker.workflow.dto.WorkflowSimulationRequest;
+import com.tracker.workflow.dto.WorkflowSimulationSummary;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.ProcessInstance;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import com.tracker.workflow.runtime.CompiledTransition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.ProcessReplay;
+import com.tracker.workflow.runtime.WorkflowDefinitionSnapshot;
+import com.tracker.workflow.runtime.WorkflowInstance;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.statemachine.action.Action;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Replays historical processes against a candidate definition version before it is activated, and reports
+ * where the candidate would have taken them elsewhere and how much work it would have created.
+ * <p>
+ * The candidate is compiled into a private {@link CompiledWorkflow} with the real guards and stubbed
+ * actions, so a simulation sends no notifications, creates no tasks and writes nothing. Each process
+ * starts in the candidate's initial state with its recorded initiator and process data, then the events
+ * of its history are fired in order, each after merging the event data it was sent with. A process is
+ * followed until its first divergent transition; after that its history no longer says which events
+ * would have been sent.
+ * <p>
+ * Processes are read in keyset pages together with their history, each page in its own short read-only
+ * transaction. A page is simulated on a dedicated {@link ForkJoinPool} while the next page is loaded, and
+ * divergent processes are handed to the caller as soon as their page is done.
+ */
+@Service
+@Log4j2
+public class WorkflowSimulationService {
+
+    private static final Action<String, String> STUBBED_ACTION = context -> { };
+
+    private final WorkflowDefinitionService workflowDefinitionService;
+    private final DynamicWorkflowGuardFactory guardFactory;
+    private final WorkflowSnapshotRegistry snapshotRegistry;
+    private final ProcessInstanceRepository processInstanceRepository;
+    private final ProcessHistoryRepository historyRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int pageSize;
+    private final int defaultDays;
+    private final ForkJoinPool pool;
+
+    public WorkflowSimulationService(WorkflowDefinitionService workflowDefinitionService,
+                                     DynamicWorkflowGuardFactory guardFactory,
+                                     WorkflowSnapshotRegistry snapshotRegistry,
+                                     ProcessInstanceRepository processInstanceRepository,
+                                     ProcessHistoryRepository historyRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     WorkflowEngineProperties properties) {
+        this.workflowDefinitionService = workflowDefinitionService;
+        this.guardFactory = guardFactory;
+        this.snapshotRegistry = snapshotRegistry;
+        this.processInstanceRepository = processInstanceRepository;
+        this.historyRepository = historyRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pageSize = properties.getSimulation().getPageSize();
+        this.defaultDays = properties.getSimulation().getDefaultDays();
+        this.pool = new ForkJoinPool(properties.getSimulation().getParallelism());
+    }
+
+    /**
+     * @param request the candidate version and the start window of the processes to replay
+     * @param divergent receives every process the candidate takes elsewhere, page by page, on the calling thread
+     * @return counts over all replayed processes
+     */
+    public WorkflowSimulationSummary simulate(WorkflowSimulationRequest request,
+                                              Consumer<WorkflowSimulationDivergence> divergent) {
+        long started = System.nanoTime();
+        String workflowName = request.getWorkflowName();
+        Candidate candidate = readOnlyTransaction.execute(status -> workflowDefinitionService
+                .getWorkflowVersion(workflowName, request.getVersion())
+                .map(Candidate::new)
+                .orElse(null));
+        if (candidate == null) {
+            throw new WorkflowException("Workflow version not found: " + workflowName + " v" + request.getVersion());
+        }
+        // Historical task counts use the assignments of the active version, or the candidate's if none is active
+        WorkflowDefinitionSnapshot baseline = snapshotRegistry.getActive(workflowName).orElse(candidate.snapshot);
+
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        LocalDateTime from = request.getFrom() != null ? request.getFrom() : to.minusDays(defaultDays);
+        Tally tally = new Tally(candidate, baseline);
+
+        Page page = loadPage(workflowName, "", from, to);
+        while (!page.processes.isEmpty()) {
+            Page current = page;
+            ForkJoinTask<List<Outcome>> simulation = pool.submit(() -> current.processes.parallelStream()
+                    .map(process -> simulate(candidate.workflow, process,
+                            current.history.getOrDefault(process.getProcessInstanceId(), List.of())))
+                    .toList());
+
+            String last = current.processes.get(current.processes.size() - 1).getProcessInstanceId();
+            page = current.processes.size() < pageSize ? Page.EMPTY : loadPage(workflowName, last, from, to);
+
+            for (Outcome outcome : join(simulation)) {
+                tally.add(outcome, divergent);
+            }
+        }
+
+        WorkflowSimulationSummary summary = tally.summary((System.nanoTime() - started) / 1_000_000);
+        log.info("Simulated {} processes and {} events of workflow {} on v{}, {} divergent, in {} ms",
+                summary.getProcesses(), summary.getEvents(), workflowName, request.getVersion(),
+                summary.getDivergent(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private Page loadPage(String workflowName, String after, LocalDateTime from, LocalDateTime to) {
+        return readOnlyTransaction.execute(status -> {
+            List<ProcessInstance> processes = processInstanceRepository.findStartedPage(
+                    workflowName, after, from, to, PageRequest.of(0, pageSize));
+            if (processes.isEmpty()) {
+                return Page.EMPTY;
+            }
+            Map<String, List<ProcessHistory>> history = historyRepository
+                    .findByProcessInstanceIdInOrderByProcessInstanceIdAscIdAsc(processes.stream()
+                            .map(ProcessInstance::getProcessInstanceId)
+                            .toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(ProcessHistory::getProcessInstanceId));
+            return new Page(processes, history);
+        });
+    }
+
+    /**
+     * Runs one process through the candidate. Only the candidate instance is written, which belongs to
+     * this call, so processes can be simulated concurrently.
+     */
+    private static Outcome simulate(CompiledWorkflow workflow, ProcessInstance process, List<ProcessHistory> history) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("initiatorUserId", process.getInitiatorUserId());
+        variables.put("processData", process.getProcessData());
+        WorkflowInstance instance = workflow.newInstance(process.getProcessInstanceId(), variables);
+
+        Outcome outcome = new Outcome(process.getProcessInstanceId());
+        outcome.simulatedStates.add(instance.getState());
+        for (ProcessHistory row : history) {
+            if (!ProcessReplay.isTransition(row)) {
+                continue;
+            }
+            int index = outcome.events++;
+            if (index == 0) {
+                outcome.historicalStates.add(row.getFromState());
+            }
+            outcome.historicalStates.add(row.getToState());
+            if (outcome.divergence != null) {
+                continue;
+            }
+
+            if (!row.getFromState().equals(instance.getState())) {
+                outcome.divergence = divergence(outcome, index, row, instance.getState(), false);
+                continue;
+            }
+            if (row.getContextData() != null) {
+                instance.getVariables().putAll(row.getContextData());
+            }
+            CompiledTransition transition = workflow.fire(instance, row.getEvent());
+            if (transition == null) {
+                outcome.divergence = divergence(outcome, index, row, instance.getState(), false);
+                continue;
+            }
+            outcome.simulatedStates.add(instance.getState());
+            if (!row.getToState().equals(instance.getState())) {
+                outcome.divergence = divergence(outcome, index, row, instance.getState(), true);
+            }
+        }
+        if (outcome.historicalStates.isEmpty()) {
+            outcome.historicalStates.add(process.getCurrentState());
+        }
+        return outcome;
+    }
+
+    private static WorkflowSimulationDivergence divergence(Outcome outcome, int index, ProcessHistory row,
+                                                           String simulatedState, boolean accepted) {
+        return WorkflowSimulationDivergence.builder()
+                .processInstanceId(outcome.processInstanceId)
+                .eventIndex(index)
+                .event(row.getEvent())
+                .fromState(row.getFromState())
+                .historicalState(row.getToState())
+                .simulatedState(simulatedState)
+                .accepted(accepted)
+                .build();
+    }
+
+    /**
+     * Roles a state's tasks go to: the configured role names of a role assignment, otherwise the
+     * assignment type.
+     */
+    @SuppressWarnings("unchecked")
+    static List<String> roles(WorkflowTaskAssignment assignment) {
+        if (assignment.getAssignmentType() != WorkflowTaskAssignment.AssignmentType.ROLE) {
+            return List.of(assignment.getAssignmentType().name());
+        }
+        List<String> roles = new ArrayList<>();
+        Map<String, Object> config = assignment.getAssignmentConfig() != null ? assignment.getAssignmentConfig() : Map.of();
+        if (config.get("assigneeValue") instanceof String role) {
+            roles.add(role);
+        }
+        if (config.get("roles") instanceof List<?> names) {
+            roles.addAll((List<String>) names);
+        }
+        return roles;
+    }
+
+    private static List<Outcome> join(ForkJoinTask<List<Outcome>> simulation) {
+        try {
+            return simulation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Workflow simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Workflow simulation failed", e.getCause());
+        }
+    }
+
+    /**
+     * The candidate version compiled with stubbed actions, and its task assignments.
+     */
+    private final class Candidate {
+        final String version;
+        final CompiledWorkflow workflow;
+        final WorkflowDefinitionSnapshot snapshot;
+
+        Candidate(WorkflowDefinition definition) {
+            this.version = definition.getVersion();
+            this.workflow = CompiledWorkflow.compile(definition, guardFactory::createGuard, config -> STUBBED_ACTION);
+            this.snapshot = WorkflowDefinitionSnapshot.of(definition);
+        }
+    }
+
+    private static final class Page {
+        static final Page EMPTY = new Page(List.of(), Map.of());
+
+        final List<ProcessInstance> processes;
+        final Map<String, List<ProcessHistory>> history;
+
+        Page(List<ProcessInstance> processes, Map<String, List<ProcessHistory>> history) {
+            this.processes = processes;
+            this.history = history;
+        }
+    }
+
+    private static final class Outcome {
+        final String processInstanceId;
+        // States entered, starting with the initial state
+        final List<String> simulatedStates = new ArrayList<>();
+        final List<String> historicalStates = new ArrayList<>();
+        int events;
+        WorkflowSimulationDivergence divergence;
+
+        Outcome(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+    }
+
+    private static final class Tally {
+        final Candidate candidate;
+        final WorkflowDefinitionSnapshot baseline;
+        final Map<String, List<String>> rolesByState = new HashMap<>();
+        final Map<String, Long> tasksByState = new TreeMap<>();
+        final Map<String, Long> historicalTasksByState = new TreeMap<>();
+        final Map<String, Long> tasksByRole = new TreeMap<>();
+        long processes;
+        long events;
+        long divergent;
+        long rejected;
+
+        Tally(Candidate candidate, WorkflowDefinitionSnapshot baseline) {
+            this.candidate = candidate;
+            this.baseline = baseline;
+        }
+
+        void add(Outcome outcome, Consumer<WorkflowSimulationDivergence> divergentProcess) {
+            processes++;
+            events += outcome.events;
+            for (String state : outcome.simulatedStates) {
+                WorkflowTaskAssignment assignment = candidate.snapshot.getAssignment(state);
+                if (assignment != null) {
+                    tasksByState.merge(state, 1L, Long::sum);
+                    for (String role : rolesByState.computeIfAbsent(state, name -> roles(assignment))) {
+                        tasksByRole.merge(role, 1L, Long::sum);
+                    }
+                }
+            }
+            for (String state : outcome.historicalStates) {
+                if (baseline.getAssignment(state) != null) {
+                    historicalTasksByState.merge(state, 1L, Long::sum);
+                }
+            }
+            if (outcome.divergence != null) {
+                divergent++;
+                if (!outcome.divergence.isAccepted()) {
+                    rejected++;
+                }
+                divergentProcess.accept(outcome.divergence);
+            }
+        }
+
+        WorkflowSimulationSummary summary(long elapsedMillis) {
+            return WorkflowSimulationSummary.builder()
+                    .workflowName(candidate.workflow.getWorkflowName())
+                    .version(candidate.version)
+                    .processes(processes)
+                    .events(events)
+                    .divergent(divergent)
+                    .rejected(rejected)
+                    .tasksByState(tasksByState)
+                    .historicalTasksByState(historicalTasksByState)
+                    .tasksByRole(tasksByRole)
+                    .elapsedMillis(elapsedMillis)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.runtime.WorkflowDefinitionSnapshot;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link WorkflowDefinitionSnapshot} of the active version of each workflow, built on first use and
+ * dropped when another version is activated or the workflow is deactivated.
+ */
+@Service
+@Log4j2
+public class WorkflowSnapshotRegistry {
+
+    private final WorkflowDefinitionService workflowDefinitionService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<String, WorkflowDefinitionSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public WorkflowSnapshotRegistry(WorkflowDefinitionService workflowDefinitionService,
+                                    PlatformTransactionManager transactionManager) {
+        this.workflowDefinitionService = workflowDefinitionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the snapshot of the active version of a workflow, or empty if none is active. Only the
+     * first lookup after startup or an activation change reads the database.
+     */
+    public Optional<WorkflowDefinitionSnapshot> getActive(String workflowName) {
+        return Optional.ofNullable(snapshots.computeIfAbsent(workflowName, this::load));
+    }
+
+    /**
+     * Runs after the activation committed. A snapshot still being built from the previous version holds
+     * the map entry, so the removal waits for it and then discards it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivationChanged(WorkflowActivationChangedEvent event) {
+        if (snapshots.remove(event.getWorkflowName()) != null) {
+            log.info("Dropped definition snapshot of workflow {}", event.getWorkflowName());
+        }
+    }
+
+    private WorkflowDefinitionSnapshot load(String workflowName) {
+        WorkflowDefinitionSnapshot snapshot = readOnlyTransaction.execute(status -> workflowDefinitionService
+                .getActiveWorkflow(workflowName)
+                .map(WorkflowDefinitionSnapshot::of)
+                .orElse(null));
+        if (snapshot != null) {
+            log.info("Built definition snapshot of workflow {} with {} states", workflowName, snapshot.getStateCount());
+        }
+        return snapshot;
+    }
+}
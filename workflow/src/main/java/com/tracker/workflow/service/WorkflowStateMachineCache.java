@@ -0,0 +1,184 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.listener.WorkflowStateListener;
+import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.persist.DefaultStateMachinePersister;
+import org.springframework.statemachine.persist.StateMachinePersister;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of running state machines in front of {@link JpaWorkflowStateMachinePersist}.
+ * <p>
+ * Every machine is persisted after it starts and after each event, so the persisted context is always
+ * current and eviction simply drops the least recently used machine. A machine that is not cached, after
+ * eviction or a restart, is rehydrated from its persisted context on the next lookup. Machines are changed
+ * before their transaction commits, so a machine whose transaction rolls back is evicted as well.
+ * <p>
+ * The machines do not run on a workflow definition, but like every other process each one is pinned in
+ * {@link WorkflowRegistry} to the active version of {@link WorkflowRegistry#DEFAULT_WORKFLOW} it started on,
+ * if there is one, and released when it completes.
+ */
+@Service
+@Log4j2
+public class WorkflowStateMachineCache {
+
+    private final StateMachineFactory<WorkflowStates, WorkflowEvents> stateMachineFactory;
+    private final JpaWorkflowStateMachinePersist statePersist;
+    private final StateMachinePersister<WorkflowStates, WorkflowEvents, String> persister;
+    private final ProcessHistoryRepository historyRepository;
+    private final WorkflowRegistry workflowRegistry;
+    private final Map<String, StateMachine<WorkflowStates, WorkflowEvents>> machines;
+
+    public WorkflowStateMachineCache(StateMachineFactory<WorkflowStates, WorkflowEvents> stateMachineFactory,
+                                     JpaWorkflowStateMachinePersist statePersist,
+                                     ProcessHistoryRepository historyRepository,
+                                     WorkflowRegistry workflowRegistry,
+                                     WorkflowEngineProperties properties) {
+        this.stateMachineFactory = stateMachineFactory;
+        this.statePersist = statePersist;
+        this.persister = new DefaultStateMachinePersister<>(statePersist);
+        this.historyRepository = historyRepository;
+        this.workflowRegistry = workflowRegistry;
+
+        int maximumSize = properties.getStateMachines().getCacheSize();
+        this.machines = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StateMachine<WorkflowStates, WorkflowEvents>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Creates, starts, persists and caches the state machine of a new process, pinned to the active version
+     * of the default workflow, which is recorded in its variables under {@link WorkflowRegistry#WORKFLOW_VERSION}.
+     */
+    public StateMachine<WorkflowStates, WorkflowEvents> start(String processInstanceId, Map<String, Object> variables) {
+        Map<String, Object> pinned = new HashMap<>(variables);
+        workflowRegistry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, processInstanceId)
+                .ifPresent(workflow -> pinned.put(WorkflowRegistry.WORKFLOW_VERSION, workflow.getVersion()));
+        // A process that fails to start never completes, so its pin is released here
+        TransactionCallbacks.onRollback(() -> workflowRegistry.release(processInstanceId));
+
+        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachineFactory.getStateMachine(processInstanceId);
+        stateMachine.getExtendedState().getVariables().putAll(pinned);
+        stateMachine.addStateListener(new WorkflowStateListener(processInstanceId, historyRepository));
+        stateMachine.start();
+
+        persist(processInstanceId, stateMachine);
+        synchronized (machines) {
+            machines.put(processInstanceId, stateMachine);
+        }
+        evictUnlessCommitted(processInstanceId);
+        return stateMachine;
+    }
+
+    /**
+     * Returns the cached state machine of a process, rehydrating it from its persisted context if needed,
+     * or null if the process has never been persisted.
+     */
+    public StateMachine<WorkflowStates, WorkflowEvents> get(String processInstanceId) {
+        StateMachine<WorkflowStates, WorkflowEvents> cached = getIfCached(processInstanceId);
+        if (cached != null) {
+            return cached;
+        }
+        if (!statePersist.exists(processInstanceId)) {
+            return null;
+        }
+
+        StateMachine<WorkflowStates, WorkflowEvents> restored = restore(processInstanceId);
+        synchronized (machines) {
+            // Another thread may have rehydrated the same process meanwhile; keep the first one
+            StateMachine<WorkflowStates, WorkflowEvents> existing = machines.putIfAbsent(processInstanceId, restored);
+            return existing != null ? existing : restored;
+        }
+    }
+
+    public StateMachine<WorkflowStates, WorkflowEvents> getIfCached(String processInstanceId) {
+        synchronized (machines) {
+            return machines.get(processInstanceId);
+        }
+    }
+
+    /**
+     * Writes the current state and extended state of a process's machine, and releases the process's version
+     * once the transaction that completed it commits.
+     */
+    public void persist(String processInstanceId, StateMachine<WorkflowStates, WorkflowEvents> stateMachine) {
+        try {
+            persister.persist(stateMachine, processInstanceId);
+        } catch (Exception e) {
+            throw new WorkflowException("Could not persist workflow state for process: " + processInstanceId, e);
+        }
+        if (isComplete(stateMachine)) {
+            TransactionCallbacks.afterCommit(() -> workflowRegistry.release(processInstanceId));
+        }
+    }
+
+    /**
+     * Evicts the machine of a process once the current transaction completes without committing, so
+     * changes made to it in that transaction are dropped and the next lookup rehydrates the persisted
+     * context. Outside a transaction the machine stays cached.
+     */
+    public void evictUnlessCommitted(String processInstanceId) {
+        TransactionCallbacks.onRollback(() -> {
+            evict(processInstanceId);
+            log.debug("Evicted state machine for process {} after its transaction did not commit", processInstanceId);
+        });
+    }
+
+    public void evict(String processInstanceId) {
+        synchronized (machines) {
+            machines.remove(processInstanceId);
+        }
+    }
+
+    /**
+     * Drops cached machines that have reached the end state; their persisted context is kept.
+     */
+    public void evictCompleted() {
+        synchronized (machines) {
+            machines.values().removeIf(WorkflowStateMachineCache::isComplete);
+        }
+    }
+
+    public int size() {
+        synchronized (machines) {
+            return machines.size();
+        }
+    }
+
+    private StateMachine<WorkflowStates, WorkflowEvents> restore(String processInstanceId) {
+        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = stateMachineFactory.getStateMachine(processInstanceId);
+        try {
+            persister.restore(stateMachine, processInstanceId);
+        } catch (Exception e) {
+            throw new WorkflowException("Could not restore workflow state for process: " + processInstanceId, e);
+        }
+        stateMachine.addStateListener(new WorkflowStateListener(processInstanceId, historyRepository));
+
+        // Processes started before versions were recorded are not pinned
+        Map<Object, Object> variables = stateMachine.getExtendedState().getVariables();
+        Object version = variables.get(WorkflowRegistry.WORKFLOW_VERSION);
+        if (version != null && !isComplete(stateMachine)) {
+            workflowRegistry.pin(processInstanceId, WorkflowRegistry.workflowNameOf(variables), version.toString());
+        }
+        log.debug("Rehydrated state machine for process {} in state {}", processInstanceId, stateMachine.getState().getId());
+        return stateMachine;
+    }
+
+    private static boolean isComplete(StateMachine<WorkflowStates, WorkflowEvents> stateMachine) {
+        return stateMachine.getState() != null && stateMachine.getState().getId() == WorkflowStates.COMPLETED;
+    }
+}
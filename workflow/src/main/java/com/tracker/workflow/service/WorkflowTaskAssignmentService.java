@@ -2,8 +2,8 @@ package com.tracker.workflow.service;
 
 import com.tracker.workflow.model.*;
 import com.tracker.workflow.repository.UserRoleRepository;
-import com.tracker.workflow.repository.WorkflowTaskAssignmentRepository;
 import com.tracker.workflow.dto.TaskAssignmentConfig;
+import com.tracker.workflow.runtime.WorkflowDefinitionSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
@@ -18,36 +18,38 @@ import java.util.Optional;
 @Log4j2
 public class WorkflowTaskAssignmentService {
     
-    private final WorkflowTaskAssignmentRepository assignmentRepository;
     private final UserRoleRepository userRoleRepository;
-    private final WorkflowDefinitionService workflowDefinitionService;
+    private final WorkflowSnapshotRegistry snapshotRegistry;
     
     public TaskAssignmentConfig getAssignmentForState(String processInstanceId, String stateName) {
-        Optional<WorkflowDefinition> activeWorkflow = workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow");
+        return getAssignmentForState(WorkflowRegistry.DEFAULT_WORKFLOW, processInstanceId, stateName);
+    }
+    
+    /**
+     * Resolves the assignment from the snapshot of the workflow's active definition, so only role lookups
+     * reach the database.
+     */
+    public TaskAssignmentConfig getAssignmentForState(String workflowName, String processInstanceId, String stateName) {
+        Optional<WorkflowDefinitionSnapshot> activeWorkflow = snapshotRegistry.getActive(workflowName);
         
         if (activeWorkflow.isEmpty()) {
-            log.warn("No active workflow found for process: {}", processInstanceId);
+            log.warn("No active workflow {} found for process: {}", workflowName, processInstanceId);
             return null;
         }
         
-        WorkflowStateDefinition stateDefinition = activeWorkflow.get().getStates().stream()
-            .filter(state -> state.getStateName().equals(stateName))
-            .findFirst()
-            .orElse(null);
-            
-        if (stateDefinition == null) {
+        if (activeWorkflow.get().getState(stateName) == null) {
             log.warn("State definition not found: {}", stateName);
             return null;
         }
         
-        Optional<WorkflowTaskAssignment> assignment = assignmentRepository.findByStateId(stateDefinition.getId());
+        WorkflowTaskAssignment assignment = activeWorkflow.get().getAssignment(stateName);
         
-        if (assignment.isEmpty()) {
+        if (assignment == null) {
             log.warn("No task assignment found for state: {}", stateName);
             return null;
         }
         
-        return buildTaskAssignmentConfig(assignment.get());
+        return buildTaskAssignmentConfig(assignment);
     }
     
     private TaskAssignmentConfig buildTaskAssignmentConfig(WorkflowTaskAssignment assignment) {
@@ -10,12 +10,15 @@ import com.tracker.workflow.repository.WorkflowTaskRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @Transactional
@@ -28,10 +31,11 @@ public class WorkflowTaskService {
     private final ProcessHistoryRepository historyRepository;
     private final UserService userService;
     private final NotificationService notificationService;
+    private final ProcessInstanceService processInstances;
 
     // Create task group for multiple users
     public void createTaskGroup(String processInstanceId, String taskName, List<String> assignedUsers,
-                                CompletionStrategy strategy, WorkflowStates state, String description) {
+                                CompletionStrategy strategy, String state, String description) {
 
         // Create task group
         TaskGroup taskGroup = new TaskGroup();
@@ -45,7 +49,9 @@ public class WorkflowTaskService {
 
         taskGroup = taskGroupRepository.save(taskGroup);
 
-        // Create individual tasks
+        // Create individual tasks; with pooled ids the group and its tasks go out as JDBC batches at flush
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkflowTask> tasks = new ArrayList<>(assignedUsers.size());
         for (String userId : assignedUsers) {
             WorkflowTask task = new WorkflowTask();
             task.setProcessInstanceId(processInstanceId);
@@ -54,21 +60,24 @@ public class WorkflowTaskService {
             task.setTaskGroupId(taskGroup.getId());
             task.setCurrentState(state);
             task.setStatus(TaskStatus.PENDING);
-            task.setCreatedDate(LocalDateTime.now());
-            task.setDueDate(LocalDateTime.now().plusDays(3));
+            task.setCreatedDate(now);
+            task.setDueDate(now.plusDays(3));
             task.setDescription(description);
             task.setPriority("MEDIUM");
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
 
-            taskRepository.save(task);
-
-            // Send notification
-            notificationService.notifyUser(userId, "New task assigned: " + taskName);
+        // Queue notifications; saving assigned the task ids they are keyed by
+        for (WorkflowTask task : tasks) {
+            notificationService.notifyUser(task.getAssignedUserId(), "New task assigned: " + taskName,
+                    "task-" + task.getId() + "-assigned");
         }
     }
 
     // Create single task
     public void createSingleTask(String processInstanceId, String taskName, String assignedUserId,
-                                 WorkflowStates state, String description) {
+                                 String state, String description) {
 
         WorkflowTask task = new WorkflowTask();
         task.setProcessInstanceId(processInstanceId);
@@ -83,13 +92,14 @@ public class WorkflowTaskService {
 
         taskRepository.save(task);
 
-        // Send notification
-        notificationService.notifyUser(assignedUserId, "New task assigned: " + taskName);
+        // Queue notification
+        notificationService.notifyUser(assignedUserId, "New task assigned: " + taskName,
+                "task-" + task.getId() + "-assigned");
     }
 
     // Create rework task
     public void createReworkTask(String processInstanceId, String taskName, String assignedUserId,
-                                 WorkflowStates fromState, WorkflowStates toState) {
+                                 String fromState, String toState) {
 
         WorkflowTask task = new WorkflowTask();
         task.setProcessInstanceId(processInstanceId);
@@ -102,14 +112,16 @@ public class WorkflowTaskService {
         task.setDescription("Rework required - please address feedback and resubmit");
         task.setPriority("HIGH");
 
-        // Increment rework count
-        int currentReworkCount = getCurrentReworkCount(processInstanceId);
-        task.setReworkCount(currentReworkCount + 1);
+        // Increment rework count; processes without a process_instances row fall back to their tasks
+        int reworkCount = processInstances.incrementReworkCount(processInstanceId)
+                .orElseGet(() -> getCurrentReworkCount(processInstanceId) + 1);
+        task.setReworkCount(reworkCount);
 
         taskRepository.save(task);
 
-        // Send notification
-        notificationService.notifyUser(assignedUserId, "Rework required: " + taskName);
+        // Queue notification
+        notificationService.notifyUser(assignedUserId, "Rework required: " + taskName,
+                "task-" + task.getId() + "-rework");
     }
 
     // Complete task with group handling
@@ -125,53 +137,50 @@ public class WorkflowTaskService {
             throw new IllegalStateException("Task is not in pending state");
         }
 
-        // Update task
+        // Count the completion on the group before updating the task, so every completer locks the group
+        // row before any task row
+        boolean groupCompleted = task.getTaskGroupId() == null || countGroupCompletion(task.getTaskGroupId());
+
+        // Update task; a concurrent completion or skip of the same task fails the version check
         task.setStatus(TaskStatus.COMPLETED);
         task.setCompletedDate(LocalDateTime.now());
         task.setCompletedByUserId(userId);
         task.setTaskData(taskData);
         log.info("taskData {} ",taskData);
-        taskRepository.save(task);
+        try {
+            taskRepository.saveAndFlush(task);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new IllegalStateException("Task is not in pending state");
+        }
+
+        // Cancel remaining pending tasks in a group this completion completed
+        if (task.getTaskGroupId() != null && groupCompleted) {
+            int skipped = taskRepository.skipPendingTasksInGroup(task.getTaskGroupId());
+            log.debug("Skipped {} pending tasks of completed task group {}", skipped, task.getTaskGroupId());
+        }
 
         // Record history
         recordProcessHistory(task.getProcessInstanceId(), null, task.getCurrentState(),
                 determineEventFromState(task.getCurrentState()), userId, taskData);
 
-        // Check if task group is completed
-        boolean groupCompleted = false;
-        if (task.getTaskGroupId() != null) {
-            groupCompleted = checkAndUpdateTaskGroup(task.getTaskGroupId());
-        } else {
-            groupCompleted = true; // Single task
-        }
-
         return groupCompleted;
     }
 
-    // Check if task group completion requirements are met
-    private boolean checkAndUpdateTaskGroup(Long taskGroupId) {
-        TaskGroup taskGroup = taskGroupRepository.findById(taskGroupId)
-                .orElseThrow(() -> new TaskGroupNotFoundException("Task group not found"));
-
-        int completedTasks = taskRepository.countByTaskGroupIdAndStatus(taskGroupId, TaskStatus.COMPLETED);
-        taskGroup.setCompletedTasks(completedTasks);
-
-        boolean isCompleted = completedTasks >= taskGroup.getRequiredCompletions();
-
-        if (isCompleted && taskGroup.getStatus() == TaskStatus.PENDING) {
-            taskGroup.setStatus(TaskStatus.COMPLETED);
-            taskGroup.setCompletedDate(LocalDateTime.now());
-
-            // Cancel remaining pending tasks in the group
-            List<WorkflowTask> pendingTasks = taskRepository.findByTaskGroupIdAndStatus(taskGroupId, TaskStatus.PENDING);
-            for (WorkflowTask pendingTask : pendingTasks) {
-                pendingTask.setStatus(TaskStatus.SKIPPED);
-                taskRepository.save(pendingTask);
+    /**
+     * Atomically counts one completion of a pending task group.
+     *
+     * @return true only for the completion that completes the group
+     */
+    private boolean countGroupCompletion(Long taskGroupId) {
+        Optional<String> status = taskGroupRepository.incrementCompletedTasks(taskGroupId);
+        if (status.isEmpty()) {
+            if (!taskGroupRepository.existsById(taskGroupId)) {
+                throw new TaskGroupNotFoundException("Task group not found");
             }
+            // Another completion already completed the group
+            return false;
         }
-
-        taskGroupRepository.save(taskGroup);
-        return isCompleted;
+        return TaskStatus.COMPLETED.name().equals(status.get());
     }
 
     // Get tasks for user with filtering
@@ -215,9 +224,8 @@ public class WorkflowTaskService {
     }
 
     // Record process history
-    private void recordProcessHistory(String processInstanceId, WorkflowStates fromState,
-                                      WorkflowStates toState, WorkflowEvents event, String userId,
-                                      Map<String, Object> contextData) {
+    private void recordProcessHistory(String processInstanceId, String fromState, String toState, String event,
+                                      String userId, Map<String, Object> contextData) {
         ProcessHistory history = new ProcessHistory();
         history.setProcessInstanceId(processInstanceId);
         history.setFromState(fromState);
@@ -230,18 +238,20 @@ public class WorkflowTaskService {
         historyRepository.save(history);
     }
 
-    private WorkflowEvents determineEventFromState(WorkflowStates state) {
+    // Tasks of other workflows record no event here; the transition their completion triggers is
+    // recorded with its own event
+    private String determineEventFromState(String state) {
         switch (state) {
-            case PENDING_PLANNING_BUSINESS_REVIEW:
-                return WorkflowEvents.PLANNING_BUSINESS_SUBMIT;
-            case PENDING_PLANNING_FINANCE_APPROVAL:
-                return WorkflowEvents.PLANNING_FINANCE_APPROVE;
-            case PENDING_PLANNING_OWNER_REVIEW:
-                return WorkflowEvents.PLANNING_OWNER_SUBMIT;
-            case PENDING_PLANNING_MANAGER_REVIEW:
-                return WorkflowEvents.PLANNING_MANAGER_SUBMIT;
+            case "PENDING_PLANNING_BUSINESS_REVIEW":
+                return WorkflowEvents.PLANNING_BUSINESS_SUBMIT.name();
+            case "PENDING_PLANNING_FINANCE_APPROVAL":
+                return WorkflowEvents.PLANNING_FINANCE_APPROVE.name();
+            case "PENDING_PLANNING_OWNER_REVIEW":
+                return WorkflowEvents.PLANNING_OWNER_SUBMIT.name();
+            case "PENDING_PLANNING_MANAGER_REVIEW":
+                return WorkflowEvents.PLANNING_MANAGER_SUBMIT.name();
             default:
-                throw new IllegalStateException("Unknown state: " + state);
+                return null;
         }
     }
 
@@ -270,7 +280,8 @@ public class WorkflowTaskService {
             throw new IllegalArgumentException("Invalid assignee user ID");
         }
 
-        // Update task
+        // Update task; the version it was loaded at identifies this delegation
+        Long delegatedVersion = task.getVersion();
         task.setAssignedUserId(newAssigneeId);
         taskRepository.save(task);
 
@@ -282,10 +293,11 @@ public class WorkflowTaskService {
         );
 
         recordProcessHistory(task.getProcessInstanceId(), task.getCurrentState(), task.getCurrentState(), 
-                WorkflowEvents.TASK_DELEGATED, currentUserId, contextData);
+                WorkflowEvents.TASK_DELEGATED.name(), currentUserId, contextData);
 
         // Notify new assignee
-        notificationService.notifyUser(newAssigneeId, "Task delegated to you: " + task.getTaskName() + ". Reason: " + reason);
+        notificationService.notifyUser(newAssigneeId, "Task delegated to you: " + task.getTaskName() + ". Reason: " + reason,
+                "task-" + taskId + "-delegated-v" + delegatedVersion);
 
         log.info("Task {} delegated from user {} to user {}", taskId, currentUserId, newAssigneeId);
     }
@@ -316,7 +328,7 @@ public class WorkflowTaskService {
         );
 
         recordProcessHistory(task.getProcessInstanceId(), task.getCurrentState(), task.getCurrentState(), 
-                WorkflowEvents.TASK_ESCALATED, userId, contextData);
+                WorkflowEvents.TASK_ESCALATED.name(), userId, contextData);
 
         // Notify manager or supervisor
         // This would typically involve finding the manager and sending a notification
@@ -330,29 +342,12 @@ public class WorkflowTaskService {
      * @param processInstanceId the ID of the process to complete
      */
     public void completeProcess(String processInstanceId) {
-        // Find all tasks for this process
-        List<WorkflowTask> tasks = taskRepository.findByProcessInstanceIdOrderByCreatedDate(processInstanceId);
-
-        // Mark all pending tasks as completed
-        for (WorkflowTask task : tasks) {
-            if (task.getStatus() == TaskStatus.PENDING) {
-                task.setStatus(TaskStatus.COMPLETED);
-                task.setCompletedDate(LocalDateTime.now());
-                taskRepository.save(task);
-            }
-        }
-
-        // Find all task groups for this process
-        List<TaskGroup> taskGroups = taskGroupRepository.findByProcessInstanceId(processInstanceId);
-
-        // Mark all pending task groups as completed
-        for (TaskGroup taskGroup : taskGroups) {
-            if (taskGroup.getStatus() == TaskStatus.PENDING) {
-                taskGroup.setStatus(TaskStatus.COMPLETED);
-                taskGroup.setCompletedDate(LocalDateTime.now());
-                taskGroupRepository.save(taskGroup);
-            }
-        }
+        // Mark all pending tasks and task groups as completed, one statement each
+        LocalDateTime completedDate = LocalDateTime.now();
+        int tasks = taskRepository.completePendingTasksOfProcess(processInstanceId, completedDate);
+        int taskGroups = taskGroupRepository.completePendingGroupsOfProcess(processInstanceId, completedDate);
+        log.debug("Completed {} pending tasks and {} pending task groups of process {}",
+                tasks, taskGroups, processInstanceId);
 
         log.info("Process {} completed", processInstanceId);
     }
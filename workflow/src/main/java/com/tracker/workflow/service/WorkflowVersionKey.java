@@ -0,0 +1,12 @@
+package com.tracker.workflow.service;
+
+import lombok.Value;
+
+/**
+ * Workflow name and version, the identity of a definition version across its runtime caches.
+ */
+@Value
+class WorkflowVersionKey {
+    String workflowName;
+    String version;
+}
@@ -0,0 +1,152 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClauseReorderingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CompiledExpression compile(String expression, int promotionThreshold, int profileSampleInterval)
+            throws Exception {
+        return ExpressionCompiler.compile(expression, objectMapper.readTree(expression),
+            promotionThreshold, profileSampleInterval);
+    }
+
+    private static ClauseStatistics first(CompiledExpression expression) {
+        return expression.getStatistics().getClauses().stream()
+            .filter(clause -> clause.getCurrentPosition() == 0)
+            .findFirst()
+            .orElseThrow();
+    }
+
+    @Test
+    void and_MovesClauseThatFailsToFront() throws Exception {
+        CompiledExpression expression = compile(
+            "{\"$and\": [{\"department\": \"finance\"}, {\"amount\": {\"$gte\": 10000}}]}", CompiledExpression.NEVER_PROMOTE, 1);
+        Map<String, Object> processData = Map.of("department", "finance", "amount", 100);
+
+        for (int i = 0; i < ExpressionNodes.JunctionNode.REORDER_SAMPLES; i++) {
+            assertFalse(expression.evaluate(processData, Map.of()));
+        }
+
+        ClauseStatistics front = first(expression);
+        assertEquals("{\"amount\":{\"$gte\":10000}}", front.getClause());
+        assertEquals(1, front.getAuthoredPosition());
+        assertEquals(0.0, front.getPassRate());
+        assertEquals(ExpressionNodes.JunctionNode.REORDER_SAMPLES, front.getSamples());
+    }
+
+    @Test
+    void or_MovesClauseThatPassesToFront() throws Exception {
+        CompiledExpression expression = compile(
+            "{\"$or\": [{\"priority\": \"HIGH\"}, {\"amount\": {\"$lt\": 500}}]}", CompiledExpression.NEVER_PROMOTE, 1);
+        Map<String, Object> processData = Map.of("priority", "LOW", "amount", 100);
+
+        for (int i = 0; i < ExpressionNodes.JunctionNode.REORDER_SAMPLES; i++) {
+            assertTrue(expression.evaluate(processData, Map.of()));
+        }
+
+        assertEquals(1, first(expression).getAuthoredPosition());
+        assertEquals(1.0, first(expression).getPassRate());
+    }
+
+    @Test
+    void implicitFieldConjunction_IsProfiledPerField() throws Exception {
+        CompiledExpression expression = compile(
+            "{\"department\": \"finance\", \"amount\": {\"$gte\": 10000}}", CompiledExpression.NEVER_PROMOTE, 1);
+
+        expression.evaluate(Map.of("department", "finance", "amount", 100), Map.of());
+
+        List<ClauseStatistics> clauses = expression.getStatistics().getClauses();
+        assertEquals(2, clauses.size());
+        assertEquals("$.$and", clauses.get(0).getJunction());
+        assertEquals("{\"department\":\"finance\"}", clauses.get(0).getClause());
+    }
+
+    @Test
+    void withoutProfiling_KeepsAuthoredOrderAndRecordsNothing() throws Exception {
+        CompiledExpression expression = compile(
+            "{\"$and\": [{\"department\": \"finance\"}, {\"amount\": {\"$gte\": 10000}}]}",
+            CompiledExpression.NEVER_PROMOTE, CompiledExpression.NEVER_PROFILE);
+
+        for (int i = 0; i < 500; i++) {
+            expression.evaluate(Map.of("department", "finance", "amount", 100), Map.of());
+        }
+
+        assertEquals(0, first(expression).getAuthoredPosition());
+        assertEquals(0, first(expression).getSamples());
+    }
+
+    @Test
+    void reordering_PreservesResults() throws Exception {
+        String source = "{\"$and\": [{\"$or\": [{\"priority\": \"HIGH\"}, {\"amount\": {\"$gt\": 5000}}]},"
+            + " {\"$not\": {\"department\": {\"$in\": [\"sales\", \"legal\"]}}}, {\"approved\": true}]}";
+        CompiledExpression reference = compile(source, CompiledExpression.NEVER_PROMOTE, CompiledExpression.NEVER_PROFILE);
+        CompiledExpression adaptive = compile(source, 100, 2);
+
+        Random random = new Random(42);
+        String[] priorities = {"HIGH", "LOW"};
+        String[] departments = {"sales", "legal", "finance", "engineering"};
+        for (int i = 0; i < 5_000; i++) {
+            Map<String, Object> processData = new HashMap<>();
+            processData.put("priority", priorities[random.nextInt(priorities.length)]);
+            processData.put("amount", random.nextInt(10_000));
+            processData.put("department", departments[random.nextInt(departments.length)]);
+            processData.put("approved", random.nextInt(10) == 0);
+
+            assertEquals(reference.evaluate(processData, Map.of()), adaptive.evaluate(processData, Map.of()),
+                "Mismatch for " + processData);
+        }
+
+        assertTrue(adaptive.isPromoted());
+    }
+
+    @Test
+    void reorder_AtEqualCost_RunsClauseMostLikelyToFailFirst() {
+        ExpressionNodes.AndNode and = and("priority", "department", "approved");
+        // Fixed statistics instead of measured ones: every clause takes 100ns
+        record(and, 0, 35, 64, 100);
+        record(and, 1, 32, 64, 100);
+        record(and, 2, 6, 64, 100);
+
+        assertTrue(and.reorder());
+
+        assertEquals("approved", and.getProfiles()[0].clause);
+        assertSame(and.getProfiles()[0].node, and.children[0]);
+    }
+
+    @Test
+    void reorder_ExpensiveClause_StaysBehindCheapOneDespiteFailingMoreOften() {
+        ExpressionNodes.AndNode and = and("cheap", "expensive");
+        record(and, 0, 32, 64, 100);
+        record(and, 1, 6, 64, 100_000);
+
+        assertFalse(and.reorder());
+
+        assertEquals("cheap", and.getProfiles()[0].clause);
+    }
+
+    private static ExpressionNodes.AndNode and(String... clauses) {
+        ExpressionNode[] children = new ExpressionNode[clauses.length];
+        for (int i = 0; i < clauses.length; i++) {
+            children[i] = new ExpressionNodes.ConstantNode(true);
+        }
+        return new ExpressionNodes.AndNode(children, clauses);
+    }
+
+    private static void record(ExpressionNodes.JunctionNode junction, int position, int passes, int samples,
+                               long nanosEach) {
+        ExpressionNodes.ClauseProfile profile = junction.getProfiles()[position];
+        for (int i = 0; i < samples; i++) {
+            profile.record(i < passes, nanosEach);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tracker.workflow.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledExpressionCacheTest {
+
+    @Test
+    void get_SameExpression_CompilesOnceAndCountsHits() {
+        CompiledExpressionCache cache = new CompiledExpressionCache(10);
+        AtomicInteger compilations = new AtomicInteger();
+
+        CompiledExpression first = cache.get("a", source -> {
+            compilations.incrementAndGet();
+            return CompiledExpression.alwaysFalse(source);
+        });
+        CompiledExpression second = cache.get("a", source -> {
+            compilations.incrementAndGet();
+            return CompiledExpression.alwaysFalse(source);
+        });
+
+        assertSame(first, second);
+        assertEquals(1, compilations.get());
+
+        ExpressionCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void get_BeyondMaximumSize_EvictsOldestEntry() {
+        CompiledExpressionCache cache = new CompiledExpressionCache(2);
+
+        cache.get("a", CompiledExpression::alwaysFalse);
+        cache.get("b", CompiledExpression::alwaysFalse);
+        cache.get("c", CompiledExpression::alwaysFalse);
+
+        ExpressionCacheStats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+
+        cache.get("a", CompiledExpression::alwaysFalse);
+        assertEquals(4, cache.getStats().getMisses());
+    }
+
+    @Test
+    void constructor_NonPositiveSize_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new CompiledExpressionCache(0));
+    }
+}
@@ -0,0 +1,112 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonbPredicateTranslatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonbPredicate translate(String expression) throws Exception {
+        CompiledExpression compiled = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        return JsonbPredicateTranslator.translate(compiled, "d.data", 1);
+    }
+
+    @Test
+    void translate_NumericRange_UsesJsonPathPredicate() throws Exception {
+        JsonbPredicate predicate = translate("{\"amount\": {\"$gte\": 10000}}");
+
+        assertEquals("(d.data @@ CAST(?1 AS jsonpath))", predicate.getSql());
+        assertEquals(List.of("$.\"amount\" >= 10000"), predicate.getParameters());
+    }
+
+    @Test
+    void translate_Equality_UsesContainment() throws Exception {
+        JsonbPredicate predicate = translate("{\"department\": \"finance\"}");
+
+        assertEquals("(d.data @> CAST(?1 AS jsonb))", predicate.getSql());
+        assertEquals(List.of("{\"department\":\"finance\"}"), predicate.getParameters());
+    }
+
+    @Test
+    void translate_LogicalOperators_NumbersParametersInOrder() throws Exception {
+        JsonbPredicate predicate = translate(
+            "{\"$and\": [{\"amount\": {\"$gt\": 500}}, {\"$or\": [{\"priority\": \"HIGH\"}, {\"$not\": {\"approved\": true}}]}]}");
+
+        assertEquals("((d.data @@ CAST(?1 AS jsonpath))"
+                + " AND ((d.data @> CAST(?2 AS jsonb))"
+                + " OR NOT ((COALESCE(d.data @> CAST(?3 AS jsonb), FALSE)))))", predicate.getSql());
+        assertEquals(List.of("$.\"amount\" > 500", "{\"priority\":\"HIGH\"}", "{\"approved\":true}"),
+                predicate.getParameters());
+    }
+
+    @Test
+    void translate_Negation_OnlyWrapsNegatedLeaves() throws Exception {
+        JsonbPredicate predicate = translate("{\"$and\": [{\"amount\": {\"$gt\": 500}},"
+            + " {\"$not\": {\"$or\": [{\"department\": \"sales\"}, {\"$not\": {\"approved\": true}}]}}]}");
+
+        assertEquals("((d.data @@ CAST(?1 AS jsonpath))"
+                + " AND NOT (((COALESCE(d.data @> CAST(?2 AS jsonb), FALSE))"
+                + " OR NOT ((d.data @> CAST(?3 AS jsonb))))))", predicate.getSql());
+    }
+
+    @Test
+    void translate_InAndNotIn_ExpandToContainmentDisjunction() throws Exception {
+        JsonbPredicate predicate = translate("{\"department\": {\"$nin\": [\"sales\", \"marketing\"]}}");
+
+        assertEquals("(NOT (COALESCE(d.data @> CAST(?1 AS jsonb), FALSE)"
+                + " OR COALESCE(d.data @> CAST(?2 AS jsonb), FALSE)))", predicate.getSql());
+        assertEquals(2, predicate.getParameters().size());
+    }
+
+    @Test
+    void translate_NullEquality_TreatsMissingKeyAsNull() throws Exception {
+        JsonbPredicate predicate = translate("{\"closedBy\": null}");
+
+        assertEquals("((COALESCE(d.data -> CAST(?1 AS text), CAST('null' AS jsonb)) = CAST('null' AS jsonb)))",
+                predicate.getSql());
+        assertEquals(List.of("closedBy"), predicate.getParameters());
+    }
+
+    @Test
+    void translate_FieldNameWithQuote_IsEscapedInJsonPath() throws Exception {
+        JsonbPredicate predicate = translate("{\"we\\\"ird\": {\"$lt\": 1.5}}");
+
+        assertEquals(List.of("$.\"we\\\"ird\" < 1.5"), predicate.getParameters());
+    }
+
+    @Test
+    void translate_UnknownOperatorOrTypeMismatch_IsFalse() throws Exception {
+        assertEquals("FALSE", translate("{\"amount\": {\"$unknown\": 1}}").getSql());
+        assertEquals("(FALSE)", translate("{\"amount\": {\"$gt\": \"text\"}}").getSql());
+    }
+
+    @Test
+    void translate_DottedPath_UsesNestedDocumentAndPath() throws Exception {
+        assertEquals(List.of("{\"budget\":{\"capex\":{\"owner\":\"finance\"}}}"),
+                translate("{\"budget.capex.owner\": \"finance\"}").getParameters());
+        assertEquals(List.of("$.\"budget\".\"capex\".\"amount\" > 5000"),
+                translate("{\"budget.capex.amount\": {\"$gt\": 5000}}").getParameters());
+
+        JsonbPredicate nullCheck = translate("{\"budget.closedBy\": null}");
+        assertEquals("((COALESCE(d.data #> CAST(?1 AS text[]), CAST('null' AS jsonb)) = CAST('null' AS jsonb)))",
+                nullCheck.getSql());
+        assertEquals(List.of("{\"budget\",\"closedBy\"}"), nullCheck.getParameters());
+    }
+
+    @Test
+    void translate_ExistsBetweenAndRegex_UseJsonPathPredicates() throws Exception {
+        assertEquals(List.of("exists($.\"approvedBy\")"),
+                translate("{\"approvedBy\": {\"$exists\": true}}").getParameters());
+        assertEquals("(NOT COALESCE(d.data @@ CAST(?1 AS jsonpath), FALSE))",
+                translate("{\"approvedBy\": {\"$exists\": false}}").getSql());
+        assertEquals(List.of("$.\"amount\" >= 500 && $.\"amount\" <= 1000"),
+                translate("{\"amount\": {\"$between\": [500, 1000]}}").getParameters());
+        assertEquals(List.of("$.\"code\" like_regex \"^PRJ-\\\\d+\" flag \"i\""),
+                translate("{\"code\": {\"$regex\": \"^PRJ-\\\\d+\", \"$options\": \"i\"}}").getParameters());
+    }
+}
@@ -0,0 +1,105 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodHandleCodegenTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"amount\": {\"$eq\": 1000.0}}",
+        "{\"amount\": {\"$ne\": 500}}",
+        "{\"amount\": {\"$gt\": 500, \"$lt\": 1500}}",
+        "{\"amount\": {\"$gte\": 1000.0}}",
+        "{\"amount\": {\"$lte\": 999}}",
+        "{\"amount\": {\"$gt\": \"text\"}}",
+        "{\"department\": {\"$in\": [\"engineering\", \"finance\"]}}",
+        "{\"department\": {\"$nin\": [\"marketing\", \"sales\"]}}",
+        "{\"department\": {\"$nin\": \"marketing\"}}",
+        "{\"approved\": true}",
+        "{\"approved\": {\"$eq\": false}}",
+        "{\"nullField\": null}",
+        "{\"missing\": null}",
+        "{\"missing\": {\"$eq\": \"value\"}}",
+        "{\"role\": \"manager\"}",
+        "{\"department\": [\"engineering\"]}",
+        "{\"amount\": {\"$unknown\": 1}}",
+        "{\"$and\": [{\"amount\": {\"$gte\": 500}}, {\"priority\": {\"$eq\": \"HIGH\"}}]}",
+        "{\"$and\": []}",
+        "{\"$or\": [{\"amount\": {\"$gte\": 1500}}, {\"priority\": {\"$eq\": \"LOW\"}}]}",
+        "{\"$or\": []}",
+        "{\"$or\": \"notAnArray\"}",
+        "{\"$not\": {\"amount\": {\"$eq\": 1000}}}",
+        "{\"$not\": 1}",
+        "{\"$and\": [{\"$or\": [{\"amount\": {\"$gte\": 1000}}, {\"priority\": \"URGENT\"}]}, {\"department\": {\"$in\": [\"engineering\"]}}]}",
+        "{\"amount\": {}, \"priority\": \"HIGH\"}",
+        "{\"budget.capex.amount\": {\"$gte\": 2000}}",
+        "{\"budget.lines.1\": \"travel\"}",
+        "{\"budget.missing.amount\": null}",
+        "{\"nullField\": {\"$exists\": true}}",
+        "{\"missing\": {\"$exists\": false}}",
+        "{\"budget.capex\": {\"$exists\": true, \"$ne\": null}}",
+        "{\"amount\": {\"$between\": [500, 1000]}}",
+        "{\"amount\": {\"$between\": [1001, 2000]}}",
+        "{\"amount\": {\"$between\": 500}}",
+        "{\"department\": {\"$regex\": \"^ENG\", \"$options\": \"i\"}}",
+        "{\"department\": {\"$regex\": \"^ENG\"}}",
+        "{\"amount\": {\"$regex\": \"1000\"}}",
+        "{}"
+    })
+    void generate_MatchesInterpreter(String expression) throws Exception {
+        Map<String, Object> processData = new HashMap<>();
+        processData.put("amount", 1000.0);
+        processData.put("department", "engineering");
+        processData.put("priority", "HIGH");
+        processData.put("approved", true);
+        processData.put("nullField", null);
+        processData.put("budget", Map.of("capex", Map.of("amount", 2500), "lines", List.of("hardware", "travel")));
+        Map<String, Object> context = Map.of("role", "manager");
+
+        CompiledExpression interpreted = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        CompiledExpression promoted = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        promoted.promote();
+
+        assertTrue(promoted.isPromoted());
+        assertFalse(interpreted.isPromoted());
+        assertEquals(interpreted.evaluate(processData, context), promoted.evaluate(processData, context));
+    }
+
+    @Test
+    void evaluate_ReachingThreshold_PromotesExpression() throws Exception {
+        String expression = "{\"amount\": {\"$gte\": 500}}";
+        CompiledExpression compiled = ExpressionCompiler.compile(expression, objectMapper.readTree(expression), 3);
+        Map<String, Object> processData = Map.of("amount", 700);
+
+        assertTrue(compiled.evaluate(processData, Map.of()));
+        assertTrue(compiled.evaluate(processData, Map.of()));
+        assertFalse(compiled.isPromoted());
+
+        assertTrue(compiled.evaluate(processData, Map.of()));
+        assertTrue(compiled.isPromoted());
+        assertFalse(compiled.evaluate(Map.of("amount", 100), Map.of()));
+    }
+
+    @Test
+    void evaluate_NeverPromote_StaysOnInterpreter() throws Exception {
+        String expression = "{\"amount\": {\"$gte\": 500}}";
+        CompiledExpression compiled = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+
+        for (int i = 0; i < 100; i++) {
+            compiled.evaluate(Map.of("amount", 700), Map.of());
+        }
+
+        assertFalse(compiled.isPromoted());
+    }
+}
@@ -0,0 +1,96 @@
+package com.tracker.workflow.expression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleNetworkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RuleNetwork<String> network;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> conditions = Map.of(
+            "ceo", "{\"amount\": {\"$gte\": 10000}}",
+            "finance", "{\"$or\": [{\"amount\": {\"$gte\": 500}}, {\"department\": \"finance\"}]}",
+            "urgent", "{\"priority\": \"HIGH\"}",
+            "always", "{}");
+        network = RuleNetwork.build(List.of("ceo", "finance", "urgent", "always"),
+            rule -> compile(conditions.get(rule)));
+    }
+
+    private CompiledExpression compile(String expression) {
+        try {
+            return ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void evaluate_ReturnsMatchesInPriorityOrder() {
+        Map<String, Object> processData = Map.of("amount", 20000, "priority", "HIGH");
+
+        RuleNetwork.Matches<String> matches = network.evaluate(processData, Map.of());
+
+        assertEquals(List.of("ceo", "finance", "urgent", "always"), matches.getMatchedRules());
+        assertEquals(4, matches.getEvaluatedRules());
+    }
+
+    @Test
+    void getUnmatchedRules_ReturnsFailedRulesInPriorityOrder() {
+        RuleNetwork.Matches<String> matches = network.evaluate(Map.of("amount", 600), Map.of());
+
+        assertEquals(List.of("ceo", "urgent"), matches.getUnmatchedRules());
+    }
+
+    @Test
+    void update_OnlyReevaluatesRulesReferencingChangedFields() {
+        Map<String, Object> processData = new HashMap<>(Map.of("amount", 20000, "priority", "LOW"));
+        RuleNetwork.Matches<String> initial = network.evaluate(processData, Map.of());
+
+        processData.put("amount", 100);
+        RuleNetwork.Matches<String> updated = network.update(initial, Set.of("amount"), processData, Map.of());
+
+        assertEquals(List.of("always"), updated.getMatchedRules());
+        assertEquals(2, updated.getEvaluatedRules());
+        assertEquals(List.of("ceo", "finance", "always"), initial.getMatchedRules());
+    }
+
+    @Test
+    void update_UnreferencedField_EvaluatesNothing() {
+        Map<String, Object> processData = Map.of("amount", 700);
+        RuleNetwork.Matches<String> initial = network.evaluate(processData, Map.of());
+
+        RuleNetwork.Matches<String> updated = network.update(initial, Set.of("comments"), processData, Map.of());
+
+        assertEquals(0, updated.getEvaluatedRules());
+        assertEquals(initial.getMatchedRules(), updated.getMatchedRules());
+        assertTrue(updated.isMatched("finance"));
+    }
+
+    @Test
+    void rulesReferencing_IndexesNestedFields() {
+        assertEquals(List.of("ceo", "finance"), network.rulesReferencing("amount"));
+        assertEquals(List.of("finance"), network.rulesReferencing("department"));
+        assertEquals(List.of(), network.rulesReferencing("unknown"));
+    }
+
+    @Test
+    void update_MatchesFromOtherNetwork_Throws() {
+        RuleNetwork<String> other = RuleNetwork.build(List.of("x"), rule -> compile("{}"));
+        RuleNetwork.Matches<String> foreign = other.evaluate(Map.of(), Map.of());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> network.update(foreign, Set.of("amount"), Map.of(), Map.of()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tracker.workflow.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.expression.CompiledExpression;
+import com.tracker.workflow.expression.ExpressionCompiler;
+import com.tracker.workflow.expression.JsonbPredicate;
+import com.tracker.workflow.expression.JsonbPredicateTranslator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the predicates generated by {@link JsonbPredicateTranslator} can be served by
+ * the {@code jsonb_path_ops} GIN index of V3__Add_jsonb_gin_indexes.sql.
+ */
+public class JsonbPredicateIndexIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String INDEX = "idx_workflow_tasks_task_data";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @Transactional
+    public void testContainmentUsesGinIndex() throws Exception {
+        String plan = explain("{\"department\": \"finance\"}");
+
+        assertTrue(plan.contains("Bitmap Index Scan on " + INDEX), plan);
+    }
+
+    @Test
+    @Transactional
+    public void testJsonPathRangeUsesGinIndex() throws Exception {
+        String plan = explain("{\"amount\": {\"$gte\": 10000}}");
+
+        assertTrue(plan.contains("Bitmap Index Scan on " + INDEX), plan);
+    }
+
+    @Test
+    @Transactional
+    public void testPositiveLegOfNegatedExpressionUsesGinIndex() throws Exception {
+        String plan = explain("{\"$and\": [{\"amount\": {\"$gt\": 500}}, {\"$not\": {\"department\": \"sales\"}}]}");
+
+        assertTrue(plan.contains("Bitmap Index Scan on " + INDEX), plan);
+    }
+
+    /**
+     * Flyway is disabled for tests, so the index is created here. Sequential scans are disabled for the
+     * transaction so that the planner picks the index whenever it can serve the predicate, even on an
+     * empty table.
+     */
+    @SuppressWarnings("unchecked")
+    private String explain(String expression) throws Exception {
+        entityManager.createNativeQuery("CREATE INDEX IF NOT EXISTS " + INDEX
+                + " ON workflow_tasks USING GIN (task_data jsonb_path_ops)").executeUpdate();
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        CompiledExpression compiled = ExpressionCompiler.compile(expression, objectMapper.readTree(expression));
+        JsonbPredicate predicate = JsonbPredicateTranslator.translate(compiled, "d.task_data", 1);
+        Query query = entityManager.createNativeQuery(
+                "EXPLAIN SELECT d.id FROM workflow_tasks d WHERE " + predicate.getSql());
+        List<Object> parameters = predicate.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return String.join("\n", (List<String>) query.getResultList());
+    }
+}
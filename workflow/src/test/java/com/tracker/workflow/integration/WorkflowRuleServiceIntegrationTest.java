@@ -1,6 +1,8 @@
 package com.tracker.workflow.integration;
 
+import com.tracker.workflow.model.WorkflowRule;
 import com.tracker.workflow.service.WorkflowRuleService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,23 @@ public class WorkflowRuleServiceIntegrationTest extends AbstractIntegrationTest
     @Autowired
     private WorkflowRuleService ruleService;
 
+    /**
+     * Flyway is disabled for tests, so seed the rules that V4__Seed_workflow_rules.sql provides.
+     */
+    @BeforeEach
+    public void setUp() {
+        workflowRuleRepository.save(rule("FINANCE_APPROVAL_REQUIRED", "{\"$not\": {\"amount\": {\"$lt\": 500}}}"));
+        workflowRuleRepository.save(rule("CEO_APPROVAL_REQUIRED", "{\"amount\": {\"$gte\": 10000}}"));
+        ruleService.refresh();
+    }
+
+    private WorkflowRule rule(String ruleName, String condition) {
+        WorkflowRule rule = new WorkflowRule();
+        rule.setRuleName(ruleName);
+        rule.setCondition(condition);
+        return rule;
+    }
+
     /**
      * Test the finance approval rule.
      * Verifies that finance approval is required for amounts >= 500.
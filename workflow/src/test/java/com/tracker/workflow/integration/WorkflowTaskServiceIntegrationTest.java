@@ -1,6 +1,7 @@
 package com.tracker.workflow.integration;
 
 import com.tracker.workflow.model.*;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
 import com.tracker.workflow.repository.ProcessHistoryRepository;
 import com.tracker.workflow.repository.TaskGroupRepository;
 import com.tracker.workflow.repository.WorkflowTaskRepository;
@@ -9,10 +10,17 @@ import com.tracker.workflow.service.WorkflowTaskService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -23,6 +31,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest {
 
+    private static final int PARALLEL_ASSIGNEES = 200;
+
     @Autowired
     private WorkflowTaskService taskService;
 
@@ -38,6 +48,9 @@ public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest
     @Autowired
     private ProcessHistoryRepository historyRepository;
 
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
     /**
      * Test creating and completing a single task.
      */
@@ -52,7 +65,7 @@ public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest
         String taskName = "Review Expense Request";
         String assignedUserId = "U1000";
         taskService.createSingleTask(processInstanceId, taskName, assignedUserId,
-                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW, "Please review this expense request");
+                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), "Please review this expense request");
 
         // Assert - Task is created
         List<WorkflowTask> tasks = taskRepository.findByProcessInstanceIdOrderByCreatedDate(processInstanceId);
@@ -92,7 +105,7 @@ public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest
         String taskName = "Business Review";
         List<String> assignedUsers = Arrays.asList("U1000","U1005");
         taskService.createTaskGroup(processInstanceId, taskName, assignedUsers,
-                CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW,
+                CompletionStrategy.ANY_ONE, WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(),
                 "Please review this expense request");
 
         // Assert - Task group and tasks are created
@@ -213,14 +226,14 @@ public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest
 
         // Create individual tasks
         taskService.createSingleTask(processInstanceId, "Task 1", userId,
-                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW, "Business Review");
+                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), "Business Review");
         taskService.createSingleTask(processInstanceId, "Task 2", "U1004",
-                WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL, "Finance Approve");
+                WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(), "Finance Approve");
 
         // Create a task group
         taskService.createTaskGroup(processInstanceId, "Group Task",
                 Arrays.asList("U1000", "U1005"), CompletionStrategy.ALL_REQUIRED,
-                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW, "Group task description");
+                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), "Group task description");
 
         // Act - Complete the process
         taskService.completeProcess(processInstanceId);
@@ -238,4 +251,112 @@ public class WorkflowTaskServiceIntegrationTest extends AbstractIntegrationTest
             assertNotNull(group.getCompletedDate(), "All task groups should have a completed date");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that creating a task group queues one outbox notification per task.
+     */
+    @Test
+    public void testCreateTaskGroupQueuesNotifications() {
+        String processInstanceId = workflowService.startWorkflow("U1000", createTestProcessData("U1000"));
+        taskService.createTaskGroup(processInstanceId, "Outbox Review", Arrays.asList("U1000", "U1005"),
+                CompletionStrategy.ALL_REQUIRED, WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), "Outbox review");
+
+        TaskGroup taskGroup = taskGroupRepository.findByProcessInstanceId(processInstanceId).stream()
+                .filter(group -> "Outbox Review".equals(group.getGroupName()))
+                .findFirst()
+                .orElseThrow();
+        List<String> expectedKeys = taskRepository.findByTaskGroupIdAndStatus(taskGroup.getId(), TaskStatus.PENDING)
+                .stream()
+                .map(task -> "task-" + task.getId() + "-assigned")
+                .toList();
+        List<String> queuedKeys = outboxRepository.findAll().stream()
+                .map(NotificationOutboxEntry::getIdempotencyKey)
+                .filter(expectedKeys::contains)
+                .toList();
+        assertEquals(2, queuedKeys.size(), "Each task should have one queued notification");
+    }
+
+    /**
+     * Test that hundreds of assignees completing an ANY_ONE group at once complete it exactly once.
+     */
+    @Test
+    public void testParallelCompletionsOfAnyOneGroup() throws Exception {
+        TaskGroup taskGroup = createParallelGroup(CompletionStrategy.ANY_ONE);
+
+        // Losers find their task already skipped by the winner and are rejected
+        assertEquals(1, completeInParallel(taskGroup), "Exactly one completion should complete the group");
+
+        TaskGroup completedGroup = taskGroupRepository.findById(taskGroup.getId()).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, completedGroup.getStatus(), "Task group status should be COMPLETED");
+        assertEquals(1, completedGroup.getCompletedTasks(), "Completed tasks should be 1");
+        assertEquals(1, taskRepository.findByTaskGroupIdAndStatus(taskGroup.getId(), TaskStatus.COMPLETED).size(),
+                "Exactly one task should be COMPLETED");
+        assertEquals(PARALLEL_ASSIGNEES - 1,
+                taskRepository.findByTaskGroupIdAndStatus(taskGroup.getId(), TaskStatus.SKIPPED).size(),
+                "All other tasks should be SKIPPED");
+    }
+
+    /**
+     * Test that parallel completions of an ALL_REQUIRED group are all counted and complete it exactly once.
+     */
+    @Test
+    public void testParallelCompletionsOfAllRequiredGroup() throws Exception {
+        TaskGroup taskGroup = createParallelGroup(CompletionStrategy.ALL_REQUIRED);
+
+        assertEquals(1, completeInParallel(taskGroup), "Exactly one completion should complete the group");
+
+        TaskGroup completedGroup = taskGroupRepository.findById(taskGroup.getId()).orElseThrow();
+        assertEquals(TaskStatus.COMPLETED, completedGroup.getStatus(), "Task group status should be COMPLETED");
+        assertEquals(PARALLEL_ASSIGNEES, completedGroup.getCompletedTasks(), "Every completion should be counted");
+        assertEquals(PARALLEL_ASSIGNEES,
+                taskRepository.findByTaskGroupIdAndStatus(taskGroup.getId(), TaskStatus.COMPLETED).size(),
+                "All tasks should be COMPLETED");
+    }
+
+    private TaskGroup createParallelGroup(CompletionStrategy strategy) {
+        String processInstanceId = workflowService.startWorkflow("U1000", createTestProcessData("U1000"));
+        List<String> assignedUsers = IntStream.range(0, PARALLEL_ASSIGNEES).mapToObj(i -> "U" + (5000 + i)).toList();
+        taskService.createTaskGroup(processInstanceId, "Parallel Review", assignedUsers, strategy,
+                WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), "Parallel review");
+        return taskGroupRepository.findByProcessInstanceId(processInstanceId).stream()
+                .filter(group -> "Parallel Review".equals(group.getGroupName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Completes every pending task of the group from a thread pool and returns how many calls reported
+     * the group as completed.
+     */
+    private int completeInParallel(TaskGroup taskGroup) throws Exception {
+        List<WorkflowTask> tasks = taskRepository.findByTaskGroupIdAndStatus(taskGroup.getId(), TaskStatus.PENDING);
+        assertEquals(PARALLEL_ASSIGNEES, tasks.size(), "Should have a task per assignee");
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (WorkflowTask task : tasks) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return taskService.completeTask(task.getId(), task.getAssignedUserId(), Map.of("approved", true));
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int groupCompletions = 0;
+        try {
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    groupCompletions++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return groupCompletions;
+    }
+}
@@ -0,0 +1,137 @@
+package com.tracker.workflow.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.service.DynamicWorkflowGuardFactory;
+import com.tracker.workflow.service.WorkflowExpressionEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.action.Action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledWorkflowTest {
+
+    private final List<String> executedActions = new ArrayList<>();
+    private int guardsCreated;
+    private CompiledWorkflow workflow;
+
+    @BeforeEach
+    void setUp() {
+        DynamicWorkflowGuardFactory guardFactory = new DynamicWorkflowGuardFactory(
+            new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties()));
+        workflow = CompiledWorkflow.compile(definition(), expression -> {
+            guardsCreated++;
+            return guardFactory.createGuard(expression);
+        }, this::recordingAction);
+    }
+
+    private Action<String, String> recordingAction(Map<String, Object> config) {
+        return context -> executedActions.add(config.get("type") + ":" + context.getTarget().getId() + ":"
+            + context.getExtendedState().getVariables().get("processInstanceId"));
+    }
+
+    private WorkflowDefinition definition() {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(1L);
+        definition.setWorkflowName("Tracker-core-workflow");
+        definition.setVersion("1.0");
+
+        WorkflowStateDefinition review = state("REVIEW", WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition finance = state("FINANCE", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition ceo = state("CEO", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition done = state("DONE", WorkflowStateDefinition.StateType.END);
+        definition.setStates(List.of(review, finance, ceo, done));
+        definition.setTransitions(List.of(
+            transition(review, ceo, "SUBMIT", 1, "{\"amount\": {\"$gte\": 10000}}"),
+            transition(review, finance, "SUBMIT", 2, null),
+            transition(finance, done, "APPROVE", 3, null),
+            transition(ceo, done, "APPROVE", 4, null)));
+        return definition;
+    }
+
+    private WorkflowStateDefinition state(String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
+
+    private WorkflowTransitionDefinition transition(WorkflowStateDefinition from, WorkflowStateDefinition to,
+                                                    String event, int order, String guard) {
+        WorkflowTransitionDefinition transition = new WorkflowTransitionDefinition();
+        transition.setFromState(from);
+        transition.setToState(to);
+        transition.setEventName(event);
+        transition.setTransitionOrder(order);
+        transition.setGuardExpression(guard);
+        transition.setActionConfig(Map.of("type", "CREATE_TASK_GROUP"));
+        return transition;
+    }
+
+    @Test
+    void compile_BindsGuardsOnceAndIndexesStatesAndEvents() {
+        assertEquals(1, guardsCreated);
+        assertEquals(4, workflow.getStateCount());
+        assertEquals(2, workflow.getEventCount());
+        assertTrue(workflow.isEndState(workflow.stateOrdinal("DONE")));
+    }
+
+    @Test
+    void fire_TakesFirstTransitionWhoseGuardPasses() {
+        WorkflowInstance small = workflow.newInstance("p1", Map.of("processInstanceId", "p1",
+            "processData", Map.of("amount", 500)));
+        WorkflowInstance large = workflow.newInstance("p2", Map.of("processInstanceId", "p2",
+            "processData", Map.of("amount", 50000)));
+
+        assertEquals("REVIEW", small.getState());
+        assertNotNull(workflow.fire(small, "SUBMIT"));
+        assertNotNull(workflow.fire(large, "SUBMIT"));
+
+        assertEquals("FINANCE", small.getState());
+        assertEquals("CEO", large.getState());
+        assertEquals(List.of("CREATE_TASK_GROUP:FINANCE:p1", "CREATE_TASK_GROUP:CEO:p2"), executedActions);
+    }
+
+    @Test
+    void fire_RejectsEventsWithoutTransitionFromCurrentState() {
+        WorkflowInstance instance = workflow.newInstance("p1", Map.of());
+
+        assertNull(workflow.fire(instance, "APPROVE"));
+        assertNull(workflow.fire(instance, "UNKNOWN"));
+        assertEquals("REVIEW", instance.getState());
+        assertTrue(executedActions.isEmpty());
+    }
+
+    @Test
+    void eventsFrom_ListsEventsLeavingState() {
+        assertEquals(List.of("SUBMIT"), workflow.eventsFrom("REVIEW"));
+        assertEquals(List.of("APPROVE"), workflow.eventsFrom("FINANCE"));
+        assertEquals(List.of(), workflow.eventsFrom("DONE"));
+    }
+
+    @Test
+    void restore_ContinuesFromPersistedState() {
+        WorkflowInstance instance = workflow.restore("p1", "FINANCE", Map.of());
+
+        workflow.fire(instance, "APPROVE");
+
+        assertTrue(instance.isComplete());
+    }
+
+    @Test
+    void fire_RejectsInstanceOfAnotherVersion() {
+        CompiledWorkflow other = CompiledWorkflow.compile(definition(), expression -> null, config -> null);
+        WorkflowInstance instance = other.newInstance("p1", Map.of());
+
+        assertThrows(WorkflowException.class, () -> workflow.fire(instance, "SUBMIT"));
+    }
+}
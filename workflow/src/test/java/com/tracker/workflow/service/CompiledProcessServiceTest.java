@@ -0,0 +1,281 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowRuleV2;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowStateMachineContext;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.WorkflowRuleV2Repository;
+import com.tracker.workflow.repository.WorkflowStateMachineContextRepository;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.WorkflowInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompiledProcessServiceTest {
+
+    private static final String WORKFLOW = "Purchase-order";
+
+    @Mock
+    private WorkflowDefinitionService definitionService;
+
+    @Mock
+    private CompiledWorkflowRegistry compiledWorkflows;
+
+    @Mock
+    private WorkflowStateMachineContextRepository contextRepository;
+
+    @Mock
+    private ProcessHistoryRepository historyRepository;
+
+    @Mock
+    private ProcessInstanceService processInstances;
+
+    @Mock
+    private ProcessReplayService replayService;
+
+    @Mock
+    private WorkflowRuleV2Repository ruleRepository;
+
+    private CompiledWorkflow workflow;
+    private WorkflowRegistry workflowVersions;
+    private CompiledProcessService service;
+
+    @BeforeEach
+    void setUp() {
+        workflow = compile(7L, "1.0");
+        lenient().when(compiledWorkflows.get(any())).thenAnswer(invocation -> {
+            WorkflowDefinition definition = invocation.getArgument(0);
+            return definition.getId().equals(7L) ? workflow : compile(definition.getId(), definition.getVersion());
+        });
+        workflowVersions = new WorkflowRegistry(definitionService, compiledWorkflows, mock(PlatformTransactionManager.class));
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        WorkflowRuleEngine ruleEngine =
+            new WorkflowRuleEngine(ruleRepository, new WorkflowExpressionEvaluator(new ObjectMapper(), properties));
+        service = new CompiledProcessService(workflowVersions, contextRepository, historyRepository,
+            processInstances, replayService, ruleEngine, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workflowVersions.shutdown();
+    }
+
+    @Test
+    void sendEvent_RecordsStringHistoryAndPersistsNewState() {
+        WorkflowInstance instance = start("p1");
+
+        String state = service.sendEvent(instance, "SUBMIT", Map.of("amount", 10));
+
+        assertEquals("APPROVAL", state);
+        ArgumentCaptor<ProcessHistory> history = ArgumentCaptor.forClass(ProcessHistory.class);
+        verify(historyRepository).save(history.capture());
+        assertEquals("DRAFT", history.getValue().getFromState());
+        assertEquals("APPROVAL", history.getValue().getToState());
+        assertEquals("SUBMIT", history.getValue().getEvent());
+
+        ArgumentCaptor<WorkflowStateMachineContext> context = ArgumentCaptor.forClass(WorkflowStateMachineContext.class);
+        verify(contextRepository, times(2)).save(context.capture());
+        assertEquals("APPROVAL", context.getValue().getCurrentState());
+        assertEquals(10, context.getValue().getExtendedState().get("amount"));
+        verify(processInstances).record(eq("p1"), eq("APPROVAL"), eq(true), any());
+    }
+
+    @Test
+    void sendEvent_UnknownEvent_ThrowsAndKeepsState() {
+        WorkflowInstance instance = start("p1");
+
+        assertThrows(WorkflowException.class, () -> service.sendEvent(instance, "APPROVE", null));
+        assertEquals("DRAFT", instance.getState());
+        verify(historyRepository, never()).save(any());
+    }
+
+    @Test
+    void sendEvent_ValidationRuleViolated_ThrowsAndKeepsState() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(7L, WorkflowRuleV2.RuleType.VALIDATION))
+            .thenReturn(List.of(validationRule(1L, "AMOUNT_POSITIVE", "{\"amount\": {\"$gt\": 0}}")));
+        WorkflowInstance instance = start("p1");
+
+        WorkflowException rejected =
+            assertThrows(WorkflowException.class, () -> service.sendEvent(instance, "SUBMIT", Map.of("amount", 0)));
+
+        assertTrue(rejected.getMessage().contains("AMOUNT_POSITIVE"));
+        assertEquals("DRAFT", instance.getState());
+        verify(historyRepository, never()).save(any());
+    }
+
+    @Test
+    void sendEvent_ValidationRulesSatisfied_AppliesEventAndReusesNetwork() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(7L, WorkflowRuleV2.RuleType.VALIDATION))
+            .thenReturn(List.of(validationRule(1L, "AMOUNT_POSITIVE", "{\"amount\": {\"$gt\": 0}}")));
+        WorkflowInstance instance = start("p1");
+
+        service.sendEvent(instance, "SUBMIT", Map.of("amount", 10));
+        service.sendEvent(instance, "APPROVE", null);
+
+        assertEquals("DONE", instance.getState());
+        verify(ruleRepository, times(1))
+            .findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(7L, WorkflowRuleV2.RuleType.VALIDATION);
+    }
+
+    @Test
+    void get_AfterRolledBackEvent_RestoresPersistedState() {
+        WorkflowInstance instance = start("p1");
+        when(historyRepository.save(any())).thenThrow(new IllegalStateException("history write failed"));
+        when(contextRepository.findById("p1")).thenReturn(Optional.of(context("p1", "DRAFT", WORKFLOW)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(IllegalStateException.class, () -> service.sendEvent(instance, "SUBMIT", Map.of("amount", 10)));
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        WorkflowInstance restored = service.get("p1");
+        assertNotSame(instance, restored);
+        assertEquals("DRAFT", restored.getState());
+        assertFalse(restored.getVariables().containsKey("amount"));
+    }
+
+    @Test
+    void start_AfterActivation_RunsNewVersionAndKeepsRunningProcessPinned() throws Exception {
+        WorkflowInstance running = start("p1");
+        when(definitionService.getWorkflowVersion(WORKFLOW, "2.0")).thenReturn(Optional.of(definition(8L, "2.0")));
+
+        workflowVersions.onActivationChanged(new WorkflowActivationChangedEvent(WORKFLOW, "2.0"));
+        for (int i = 0; i < 500 && !"2.0".equals(workflowVersions.getActiveVersion(WORKFLOW)); i++) {
+            Thread.sleep(10);
+        }
+
+        WorkflowInstance started = service.start(WORKFLOW, "p2", variables());
+        assertEquals("2.0", started.getWorkflow().getVersion());
+        assertEquals("2.0", started.getVariables().get(WorkflowRegistry.WORKFLOW_VERSION));
+        assertSame(workflow, running.getWorkflow());
+
+        service.sendEvent(running, "SUBMIT", null);
+        service.sendEvent(running, "APPROVE", null);
+
+        assertFalse(workflowVersions.isLoaded(WORKFLOW, "1.0"));
+        verify(compiledWorkflows).evict(7L);
+    }
+
+    @Test
+    void get_RestoresProcessOnPinnedVersion() {
+        when(contextRepository.findById("p1")).thenReturn(Optional.of(context("p1", "APPROVAL", WORKFLOW)));
+        when(definitionService.getWorkflowVersion(WORKFLOW, "1.0")).thenReturn(Optional.of(definition(7L, "1.0")));
+
+        WorkflowInstance restored = service.get("p1");
+
+        assertEquals("APPROVAL", restored.getState());
+        assertSame(restored, service.get("p1"));
+        verify(contextRepository, times(1)).findById("p1");
+    }
+
+    @Test
+    void get_DefaultWorkflowProcess_ReturnsNull() {
+        when(contextRepository.findById("p1"))
+            .thenReturn(Optional.of(context("p1", "REVIEW", WorkflowRegistry.DEFAULT_WORKFLOW)));
+
+        assertNull(service.get("p1"));
+        verifyNoInteractions(compiledWorkflows);
+    }
+
+    @Test
+    void sendEvent_CompletedProcess_RecordsInactiveInstanceAndEvictsIt() {
+        WorkflowInstance instance = start("p1");
+        service.sendEvent(instance, "SUBMIT", null);
+        service.sendEvent(instance, "APPROVE", null);
+        when(contextRepository.findById("p1")).thenReturn(Optional.of(context("p1", "DONE", WORKFLOW)));
+
+        verify(processInstances).record(eq("p1"), eq("DONE"), eq(false), any());
+        assertNotSame(instance, service.get("p1"));
+    }
+
+    private WorkflowInstance start(String processInstanceId) {
+        lenient().when(definitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(definition(7L, "1.0")));
+        return service.start(WORKFLOW, processInstanceId, variables());
+    }
+
+    private WorkflowRuleV2 validationRule(Long id, String name, String condition) {
+        WorkflowRuleV2 rule = new WorkflowRuleV2();
+        rule.setId(id);
+        rule.setRuleName(name);
+        rule.setRuleType(WorkflowRuleV2.RuleType.VALIDATION);
+        rule.setPriority(1);
+        rule.setConditionExpression(condition);
+        return rule;
+    }
+
+    private Map<String, Object> variables() {
+        return Map.of(WorkflowRegistry.WORKFLOW_NAME, WORKFLOW, WorkflowRegistry.WORKFLOW_VERSION, "1.0");
+    }
+
+    private WorkflowStateMachineContext context(String processInstanceId, String state, String workflowName) {
+        WorkflowStateMachineContext context = new WorkflowStateMachineContext();
+        context.setProcessInstanceId(processInstanceId);
+        context.setCurrentState(state);
+        context.setExtendedState(Map.of(WorkflowRegistry.WORKFLOW_NAME, workflowName,
+            WorkflowRegistry.WORKFLOW_VERSION, "1.0"));
+        return context;
+    }
+
+    private CompiledWorkflow compile(Long definitionId, String version) {
+        return CompiledWorkflow.compile(definition(definitionId, version), expression -> context -> true, config -> context -> { });
+    }
+
+    private WorkflowDefinition definition(Long definitionId, String version) {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(definitionId);
+        definition.setWorkflowName(WORKFLOW);
+        definition.setVersion(version);
+
+        WorkflowStateDefinition draft = state("DRAFT", WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition approval = state("APPROVAL", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition done = state("DONE", WorkflowStateDefinition.StateType.END);
+        definition.setStates(List.of(draft, approval, done));
+        definition.setTransitions(List.of(transition(draft, approval, "SUBMIT"), transition(approval, done, "APPROVE")));
+        return definition;
+    }
+
+    private WorkflowTransitionDefinition transition(WorkflowStateDefinition from, WorkflowStateDefinition to, String event) {
+        WorkflowTransitionDefinition transition = new WorkflowTransitionDefinition();
+        transition.setFromState(from);
+        transition.setToState(to);
+        transition.setEventName(event);
+        return transition;
+    }
+
+    private WorkflowStateDefinition state(String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
+}
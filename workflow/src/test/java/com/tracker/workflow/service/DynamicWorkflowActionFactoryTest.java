@@ -1,7 +1,15 @@
 package com.tracker.workflow.service;
 
+import com.tracker.workflow.dto.TaskAssignmentConfig;
+import com.tracker.workflow.model.CompletionStrategy;
+import com.tracker.workflow.model.WorkflowDefinition;
 import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.model.WorkflowStateDefinition;
 import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import com.tracker.workflow.runtime.WorkflowInstance;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +20,7 @@ import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.action.Action;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +32,9 @@ class DynamicWorkflowActionFactoryTest {
     @Mock
     private WorkflowTaskService taskService;
 
+    @Mock
+    private WorkflowTaskAssignmentService assignmentService;
+
     @Mock
     private StateContext<String, String> stateContext;
 
@@ -177,4 +189,52 @@ class DynamicWorkflowActionFactoryTest {
         
         assertDoesNotThrow(() -> action.execute(stateContext));
     }
+
+    @Test
+    void executeCreateTaskGroupAction_NamedWorkflowState_CreatesTasksInThatState() {
+        actionConfig.put("type", "CREATE_TASK_GROUP");
+        CompiledWorkflow workflow = CompiledWorkflow.compile(contractReview(), expression -> null, actionFactory::createAction);
+        when(assignmentService.getAssignmentForState("Contract-review", "c1", "LEGAL_REVIEW"))
+            .thenReturn(new TaskAssignmentConfig("Legal review", List.of("U1", "U2"), "ANY_ONE",
+                "Review the contract", WorkflowTaskAssignment.AssignmentType.USER, "U1,U2"));
+
+        WorkflowInstance instance = workflow.newInstance("c1",
+            Map.of("processInstanceId", "c1", WorkflowRegistry.WORKFLOW_NAME, "Contract-review"));
+        workflow.fire(instance, "SUBMIT");
+
+        assertEquals("LEGAL_REVIEW", instance.getState());
+        verify(taskService).createTaskGroup("c1", "Legal review", List.of("U1", "U2"), CompletionStrategy.ANY_ONE,
+            "LEGAL_REVIEW", "Review the contract");
+    }
+
+    private WorkflowDefinition contractReview() {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(3L);
+        definition.setWorkflowName("Contract-review");
+        definition.setVersion("1.0");
+
+        WorkflowStateDefinition draft = state("DRAFT", WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition legalReview = state("LEGAL_REVIEW", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition signed = state("SIGNED", WorkflowStateDefinition.StateType.END);
+        definition.setStates(List.of(draft, legalReview, signed));
+
+        WorkflowTransitionDefinition submit = new WorkflowTransitionDefinition();
+        submit.setFromState(draft);
+        submit.setToState(legalReview);
+        submit.setEventName("SUBMIT");
+        submit.setActionConfig(actionConfig);
+        WorkflowTransitionDefinition sign = new WorkflowTransitionDefinition();
+        sign.setFromState(legalReview);
+        sign.setToState(signed);
+        sign.setEventName("SIGN");
+        definition.setTransitions(List.of(submit, sign));
+        return definition;
+    }
+
+    private WorkflowStateDefinition state(String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
 }
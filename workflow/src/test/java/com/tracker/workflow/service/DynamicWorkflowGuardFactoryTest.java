@@ -3,11 +3,13 @@ package com.tracker.workflow.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.state.ObjectState;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -155,4 +157,32 @@ class DynamicWorkflowGuardFactoryTest {
         assertTrue(result);
         verify(expressionEvaluator).evaluate(eq(expression), eq(processData), any(Map.class));
     }
+
+    @Test
+    void evaluateGuard_ContextData_ReadsTransitionFromStateContext() {
+        String expression = "{\"event\": \"SUBMIT\"}";
+
+        Map<String, Object> variables = new HashMap<>();
+        Map<String, Object> processData = new HashMap<>();
+        processData.put("amount", 1500.0);
+        variables.put("processData", processData);
+
+        when(stateContext.getExtendedState()).thenReturn(mock(org.springframework.statemachine.ExtendedState.class));
+        when(stateContext.getExtendedState().getVariables()).thenReturn((Map<Object, Object>) (Map<?, ?>) variables);
+        when(stateContext.getSource()).thenReturn(new ObjectState<>("DRAFT"));
+        when(stateContext.getEvent()).thenReturn("SUBMIT");
+        ArgumentCaptor<Map<String, Object>> contextData = ArgumentCaptor.forClass(Map.class);
+        when(expressionEvaluator.evaluate(eq(expression), eq(processData), contextData.capture()))
+                .thenReturn(true);
+
+        assertTrue(guardFactory.createGuard(expression).evaluate(stateContext));
+
+        Map<String, Object> captured = contextData.getValue();
+        assertEquals("DRAFT", captured.get("currentState"));
+        assertEquals("SUBMIT", captured.get("event"));
+        assertNull(captured.get("targetState"));
+        assertTrue(captured.containsKey("targetState"));
+        assertFalse(captured.containsKey("amount"));
+        assertThrows(UnsupportedOperationException.class, () -> captured.put("event", "OTHER"));
+    }
 }
@@ -0,0 +1,67 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.EventSubmissionDTO;
+import com.tracker.workflow.dto.WorkflowStatusDTO;
+import com.tracker.workflow.exception.WorkflowException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSubmissionTrackerTest {
+
+    private WorkflowEngineProperties properties;
+    private EventSubmissionTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WorkflowEngineProperties();
+        tracker = new EventSubmissionTracker(properties);
+    }
+
+    @Test
+    void find_ReportsPendingUntilTheEventIsApplied() {
+        CompletableFuture<WorkflowStatusDTO> result = new CompletableFuture<>();
+        String submissionId = tracker.track("p1", result);
+
+        EventSubmissionDTO pending = tracker.find(submissionId).orElseThrow();
+        assertEquals(EventSubmissionTracker.PENDING, pending.getStatus());
+        assertNull(pending.getCompletedAt());
+
+        result.complete(WorkflowStatusDTO.builder().processInstanceId("p1").currentState("PENDING_PLANNING_FINANCE_APPROVAL").build());
+
+        EventSubmissionDTO completed = tracker.find(submissionId).orElseThrow();
+        assertEquals(EventSubmissionTracker.COMPLETED, completed.getStatus());
+        assertEquals("PENDING_PLANNING_FINANCE_APPROVAL", completed.getCurrentState());
+        assertNotNull(completed.getCompletedAt());
+    }
+
+    @Test
+    void find_ReportsFailureOfTheEvent() {
+        String submissionId = tracker.track("p1",
+            CompletableFuture.failedFuture(new WorkflowException("Event not accepted")));
+
+        EventSubmissionDTO failed = tracker.find(submissionId).orElseThrow();
+
+        assertEquals(EventSubmissionTracker.FAILED, failed.getStatus());
+        assertEquals("Event not accepted", failed.getError());
+    }
+
+    @Test
+    void find_ReturnsEmptyForUnknownSubmission() {
+        assertTrue(tracker.find("unknown").isEmpty());
+    }
+
+    @Test
+    void purgeExpired_KeepsPendingAndRecentSubmissions() {
+        tracker.track("p1", new CompletableFuture<>());
+        tracker.track("p2", CompletableFuture.completedFuture(null));
+
+        tracker.purgeExpired();
+
+        assertEquals(2, tracker.size());
+    }
+}
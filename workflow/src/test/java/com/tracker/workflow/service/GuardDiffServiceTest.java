@@ -0,0 +1,108 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.GuardDiffEntry;
+import com.tracker.workflow.dto.GuardDiffRequest;
+import com.tracker.workflow.dto.GuardDiffSummary;
+import com.tracker.workflow.dto.InFlightProcessData;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GuardDiffServiceTest {
+
+    @Mock
+    private ProcessInstanceRepository processInstanceRepository;
+
+    private GuardDiffService guardDiffService;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getGuardDiff().setPageSize(2);
+        properties.getGuardDiff().setParallelism(2);
+        ObjectMapper objectMapper = new ObjectMapper();
+        guardDiffService = new GuardDiffService(processInstanceRepository,
+            new WorkflowExpressionEvaluator(objectMapper, properties), objectMapper, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        guardDiffService.shutdown();
+    }
+
+    private InFlightProcessData process(String processInstanceId, String processData) {
+        return new InFlightProcessData() {
+            @Override
+            public String getProcessInstanceId() {
+                return processInstanceId;
+            }
+
+            @Override
+            public String getCurrentState() {
+                return "PENDING_APPROVAL";
+            }
+
+            @Override
+            public String getProcessData() {
+                return processData;
+            }
+        };
+    }
+
+    private GuardDiffRequest request(String oldExpression, String newExpression) {
+        GuardDiffRequest request = new GuardDiffRequest();
+        request.setOldExpression(oldExpression);
+        request.setNewExpression(newExpression);
+        request.setSourceState("PENDING_APPROVAL");
+        return request;
+    }
+
+    @Test
+    void diff_ReportsProcessesWhoseOutcomeChangesAcrossPages() {
+        when(processInstanceRepository.findInFlightProcessDataPage("", "PENDING_APPROVAL", 2)).thenReturn(List.of(
+            process("p1", "{\"amount\": 800}"),
+            process("p2", "{\"amount\": 5000}")));
+        when(processInstanceRepository.findInFlightProcessDataPage("p2", "PENDING_APPROVAL", 2)).thenReturn(List.of(
+            process("p3", "{\"amount\": 200}")));
+
+        List<GuardDiffEntry> entries = new ArrayList<>();
+        GuardDiffSummary summary = guardDiffService.diff(
+            request("{\"amount\": {\"$gte\": 1000}}", "{\"amount\": {\"$gte\": 500}}"), entries::add);
+
+        assertEquals(List.of("p1"), entries.stream().map(GuardDiffEntry::getProcessInstanceId).toList());
+        assertFalse(entries.get(0).isOldResult());
+        assertTrue(entries.get(0).isNewResult());
+        assertEquals(3, summary.getEvaluated());
+        assertEquals(1, summary.getChanged());
+        assertEquals(1, summary.getNowPassing());
+        assertEquals(0, summary.getNowFailing());
+        verify(processInstanceRepository, never()).findInFlightProcessDataPage("p3", "PENDING_APPROVAL", 2);
+    }
+
+    @Test
+    void diff_TreatsBlankGuardAsPassingAndMissingDataAsFailing() {
+        when(processInstanceRepository.findInFlightProcessDataPage("", "PENDING_APPROVAL", 2)).thenReturn(List.of(
+            process("p1", null),
+            process("p2", "not json")));
+
+        List<GuardDiffEntry> entries = new ArrayList<>();
+        GuardDiffSummary summary = guardDiffService.diff(request("", "{\"amount\": {\"$gte\": 500}}"), entries::add);
+
+        assertEquals(List.of("p1"), entries.stream().map(GuardDiffEntry::getProcessInstanceId).toList());
+        assertEquals(1, summary.getNowFailing());
+        assertEquals(1, summary.getSkipped());
+    }
+}
@@ -0,0 +1,171 @@
+package com.tracker.workflow.service;
+
+import com.tracker.email.service.EmailService;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.RecipientSendHistory;
+import com.tracker.workflow.model.NotificationOutboxEntry;
+import com.tracker.workflow.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getOutbox().setBatchSize(2);
+        properties.getOutbox().setMaxAttempts(3);
+        properties.getOutbox().setInitialBackoffMillis(1000);
+        properties.getOutbox().setMaxBackoffMillis(5000);
+        properties.getOutbox().setUserRateLimit(2);
+        properties.getOutbox().setUserRateWindowMillis(3_600_000);
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, emailService, transactionManager, properties);
+    }
+
+    @Test
+    void dispatch_DeliversBatchesUntilNoneAreDue() {
+        NotificationOutboxEntry first = entry("task-1-assigned", "U1", 0);
+        NotificationOutboxEntry second = entry("task-2-assigned", "U2", 0);
+        NotificationOutboxEntry third = entry("task-3-assigned", "U3", 0);
+        when(outboxRepository.lockDueRecipients(any(), eq(2))).thenReturn(List.of(first, second), List.of(third));
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository, times(2)).lockDueRecipients(any(), eq(2));
+        verify(emailService).sendEmail("U1", "New task assigned: Review", "New task assigned: Review");
+        verify(emailService).sendEmail("U2", "New task assigned: Review", "New task assigned: Review");
+        verify(emailService).sendEmail("U3", "New task assigned: Review", "New task assigned: Review");
+        for (NotificationOutboxEntry entry : List.of(first, second, third)) {
+            assertEquals(NotificationOutboxEntry.Status.SENT, entry.getStatus());
+            assertEquals(1, entry.getAttempts());
+            assertNotNull(entry.getSentAt());
+        }
+    }
+
+    @Test
+    void dispatchBatch_SeveralNotificationsForOneRecipient_SendsOneDigest() {
+        NotificationOutboxEntry first = entry("task-1-assigned", "U1", 0);
+        NotificationOutboxEntry second = entry("task-2-assigned", "U1", 0);
+        second.setBody("New task assigned: Approve");
+        when(outboxRepository.lockDueRecipients(any(), anyInt())).thenReturn(List.of(first, second));
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        verify(emailService).sendEmail("U1", "2 new notifications",
+            "- New task assigned: Review\n- New task assigned: Approve");
+        assertEquals(NotificationOutboxEntry.Status.SENT, first.getStatus());
+        assertEquals(NotificationOutboxEntry.Status.SENT, second.getStatus());
+        assertEquals(first.getSentAt(), second.getSentAt());
+    }
+
+    @Test
+    void dispatchBatch_RecipientAtRateLimit_HoldsNotificationsUntilOldestSendExpires() {
+        NotificationOutboxEntry limited = entry("task-1-assigned", "U1", 0);
+        NotificationOutboxEntry other = entry("task-2-assigned", "U2", 0);
+        LocalDateTime firstSentAt = LocalDateTime.now().minusMinutes(50);
+        when(outboxRepository.lockDueRecipients(any(), anyInt())).thenReturn(List.of(limited, other));
+        when(outboxRepository.findSendHistory(any(), any())).thenReturn(List.of(sendHistory("U1", 2, firstSentAt)));
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        verify(emailService, never()).sendEmail(eq("U1"), any(), any());
+        verify(emailService).sendEmail(eq("U2"), any(), any());
+        assertEquals(NotificationOutboxEntry.Status.PENDING, limited.getStatus());
+        assertEquals(0, limited.getAttempts());
+        assertEquals(firstSentAt.plusHours(1), limited.getNextAttemptAt());
+    }
+
+    @Test
+    void dispatchBatch_DeliveryFails_SchedulesRetryWithBackoff() {
+        NotificationOutboxEntry entry = entry("task-1-assigned", "U1", 1);
+        when(outboxRepository.lockDueRecipients(any(), anyInt())).thenReturn(List.of(entry));
+        doThrow(new IllegalStateException("SMTP unavailable")).when(emailService).sendEmail(any(), any(), any());
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertEquals(NotificationOutboxEntry.Status.PENDING, entry.getStatus());
+        assertEquals(2, entry.getAttempts());
+        assertTrue(entry.getLastError().contains("SMTP unavailable"));
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+    }
+
+    @Test
+    void dispatchBatch_LastAttemptFails_MarksFailed() {
+        NotificationOutboxEntry entry = entry("task-1-assigned", "U1", 2);
+        when(outboxRepository.lockDueRecipients(any(), anyInt())).thenReturn(List.of(entry));
+        doThrow(new IllegalStateException("SMTP unavailable")).when(emailService).sendEmail(any(), any(), any());
+
+        dispatcher.dispatchBatch();
+
+        assertEquals(NotificationOutboxEntry.Status.FAILED, entry.getStatus());
+        assertEquals(3, entry.getAttempts());
+    }
+
+    @Test
+    void backoff_DoublesPerAttemptUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoff(3));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(4));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(60));
+    }
+
+    private RecipientSendHistory sendHistory(String recipient, long sends, LocalDateTime firstSentAt) {
+        return new RecipientSendHistory() {
+            @Override
+            public String getRecipient() {
+                return recipient;
+            }
+
+            @Override
+            public long getSends() {
+                return sends;
+            }
+
+            @Override
+            public LocalDateTime getFirstSentAt() {
+                return firstSentAt;
+            }
+        };
+    }
+
+    private NotificationOutboxEntry entry(String idempotencyKey, String recipient, int attempts) {
+        NotificationOutboxEntry entry = new NotificationOutboxEntry();
+        entry.setIdempotencyKey(idempotencyKey);
+        entry.setRecipient(recipient);
+        entry.setSubject("New task assigned: Review");
+        entry.setBody("New task assigned: Review");
+        entry.setStatus(NotificationOutboxEntry.Status.PENDING);
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(LocalDateTime.now());
+        entry.setCreatedAt(LocalDateTime.now());
+        return entry;
+    }
+}
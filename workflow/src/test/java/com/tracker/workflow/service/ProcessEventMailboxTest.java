@@ -0,0 +1,168 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.exception.WorkflowBusyException;
+import com.tracker.workflow.exception.WorkflowException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessEventMailboxTest {
+
+    private ProcessEventMailbox mailbox;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getMailbox().setStripes(4);
+        mailbox = new ProcessEventMailbox(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailbox.shutdown();
+    }
+
+    @Test
+    void submit_AppliesEventsOfOneProcessInOrder() {
+        List<Integer> applied = new ArrayList<>();
+
+        List<CompletableFuture<Boolean>> futures = IntStream.range(0, 1000)
+            .mapToObj(i -> mailbox.submit("p1", () -> applied.add(i)))
+            .toList();
+        futures.forEach(CompletableFuture::join);
+
+        assertEquals(IntStream.range(0, 1000).boxed().toList(), applied);
+    }
+
+    @Test
+    void execute_SerializesConcurrentCallersOfOneProcess() throws Exception {
+        int[] counter = new int[1];
+        List<Thread> threads = IntStream.range(0, 8)
+            .mapToObj(t -> new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    mailbox.execute("p1", () -> counter[0]++);
+                }
+            }))
+            .toList();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, counter[0]);
+    }
+
+    @Test
+    void submit_RunsDifferentStripesInParallel() throws Exception {
+        String first = "p1";
+        String second = IntStream.range(2, 100).mapToObj(i -> "p" + i)
+            .filter(id -> mailbox.stripeOf(id) != mailbox.stripeOf(first))
+            .findFirst().orElseThrow();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> a = mailbox.submit(first, () -> await(bothRunning));
+        CompletableFuture<Boolean> b = mailbox.submit(second, () -> await(bothRunning));
+
+        assertTrue(a.get(5, TimeUnit.SECONDS));
+        assertTrue(b.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_RunsNestedWorkForSameProcessInline() {
+        String result = mailbox.execute("p1", () -> mailbox.execute("p1", () -> "nested"));
+
+        assertEquals("nested", result);
+    }
+
+    @Test
+    void execute_RethrowsRuntimeExceptions() {
+        WorkflowException thrown = assertThrows(WorkflowException.class,
+            () -> mailbox.execute("p1", () -> {
+                throw new WorkflowException("Event not accepted");
+            }));
+
+        assertEquals("Event not accepted", thrown.getMessage());
+    }
+
+    @Test
+    void submit_RejectsWhenStripeQueueIsFull() throws Exception {
+        mailbox.shutdown();
+        mailbox = boundedMailbox(WorkflowEngineProperties.Mailbox.Overflow.REJECT, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> busy = mailbox.submit("p1", () -> {
+            running.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = mailbox.submit("p1", () -> "queued");
+
+        assertThrows(WorkflowBusyException.class, () -> mailbox.submit("p1", () -> "rejected"));
+
+        release.countDown();
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_BlocksUntilStripeQueueHasRoom() throws Exception {
+        mailbox.shutdown();
+        mailbox = boundedMailbox(WorkflowEngineProperties.Mailbox.Overflow.BLOCK, 5000);
+        CountDownLatch running = new CountDownLatch(1);
+
+        mailbox.submit("p1", () -> {
+            running.countDown();
+            sleep(200);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        mailbox.submit("p1", () -> "queued");
+
+        CompletableFuture<String> waited = mailbox.submit("p1", () -> "waited");
+
+        assertEquals("waited", waited.get(5, TimeUnit.SECONDS));
+    }
+
+    private static ProcessEventMailbox boundedMailbox(WorkflowEngineProperties.Mailbox.Overflow overflow, long timeoutMillis) {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getMailbox().setStripes(1);
+        properties.getMailbox().setQueueCapacity(1);
+        properties.getMailbox().setOverflow(overflow);
+        properties.getMailbox().setOfferTimeoutMillis(timeoutMillis);
+        return new ProcessEventMailbox(properties);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.dto.WorkflowStatusDTO;
+import com.tracker.workflow.model.ProcessInstance;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProcessInstanceServiceTest {
+
+    @Mock
+    private ProcessInstanceRepository processInstanceRepository;
+
+    @Mock
+    private ProcessReplayService replayService;
+
+    private final Map<String, ProcessInstance> rows = new HashMap<>();
+
+    private ProcessInstanceService service;
+
+    @BeforeEach
+    void setUp() {
+        when(processInstanceRepository.save(any(ProcessInstance.class))).thenAnswer(invocation -> {
+            ProcessInstance instance = invocation.getArgument(0);
+            rows.put(instance.getProcessInstanceId(), instance);
+            return instance;
+        });
+        when(processInstanceRepository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        service = new ProcessInstanceService(processInstanceRepository, replayService);
+    }
+
+    @Test
+    void record_FirstTransition_CreatesRowFromVariables() {
+        service.record("p1", "PENDING_PLANNING_BUSINESS_REVIEW", true, variables());
+
+        ProcessInstance instance = rows.get("p1");
+        assertEquals(WorkflowRegistry.DEFAULT_WORKFLOW, instance.getWorkflowName());
+        assertEquals("1.0", instance.getWorkflowVersion());
+        assertEquals("user1", instance.getInitiatorUserId());
+        assertEquals(Map.of("amount", 1500), instance.getProcessData());
+        assertNotNull(instance.getStartedAt());
+    }
+
+    @Test
+    void record_LaterTransition_KeepsStartAndReworkCount() {
+        service.record("p1", "PENDING_PLANNING_BUSINESS_REVIEW", true, variables());
+        LocalDateTime startedAt = rows.get("p1").getStartedAt();
+        assertEquals(1, service.incrementReworkCount("p1").getAsInt());
+
+        service.record("p1", "COMPLETED", false, variables());
+
+        WorkflowStatusDTO status = service.getStatus("p1").orElseThrow();
+        assertEquals("COMPLETED", status.getCurrentState());
+        assertFalse(status.isActive());
+        assertEquals(1, status.getReworkCount());
+        assertSame(startedAt, rows.get("p1").getStartedAt());
+        verify(replayService).snapshotIfDue("p1", 0, "PENDING_PLANNING_BUSINESS_REVIEW", variables());
+        verify(replayService).snapshotIfDue("p1", 1, "COMPLETED", variables());
+    }
+
+    @Test
+    void incrementReworkCount_UnknownProcess_ReturnsEmpty() {
+        assertTrue(service.incrementReworkCount("missing").isEmpty());
+        verify(processInstanceRepository, never()).save(any());
+    }
+
+    @Test
+    void getStatuses_ReadsAllProcessesInOneQuery() {
+        service.record("p1", "PENDING_PLANNING_BUSINESS_REVIEW", true, variables());
+        service.record("p2", "COMPLETED", false, variables());
+        when(processInstanceRepository.findAllById(List.of("p1", "p2"))).thenReturn(List.copyOf(rows.values()));
+
+        Map<String, WorkflowStatusDTO> statuses = service.getStatuses(List.of("p1", "p2"));
+
+        assertEquals(2, statuses.size());
+        assertTrue(statuses.get("p1").isActive());
+        verify(processInstanceRepository, times(1)).findAllById(any());
+    }
+
+    private Map<String, Object> variables() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("initiatorUserId", "user1");
+        variables.put("processData", Map.of("amount", 1500));
+        variables.put(WorkflowRegistry.WORKFLOW_NAME, WorkflowRegistry.DEFAULT_WORKFLOW);
+        variables.put(WorkflowRegistry.WORKFLOW_VERSION, "1.0");
+        return variables;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.ProcessSnapshot;
+import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessSnapshotRepository;
+import com.tracker.workflow.runtime.ProcessReplay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessReplayServiceTest {
+
+    @Mock
+    private ProcessHistoryRepository historyRepository;
+
+    @Mock
+    private ProcessSnapshotRepository snapshotRepository;
+
+    private ProcessReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getReplay().setSnapshotInterval(10);
+        service = new ProcessReplayService(historyRepository, snapshotRepository, properties);
+    }
+
+    @Test
+    void snapshotIfDue_SnapshotsAtStartAndEveryInterval() {
+        when(snapshotRepository.findById("p1")).thenReturn(Optional.empty());
+        when(historyRepository.findMaxIdByProcessInstanceId("p1")).thenReturn(Optional.empty(), Optional.of(42L));
+
+        service.snapshotIfDue("p1", 0, "REVIEW", Map.of("amount", 1500));
+        service.snapshotIfDue("p1", 7, "FINANCE", Map.of("amount", 1500));
+        service.snapshotIfDue("p1", 10, "OWNER", Map.of("amount", 1500));
+
+        ArgumentCaptor<ProcessSnapshot> snapshots = ArgumentCaptor.forClass(ProcessSnapshot.class);
+        verify(snapshotRepository, times(2)).save(snapshots.capture());
+        assertEquals(0L, snapshots.getAllValues().get(0).getLastHistoryId());
+        ProcessSnapshot latest = snapshots.getAllValues().get(1);
+        assertEquals("OWNER", latest.getCurrentState());
+        assertEquals(42L, latest.getLastHistoryId());
+        assertEquals(10, latest.getEventCount());
+        assertEquals(Map.of("amount", 1500), latest.getExtendedState());
+    }
+
+    @Test
+    void rebuild_ReplaysTransitionsAfterSnapshot() {
+        when(snapshotRepository.findById("p1")).thenReturn(Optional.of(snapshot("REVIEW", 5)));
+        when(historyRepository.findByProcessInstanceIdAndIdGreaterThanOrderById("p1", 5L)).thenReturn(List.of(
+            row(6L, null, "REVIEW", "PLANNING_BUSINESS_SUBMIT", Map.of("approved", true)),
+            row(7L, "REVIEW", "FINANCE", "PLANNING_BUSINESS_SUBMIT", Map.of("approved", true)),
+            row(8L, "FINANCE", "FINANCE", WorkflowEvents.TASK_DELEGATED.name(), Map.of("reason", "leave")),
+            row(9L, "FINANCE", "OWNER", "PLANNING_FINANCE_APPROVE", null)));
+
+        ProcessReplay replay = service.rebuild("p1").orElseThrow();
+
+        assertEquals("OWNER", replay.getState());
+        assertEquals(Map.of("amount", 1500, "approved", true), replay.getVariables());
+        assertEquals(9L, replay.getLastHistoryId());
+        assertEquals(4, replay.getEventCount());
+    }
+
+    @Test
+    void rebuild_WithoutSnapshot_ReturnsEmpty() {
+        when(snapshotRepository.findById("p1")).thenReturn(Optional.empty());
+
+        assertTrue(service.rebuild("p1").isEmpty());
+        verify(historyRepository, never()).findByProcessInstanceIdAndIdGreaterThanOrderById(any(), any());
+    }
+
+    private ProcessSnapshot snapshot(String state, long lastHistoryId) {
+        ProcessSnapshot snapshot = new ProcessSnapshot();
+        snapshot.setProcessInstanceId("p1");
+        snapshot.setCurrentState(state);
+        snapshot.setExtendedState(Map.of("amount", 1500));
+        snapshot.setLastHistoryId(lastHistoryId);
+        snapshot.setEventCount(2);
+        return snapshot;
+    }
+
+    private ProcessHistory row(Long id, String fromState, String toState, String event, Map<String, Object> contextData) {
+        ProcessHistory history = new ProcessHistory();
+        history.setId(id);
+        history.setProcessInstanceId("p1");
+        history.setFromState(fromState);
+        history.setToState(toState);
+        history.setEvent(event);
+        history.setContextData(contextData);
+        return history;
+    }
+}
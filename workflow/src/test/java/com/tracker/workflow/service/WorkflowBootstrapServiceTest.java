@@ -22,6 +22,9 @@ class WorkflowBootstrapServiceTest {
     @Mock
     private WorkflowMigrationService migrationService;
 
+    @Mock
+    private WorkflowRegistry workflowRegistry;
+
     @Mock
     private ApplicationArguments applicationArguments;
 
@@ -40,6 +43,7 @@ class WorkflowBootstrapServiceTest {
         bootstrapService.run(applicationArguments);
 
         verify(migrationService).migrateHardcodedWorkflowToDatabase();
+        verify(workflowRegistry).refresh();
     }
 
     @Test
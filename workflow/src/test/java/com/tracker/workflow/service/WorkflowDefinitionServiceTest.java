@@ -1,5 +1,6 @@
 package com.tracker.workflow.service;
 
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
 import com.tracker.workflow.model.WorkflowDefinition;
 import com.tracker.workflow.repository.WorkflowDefinitionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -25,6 +27,9 @@ class WorkflowDefinitionServiceTest {
     @Mock
     private WorkflowDefinitionRepository workflowDefinitionRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WorkflowDefinitionService workflowDefinitionService;
 
@@ -156,6 +161,7 @@ class WorkflowDefinitionServiceTest {
         verify(workflowDefinitionRepository).save(inactiveVersion);
         assertFalse(testWorkflow.getIsActive());
         assertTrue(inactiveVersion.getIsActive());
+        verify(eventPublisher).publishEvent(new WorkflowActivationChangedEvent("test-workflow", "2.0"));
     }
 
     @Test
@@ -176,6 +182,7 @@ class WorkflowDefinitionServiceTest {
 
         assertFalse(testWorkflow.getIsActive());
         verify(workflowDefinitionRepository).save(testWorkflow);
+        verify(eventPublisher).publishEvent(new WorkflowActivationChangedEvent("test-workflow", null));
     }
 
     @Test
@@ -1,26 +1,22 @@
 package com.tracker.workflow.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.expression.ExpressionStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class WorkflowExpressionEvaluatorTest {
 
-    @Mock
-    private ObjectMapper objectMapper;
-
-    @InjectMocks
     private WorkflowExpressionEvaluator evaluator;
 
     private Map<String, Object> processData;
@@ -28,7 +24,7 @@ class WorkflowExpressionEvaluatorTest {
 
     @BeforeEach
     void setUp() {
-        evaluator = new WorkflowExpressionEvaluator(new ObjectMapper());
+        evaluator = new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
         
         processData = new HashMap<>();
         processData.put("amount", 1000.0);
@@ -221,4 +217,88 @@ class WorkflowExpressionEvaluatorTest {
         boolean result = evaluator.evaluate(expression, processData, context);
         assertFalse(result);
     }
+
+    @Test
+    void evaluate_RepeatedExpression_ParsesOnceAndHitsCache() {
+        String expression = "{\"amount\": {\"$gte\": 500}}";
+
+        assertTrue(evaluator.evaluate(expression, processData, context));
+        assertTrue(evaluator.evaluate(expression, processData, context));
+        assertTrue(evaluator.evaluate(expression, processData, context));
+
+        assertEquals(1, evaluator.getCacheStats().getMisses());
+        assertEquals(2, evaluator.getCacheStats().getHits());
+    }
+
+    @Test
+    void compile_SameExpression_ReturnsSameInstance() {
+        String expression = "{\"department\": {\"$in\": [\"engineering\", \"finance\"]}}";
+
+        assertSame(evaluator.compile(expression), evaluator.compile(expression));
+    }
+
+    @Test
+    void evaluate_FieldPresentWithNullValue_ShadowsContext() {
+        processData.put("role", null);
+        String expression = "{\"role\": {\"$eq\": \"manager\"}}";
+        boolean result = evaluator.evaluate(expression, processData, context);
+        assertFalse(result);
+    }
+
+    @Test
+    void getExpressionStatistics_ListsOnlyExpressionsWithJunctions() {
+        evaluator.evaluate("{\"amount\": {\"$gte\": 500}}", processData, context);
+        evaluator.evaluate("{\"$or\": [{\"amount\": {\"$gte\": 500}}, {\"urgent\": true}]}", processData, context);
+
+        List<ExpressionStatistics> statistics = evaluator.getExpressionStatistics();
+
+        assertEquals(1, statistics.size());
+        assertEquals(2, statistics.get(0).getClauses().size());
+        assertEquals("$.$or", statistics.get(0).getClauses().get(0).getJunction());
+    }
+
+    @Test
+    void evaluate_DottedPath_ReadsNestedMaps() {
+        processData.put("budget", Map.of("capex", Map.of("amount", 25000)));
+
+        assertTrue(evaluator.evaluate("{\"budget.capex.amount\": {\"$gte\": 10000}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"budget.opex.amount\": {\"$gte\": 10000}}", processData, context));
+    }
+
+    @Test
+    void evaluate_DottedPath_PrefersLiteralKey() {
+        processData.put("budget.capex", 5);
+        processData.put("budget", Map.of("capex", 50));
+
+        assertTrue(evaluator.evaluate("{\"budget.capex\": 5}", processData, context));
+    }
+
+    @Test
+    void evaluate_ExistsOperator_DistinguishesMissingFromNull() {
+        processData.put("approvedBy", null);
+
+        assertTrue(evaluator.evaluate("{\"approvedBy\": {\"$exists\": true}}", processData, context));
+        assertTrue(evaluator.evaluate("{\"rejectedBy\": {\"$exists\": false}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"rejectedBy\": {\"$exists\": true}}", processData, context));
+    }
+
+    @Test
+    void evaluate_BetweenOperator_IsInclusive() {
+        assertTrue(evaluator.evaluate("{\"amount\": {\"$between\": [1000, 2000]}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"amount\": {\"$between\": [1001, 2000]}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"amount\": {\"$between\": [1000]}}", processData, context));
+    }
+
+    @Test
+    void evaluate_RegexOperator_WithOptions() {
+        assertTrue(evaluator.evaluate("{\"department\": {\"$regex\": \"^eng\"}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"department\": {\"$regex\": \"^ENG\"}}", processData, context));
+        assertTrue(evaluator.evaluate("{\"department\": {\"$regex\": \"^ENG\", \"$options\": \"i\"}}", processData, context));
+    }
+
+    @Test
+    void evaluate_InvalidRegex_ReturnsFalse() {
+        assertFalse(evaluator.evaluate("{\"department\": {\"$regex\": \"[unclosed\"}}", processData, context));
+        assertFalse(evaluator.evaluate("{\"department\": {\"$regex\": \"eng\", \"$options\": \"q\"}}", processData, context));
+    }
 }
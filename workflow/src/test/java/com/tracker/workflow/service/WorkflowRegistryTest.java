@@ -0,0 +1,202 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.runtime.CompiledWorkflow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowRegistryTest {
+
+    private static final String WORKFLOW = "Purchase-order";
+
+    @Mock
+    private WorkflowDefinitionService definitionService;
+
+    @Mock
+    private CompiledWorkflowRegistry compiledWorkflows;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WorkflowRegistry registry;
+    private long nextDefinitionId = 1;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(compiledWorkflows.get(any())).thenAnswer(invocation -> compile(invocation.getArgument(0)));
+        registry = new WorkflowRegistry(definitionService, compiledWorkflows, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void pinActive_BuildsActiveVersionOnce() {
+        when(definitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(definition("1.0", "REVIEW")));
+
+        WorkflowRegistry.VersionedWorkflow first = registry.pinActive(WORKFLOW, "p1");
+        WorkflowRegistry.VersionedWorkflow second = registry.pinActive(WORKFLOW, "p2");
+
+        assertSame(first, second);
+        assertEquals("1.0", first.getVersion());
+        assertEquals(2, first.getInstances());
+        verify(compiledWorkflows, times(1)).get(any());
+        assertEquals("REVIEW", start(first, "p1"));
+    }
+
+    @Test
+    void onActivationChanged_SwapsNewVersionInAndKeepsInFlightProcessesPinned() throws Exception {
+        WorkflowDefinition first = definition("1.0", "REVIEW");
+        when(definitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(first));
+        when(definitionService.getWorkflowVersion(WORKFLOW, "2.0")).thenReturn(Optional.of(definition("2.0", "TRIAGE")));
+        WorkflowRegistry.VersionedWorkflow pinned = registry.pinActive(WORKFLOW, "p1");
+
+        registry.onActivationChanged(new WorkflowActivationChangedEvent(WORKFLOW, "2.0"));
+        awaitActiveVersion(WORKFLOW, "2.0");
+
+        WorkflowRegistry.VersionedWorkflow current = registry.pinActive(WORKFLOW, "p2");
+        assertEquals("TRIAGE", start(current, "p2"));
+        assertEquals("REVIEW", start(pinned, "p1"));
+        assertTrue(registry.isLoaded(WORKFLOW, "1.0"));
+
+        registry.release("p1");
+
+        assertFalse(registry.isLoaded(WORKFLOW, "1.0"));
+        assertTrue(registry.isLoaded(WORKFLOW, "2.0"));
+        verify(compiledWorkflows).evict(first.getId());
+    }
+
+    @Test
+    void release_KeepsActiveVersionWithoutProcesses() {
+        when(definitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(definition("1.0", "REVIEW")));
+        registry.pinActive(WORKFLOW, "p1");
+
+        registry.release("p1");
+
+        assertTrue(registry.isLoaded(WORKFLOW, "1.0"));
+        verify(compiledWorkflows, never()).evict(any());
+    }
+
+    @Test
+    void pin_RebuildsEvictedVersionForRehydratedProcess() {
+        when(definitionService.getWorkflowVersion(WORKFLOW, "1.0")).thenReturn(Optional.of(definition("1.0", "REVIEW")));
+
+        WorkflowRegistry.VersionedWorkflow pinned = registry.pin("p1", WORKFLOW, "1.0");
+
+        assertEquals(1, pinned.getInstances());
+        registry.release("p1");
+        assertFalse(registry.isLoaded(WORKFLOW, "1.0"));
+    }
+
+    @Test
+    void pin_UnknownVersion_ThrowsAndPinsNothing() {
+        when(definitionService.getWorkflowVersion(WORKFLOW, "9.0")).thenReturn(Optional.empty());
+
+        assertThrows(WorkflowException.class, () -> registry.pin("p1", WORKFLOW, "9.0"));
+
+        assertFalse(registry.isLoaded(WORKFLOW, "9.0"));
+        registry.release("p1");
+    }
+
+    @Test
+    void pinActiveIfDefined_DefaultWorkflowWithoutDefinition_PinsNothing() {
+        when(definitionService.getActiveWorkflow(WorkflowRegistry.DEFAULT_WORKFLOW)).thenReturn(Optional.empty());
+
+        assertTrue(registry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, "p1").isEmpty());
+        verifyNoInteractions(compiledWorkflows);
+    }
+
+    @Test
+    void pinActiveIfDefined_DefaultWorkflow_IsPinnedAndHotReloadedLikeOtherWorkflows() throws Exception {
+        WorkflowDefinition first = definition(WorkflowRegistry.DEFAULT_WORKFLOW, "1.0", "PLANNING");
+        when(definitionService.getActiveWorkflow(WorkflowRegistry.DEFAULT_WORKFLOW)).thenReturn(Optional.of(first));
+        when(definitionService.getWorkflowVersion(WorkflowRegistry.DEFAULT_WORKFLOW, "2.0"))
+            .thenReturn(Optional.of(definition(WorkflowRegistry.DEFAULT_WORKFLOW, "2.0", "PLANNING")));
+
+        assertEquals("1.0", registry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, "p1").orElseThrow().getVersion());
+
+        registry.onActivationChanged(new WorkflowActivationChangedEvent(WorkflowRegistry.DEFAULT_WORKFLOW, "2.0"));
+        awaitActiveVersion(WorkflowRegistry.DEFAULT_WORKFLOW, "2.0");
+
+        assertEquals("2.0", registry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, "p2").orElseThrow().getVersion());
+        registry.release("p1");
+        assertFalse(registry.isLoaded(WorkflowRegistry.DEFAULT_WORKFLOW, "1.0"));
+        verify(compiledWorkflows).evict(first.getId());
+    }
+
+    @Test
+    void onActivationChanged_Deactivation_StopsNewProcesses() {
+        when(definitionService.getActiveWorkflow(WORKFLOW))
+            .thenReturn(Optional.of(definition("1.0", "REVIEW")), Optional.empty());
+        registry.pinActive(WORKFLOW, "p1");
+
+        registry.onActivationChanged(new WorkflowActivationChangedEvent(WORKFLOW, null));
+
+        assertNull(registry.getActiveVersion(WORKFLOW));
+        assertTrue(registry.isLoaded(WORKFLOW, "1.0"));
+        assertThrows(WorkflowException.class, () -> registry.pinActive(WORKFLOW, "p2"));
+    }
+
+    private String start(WorkflowRegistry.VersionedWorkflow workflow, String processInstanceId) {
+        return workflow.getWorkflow().newInstance(processInstanceId, Map.of()).getState();
+    }
+
+    private void awaitActiveVersion(String workflowName, String version) throws InterruptedException {
+        for (int i = 0; i < 500 && !version.equals(registry.getActiveVersion(workflowName)); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(version, registry.getActiveVersion(workflowName));
+    }
+
+    private WorkflowDefinition definition(String version, String initialState) {
+        return definition(WORKFLOW, version, initialState);
+    }
+
+    private WorkflowDefinition definition(String workflowName, String version, String initialState) {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(nextDefinitionId++);
+        definition.setWorkflowName(workflowName);
+        definition.setVersion(version);
+
+        WorkflowStateDefinition initial = state(initialState, WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition done = state("DONE", WorkflowStateDefinition.StateType.END);
+        WorkflowTransitionDefinition submit = new WorkflowTransitionDefinition();
+        submit.setFromState(initial);
+        submit.setToState(done);
+        submit.setEventName("SUBMIT");
+        definition.setStates(List.of(initial, done));
+        definition.setTransitions(List.of(submit));
+        return definition;
+    }
+
+    private CompiledWorkflow compile(WorkflowDefinition definition) {
+        return CompiledWorkflow.compile(definition, expression -> context -> true, config -> context -> { });
+    }
+
+    private WorkflowStateDefinition state(String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
+}
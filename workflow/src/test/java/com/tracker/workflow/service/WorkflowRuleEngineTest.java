@@ -0,0 +1,125 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.expression.RuleNetwork;
+import com.tracker.workflow.model.WorkflowRuleV2;
+import com.tracker.workflow.repository.WorkflowRuleV2Repository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowRuleEngineTest {
+
+    @Mock
+    private WorkflowRuleV2Repository ruleRepository;
+
+    private WorkflowRuleEngine ruleEngine;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowExpressionEvaluator evaluator =
+            new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
+        ruleEngine = new WorkflowRuleEngine(ruleRepository, evaluator);
+    }
+
+    private WorkflowRuleV2 rule(long id, String name, int priority, String condition) {
+        WorkflowRuleV2 rule = new WorkflowRuleV2();
+        rule.setId(id);
+        rule.setRuleName(name);
+        rule.setRuleType(WorkflowRuleV2.RuleType.GUARD);
+        rule.setPriority(priority);
+        rule.setConditionExpression(condition);
+        return rule;
+    }
+
+    @Test
+    void evaluate_OrdersMatchesByPriority() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD))
+            .thenReturn(List.of(
+                rule(1, "LOW", 1, "{\"amount\": {\"$gt\": 0}}"),
+                rule(2, "HIGH", 10, "{\"amount\": {\"$gte\": 10000}}"),
+                rule(3, "DEFAULT", 5, null)));
+
+        RuleNetwork.Matches<WorkflowRuleV2> matches =
+            ruleEngine.evaluate(1L, WorkflowRuleV2.RuleType.GUARD, Map.of("amount", 15000), null);
+
+        assertEquals(List.of("HIGH", "DEFAULT", "LOW"),
+            matches.getMatchedRules().stream().map(WorkflowRuleV2::getRuleName).toList());
+    }
+
+    @Test
+    void update_ReusesNetworkAndReevaluatesAffectedRules() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD))
+            .thenReturn(List.of(
+                rule(1, "AMOUNT", 1, "{\"amount\": {\"$gte\": 500}}"),
+                rule(2, "PRIORITY", 1, "{\"priority\": \"HIGH\"}")));
+
+        RuleNetwork.Matches<WorkflowRuleV2> initial =
+            ruleEngine.evaluate(1L, WorkflowRuleV2.RuleType.GUARD, Map.of("amount", 100), Map.of());
+        RuleNetwork.Matches<WorkflowRuleV2> updated = ruleEngine.update(1L, WorkflowRuleV2.RuleType.GUARD,
+            initial, Set.of("priority"), Map.of("amount", 100, "priority", "HIGH"), Map.of());
+
+        assertEquals(1, updated.getEvaluatedRules());
+        assertEquals(List.of("PRIORITY"),
+            updated.getMatchedRules().stream().map(WorkflowRuleV2::getRuleName).toList());
+        verify(ruleRepository, times(1))
+            .findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD);
+    }
+
+    @Test
+    void invalidate_RebuildsNetworkFromRepository() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD))
+            .thenReturn(List.of());
+
+        ruleEngine.getNetwork(1L, WorkflowRuleV2.RuleType.GUARD);
+        ruleEngine.invalidate(1L);
+        ruleEngine.getNetwork(1L, WorkflowRuleV2.RuleType.GUARD);
+
+        verify(ruleRepository, times(2))
+            .findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD);
+    }
+
+    @Test
+    void onActivationChanged_PicksUpEditedRules() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD))
+            .thenReturn(List.of(rule(1, "AMOUNT", 1, "{\"amount\": {\"$gte\": 500}}")))
+            .thenReturn(List.of(rule(1, "AMOUNT", 1, "{\"amount\": {\"$gte\": 50}}")));
+        assertTrue(ruleEngine.evaluate(1L, WorkflowRuleV2.RuleType.GUARD, Map.of("amount", 100), null)
+            .getMatchedRules().isEmpty());
+
+        ruleEngine.onActivationChanged(new WorkflowActivationChangedEvent("Purchase-order", "2.0"));
+
+        assertEquals(List.of("AMOUNT"), ruleEngine.evaluate(1L, WorkflowRuleV2.RuleType.GUARD,
+            Map.of("amount", 100), null).getMatchedRules().stream().map(WorkflowRuleV2::getRuleName).toList());
+    }
+
+    @Test
+    void update_AfterNetworkWasRebuilt_EvaluatesEveryRule() {
+        when(ruleRepository.findByWorkflowDefinitionIdAndRuleTypeAndActiveTrue(1L, WorkflowRuleV2.RuleType.GUARD))
+            .thenReturn(List.of(
+                rule(1, "AMOUNT", 1, "{\"amount\": {\"$gte\": 500}}"),
+                rule(2, "PRIORITY", 1, "{\"priority\": \"HIGH\"}")));
+        RuleNetwork.Matches<WorkflowRuleV2> initial =
+            ruleEngine.evaluate(1L, WorkflowRuleV2.RuleType.GUARD, Map.of("amount", 100), Map.of());
+
+        ruleEngine.invalidateAll();
+        RuleNetwork.Matches<WorkflowRuleV2> updated = ruleEngine.update(1L, WorkflowRuleV2.RuleType.GUARD,
+            initial, Set.of("priority"), Map.of("amount", 1000, "priority", "HIGH"), Map.of());
+
+        assertEquals(2, updated.getEvaluatedRules());
+        assertEquals(List.of("AMOUNT", "PRIORITY"),
+            updated.getMatchedRules().stream().map(WorkflowRuleV2::getRuleName).toList());
+    }
+}
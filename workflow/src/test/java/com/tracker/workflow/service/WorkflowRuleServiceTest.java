@@ -0,0 +1,117 @@
+package com.tracker.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.WorkflowRule;
+import com.tracker.workflow.repository.WorkflowRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowRuleServiceTest {
+
+    private static final String FINANCE = "{\"$not\": {\"amount\": {\"$lt\": 500}}}";
+    private static final String CEO = "{\"amount\": {\"$gte\": 10000}}";
+
+    @Mock
+    private WorkflowRuleRepository ruleRepository;
+
+    private WorkflowRuleService ruleService;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowExpressionEvaluator evaluator =
+            new WorkflowExpressionEvaluator(new ObjectMapper(), new WorkflowEngineProperties());
+        ruleService = new WorkflowRuleService(ruleRepository, evaluator);
+    }
+
+    private WorkflowRule rule(long id, String ruleName, String condition) {
+        WorkflowRule rule = new WorkflowRule();
+        rule.setId(id);
+        rule.setRuleName(ruleName);
+        rule.setCondition(condition);
+        return rule;
+    }
+
+    @Test
+    void evaluateRule_SeededApprovalRules_MatchPreviousThresholds() {
+        when(ruleRepository.findByActiveTrue()).thenReturn(List.of(
+            rule(1, "FINANCE_APPROVAL_REQUIRED", FINANCE),
+            rule(2, "CEO_APPROVAL_REQUIRED", CEO)));
+        ruleService.load();
+
+        assertFalse(ruleService.evaluateRule("FINANCE_APPROVAL_REQUIRED", Map.of("amount", 499.99)));
+        assertTrue(ruleService.evaluateRule("FINANCE_APPROVAL_REQUIRED", Map.of("amount", 500.0)));
+        assertTrue(ruleService.evaluateRule("FINANCE_APPROVAL_REQUIRED", Map.of()));
+        assertTrue(ruleService.evaluateRule("FINANCE_APPROVAL_REQUIRED", Map.of("amount", "not a number")));
+        assertFalse(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 9999.99)));
+        assertTrue(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 10000)));
+
+        Map<String, Object> nullAmount = new HashMap<>();
+        nullAmount.put("amount", null);
+        assertTrue(ruleService.evaluateRule("FINANCE_APPROVAL_REQUIRED", nullAmount));
+        assertFalse(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", nullAmount));
+    }
+
+    @Test
+    void evaluateRule_UnknownRule_ReturnsFalse() {
+        assertFalse(ruleService.evaluateRule("UNKNOWN_RULE", Map.of("amount", 1000.0)));
+        assertFalse(ruleService.evaluateRule(null, Map.of()));
+        verifyNoInteractions(ruleRepository);
+    }
+
+    @Test
+    void refresh_SwapsInChangedThreshold() {
+        when(ruleRepository.findByActiveTrue())
+            .thenReturn(List.of(rule(2, "CEO_APPROVAL_REQUIRED", CEO)))
+            .thenReturn(List.of(rule(2, "CEO_APPROVAL_REQUIRED", "{\"amount\": {\"$gte\": 5000}}")));
+
+        ruleService.refresh();
+        assertFalse(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 6000)));
+
+        ruleService.refresh();
+        assertTrue(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 6000)));
+    }
+
+    @Test
+    void refresh_RepositoryFailure_KeepsPreviousRules() {
+        when(ruleRepository.findByActiveTrue())
+            .thenReturn(List.of(rule(2, "CEO_APPROVAL_REQUIRED", CEO)))
+            .thenThrow(new IllegalStateException("database unavailable"));
+
+        ruleService.load();
+        ruleService.refresh();
+
+        assertTrue(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 10000)));
+    }
+
+    @Test
+    void load_RepositoryFailure_Throws() {
+        when(ruleRepository.findByActiveTrue()).thenThrow(new IllegalStateException("database unavailable"));
+
+        assertThrows(WorkflowException.class, () -> ruleService.load());
+    }
+
+    @Test
+    void refresh_DuplicateNames_KeepsLowestId() {
+        when(ruleRepository.findByActiveTrue()).thenReturn(List.of(
+            rule(7, "CEO_APPROVAL_REQUIRED", "{\"amount\": {\"$gte\": 1}}"),
+            rule(2, "CEO_APPROVAL_REQUIRED", CEO)));
+
+        ruleService.refresh();
+
+        assertEquals(List.of("CEO_APPROVAL_REQUIRED"), ruleService.getRuleNames());
+        assertFalse(ruleService.evaluateRule("CEO_APPROVAL_REQUIRED", Map.of("amount", 100)));
+    }
+}
@@ -0,0 +1,196 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.dto.WorkflowSimulationDivergence;
+import com.tracker.workflow.dto.WorkflowSimulationRequest;
+import com.tracker.workflow.dto.WorkflowSimulationSummary;
+import com.tracker.workflow.exception.WorkflowException;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.ProcessInstance;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.ProcessInstanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowSimulationServiceTest {
+
+    private static final String WORKFLOW = "Purchase-order";
+
+    @Mock
+    private WorkflowDefinitionService workflowDefinitionService;
+
+    @Mock
+    private DynamicWorkflowGuardFactory guardFactory;
+
+    @Mock
+    private WorkflowSnapshotRegistry snapshotRegistry;
+
+    @Mock
+    private ProcessInstanceRepository processInstanceRepository;
+
+    @Mock
+    private ProcessHistoryRepository historyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WorkflowSimulationService service;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getSimulation().setParallelism(2);
+        service = new WorkflowSimulationService(workflowDefinitionService, guardFactory, snapshotRegistry,
+            processInstanceRepository, historyRepository, transactionManager, properties);
+    }
+
+    @Test
+    void simulate_ReportsDivergentPathsAndProjectedTasks() {
+        when(workflowDefinitionService.getWorkflowVersion(WORKFLOW, "2.0")).thenReturn(Optional.of(candidate()));
+        when(guardFactory.createGuard(anyString())).thenReturn(context -> {
+            Map<?, ?> processData = (Map<?, ?>) context.getExtendedState().getVariables().get("processData");
+            return ((Number) processData.get("amount")).intValue() > 1000;
+        });
+        when(snapshotRegistry.getActive(WORKFLOW)).thenReturn(Optional.empty());
+        when(processInstanceRepository.findStartedPage(eq(WORKFLOW), eq(""), any(), any(), any())).thenReturn(List.of(
+            process("p1", 500, "DONE"), process("p2", 5000, "DONE"), process("p3", 500, "DRAFT")));
+        when(historyRepository.findByProcessInstanceIdInOrderByProcessInstanceIdAscIdAsc(List.of("p1", "p2", "p3")))
+            .thenReturn(List.of(
+                row(1L, "p1", "DRAFT", "APPROVAL", "SUBMIT"),
+                row(2L, "p1", null, "APPROVAL", "SUBMIT"),
+                row(3L, "p1", "APPROVAL", "DONE", "APPROVE"),
+                row(4L, "p2", "DRAFT", "APPROVAL", "SUBMIT"),
+                row(5L, "p2", "APPROVAL", "DONE", "APPROVE"),
+                row(6L, "p3", "DRAFT", "APPROVAL", "SEND")));
+        List<WorkflowSimulationDivergence> divergent = new ArrayList<>();
+
+        WorkflowSimulationSummary summary = service.simulate(request(), divergent::add);
+
+        assertEquals(3, summary.getProcesses());
+        assertEquals(5, summary.getEvents());
+        assertEquals(2, summary.getDivergent());
+        assertEquals(1, summary.getRejected());
+        assertEquals(Map.of("APPROVAL", 1L, "FINANCE", 1L), summary.getTasksByState());
+        assertEquals(Map.of("APPROVAL", 3L), summary.getHistoricalTasksByState());
+        assertEquals(Map.of("approver", 1L, "finance", 1L), summary.getTasksByRole());
+
+        WorkflowSimulationDivergence rerouted = divergent.get(0);
+        assertEquals("p2", rerouted.getProcessInstanceId());
+        assertEquals("APPROVAL", rerouted.getHistoricalState());
+        assertEquals("FINANCE", rerouted.getSimulatedState());
+        assertTrue(rerouted.isAccepted());
+        WorkflowSimulationDivergence rejected = divergent.get(1);
+        assertEquals("p3", rejected.getProcessInstanceId());
+        assertEquals("SEND", rejected.getEvent());
+        assertEquals("DRAFT", rejected.getSimulatedState());
+        assertFalse(rejected.isAccepted());
+    }
+
+    @Test
+    void simulate_UnknownVersion_Throws() {
+        when(workflowDefinitionService.getWorkflowVersion(WORKFLOW, "2.0")).thenReturn(Optional.empty());
+
+        assertThrows(WorkflowException.class, () -> service.simulate(request(), divergence -> { }));
+        verifyNoInteractions(processInstanceRepository, historyRepository);
+    }
+
+    private WorkflowSimulationRequest request() {
+        WorkflowSimulationRequest request = new WorkflowSimulationRequest();
+        request.setWorkflowName(WORKFLOW);
+        request.setVersion("2.0");
+        return request;
+    }
+
+    /**
+     * Draft, then finance review above 1000 and approval otherwise; the approve action would notify.
+     */
+    private WorkflowDefinition candidate() {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(8L);
+        definition.setWorkflowName(WORKFLOW);
+        definition.setVersion("2.0");
+
+        WorkflowStateDefinition draft = state(1L, "DRAFT", WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition finance = state(2L, "FINANCE", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition approval = state(3L, "APPROVAL", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition done = state(4L, "DONE", WorkflowStateDefinition.StateType.END);
+        definition.setStates(List.of(draft, finance, approval, done));
+
+        WorkflowTransitionDefinition toFinance = transition(draft, finance, "SUBMIT", 1);
+        toFinance.setGuardExpression("{\"amount\": {\"$gt\": 1000}}");
+        WorkflowTransitionDefinition approve = transition(approval, done, "APPROVE", 4);
+        approve.setActionConfig(Map.of("type", "notify"));
+        definition.setTransitions(List.of(toFinance, transition(draft, approval, "SUBMIT", 2),
+            transition(finance, done, "APPROVE", 3), approve));
+
+        definition.setTaskAssignments(List.of(assignment(approval, Map.of("assigneeValue", "approver")),
+            assignment(finance, Map.of("roles", List.of("finance")))));
+        return definition;
+    }
+
+    private WorkflowTaskAssignment assignment(WorkflowStateDefinition state, Map<String, Object> config) {
+        WorkflowTaskAssignment assignment = new WorkflowTaskAssignment();
+        assignment.setState(state);
+        assignment.setAssignmentType(WorkflowTaskAssignment.AssignmentType.ROLE);
+        assignment.setAssignmentConfig(config);
+        return assignment;
+    }
+
+    private WorkflowTransitionDefinition transition(WorkflowStateDefinition from, WorkflowStateDefinition to,
+                                                    String event, int order) {
+        WorkflowTransitionDefinition transition = new WorkflowTransitionDefinition();
+        transition.setFromState(from);
+        transition.setToState(to);
+        transition.setEventName(event);
+        transition.setTransitionOrder(order);
+        return transition;
+    }
+
+    private WorkflowStateDefinition state(Long id, String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setId(id);
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
+
+    private ProcessInstance process(String processInstanceId, int amount, String currentState) {
+        ProcessInstance process = new ProcessInstance();
+        process.setProcessInstanceId(processInstanceId);
+        process.setWorkflowName(WORKFLOW);
+        process.setCurrentState(currentState);
+        process.setInitiatorUserId("user1");
+        process.setProcessData(Map.of("amount", amount));
+        return process;
+    }
+
+    private ProcessHistory row(Long id, String processInstanceId, String fromState, String toState, String event) {
+        ProcessHistory history = new ProcessHistory();
+        history.setId(id);
+        history.setProcessInstanceId(processInstanceId);
+        history.setFromState(fromState);
+        history.setToState(toState);
+        history.setEvent(event);
+        return history;
+    }
+}
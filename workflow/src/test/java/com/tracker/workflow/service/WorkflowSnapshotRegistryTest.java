@@ -0,0 +1,124 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.event.WorkflowActivationChangedEvent;
+import com.tracker.workflow.model.CompletionStrategy;
+import com.tracker.workflow.model.WorkflowDefinition;
+import com.tracker.workflow.model.WorkflowStateDefinition;
+import com.tracker.workflow.model.WorkflowTaskAssignment;
+import com.tracker.workflow.model.WorkflowTransitionDefinition;
+import com.tracker.workflow.runtime.WorkflowDefinitionSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowSnapshotRegistryTest {
+
+    private static final String WORKFLOW = "Tracker-core-workflow";
+
+    @Mock
+    private WorkflowDefinitionService workflowDefinitionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WorkflowSnapshotRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new WorkflowSnapshotRegistry(workflowDefinitionService, transactionManager);
+    }
+
+    @Test
+    void getActive_LoadsDefinitionOnce() {
+        when(workflowDefinitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(definition("1.0")));
+
+        WorkflowDefinitionSnapshot first = registry.getActive(WORKFLOW).orElseThrow();
+        WorkflowDefinitionSnapshot second = registry.getActive(WORKFLOW).orElseThrow();
+
+        assertSame(first, second);
+        verify(workflowDefinitionService, times(1)).getActiveWorkflow(WORKFLOW);
+    }
+
+    @Test
+    void getActive_IndexesStatesAssignmentsAndTransitionsByStateName() {
+        when(workflowDefinitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.of(definition("1.0")));
+
+        WorkflowDefinitionSnapshot snapshot = registry.getActive(WORKFLOW).orElseThrow();
+
+        assertEquals(WorkflowStateDefinition.StateType.INITIAL, snapshot.getState("REVIEW").getStateType());
+        assertEquals(CompletionStrategy.ANY_ONE, snapshot.getAssignment("REVIEW").getCompletionStrategy());
+        assertNull(snapshot.getAssignment("DONE"));
+        assertEquals(List.of("DONE", "CEO"), snapshot.getOutgoingTransitions("REVIEW").stream()
+            .map(transition -> transition.getToState().getStateName())
+            .toList());
+        assertTrue(snapshot.getOutgoingTransitions("DONE").isEmpty());
+    }
+
+    @Test
+    void onActivationChanged_RebuildsFromNewlyActiveVersion() {
+        when(workflowDefinitionService.getActiveWorkflow(WORKFLOW))
+            .thenReturn(Optional.of(definition("1.0")), Optional.of(definition("2.0")));
+        assertEquals("1.0", registry.getActive(WORKFLOW).orElseThrow().getVersion());
+
+        registry.onActivationChanged(new WorkflowActivationChangedEvent(WORKFLOW, "2.0"));
+
+        assertEquals("2.0", registry.getActive(WORKFLOW).orElseThrow().getVersion());
+    }
+
+    @Test
+    void getActive_NoActiveWorkflow_ReturnsEmpty() {
+        when(workflowDefinitionService.getActiveWorkflow(WORKFLOW)).thenReturn(Optional.empty());
+
+        assertTrue(registry.getActive(WORKFLOW).isEmpty());
+    }
+
+    private WorkflowDefinition definition(String version) {
+        WorkflowDefinition definition = new WorkflowDefinition();
+        definition.setId(1L);
+        definition.setWorkflowName(WORKFLOW);
+        definition.setVersion(version);
+
+        WorkflowStateDefinition review = state(1L, "REVIEW", WorkflowStateDefinition.StateType.INITIAL);
+        WorkflowStateDefinition ceo = state(2L, "CEO", WorkflowStateDefinition.StateType.NORMAL);
+        WorkflowStateDefinition done = state(3L, "DONE", WorkflowStateDefinition.StateType.END);
+        definition.setStates(List.of(review, ceo, done));
+        definition.setTransitions(List.of(
+            transition(review, ceo, 2),
+            transition(review, done, 1),
+            transition(ceo, done, 3)));
+
+        WorkflowTaskAssignment assignment = new WorkflowTaskAssignment();
+        assignment.setState(review);
+        assignment.setAssignmentType(WorkflowTaskAssignment.AssignmentType.USER);
+        assignment.setCompletionStrategy(CompletionStrategy.ANY_ONE);
+        definition.setTaskAssignments(List.of(assignment));
+        return definition;
+    }
+
+    private WorkflowStateDefinition state(Long id, String name, WorkflowStateDefinition.StateType type) {
+        WorkflowStateDefinition state = new WorkflowStateDefinition();
+        state.setId(id);
+        state.setStateName(name);
+        state.setStateType(type);
+        return state;
+    }
+
+    private WorkflowTransitionDefinition transition(WorkflowStateDefinition from, WorkflowStateDefinition to, int order) {
+        WorkflowTransitionDefinition transition = new WorkflowTransitionDefinition();
+        transition.setFromState(from);
+        transition.setToState(to);
+        transition.setEventName("SUBMIT");
+        transition.setTransitionOrder(order);
+        return transition;
+    }
+}
@@ -0,0 +1,259 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.config.WorkflowEngineProperties;
+import com.tracker.workflow.listener.WorkflowStateListener;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.WorkflowEvents;
+import com.tracker.workflow.model.WorkflowStateMachineContext;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.WorkflowStateMachineContextRepository;
+import com.tracker.workflow.runtime.ProcessReplay;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WorkflowStateMachineCacheTest {
+
+    @Mock
+    private WorkflowStateMachineContextRepository contextRepository;
+
+    @Mock
+    private ProcessHistoryRepository historyRepository;
+
+    @Mock
+    private ProcessInstanceService processInstances;
+
+    @Mock
+    private ProcessReplayService replayService;
+
+    @Mock
+    private WorkflowRegistry workflowRegistry;
+
+    private final Map<String, WorkflowStateMachineContext> contexts = new HashMap<>();
+
+    private WorkflowStateMachineCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(contextRepository.save(any(WorkflowStateMachineContext.class))).thenAnswer(invocation -> {
+            WorkflowStateMachineContext context = invocation.getArgument(0);
+            contexts.put(context.getProcessInstanceId(), context);
+            return context;
+        });
+        when(contextRepository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(contexts.get(invocation.<String>getArgument(0))));
+        when(contextRepository.existsById(anyString()))
+            .thenAnswer(invocation -> contexts.containsKey(invocation.<String>getArgument(0)));
+
+        WorkflowEngineProperties properties = new WorkflowEngineProperties();
+        properties.getStateMachines().setCacheSize(1);
+        cache = new WorkflowStateMachineCache(stateMachineFactory(),
+            new JpaWorkflowStateMachinePersist(contextRepository, processInstances, replayService), historyRepository, workflowRegistry,
+            properties);
+    }
+
+    private StateMachineFactory<WorkflowStates, WorkflowEvents> stateMachineFactory() throws Exception {
+        StateMachineBuilder.Builder<WorkflowStates, WorkflowEvents> builder = StateMachineBuilder.builder();
+        builder.configureConfiguration().withConfiguration().autoStartup(false);
+        builder.configureStates().withStates()
+            .initial(WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW)
+            .state(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL)
+            .end(WorkflowStates.COMPLETED);
+        builder.configureTransitions()
+            .withExternal()
+            .source(WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW)
+            .target(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL)
+            .event(WorkflowEvents.PLANNING_BUSINESS_SUBMIT)
+            .and()
+            .withExternal()
+            .source(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL)
+            .target(WorkflowStates.COMPLETED)
+            .event(WorkflowEvents.PLANNING_FINANCE_APPROVE);
+        return builder.createFactory();
+    }
+
+    @Test
+    void start_PersistsInitialStateAndVariables() {
+        cache.start("p1", Map.of("processData", Map.of("amount", 1500)));
+
+        WorkflowStateMachineContext context = contexts.get("p1");
+        assertEquals(WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW.name(), context.getCurrentState());
+        assertEquals(Map.of("amount", 1500), context.getExtendedState().get("processData"));
+        assertNotNull(cache.getIfCached("p1"));
+    }
+
+    @Test
+    void get_RehydratesEvictedMachineFromPersistedContext() {
+        StateMachine<WorkflowStates, WorkflowEvents> first = cache.start("p1", Map.of("processData", Map.of("amount", 1500)));
+        first.sendEvent(WorkflowEvents.PLANNING_BUSINESS_SUBMIT);
+        cache.persist("p1", first);
+
+        cache.start("p2", Map.of());
+        assertNull(cache.getIfCached("p1"));
+        assertEquals(1, cache.size());
+
+        StateMachine<WorkflowStates, WorkflowEvents> rehydrated = cache.get("p1");
+
+        assertNotSame(first, rehydrated);
+        assertEquals(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL, rehydrated.getState().getId());
+        assertEquals(Map.of("amount", 1500), rehydrated.getExtendedState().getVariables().get("processData"));
+        assertTrue(rehydrated.sendEvent(WorkflowEvents.PLANNING_FINANCE_APPROVE));
+        verify(historyRepository, times(2)).save(any());
+    }
+
+    @Test
+    void sendEvent_RecordsEventDataWithTransition() {
+        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = cache.start("p1", Map.of());
+
+        stateMachine.sendEvent(MessageBuilder.withPayload(WorkflowEvents.PLANNING_BUSINESS_SUBMIT)
+            .setHeader(WorkflowStateListener.EVENT_DATA_HEADER, Map.of("comment", "ok"))
+            .build());
+
+        ArgumentCaptor<ProcessHistory> history = ArgumentCaptor.forClass(ProcessHistory.class);
+        verify(historyRepository).save(history.capture());
+        assertEquals(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(), history.getValue().getToState());
+        assertEquals(Map.of("comment", "ok"), history.getValue().getContextData());
+    }
+
+    @Test
+    void get_RebuildsProcessWithoutContextFromHistory() {
+        when(replayService.canRebuild("p1")).thenReturn(true);
+        when(replayService.rebuild("p1")).thenReturn(Optional.of(ProcessReplay.from("p1",
+            WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(), Map.of("processData", Map.of("amount", 1500)), 3, 1)));
+
+        StateMachine<WorkflowStates, WorkflowEvents> rebuilt = cache.get("p1");
+
+        assertEquals(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL, rebuilt.getState().getId());
+        assertEquals(Map.of("amount", 1500), rebuilt.getExtendedState().getVariables().get("processData"));
+    }
+
+    @Test
+    void get_AfterRolledBackEvent_RehydratesPersistedContext() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        StateMachine<WorkflowStates, WorkflowEvents> first = transactionTemplate.execute(status ->
+            cache.start("p1", Map.of("processData", Map.of("amount", 1500))));
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            StateMachine<WorkflowStates, WorkflowEvents> stateMachine = cache.get("p1");
+            cache.evictUnlessCommitted("p1");
+            stateMachine.getExtendedState().getVariables().put("processData", Map.of("amount", 9000));
+            stateMachine.sendEvent(WorkflowEvents.PLANNING_BUSINESS_SUBMIT);
+            throw new IllegalStateException("history write failed");
+        }));
+
+        StateMachine<WorkflowStates, WorkflowEvents> next = cache.get("p1");
+        assertNotSame(first, next);
+        assertEquals(WorkflowStates.PENDING_PLANNING_BUSINESS_REVIEW, next.getState().getId());
+        assertEquals(Map.of("amount", 1500), next.getExtendedState().getVariables().get("processData"));
+    }
+
+    @Test
+    void evictUnlessCommitted_KeepsMachineOfCommittedTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+        StateMachine<WorkflowStates, WorkflowEvents> first = cache.start("p1", Map.of());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cache.evictUnlessCommitted("p1");
+            first.sendEvent(WorkflowEvents.PLANNING_BUSINESS_SUBMIT);
+            cache.persist("p1", first);
+        });
+
+        assertSame(first, cache.getIfCached("p1"));
+    }
+
+    @Test
+    void start_PinsActiveDefaultWorkflowVersionAndReleasesItOnCompletion() {
+        WorkflowRegistry.VersionedWorkflow active = mock(WorkflowRegistry.VersionedWorkflow.class);
+        when(active.getVersion()).thenReturn("2.0");
+        when(workflowRegistry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, "p1")).thenReturn(Optional.of(active));
+
+        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = cache.start("p1", Map.of());
+
+        assertEquals("2.0", contexts.get("p1").getExtendedState().get(WorkflowRegistry.WORKFLOW_VERSION));
+        stateMachine.sendEvent(WorkflowEvents.PLANNING_BUSINESS_SUBMIT);
+        cache.persist("p1", stateMachine);
+        verify(workflowRegistry, never()).release(anyString());
+
+        stateMachine.sendEvent(WorkflowEvents.PLANNING_FINANCE_APPROVE);
+        cache.persist("p1", stateMachine);
+        verify(workflowRegistry).release("p1");
+    }
+
+    @Test
+    void get_RehydratedMachine_IsPinnedToItsRecordedVersion() {
+        WorkflowRegistry.VersionedWorkflow active = mock(WorkflowRegistry.VersionedWorkflow.class);
+        when(active.getVersion()).thenReturn("1.0");
+        when(workflowRegistry.pinActiveIfDefined(WorkflowRegistry.DEFAULT_WORKFLOW, "p1")).thenReturn(Optional.of(active));
+        cache.start("p1", Map.of());
+        cache.start("p2", Map.of());
+
+        cache.get("p1");
+
+        verify(workflowRegistry).pin("p1", WorkflowRegistry.DEFAULT_WORKFLOW, "1.0");
+        verify(workflowRegistry, never()).pin(eq("p2"), anyString(), anyString());
+    }
+
+    @Test
+    void get_ReturnsNullForUnknownProcess() {
+        assertNull(cache.get("unknown"));
+    }
+
+    @Test
+    void evictCompleted_DropsFinishedMachines() {
+        StateMachine<WorkflowStates, WorkflowEvents> stateMachine = cache.start("p1", Map.of());
+        stateMachine.sendEvent(WorkflowEvents.PLANNING_BUSINESS_SUBMIT);
+        stateMachine.sendEvent(WorkflowEvents.PLANNING_FINANCE_APPROVE);
+
+        cache.evictCompleted();
+
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Runs transaction synchronization, including completion callbacks, without a resource.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
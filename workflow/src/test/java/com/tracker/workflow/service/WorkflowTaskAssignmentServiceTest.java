@@ -5,7 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 import com.tracker.workflow.model.*;
 import com.tracker.workflow.repository.UserRoleRepository;
-import com.tracker.workflow.repository.WorkflowTaskAssignmentRepository;
+import com.tracker.workflow.runtime.WorkflowDefinitionSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,10 +27,7 @@ class WorkflowTaskAssignmentServiceTest {
     private UserRoleRepository userRoleRepository;
 
     @Mock
-    private WorkflowDefinitionService workflowDefinitionService;
-
-    @Mock
-    private WorkflowTaskAssignmentRepository assignmentRepository;
+    private WorkflowSnapshotRegistry snapshotRegistry;
 
     @InjectMocks
     private WorkflowTaskAssignmentService assignmentService;
@@ -69,10 +66,8 @@ class WorkflowTaskAssignmentServiceTest {
     void getAssignmentForState_ActiveWorkflowExists_ReturnsAssignment() {
         workflowDefinition.setTaskAssignments(Arrays.asList(taskAssignment));
         
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
-                .thenReturn(Optional.of(workflowDefinition));
-        when(assignmentRepository.findByStateId(1L))
-                .thenReturn(Optional.of(taskAssignment));
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
+                .thenReturn(Optional.of(WorkflowDefinitionSnapshot.of(workflowDefinition)));
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "PENDING_FINANCE_APPROVAL");
 
@@ -84,7 +79,7 @@ class WorkflowTaskAssignmentServiceTest {
 
     @Test
     void getAssignmentForState_NoActiveWorkflow_ReturnsNull() {
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
                 .thenReturn(Optional.empty());
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "PENDING_FINANCE_APPROVAL");
@@ -96,8 +91,8 @@ class WorkflowTaskAssignmentServiceTest {
     void getAssignmentForState_StateNotFound_ReturnsNull() {
         workflowDefinition.setTaskAssignments(Arrays.asList(taskAssignment));
         
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
-                .thenReturn(Optional.of(workflowDefinition));
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
+                .thenReturn(Optional.of(WorkflowDefinitionSnapshot.of(workflowDefinition)));
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "NON_EXISTENT_STATE");
 
@@ -167,10 +162,8 @@ class WorkflowTaskAssignmentServiceTest {
         taskAssignment.setAssignmentConfig(roleConfig);
         workflowDefinition.setTaskAssignments(Arrays.asList(taskAssignment));
         
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
-                .thenReturn(Optional.of(workflowDefinition));
-        when(assignmentRepository.findByStateId(1L))
-                .thenReturn(Optional.of(taskAssignment));
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
+                .thenReturn(Optional.of(WorkflowDefinitionSnapshot.of(workflowDefinition)));
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "PENDING_FINANCE_APPROVAL");
 
@@ -186,10 +179,8 @@ class WorkflowTaskAssignmentServiceTest {
         taskAssignment.setAssignmentConfig(userConfig);
         workflowDefinition.setTaskAssignments(Arrays.asList(taskAssignment));
         
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
-                .thenReturn(Optional.of(workflowDefinition));
-        when(assignmentRepository.findByStateId(1L))
-                .thenReturn(Optional.of(taskAssignment));
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
+                .thenReturn(Optional.of(WorkflowDefinitionSnapshot.of(workflowDefinition)));
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "PENDING_FINANCE_APPROVAL");
 
@@ -205,10 +196,8 @@ class WorkflowTaskAssignmentServiceTest {
         taskAssignment.setAssignmentConfig(dynamicConfig);
         workflowDefinition.setTaskAssignments(Arrays.asList(taskAssignment));
         
-        when(workflowDefinitionService.getActiveWorkflow("Tracker-core-workflow"))
-                .thenReturn(Optional.of(workflowDefinition));
-        when(assignmentRepository.findByStateId(1L))
-                .thenReturn(Optional.of(taskAssignment));
+        when(snapshotRegistry.getActive("Tracker-core-workflow"))
+                .thenReturn(Optional.of(WorkflowDefinitionSnapshot.of(workflowDefinition)));
 
         TaskAssignmentConfig result = assignmentService.getAssignmentForState("process123", "PENDING_FINANCE_APPROVAL");
 
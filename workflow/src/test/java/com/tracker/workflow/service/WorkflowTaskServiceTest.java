@@ -0,0 +1,197 @@
+package com.tracker.workflow.service;
+
+import com.tracker.workflow.model.CompletionStrategy;
+import com.tracker.workflow.model.ProcessHistory;
+import com.tracker.workflow.model.TaskGroup;
+import com.tracker.workflow.model.TaskStatus;
+import com.tracker.workflow.model.WorkflowStates;
+import com.tracker.workflow.model.WorkflowTask;
+import com.tracker.workflow.repository.ProcessHistoryRepository;
+import com.tracker.workflow.repository.TaskGroupRepository;
+import com.tracker.workflow.repository.WorkflowTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkflowTaskServiceTest {
+
+    @Mock
+    private WorkflowTaskRepository taskRepository;
+
+    @Mock
+    private TaskGroupRepository taskGroupRepository;
+
+    @Mock
+    private ProcessHistoryRepository historyRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ProcessInstanceService processInstances;
+
+    private WorkflowTaskService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new WorkflowTaskService(taskRepository, taskGroupRepository, historyRepository,
+            new UserService(), notificationService, processInstances);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createTaskGroup_SavesAllTasksInOneCall() {
+        when(taskGroupRepository.save(any(TaskGroup.class))).thenAnswer(invocation -> {
+            TaskGroup group = invocation.getArgument(0);
+            group.setId(51L);
+            return group;
+        });
+
+        service.createTaskGroup("p1", "Finance review", List.of("U1", "U2", "U3"), CompletionStrategy.MAJORITY,
+            WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name(), "Review the budget");
+
+        ArgumentCaptor<List<WorkflowTask>> tasks = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(tasks.capture());
+        verify(taskRepository, never()).save(any());
+        assertEquals(List.of("U1", "U2", "U3"), tasks.getValue().stream().map(WorkflowTask::getAssignedUserId).toList());
+        assertTrue(tasks.getValue().stream().allMatch(task -> task.getTaskGroupId() == 51L
+            && task.getStatus() == TaskStatus.PENDING));
+        verify(notificationService, times(3)).notifyUser(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void completeTask_LastRequiredCompletion_CompletesGroupAndSkipsOtherTasks() {
+        WorkflowTask task = task(1L, "U1", 51L);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskGroupRepository.incrementCompletedTasks(51L)).thenReturn(Optional.of(TaskStatus.COMPLETED.name()));
+
+        assertTrue(service.completeTask(1L, "U1", Map.of("approved", true)));
+
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        InOrder inOrder = inOrder(taskGroupRepository, taskRepository);
+        inOrder.verify(taskGroupRepository).incrementCompletedTasks(51L);
+        inOrder.verify(taskRepository).saveAndFlush(task);
+        inOrder.verify(taskRepository).skipPendingTasksInGroup(51L);
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void completeTask_GroupAlreadyCompleted_DoesNotCompleteItAgain() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task(1L, "U1", 51L)));
+        when(taskGroupRepository.incrementCompletedTasks(51L)).thenReturn(Optional.empty());
+        when(taskGroupRepository.existsById(51L)).thenReturn(true);
+
+        assertFalse(service.completeTask(1L, "U1", Map.of()));
+        verify(taskRepository, never()).skipPendingTasksInGroup(any());
+    }
+
+    @Test
+    void completeTask_NamedWorkflowState_RecordsStateWithoutEvent() {
+        WorkflowTask task = task(1L, "U1", null);
+        task.setCurrentState("LEGAL_REVIEW");
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertTrue(service.completeTask(1L, "U1", Map.of()));
+
+        ArgumentCaptor<ProcessHistory> history = ArgumentCaptor.forClass(ProcessHistory.class);
+        verify(historyRepository).save(history.capture());
+        assertEquals("LEGAL_REVIEW", history.getValue().getToState());
+        assertNull(history.getValue().getEvent());
+    }
+
+    @Test
+    void completeTask_TaskChangedConcurrently_Rejects() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task(1L, "U1", null)));
+        when(taskRepository.saveAndFlush(any())).thenThrow(new ObjectOptimisticLockingFailureException(WorkflowTask.class, 1L));
+
+        assertThrows(IllegalStateException.class, () -> service.completeTask(1L, "U1", Map.of()));
+        verify(historyRepository, never()).save(any());
+    }
+
+    /**
+     * Hundreds of assignees of one ANY_ONE group complete their tasks at once; the repository stub applies the
+     * conditional increment atomically, as the row lock does in the database.
+     */
+    @Test
+    void completeTask_ParallelCompletersOfAnyOneGroup_CompleteGroupOnce() throws Exception {
+        int completers = 300;
+        AtomicInteger completedTasks = new AtomicInteger();
+        when(taskRepository.findById(any())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return Optional.of(task(id, "U" + id, 51L));
+        });
+        when(taskGroupRepository.incrementCompletedTasks(51L)).thenAnswer(invocation ->
+            completedTasks.compareAndSet(0, 1) ? Optional.of(TaskStatus.COMPLETED.name()) : Optional.empty());
+        when(taskGroupRepository.existsById(51L)).thenReturn(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long id = 1; id <= completers; id++) {
+            long taskId = id;
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.completeTask(taskId, "U" + taskId, Map.of());
+            }));
+        }
+        start.countDown();
+
+        int groupCompletions = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                groupCompletions++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, groupCompletions);
+        assertEquals(1, completedTasks.get());
+    }
+
+    @Test
+    void completeProcess_CompletesPendingTasksAndGroupsInBulk() {
+        service.completeProcess("p1");
+
+        ArgumentCaptor<LocalDateTime> taskDate = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> groupDate = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(taskRepository).completePendingTasksOfProcess(eq("p1"), taskDate.capture());
+        verify(taskGroupRepository).completePendingGroupsOfProcess(eq("p1"), groupDate.capture());
+        assertEquals(taskDate.getValue(), groupDate.getValue());
+        verifyNoMoreInteractions(taskRepository, taskGroupRepository);
+    }
+
+    private WorkflowTask task(Long id, String userId, Long taskGroupId) {
+        WorkflowTask task = new WorkflowTask();
+        task.setId(id);
+        task.setProcessInstanceId("p1");
+        task.setAssignedUserId(userId);
+        task.setTaskGroupId(taskGroupId);
+        task.setCurrentState(WorkflowStates.PENDING_PLANNING_FINANCE_APPROVAL.name());
+        task.setStatus(TaskStatus.PENDING);
+        return task;
+    }
+}